@@ -10,12 +10,9 @@ import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.ApplicationListener;
-import org.springframework.context.annotation.Bean;
-import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.ZoneId;
 import java.util.TimeZone;
@@ -42,16 +39,6 @@ public class ChatService implements ApplicationListener<ApplicationReadyEvent> {
         TimeZone.setDefault(TimeZone.getTimeZone(ZoneId.of(Constants.TIME_ZONE_IST)));
     }
 
-    @Bean
-    public TaskExecutor taskExecutor() {
-        // test comment for build 2
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(25);
-        return executor;
-    }
-
     @Override
     public void onApplicationEvent(ApplicationReadyEvent event) {
         long startupTime = System.currentTimeMillis() - applicationStartTime;
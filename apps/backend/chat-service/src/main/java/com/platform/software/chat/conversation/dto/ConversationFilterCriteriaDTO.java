@@ -9,4 +9,6 @@ public class ConversationFilterCriteriaDTO {
     private String searchKeyword;
     private Boolean isGroup;
     private Boolean isMuted;
+    // last conversation of the previous inbox page, to continue after it instead of skipping an offset
+    private Long afterConversationId;
 }
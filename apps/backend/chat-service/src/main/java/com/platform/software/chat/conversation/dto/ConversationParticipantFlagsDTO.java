@@ -0,0 +1,27 @@
+package com.platform.software.chat.conversation.dto;
+
+import com.platform.software.chat.conversationparticipant.dto.ConversationParticipantViewDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-participant flags of a {@link ConversationDTO}, serialized with the same property names
+ * so they can be merged into a conversation payload that is shared by every participant.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationParticipantFlagsDTO {
+    private boolean isPinnedByLoggedInUser;
+    private boolean isArchivedByLoggedInUser;
+    private boolean isMutedByLoggedInUser;
+    private boolean isFavoriteByLoggedInUser;
+
+    public ConversationParticipantFlagsDTO(ConversationParticipantViewDTO participant) {
+        this.isPinnedByLoggedInUser = Boolean.TRUE.equals(participant.getIsPinnedByParticipant());
+        this.isArchivedByLoggedInUser = Boolean.TRUE.equals(participant.getIsArchivedByParticipant());
+        this.isMutedByLoggedInUser = Boolean.TRUE.equals(participant.getIsMutedByParticipant());
+        this.isFavoriteByLoggedInUser = Boolean.TRUE.equals(participant.getIsFavoriteByParticipant());
+    }
+}
@@ -0,0 +1,11 @@
+package com.platform.software.chat.conversation.dto;
+
+import java.util.Collection;
+
+public record ConversationParticipantsChangedEvent(
+        String workspaceId,
+        Long conversationId,
+        Collection<Long> joinedUserIds,
+        Collection<Long> leftUserIds
+) {
+}
@@ -10,6 +10,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.time.ZonedDateTime;
+import java.util.Date;
 import java.util.List;
 
 @Entity
@@ -19,7 +20,8 @@ import java.util.List;
         indexes = {
                 @Index(name = "idx_conversation_is_group", columnList = "is_group"),
                 @Index(name = "idx_conversation_created_by", columnList = "created_by_id"),
-                @Index(name = "idx_conversation_deleted", columnList = "deleted")
+                @Index(name = "idx_conversation_deleted", columnList = "deleted"),
+                @Index(name = "idx_conversation_last_message_at", columnList = "last_message_at, id")
         }
 )
 public class Conversation extends AuditModel {
@@ -59,4 +61,13 @@ public class Conversation extends AuditModel {
 
     @Column(name = "only_admins_can_send_messages")
     private Boolean onlyAdminsCanSendMessages = false;
+
+    // latest message of the conversation, advanced by MessageQueryRepository in the transaction writing the message
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "last_message_id", insertable = false, updatable = false)
+    private Message lastMessage;
+
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "last_message_at", insertable = false, updatable = false)
+    private Date lastMessageAt;
 }
@@ -0,0 +1,13 @@
+package com.platform.software.chat.conversation.readstatus.dto;
+
+/**
+ * @param markedUnread whether the last seen message moved back because the user marked a message as unread
+ */
+public record ReadStatusUpdatedEvent(
+        String workspaceId,
+        Long conversationId,
+        Long userId,
+        Long lastSeenMessageId,
+        boolean markedUnread
+) {
+}
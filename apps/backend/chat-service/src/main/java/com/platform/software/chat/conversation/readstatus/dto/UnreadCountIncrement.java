@@ -0,0 +1,16 @@
+package com.platform.software.chat.conversation.readstatus.dto;
+
+/**
+ * Messages written to a conversation, published when the messages are written and added to the unread counts of
+ * its participants after their transaction commits.
+ *
+ * @param lastMessageId the last of the messages, up to which the unread counts are brought
+ * @param messageCount  the number of messages
+ */
+public record UnreadCountIncrement(
+        String workspaceId,
+        Long conversationId,
+        Long lastMessageId,
+        int messageCount
+) {
+}
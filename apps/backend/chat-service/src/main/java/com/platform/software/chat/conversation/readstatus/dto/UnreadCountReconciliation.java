@@ -0,0 +1,6 @@
+package com.platform.software.chat.conversation.readstatus.dto;
+
+import java.util.List;
+
+public record UnreadCountReconciliation(List<Long> participantIds, int correctedCount) {
+}
@@ -1,12 +1,15 @@
 package com.platform.software.chat.conversation.readstatus.repository;
 
 import com.platform.software.chat.conversation.readstatus.dto.ConversationReadInfo;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountReconciliation;
 import com.platform.software.chat.user.dto.UserBasicViewDTO;
 import com.platform.software.chat.user.entity.ChatUser;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -14,21 +17,19 @@ public interface ConversationReadStatusQueryRepository {
     Optional<Long> findLastSeenMessageIdByConversationIdAndUserId(Long conversationId, Long userId);
 
     /**
-     * Retrieves unread message counts for a list of conversations for a specific user.
-     *
-     * Calculates unread messages by comparing message IDs with the user's last read message
-     * stored in ConversationReadStatus. Messages are considered unread if their ID is greater
-     * than the last read message ID, or if no read status exists.
+     * Sets the last seen message of the user in several conversations with one upsert.
      *
-     * Handled Scenarios:
-     * - Never Read: No ConversationReadStatus exists → counts all non-unsent messages as unread
-     * - Partially Read: ConversationReadStatus exists → counts only messages with ID > last read message ID
-     * - Fully Read: Last read message is the latest → returns 0 unread count
-     * - Empty Conversation: No messages exist → returns 0 unread count
-     * - Unsent Messages: Messages with isUnsend=true are excluded from count
+     * @param userId the user id
+     * @param lastSeenMessageIdsByConversationId last seen message id by conversation id
+     */
+    void upsertLastSeenMessageIds(Long userId, Map<Long, Long> lastSeenMessageIdsByConversationId);
+
+    /**
+     * Retrieves unread message counts for a list of conversations for a specific user.
      *
-     * Query uses LEFT JOINs to ensure all provided conversation IDs appear in results,
-     * even if they have no read status or messages.
+     * Reads the unread count kept on each conversation participant. Counts are incremented when messages
+     * are saved, recomputed from the last seen message whenever it changes and decremented when a message
+     * is unsent, so they match counting the non-unsent messages after the last seen message.
      *
      * @param conversationIds List of conversation IDs to check for unread messages
      * @param userId The user ID for whom to calculate unread counts
@@ -41,8 +42,7 @@ public interface ConversationReadStatusQueryRepository {
     /**
      * Retrieves conversation read status and unread message count for a single conversation.
      *
-     * Returns both the ConversationReadStatus record (if exists) and the count of unread messages
-     * for the specified conversation and user.
+     * Returns both the last seen message id (if exists) and the unread count kept on the participant.
      *
      * @param conversationId The conversation ID to check
      * @param userId The user ID for whom to retrieve read info
@@ -58,5 +58,49 @@ public interface ConversationReadStatusQueryRepository {
      */
     Map<Long, Long> findLastReadMessageIdsByConversationId(Long conversationId);
 
+    /**
+     * Find last read message ids of the given active participants by conversation id map.
+     *
+     * @param conversationId the conversation id
+     * @param userIds        the participant user ids
+     * @return the map
+     */
+    Map<Long, Long> findLastReadMessageIdsByConversationIdAndUserIds(Long conversationId, Collection<Long> userIds);
+
+    /**
+     * Recomputes the unread counts of a user from its last seen messages, after they changed, up to the newest
+     * message of each conversation.
+     *
+     * @param userId          the user id
+     * @param conversationIds the conversation ids
+     */
+    void refreshUnreadCounts(Long userId, Collection<Long> conversationIds);
+
+    /**
+     * Brings the unread counts of the participants of the conversations up to the last message of the increments,
+     * adding the messages not yet unsent after both the participant's last seen message and the newest message its
+     * count already reflects. The participant rows are locked in id order before the messages are counted.
+     *
+     * @param increments the messages by conversation
+     */
+    void incrementUnreadCounts(List<UnreadCountIncrement> increments);
+
+    /**
+     * Removes an unsent message from the unread counts that reflect it, of the participants that had not seen it.
+     *
+     * @param conversationId the conversation id
+     * @param messageId      the unsent message id
+     */
+    void decrementUnreadCounts(Long conversationId, Long messageId);
+
+    /**
+     * Recomputes the unread counts of the next participants by id, correcting counts that drifted.
+     *
+     * @param afterParticipantId the last participant id of the previous batch
+     * @param batchSize          the maximum number of participants
+     * @return the recomputed participant ids, and the number of corrected counts
+     */
+    UnreadCountReconciliation reconcileUnreadCounts(Long afterParticipantId, int batchSize);
+
     Page<ChatUser> findMessageSeenGroupParticipants(Long conversationId, Long messageId, Long userId, Pageable pageable);
 }
@@ -1,19 +1,21 @@
 package com.platform.software.chat.conversation.readstatus.repository;
 
-import com.platform.software.chat.conversation.entity.QConversation;
 import com.platform.software.chat.conversation.readstatus.dto.ConversationReadInfo;
 import com.platform.software.chat.conversation.readstatus.dto.ConversationUnreadCount;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountReconciliation;
 import com.platform.software.chat.conversation.readstatus.entity.ConversationReadStatus;
 import com.platform.software.chat.conversation.readstatus.entity.QConversationReadStatus;
 import com.platform.software.chat.conversationparticipant.entity.QConversationParticipant;
-import com.platform.software.chat.message.entity.QMessage;
 import com.platform.software.chat.user.entity.ChatUser;
 import com.platform.software.chat.user.entity.QChatUser;
 import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -25,12 +27,28 @@ import java.util.stream.Collectors;
 @Repository
 public class ConversationReadStatusQueryRepositoryImpl  implements ConversationReadStatusQueryRepository {
     private static final QConversationReadStatus qConversationReadStatus = QConversationReadStatus.conversationReadStatus;
-    private static final QConversation qConversation = QConversation.conversation;
-    private static final QMessage qMessage = QMessage.message;
     private static final QConversationParticipant qParticipant = QConversationParticipant.conversationParticipant;
     private static final QChatUser  qChatUser = QChatUser.chatUser;
+
+    // non-unsent messages after the last seen message of the participant aliased cp
+    private static final String UNREAD_COUNT_OF_PARTICIPANT = """
+            (SELECT count(*) FROM message m
+             WHERE m.conversation_id = cp.conversation_id
+               AND m.is_unsend = false
+               AND m.id > COALESCE((SELECT rs.message_id FROM conversation_read_status rs
+                                    WHERE rs.conversation_id = cp.conversation_id AND rs.user_id = cp.user_id), 0))
+            """;
+
+    // newest message of the conversation of the participant aliased cp, read in the same statement as its unread count
+    private static final String LAST_MESSAGE_OF_PARTICIPANT = """
+            (SELECT max(m.id) FROM message m WHERE m.conversation_id = cp.conversation_id)
+            """;
+
     private final JPAQueryFactory queryFactory;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public ConversationReadStatusQueryRepositoryImpl(JPAQueryFactory queryFactory) {
         this.queryFactory = queryFactory;
     }
@@ -45,12 +63,47 @@ public class ConversationReadStatusQueryRepositoryImpl  implements ConversationR
                 .fetchOne());
     }
 
+    @Override
+    public void upsertLastSeenMessageIds(Long userId, Map<Long, Long> lastSeenMessageIdsByConversationId) {
+        if (lastSeenMessageIdsByConversationId.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(lastSeenMessageIdsByConversationId.entrySet());
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < entries.size(); i++) {
+            values.add("(nextval('conversation_read_status_generator'), :now, :now, :conversationId" + i + ", :userId, :messageId" + i + ")");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "INSERT INTO conversation_read_status (id, created_at, updated_at, conversation_id, user_id, message_id) VALUES "
+                        + values
+                        + " ON CONFLICT (conversation_id, user_id) DO UPDATE SET message_id = EXCLUDED.message_id, updated_at = EXCLUDED.updated_at"
+        );
+        query.setParameter("now", new Date());
+        query.setParameter("userId", userId);
+        for (int i = 0; i < entries.size(); i++) {
+            query.setParameter("conversationId" + i, entries.get(i).getKey());
+            query.setParameter("messageId" + i, entries.get(i).getValue());
+        }
+        query.executeUpdate();
+
+        refreshUnreadCounts(userId, lastSeenMessageIdsByConversationId.keySet());
+    }
+
     @Override
     public Map<Long, Long> findUnreadMessageCountsByConversationIdsAndUserId(
         Collection<Long> conversationIds, Long userId) {
 
-        List<ConversationUnreadCount> conversationUnreadCounts = buildUnreadCountQuery(userId)
-            .where(qConversation.id.in(conversationIds))
+        List<ConversationUnreadCount> conversationUnreadCounts = queryFactory
+            .select(Projections.constructor(
+                ConversationUnreadCount.class,
+                qParticipant.conversation.id,
+                qParticipant.unreadCount
+            ))
+            .from(qParticipant)
+            .where(qParticipant.conversation.id.in(conversationIds)
+                .and(qParticipant.user.id.eq(userId)))
             .fetch();
 
         return conversationUnreadCounts.stream()
@@ -68,51 +121,165 @@ public class ConversationReadStatusQueryRepositoryImpl  implements ConversationR
             .select(Projections.constructor(
                 ConversationReadInfo.class,
                 qConversationReadStatus.message.id,
-                qMessage.id.count()
+                qParticipant.unreadCount
             ))
-            .from(qMessage)
+            .from(qParticipant)
             .leftJoin(qConversationReadStatus)
             .on(qConversationReadStatus.conversation.id.eq(conversationId)
                 .and(qConversationReadStatus.user.id.eq(userId)))
-            .where(qMessage.conversation.id.eq(conversationId)
-                .and(qMessage.isUnsend.isFalse())
-                .and(qConversationReadStatus.message.id.isNull()
-                    .or(qMessage.id.gt(qConversationReadStatus.message.id))))
-            .groupBy(qConversationReadStatus.message.id)
+            .where(qParticipant.conversation.id.eq(conversationId)
+                .and(qParticipant.user.id.eq(userId)))
             .fetchOne();
     }
 
-    private JPAQuery<ConversationUnreadCount> buildUnreadCountQuery(Long userId) {
-        return queryFactory
-            .select(Projections.constructor(
-                ConversationUnreadCount.class,
-                qConversation.id,
-                qMessage.id.count()
-            ))
-            .from(qConversation)
-            .leftJoin(qConversationReadStatus)
-            .on(joinReadStatusForUser(userId))
-            .leftJoin(qMessage)
-            .on(joinUnreadMessages())
-            .groupBy(qConversation.id);
+    @Override
+    public void refreshUnreadCounts(Long userId, Collection<Long> conversationIds) {
+        if (conversationIds.isEmpty()) {
+            return;
+        }
+
+        // the read status may still be pending in the persistence context
+        entityManager.flush();
+        entityManager.createNativeQuery(
+                "UPDATE conversation_participant cp SET unread_count = " + UNREAD_COUNT_OF_PARTICIPANT
+                        + ", unread_counted_message_id = " + LAST_MESSAGE_OF_PARTICIPANT
+                        + " WHERE cp.user_id = :userId AND cp.conversation_id IN (:conversationIds)")
+                .setParameter("userId", userId)
+                .setParameter("conversationIds", conversationIds)
+                .executeUpdate();
     }
 
-    private BooleanExpression joinReadStatusForUser(Long userId) {
-        return qConversationReadStatus.conversation.id.eq(qConversation.id)
-            .and(qConversationReadStatus.user.id.eq(userId));
+    @Override
+    public void incrementUnreadCounts(List<UnreadCountIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> lastMessageIdByConversation = new HashMap<>();
+        increments.forEach(increment ->
+                lastMessageIdByConversation.merge(increment.conversationId(), increment.lastMessageId(), Math::max));
+
+        // locked in id order so that concurrent flushes cannot deadlock, and before the messages are counted, so the
+        // count below sees every read status recompute and unsend that held one of the rows
+        entityManager.createNativeQuery("""
+                        SELECT cp.id FROM conversation_participant cp
+                        WHERE cp.conversation_id IN (:conversationIds)
+                        ORDER BY cp.id
+                        FOR UPDATE
+                        """)
+                .setParameter("conversationIds", lastMessageIdByConversation.keySet())
+                .getResultList();
+
+        List<Map.Entry<Long, Long>> entries = new ArrayList<>(lastMessageIdByConversation.entrySet());
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < entries.size(); i++) {
+            values.add("(CAST(:conversationId" + i + " AS bigint), CAST(:lastMessageId" + i + " AS bigint))");
+        }
+
+        // only messages above both the last seen message and the newest message the count reflects are added, so a
+        // message counted by a recompute since its commit is not counted again. A count that reflects no message yet
+        // is set instead of added to
+        Query query = entityManager.createNativeQuery("""
+                WITH pending (conversation_id, last_message_id) AS (VALUES %s),
+                counted AS (
+                    SELECT cp.id, pending.last_message_id,
+                           (SELECT count(*) FROM message m
+                            WHERE m.conversation_id = cp.conversation_id
+                              AND m.is_unsend = false
+                              AND m.id <= pending.last_message_id
+                              AND m.id > GREATEST(COALESCE(cp.unread_counted_message_id, 0), COALESCE(rs.message_id, 0))
+                           ) AS message_count
+                    FROM pending
+                    JOIN conversation_participant cp ON cp.conversation_id = pending.conversation_id
+                    LEFT JOIN conversation_read_status rs
+                        ON rs.conversation_id = cp.conversation_id AND rs.user_id = cp.user_id
+                    WHERE pending.last_message_id > COALESCE(cp.unread_counted_message_id, 0)
+                )
+                UPDATE conversation_participant target
+                SET unread_count = CASE WHEN target.unread_counted_message_id IS NULL THEN counted.message_count
+                                        ELSE target.unread_count + counted.message_count END,
+                    unread_counted_message_id = counted.last_message_id
+                FROM counted
+                WHERE target.id = counted.id
+                """.formatted(values));
+        for (int i = 0; i < entries.size(); i++) {
+            query.setParameter("conversationId" + i, entries.get(i).getKey());
+            query.setParameter("lastMessageId" + i, entries.get(i).getValue());
+        }
+        query.executeUpdate();
     }
 
-    private BooleanExpression joinUnreadMessages() {
-        return qMessage.conversation.id.eq(qConversation.id)
-            .and(qMessage.isUnsend.isFalse())
-            .and(
-                qConversationReadStatus.message.id.isNull()
-                    .or(qMessage.id.gt(qConversationReadStatus.message.id))
-            );
+    @Override
+    public void decrementUnreadCounts(Long conversationId, Long messageId) {
+        entityManager.createNativeQuery("""
+                        UPDATE conversation_participant cp
+                        SET unread_count = cp.unread_count - 1
+                        WHERE cp.conversation_id = :conversationId
+                          AND cp.unread_count > 0
+                          AND cp.unread_counted_message_id >= :messageId
+                          AND NOT EXISTS (
+                              SELECT 1 FROM conversation_read_status rs
+                              WHERE rs.conversation_id = cp.conversation_id
+                                AND rs.user_id = cp.user_id
+                                AND rs.message_id >= :messageId
+                          )
+                        """)
+                .setParameter("conversationId", conversationId)
+                .setParameter("messageId", messageId)
+                .executeUpdate();
+    }
+
+    @Override
+    public UnreadCountReconciliation reconcileUnreadCounts(Long afterParticipantId, int batchSize) {
+        List<Long> participantIds = queryFactory
+            .select(qParticipant.id)
+            .from(qParticipant)
+            .where(qParticipant.id.gt(afterParticipantId))
+            .orderBy(qParticipant.id.asc())
+            .limit(batchSize)
+            .fetch();
+
+        if (participantIds.isEmpty()) {
+            return new UnreadCountReconciliation(participantIds, 0);
+        }
+
+        // locked in id order like the increments, so a flush and a reconcile cannot deadlock
+        entityManager.createNativeQuery("SELECT cp.id FROM conversation_participant cp WHERE cp.id IN (:participantIds) ORDER BY cp.id FOR UPDATE")
+                .setParameter("participantIds", participantIds)
+                .getResultList();
+
+        // every recomputed count moves its counted message up, corrected or not, so pending increments skip the
+        // messages it reflects
+        Number correctedCount = (Number) entityManager.createNativeQuery(
+                "WITH recomputed AS (UPDATE conversation_participant target"
+                        + " SET unread_count = counted.unread_count, unread_counted_message_id = counted.last_message_id"
+                        + " FROM (SELECT cp.id, cp.unread_count AS previous_count, "
+                        + UNREAD_COUNT_OF_PARTICIPANT + " AS unread_count, "
+                        + LAST_MESSAGE_OF_PARTICIPANT + " AS last_message_id"
+                        + " FROM conversation_participant cp WHERE cp.id IN (:participantIds)) counted"
+                        + " WHERE target.id = counted.id"
+                        + " RETURNING counted.previous_count <> counted.unread_count AS corrected)"
+                        + " SELECT count(*) FILTER (WHERE corrected) FROM recomputed")
+                .setParameter("participantIds", participantIds)
+                .getSingleResult();
+
+        return new UnreadCountReconciliation(participantIds, correctedCount.intValue());
     }
 
     @Override
     public Map<Long, Long> findLastReadMessageIdsByConversationId(Long conversationId) {
+        return findLastReadMessageIds(conversationId, qParticipant.isActive.isTrue());
+    }
+
+    @Override
+    public Map<Long, Long> findLastReadMessageIdsByConversationIdAndUserIds(Long conversationId, Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return findLastReadMessageIds(conversationId, qParticipant.isActive.isTrue().and(qParticipant.user.id.in(userIds)));
+    }
+
+    private Map<Long, Long> findLastReadMessageIds(Long conversationId, BooleanExpression participantCondition) {
 
         List<Tuple> results = queryFactory
             .select(
@@ -124,7 +291,7 @@ public class ConversationReadStatusQueryRepositoryImpl  implements ConversationR
             .on(qConversationReadStatus.conversation.id.eq(conversationId)
                 .and(qConversationReadStatus.user.id.eq(qParticipant.user.id)))
             .where(qParticipant.conversation.id.eq(conversationId)
-                .and(qParticipant.isActive.isTrue()))
+                .and(participantCondition))
             .fetch();
 
         Map<Long, Long> resultMap = new HashMap<>();
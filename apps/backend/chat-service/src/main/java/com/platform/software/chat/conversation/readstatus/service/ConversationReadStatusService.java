@@ -3,6 +3,9 @@ package com.platform.software.chat.conversation.readstatus.service;
 import com.platform.software.chat.conversation.readstatus.dto.ConversationReadInfo;
 import com.platform.software.chat.conversation.readstatus.dto.MessageLastSeenRequestDTO;
 import com.platform.software.chat.conversation.readstatus.dto.MessageSeenEvent;
+import com.platform.software.chat.conversation.readstatus.dto.ReadStatusUpdatedEvent;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountReconciliation;
 import com.platform.software.chat.conversation.readstatus.entity.ConversationReadStatus;
 import com.platform.software.chat.conversation.readstatus.repository.ConversationReadStatusRepository;
 import com.platform.software.chat.conversation.service.ConversationUtilService;
@@ -17,6 +20,8 @@ import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class ConversationReadStatusService {
     Logger logger = LoggerFactory.getLogger(ConversationReadStatusService.class);
@@ -65,6 +70,14 @@ public class ConversationReadStatusService {
 
         try {
             conversationReadStatusRepository.save(updatingStatus);
+            conversationReadStatusRepository.refreshUnreadCounts(loggedInUserId, List.of(conversationId));
+            eventPublisher.publishEvent(new ReadStatusUpdatedEvent(
+                    WorkspaceContext.getCurrentWorkspace(),
+                    conversationId,
+                    loggedInUserId,
+                    message.getId(),
+                    false
+            ));
 
             if (!message.getConversation().getIsGroup()) {
                 eventPublisher.publishEvent(new MessageSeenEvent(
@@ -85,6 +98,28 @@ public class ConversationReadStatusService {
         );
     }
 
+    /**
+     * Adds committed messages to the unread counts of the current workspace.
+     *
+     * @param increments the messages by conversation and sender
+     */
+    @Transactional
+    public void incrementUnreadCounts(List<UnreadCountIncrement> increments) {
+        conversationReadStatusRepository.incrementUnreadCounts(increments);
+    }
+
+    /**
+     * Recomputes the unread counts of the next participants of the current workspace.
+     *
+     * @param afterParticipantId the last participant id of the previous batch
+     * @param batchSize          the maximum number of participants
+     * @return the recomputed participant ids, and the number of corrected counts
+     */
+    @Transactional
+    public UnreadCountReconciliation reconcileUnreadCounts(Long afterParticipantId, int batchSize) {
+        return conversationReadStatusRepository.reconcileUnreadCounts(afterParticipantId, batchSize);
+    }
+
     public Message getLastSeenMessageOrNull(Long conversationId, Long loggedInUserId) {
         return conversationReadStatusRepository.findLastSeenMessageIdByConversationIdAndUserId(conversationId, loggedInUserId)
                 .map(lastSeenMessageId -> messageUtilService.getMessageOrThrow(conversationId, lastSeenMessageId))
@@ -0,0 +1,320 @@
+package com.platform.software.chat.conversation.readstatus.service;
+
+import com.platform.software.chat.conversation.dto.ConversationParticipantsChangedEvent;
+import com.platform.software.chat.conversation.readstatus.dto.ReadStatusUpdatedEvent;
+import com.platform.software.chat.conversation.readstatus.repository.ConversationReadStatusRepository;
+import com.platform.software.config.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Keeps the last read message id of every active participant of a conversation in a Redis sorted set, so the
+ * message read by everyone is the lowest score instead of a query over every participant's read status.
+ * <p>
+ * Read status changes update the score of their participant, and participants joining or leaving are added or
+ * removed, which can move the lowest score either way. Read status updates only raise a score, so updates applied out
+ * of order keep the newest read, and a message marked as unread drops the set to rebuild it from the database
+ * instead. Participants without a read status are scored 0, and a
+ * member scored +inf marks a cached conversation without other members. Every change increments a version
+ * counter, and a set rebuilt from the database is only stored when no change happened while it was read.
+ * </p>
+ */
+@Service
+public class ReadWatermarkCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReadWatermarkCache.class);
+
+    private static final String KEY_PREFIX = "read-watermark::";
+    private static final String VERSION_KEY_PREFIX = "read-watermark-version::";
+    private static final String PRESENCE_MEMBER = "";
+
+    // applies a change when the set is cached, and always increments the version of the conversation
+    private static final RedisScript<Long> CHANGE_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('INCR', KEYS[2])
+            redis.call('PEXPIRE', KEYS[2], ARGV[1])
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            if ARGV[2] == 'leave' then
+                for i = 3, #ARGV do
+                    redis.call('ZREM', KEYS[1], ARGV[i])
+                end
+            elseif ARGV[2] == 'join' then
+                for i = 3, #ARGV, 2 do
+                    redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+                end
+            else
+                -- read statuses only update participants, so a late update cannot bring back one that left,
+                -- and only raise their score, so a late update cannot take back a newer read
+                for i = 3, #ARGV, 2 do
+                    redis.call('ZADD', KEYS[1], 'XX', 'GT', ARGV[i + 1], ARGV[i])
+                end
+            end
+            return 1
+            """, Long.class);
+
+    // stores a set read from the database only if no change incremented the version since it was read
+    private static final RedisScript<Long> STORE_SCRIPT = new DefaultRedisScript<>("""
+            local version = redis.call('GET', KEYS[2]) or '0'
+            if version ~= ARGV[1] then
+                return 0
+            end
+            redis.call('DEL', KEYS[1])
+            redis.call('ZADD', KEYS[1], '+inf', '')
+            for i = 3, #ARGV, 2 do
+                redis.call('ZADD', KEYS[1], ARGV[i + 1], ARGV[i])
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    private final ConversationReadStatusRepository conversationReadStatusRepository;
+    private final StringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+    private final Duration ttl;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    public ReadWatermarkCache(
+            ConversationReadStatusRepository conversationReadStatusRepository,
+            RedisConnectionFactory redisConnectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${conversation.read-watermark.enabled:false}") boolean enabled,
+            @Value("${conversation.read-watermark.ttl-minutes:30}") long ttlMinutes
+    ) {
+        this.conversationReadStatusRepository = conversationReadStatusRepository;
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.enabled = enabled;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.bypasses = requestCounter(meterRegistry, "bypass");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("conversation.read.watermark.requests")
+                .description("Lookups of the message read by every participant of a conversation")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the lowest last read message id among the active participants of a conversation in the current
+     * workspace, excluding the requesting user.
+     *
+     * @param conversationId the conversation id
+     * @param excludedUserId the requesting user id
+     * @return the lowest last read message id, or {@code null} if there are no other participants or any of
+     *         them has not read a message
+     */
+    public Long getReadByEveryoneMessageId(Long conversationId, Long excludedUserId) {
+        if (!enabled) {
+            bypasses.increment();
+            return lowestLastReadMessageId(
+                    conversationReadStatusRepository.findLastReadMessageIdsByConversationId(conversationId), excludedUserId);
+        }
+
+        String workspaceId = WorkspaceContext.getCurrentWorkspace();
+        String key = watermarkKey(workspaceId, conversationId);
+        try {
+            Set<ZSetOperations.TypedTuple<String>> lowest = redisTemplate.opsForZSet().rangeWithScores(key, 0, 1);
+            if (lowest != null && !lowest.isEmpty()) {
+                hits.increment();
+                return lowestScore(lowest, excludedUserId);
+            }
+
+            misses.increment();
+            String version = Objects.requireNonNullElse(redisTemplate.opsForValue().get(versionKey(workspaceId, conversationId)), "0");
+            Map<Long, Long> lastReadMessageIds = conversationReadStatusRepository.findLastReadMessageIdsByConversationId(conversationId);
+            store(workspaceId, conversationId, version, lastReadMessageIds);
+            return lowestLastReadMessageId(lastReadMessageIds, excludedUserId);
+        } catch (Exception e) {
+            logger.warn("failed to read the read watermark of conversation: {}", conversationId, e);
+            bypasses.increment();
+            return lowestLastReadMessageId(
+                    conversationReadStatusRepository.findLastReadMessageIdsByConversationId(conversationId), excludedUserId);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReadStatusUpdated(ReadStatusUpdatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        if (event.markedUnread()) {
+            invalidate(event.workspaceId(), event.conversationId());
+            return;
+        }
+        recordLastSeen(event.workspaceId(), event.conversationId(), event.userId(), event.lastSeenMessageId());
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onParticipantsChanged(ConversationParticipantsChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            if (!event.leftUserIds().isEmpty()) {
+                recordParticipantsLeft(event.workspaceId(), event.conversationId(), event.leftUserIds());
+            }
+            if (!event.joinedUserIds().isEmpty()) {
+                WorkspaceContext.setCurrentWorkspace(event.workspaceId());
+                Map<Long, Long> lastReadMessageIds = conversationReadStatusRepository
+                        .findLastReadMessageIdsByConversationIdAndUserIds(event.conversationId(), event.joinedUserIds());
+                recordParticipantsJoined(event.workspaceId(), event.conversationId(), lastReadMessageIds);
+            }
+        } catch (Exception e) {
+            invalidate(event.workspaceId(), event.conversationId());
+            logger.warn("failed to update the read watermark participants of conversation: {}", event.conversationId(), e);
+        }
+    }
+
+    /**
+     * Raises the last read message of a participant of a cached conversation, keeping a higher one already recorded.
+     */
+    public void recordLastSeen(String workspaceId, Long conversationId, Long userId, Long lastSeenMessageId) {
+        Map<Long, Long> lastReadMessageIds = new HashMap<>();
+        lastReadMessageIds.put(userId, lastSeenMessageId);
+        change(workspaceId, conversationId, "update", scoredMembers(lastReadMessageIds));
+    }
+
+    /**
+     * Adds participants with their last read message ids to a cached conversation.
+     */
+    public void recordParticipantsJoined(String workspaceId, Long conversationId, Map<Long, Long> lastReadMessageIds) {
+        change(workspaceId, conversationId, "join", scoredMembers(lastReadMessageIds));
+    }
+
+    /**
+     * Removes participants from a cached conversation.
+     */
+    public void recordParticipantsLeft(String workspaceId, Long conversationId, Collection<Long> userIds) {
+        change(workspaceId, conversationId, "leave", userIds.stream().map(String::valueOf).toList());
+    }
+
+    /**
+     * Drops the cached set of a conversation, so the next lookup rebuilds it from the database.
+     */
+    public void invalidate(String workspaceId, Long conversationId) {
+        try {
+            redisTemplate.opsForValue().increment(versionKey(workspaceId, conversationId));
+            redisTemplate.expire(versionKey(workspaceId, conversationId), ttl);
+            redisTemplate.delete(watermarkKey(workspaceId, conversationId));
+        } catch (Exception e) {
+            logger.warn("failed to invalidate the read watermark of conversation: {}", conversationId, e);
+        }
+    }
+
+    private void change(String workspaceId, Long conversationId, String operation, List<String> members) {
+        if (!enabled) {
+            return;
+        }
+
+        List<String> args = new ArrayList<>(members.size() + 2);
+        args.add(String.valueOf(ttl.toMillis()));
+        args.add(operation);
+        args.addAll(members);
+
+        try {
+            redisTemplate.execute(
+                    CHANGE_SCRIPT,
+                    List.of(watermarkKey(workspaceId, conversationId), versionKey(workspaceId, conversationId)),
+                    args.toArray()
+            );
+        } catch (Exception e) {
+            logger.warn("failed to {} the read watermark of conversation: {}", operation, conversationId, e);
+        }
+    }
+
+    private void store(String workspaceId, Long conversationId, String version, Map<Long, Long> lastReadMessageIds) {
+        List<String> args = new ArrayList<>(lastReadMessageIds.size() * 2 + 2);
+        args.add(version);
+        args.add(String.valueOf(ttl.toMillis()));
+        args.addAll(scoredMembers(lastReadMessageIds));
+
+        try {
+            redisTemplate.execute(
+                    STORE_SCRIPT,
+                    List.of(watermarkKey(workspaceId, conversationId), versionKey(workspaceId, conversationId)),
+                    args.toArray()
+            );
+        } catch (Exception e) {
+            logger.warn("failed to store the read watermark of conversation: {}", conversationId, e);
+        }
+    }
+
+    // user id and score pairs, scoring participants without a read status 0
+    private static List<String> scoredMembers(Map<Long, Long> lastReadMessageIds) {
+        List<String> members = new ArrayList<>(lastReadMessageIds.size() * 2);
+        lastReadMessageIds.forEach((userId, messageId) -> {
+            members.add(String.valueOf(userId));
+            members.add(String.valueOf(messageId == null ? 0 : messageId));
+        });
+        return members;
+    }
+
+    private static Long lowestScore(Set<ZSetOperations.TypedTuple<String>> lowest, Long excludedUserId) {
+        String excludedMember = String.valueOf(excludedUserId);
+        for (ZSetOperations.TypedTuple<String> member : lowest) {
+            if (PRESENCE_MEMBER.equals(member.getValue())) {
+                return null;
+            }
+            if (!excludedMember.equals(member.getValue())) {
+                long messageId = member.getScore() == null ? 0 : member.getScore().longValue();
+                return messageId == 0 ? null : messageId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the lowest last read message id of the participants other than the excluded user, or {@code null}
+     *         if there are none or any of them has not read a message
+     */
+    static Long lowestLastReadMessageId(Map<Long, Long> lastReadMessageIds, Long excludedUserId) {
+        Long lowest = null;
+        for (Map.Entry<Long, Long> entry : lastReadMessageIds.entrySet()) {
+            if (entry.getKey().equals(excludedUserId)) {
+                continue;
+            }
+            if (entry.getValue() == null) {
+                return null;
+            }
+            if (lowest == null || entry.getValue() < lowest) {
+                lowest = entry.getValue();
+            }
+        }
+        return lowest;
+    }
+
+    // hash tags keep the set and its version in one cluster slot for the scripts
+    private String watermarkKey(String workspaceId, Long conversationId) {
+        return KEY_PREFIX + "{" + workspaceId + "::" + conversationId + "}";
+    }
+
+    private String versionKey(String workspaceId, Long conversationId) {
+        return VERSION_KEY_PREFIX + "{" + workspaceId + "::" + conversationId + "}";
+    }
+}
@@ -0,0 +1,155 @@
+package com.platform.software.chat.conversation.readstatus.service;
+
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.message.dto.MessageUnsentEvent;
+import com.platform.software.config.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the unread count increments of new messages in batches, outside the transactions writing the messages.
+ * <p>
+ * Sending a message only queues its increment once the message commits, so the send transaction writes no
+ * participant row. A flush brings the counts of each workspace up to the queued messages in one statement per batch,
+ * counting only the messages above both the participant's last seen message and the newest message its count already
+ * reflects, so a read status recompute between the commit and the flush is not counted twice, and skipping messages
+ * unsent meanwhile. The increment of a single message unsent before the flush is dropped from the queue. Counts trail
+ * new messages by up to a flush interval, and increments still queued when an instance stops abruptly are left to the
+ * {@link UnreadCountReconciler}, as is a batch that failed again on its retry at the next flush.
+ * </p>
+ */
+@Service
+public class UnreadCountIncrementer {
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCountIncrementer.class);
+
+    private final ConversationReadStatusService conversationReadStatusService;
+    private final ConcurrentLinkedQueue<PendingIncrement> pendingIncrements = new ConcurrentLinkedQueue<>();
+
+    private final Counter appliedCounter;
+    private final Counter droppedCounter;
+
+    private final long flushIntervalMs;
+    private final int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    public UnreadCountIncrementer(
+            ConversationReadStatusService conversationReadStatusService,
+            MeterRegistry meterRegistry,
+            @Value("${conversation.unread-count.flush-interval-ms:1000}") long flushIntervalMs,
+            @Value("${conversation.unread-count.flush-batch-size:500}") int batchSize
+    ) {
+        this.conversationReadStatusService = conversationReadStatusService;
+        this.flushIntervalMs = flushIntervalMs;
+        this.batchSize = batchSize;
+
+        this.appliedCounter = Counter.builder("conversation.unread.count.increments")
+                .description("Unread count increments of new messages applied to the participants")
+                .tag("result", "applied")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("conversation.unread.count.increments")
+                .description("Unread count increments of new messages applied to the participants")
+                .tag("result", "dropped")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "unread-count-incrementer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flush();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUnreadCountIncrement(UnreadCountIncrement increment) {
+        pendingIncrements.add(new PendingIncrement(increment, false));
+    }
+
+    /**
+     * Drops the queued increment of a message unsent before the flush. Increments of several messages stay queued,
+     * the flush skips their unsent messages.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMessageUnsent(MessageUnsentEvent event) {
+        pendingIncrements.removeIf(pending -> pending.increment().messageCount() == 1
+                && pending.increment().lastMessageId().equals(event.getMessageId())
+                && Objects.equals(pending.increment().workspaceId(), event.getWorkspaceId()));
+    }
+
+    /**
+     * Applies the increments queued so far.
+     */
+    public void flush() {
+        List<PendingIncrement> drained = new ArrayList<>();
+        PendingIncrement pending;
+        while ((pending = pendingIncrements.poll()) != null) {
+            drained.add(pending);
+        }
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        // the map allows the null workspace of writes made outside a request, which use the default schema
+        Map<String, List<PendingIncrement>> incrementsByWorkspace = new HashMap<>();
+        drained.forEach(increment -> incrementsByWorkspace
+                .computeIfAbsent(increment.increment().workspaceId(), workspaceId -> new ArrayList<>())
+                .add(increment));
+
+        incrementsByWorkspace.forEach((workspaceId, increments) -> {
+            for (int from = 0; from < increments.size(); from += batchSize) {
+                apply(workspaceId, increments.subList(from, Math.min(from + batchSize, increments.size())));
+            }
+        });
+    }
+
+    private void apply(String workspaceId, List<PendingIncrement> batch) {
+        try {
+            WorkspaceContext.setCurrentWorkspace(workspaceId);
+            conversationReadStatusService.incrementUnreadCounts(batch.stream().map(PendingIncrement::increment).toList());
+            appliedCounter.increment(batch.size());
+        } catch (Exception e) {
+            logger.warn("failed to apply {} unread count increments of workspace: {}", batch.size(), workspaceId, e);
+            for (PendingIncrement increment : batch) {
+                if (increment.retried()) {
+                    droppedCounter.increment();
+                } else {
+                    pendingIncrements.add(new PendingIncrement(increment.increment(), true));
+                }
+            }
+        } finally {
+            WorkspaceContext.clear();
+        }
+    }
+
+    private record PendingIncrement(UnreadCountIncrement increment, boolean retried) {
+    }
+}
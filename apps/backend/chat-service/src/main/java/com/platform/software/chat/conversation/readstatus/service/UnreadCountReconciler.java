@@ -0,0 +1,119 @@
+package com.platform.software.chat.conversation.readstatus.service;
+
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountReconciliation;
+import com.platform.software.config.workspace.WorkspaceContext;
+import com.platform.software.platform.workspace.service.WorkspaceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically recomputes the unread counts of conversation participants from their last seen messages.
+ * <p>
+ * Counts are maintained by batched increments after message writes commit and recomputes on read status writes, which
+ * only leave a count off when queued increments are lost or a message commits after a higher message id was already
+ * counted. Each run recomputes the next batch of participants of every workspace, wrapping around after the last
+ * participant.
+ * </p>
+ */
+@Service
+public class UnreadCountReconciler {
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCountReconciler.class);
+
+    private final ConversationReadStatusService conversationReadStatusService;
+    private final WorkspaceService workspaceService;
+
+    // last reconciled participant id by workspace
+    private final Map<String, Long> cursors = new ConcurrentHashMap<>();
+
+    private final Counter reconciledCounter;
+    private final Counter correctedCounter;
+
+    @Value("${conversation.unread-count.reconcile-interval-ms:300000}")
+    private long reconcileIntervalMs;
+
+    @Value("${conversation.unread-count.reconcile-batch-size:500}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+
+    public UnreadCountReconciler(
+            ConversationReadStatusService conversationReadStatusService,
+            WorkspaceService workspaceService,
+            MeterRegistry meterRegistry
+    ) {
+        this.conversationReadStatusService = conversationReadStatusService;
+        this.workspaceService = workspaceService;
+
+        this.reconciledCounter = Counter.builder("conversation.unread.count.reconciled")
+                .description("Participant unread counts recomputed by the reconciler")
+                .register(meterRegistry);
+        this.correctedCounter = Counter.builder("conversation.unread.count.corrected")
+                .description("Participant unread counts the reconciler found out of date")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (reconcileIntervalMs <= 0) {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "unread-count-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::reconcile, reconcileIntervalMs, reconcileIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void reconcile() {
+        try {
+            workspaceService.getAllWorkspaces().forEach(this::reconcileWorkspace);
+        } catch (Exception e) {
+            logger.warn("failed to reconcile unread counts", e);
+        }
+    }
+
+    private void reconcileWorkspace(String workspaceId) {
+        try {
+            WorkspaceContext.setCurrentWorkspace(workspaceId);
+            UnreadCountReconciliation reconciliation = conversationReadStatusService
+                    .reconcileUnreadCounts(cursors.getOrDefault(workspaceId, 0L), batchSize);
+
+            if (reconciliation.participantIds().size() < batchSize) {
+                cursors.remove(workspaceId);
+            } else {
+                cursors.put(workspaceId, reconciliation.participantIds().getLast());
+            }
+
+            reconciledCounter.increment(reconciliation.participantIds().size());
+            correctedCounter.increment(reconciliation.correctedCount());
+            if (reconciliation.correctedCount() > 0) {
+                logger.info("corrected {} unread counts of workspace: {}", reconciliation.correctedCount(), workspaceId);
+            }
+        } catch (Exception e) {
+            logger.warn("failed to reconcile unread counts of workspace: {}", workspaceId, e);
+        } finally {
+            WorkspaceContext.clear();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.platform.software.chat.conversation.dto.*;
 import com.platform.software.chat.conversation.entity.Conversation;
 import com.platform.software.chat.conversation.entity.QConversation;
 import com.platform.software.chat.conversation.service.ConversationUtilService;
+import com.platform.software.chat.conversationparticipant.dto.DirectParticipantDTO;
 import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
 import com.platform.software.chat.conversationparticipant.entity.QConversationParticipant;
 import com.platform.software.chat.message.attachment.dto.MessageAttachmentDTO;
@@ -15,6 +16,7 @@ import com.platform.software.chat.user.activitystatus.service.UserActivityStatus
 import com.platform.software.chat.user.entity.ChatUserStatus;
 import com.platform.software.chat.user.entity.QChatUser;
 import com.platform.software.chat.user.entity.QUserBlock;
+import com.platform.software.chat.user.service.UserBlockCache;
 import com.platform.software.config.workspace.WorkspaceContext;
 import com.platform.software.exception.CustomBadRequestException;
 import com.platform.software.utils.CommonUtils;
@@ -22,11 +24,14 @@ import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.core.types.dsl.CaseBuilder;
+import com.querydsl.core.types.dsl.DateTimeExpression;
 import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -44,13 +49,24 @@ public class ConversationQueryRepositoryImpl implements ConversationQueryReposit
     private static final QConversation qConversation = QConversation.conversation;
     private static final QConversationParticipant qConversationParticipant = QConversationParticipant.conversationParticipant;
     private static final QMessage qMessage = QMessage.message;
-    private static final QMessage qMessage2 = QMessage.message;
+    private static final ZonedDateTime NEVER_PINNED_AT = ZonedDateTime.ofInstant(Instant.EPOCH, ZoneOffset.UTC);
+    private static final Date NO_MESSAGE_AT = Date.from(Instant.EPOCH);
+
+    // inbox sort keys without nulls so a keyset condition can compare them, a missing value sorts last
+    private static final BooleanExpression INBOX_PINNED_KEY = qConversationParticipant.isPinned.coalesce(false);
+    private static final DateTimeExpression<ZonedDateTime> INBOX_PINNED_AT_KEY = qConversationParticipant.pinnedAt.coalesce(NEVER_PINNED_AT);
+    private static final DateTimeExpression<Date> INBOX_LAST_MESSAGE_AT_KEY = qConversation.lastMessageAt.coalesce(NO_MESSAGE_AT);
     private final UserActivityStatusService userActivityStatusService;
-    private static final QUserBlock qUserBlock = QUserBlock.userBlock;
+    private final UserBlockCache userBlockCache;
 
-    public ConversationQueryRepositoryImpl(JPAQueryFactory jpaQueryFactory, UserActivityStatusService userActivityStatusService) {
+    public ConversationQueryRepositoryImpl(
+            JPAQueryFactory jpaQueryFactory,
+            UserActivityStatusService userActivityStatusService,
+            UserBlockCache userBlockCache
+    ) {
         this.jpaQueryFactory = jpaQueryFactory;
         this.userActivityStatusService = userActivityStatusService;
+        this.userBlockCache = userBlockCache;
     }
 
     @Override
@@ -153,7 +169,7 @@ public class ConversationQueryRepositoryImpl implements ConversationQueryReposit
         BooleanExpression whereConditions = qConversationParticipant.user.id.eq(userId);
 
         whereConditions = whereConditions.and(
-                qMessage.isNotNull().or(qConversation.isGroup.eq(true))
+                qConversation.lastMessage.isNotNull().or(qConversation.isGroup.eq(true))
         );
 
         if (isGroup) {
@@ -176,32 +192,11 @@ public class ConversationQueryRepositoryImpl implements ConversationQueryReposit
         JPAQuery<?> baseQuery = jpaQueryFactory
                 .from(qConversation)
                 .innerJoin(qConversationParticipant).on(qConversationParticipant.conversation.eq(qConversation))
-                .leftJoin(qMessage).on(qMessage.conversation.eq(qConversation)
-                        .and(qMessage.id.eq(
-                                JPAExpressions.select(qMessage2.id.max())
-                                        .from(qMessage2)
-                                        .where(qMessage2.conversation.eq(qConversation)))))
+                .leftJoin(qConversation.lastMessage, qMessage)
                 .where(whereConditions);
         
 
-        List<Tuple> blockingRelationships = jpaQueryFactory
-                .select(qUserBlock.blocker.id, qUserBlock.blocked.id)
-                .from(qUserBlock)
-                .where(qUserBlock.blocker.id.eq(userId).or(qUserBlock.blocked.id.eq(userId)))
-                .fetch();
-
-        Set<Long> restrictedUserIds = new HashSet<>();
-
-        for (Tuple t : blockingRelationships) {
-            Long blockerId = t.get(qUserBlock.blocker.id);
-            Long blockedId = t.get(qUserBlock.blocked.id);
-
-            if (userId.equals(blockerId)) {
-                restrictedUserIds.add(blockedId);
-            } else {
-                restrictedUserIds.add(blockerId);
-            }
-        }
+        Set<Long> restrictedUserIds = userBlockCache.getRestrictedUserIds(userId);
 
         boolean isValidSearchKey = StringUtils.hasText(conversationFilterCriteria.getSearchKeyword());
         if (isValidSearchKey) {
@@ -209,98 +204,79 @@ public class ConversationQueryRepositoryImpl implements ConversationQueryReposit
                 .and(qConversation.name.containsIgnoreCase(conversationFilterCriteria.getSearchKeyword())));
         }
 
-        Long totalCount = baseQuery.clone()
-                .select(qConversation.count())
-                .fetchOne();
+        long offset = pageable.getOffset();
+        Long afterConversationId = conversationFilterCriteria.getAfterConversationId();
+        if (afterConversationId != null) {
+            BooleanExpression afterCursor = getInboxKeysetCondition(userId, afterConversationId);
+            if (afterCursor == null) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+            baseQuery.where(afterCursor);
+            offset = 0;
+        }
 
-        // Get all conversations where user is a participant
+        // Get all conversations where user is a participant, fetching pageSize + 1 to detect if more exists without a count
         List<Tuple> results = baseQuery.clone()
                 .select(qConversation, qMessage, qConversationParticipant)
                 .orderBy(
                         // Primary sort: Pinned conversations first
-                        qConversationParticipant.isPinned.desc().nullsLast(),
+                        INBOX_PINNED_KEY.desc(),
                         // Secondary sort: Among pinned conversations, most recently pinned first
-                        qConversationParticipant.pinnedAt.desc().nullsLast(),
+                        INBOX_PINNED_AT_KEY.desc(),
                         // Tertiary sort: Latest message timestamp (for both pinned and non-pinned)
-                        qMessage.createdAt.desc().nullsLast(),
-                        // Final sort: Conversation creation time
-                        qConversation.createdAt.desc())
-                .limit(pageable.getPageSize())
-                .offset(pageable.getOffset())
+                        INBOX_LAST_MESSAGE_AT_KEY.desc(),
+                        // Final sort: Conversation id, in creation order
+                        qConversation.id.desc())
+                .limit(pageable.getPageSize() + 1)
+                .offset(offset)
                 .fetch();
 
+        boolean hasMore = results.size() > pageable.getPageSize();
+        if (hasMore) {
+            results = results.subList(0, pageable.getPageSize());
+        }
+        long totalCount = pageable.getOffset() + results.size() + (hasMore ? 1 : 0);
+
+        List<Long> conversationIds = results.stream().map(tuple -> tuple.get(qConversation).getId()).toList();
+        Map<Long, DirectParticipantDTO> otherParticipants = findOtherDirectParticipants(conversationIds, userId);
+        fetchPreviewMessages(results.stream().map(tuple -> tuple.get(qMessage)).filter(Objects::nonNull).toList());
+
         List<ConversationDTO> conversationDTOs = results.stream()
                 .map(tuple -> {
                     Conversation conversation = tuple.get(qConversation);
                     Message latestMessage = tuple.get(qMessage);
 
-                    ConversationParticipant participantEntity = tuple.get(qConversationParticipant);
+                    // the row is selected through the logged-in user's participant
+                    ConversationParticipant loggedInParticipant = tuple.get(qConversationParticipant);
 
                     ConversationDTO dto = new ConversationDTO(conversation);
 
-                    ConversationParticipant loggedInParticipant = null;
-
-                    if (conversation != null && conversation.getConversationParticipants() != null) {
-                        ConversationParticipant otherParticipant = null;
-
-                        boolean needOtherParticipant = !conversation.getIsGroup();
-
-                        for (ConversationParticipant participant : conversation.getConversationParticipants()) {
-                            if (participant.getUser() != null && participant.getUser().getId() != null) {
-                                if (participant.getUser().getId().equals(userId)) {
-                                    loggedInParticipant = participant;
-                                } else if (needOtherParticipant) {
-                                    otherParticipant = participant;
-                                }
-                            }
-
-                            if (loggedInParticipant != null &&
-                                    (!needOtherParticipant || otherParticipant != null)) {
-                                break;
-                            }
-                        }
-
-                        if (loggedInParticipant != null) {
-                            dto.setFavoriteByLoggedInUser(loggedInParticipant.getIsFavorite());
-                            dto.setPinnedByLoggedInUser(loggedInParticipant.getIsPinned());
-                            dto.setMutedByLoggedInUser(ConversationUtilService.isMuted(loggedInParticipant.getMutedUntil()));
-                        }
-
-                        if (needOtherParticipant && otherParticipant != null) {
-                            if (otherParticipant.getUser().getFirstName() != null
-                                    && otherParticipant.getUser().getLastName() != null) {
-                                String name = otherParticipant.getUser().getFirstName() + " " + otherParticipant.getUser().getLastName();
-                                
-                                dto.setName(name);
-
-                                Long otherUserId = otherParticipant.getUser().getId();
-
-                                ChatUserStatus status = userActivityStatusService.getUserChatStatus(
-                                        WorkspaceContext.getCurrentWorkspace(),
-                                        otherParticipant.getUser().getEmail());
-
-                                DeviceType deviceType = userActivityStatusService.getUserDeviceType(
-                                        WorkspaceContext.getCurrentWorkspace(),
-                                        otherParticipant.getUser().getEmail());
-
-
-                                if (restrictedUserIds.contains(otherUserId)) {
-                                    dto.setImageIndexedName(null);
-                                    dto.setChatUserStatus(ChatUserStatus.OFFLINE);
-                                    dto.setDeviceType(null);
-                                } else {
-                                    dto.setImageIndexedName(otherParticipant.getUser().getImageIndexedName());
-                                    dto.setChatUserStatus(status);
-                                    dto.setDeviceType(deviceType);
-                                }
-                            }
+                    dto.setFavoriteByLoggedInUser(loggedInParticipant.getIsFavorite());
+                    dto.setPinnedByLoggedInUser(loggedInParticipant.getIsPinned());
+                    dto.setMutedByLoggedInUser(ConversationUtilService.isMuted(loggedInParticipant.getMutedUntil()));
+
+                    DirectParticipantDTO otherParticipant = otherParticipants.get(conversation.getId());
+                    if (!conversation.getIsGroup() && otherParticipant != null
+                            && otherParticipant.firstName() != null && otherParticipant.lastName() != null) {
+                        dto.setName(otherParticipant.firstName() + " " + otherParticipant.lastName());
+
+                        if (restrictedUserIds.contains(otherParticipant.userId())) {
+                            dto.setImageIndexedName(null);
+                            dto.setChatUserStatus(ChatUserStatus.OFFLINE);
+                            dto.setDeviceType(null);
+                        } else {
+                            dto.setImageIndexedName(otherParticipant.imageIndexedName());
+                            dto.setChatUserStatus(userActivityStatusService.getUserChatStatus(
+                                    WorkspaceContext.getCurrentWorkspace(), otherParticipant.email()));
+                            dto.setDeviceType(userActivityStatusService.getUserDeviceType(
+                                    WorkspaceContext.getCurrentWorkspace(), otherParticipant.email()));
                         }
                     }
 
                     if (latestMessage != null) {
                         boolean isVisible = CommonUtils.isMessageVisible(
                                 latestMessage.getCreatedAt(),
-                                participantEntity != null ? participantEntity.getLastDeletedTime() : null
+                                loggedInParticipant.getLastDeletedTime()
                         );
 
                         if (isVisible) {
@@ -334,6 +310,104 @@ public class ConversationQueryRepositoryImpl implements ConversationQueryReposit
         return new PageImpl<>(conversationDTOs, pageable, totalCount);
     }
 
+    /**
+     * Finds the participant other than the user of each one-to-one conversation of an inbox page in one query.
+     *
+     * @param conversationIds the conversation ids of the page
+     * @param userId          the logged-in user id
+     * @return the other participant by conversation id
+     */
+    private Map<Long, DirectParticipantDTO> findOtherDirectParticipants(List<Long> conversationIds, Long userId) {
+        if (conversationIds.isEmpty()) {
+            return Map.of();
+        }
+
+        QChatUser qOtherUser = new QChatUser("otherUser");
+        return jpaQueryFactory
+                .select(Projections.constructor(
+                        DirectParticipantDTO.class,
+                        qConversationParticipant.conversation.id,
+                        qOtherUser.id,
+                        qOtherUser.firstName,
+                        qOtherUser.lastName,
+                        qOtherUser.email,
+                        qOtherUser.imageIndexedName
+                ))
+                .from(qConversationParticipant)
+                .innerJoin(qConversationParticipant.user, qOtherUser)
+                .innerJoin(qConversationParticipant.conversation, qConversation)
+                .where(qConversation.id.in(conversationIds)
+                        .and(qConversation.isGroup.isFalse())
+                        .and(qOtherUser.id.ne(userId)))
+                .fetch()
+                .stream()
+                .collect(Collectors.toMap(DirectParticipantDTO::conversationId, participant -> participant, (first, other) -> first));
+    }
+
+    /**
+     * Loads the senders and attachments of the latest messages of an inbox page, and of the messages they reply to
+     * or forward, in one query, so building the message previews does not load them row by row.
+     */
+    private void fetchPreviewMessages(List<Message> latestMessages) {
+        Set<Long> messageIds = new HashSet<>();
+        for (Message latestMessage : latestMessages) {
+            messageIds.add(latestMessage.getId());
+            if (latestMessage.getParentMessage() != null) {
+                messageIds.add(latestMessage.getParentMessage().getId());
+            }
+            if (latestMessage.getForwardedMessage() != null) {
+                messageIds.add(latestMessage.getForwardedMessage().getId());
+            }
+        }
+
+        if (messageIds.isEmpty()) {
+            return;
+        }
+
+        QMessage qPreviewMessage = new QMessage("previewMessage");
+        jpaQueryFactory
+                .selectFrom(qPreviewMessage)
+                .innerJoin(qPreviewMessage.sender).fetchJoin()
+                .leftJoin(qPreviewMessage.attachments).fetchJoin()
+                .where(qPreviewMessage.id.in(messageIds))
+                .distinct()
+                .fetch();
+    }
+
+    /**
+     * Builds the condition selecting the inbox conversations sorted after the given conversation,
+     * comparing (pinned, pinnedAt, lastMessageAt, id) in descending order.
+     *
+     * @return the condition, or {@code null} when the user does not participate in the conversation
+     */
+    private BooleanExpression getInboxKeysetCondition(Long userId, Long afterConversationId) {
+        Tuple cursor = jpaQueryFactory
+                .select(INBOX_PINNED_KEY, INBOX_PINNED_AT_KEY, INBOX_LAST_MESSAGE_AT_KEY)
+                .from(qConversation)
+                .innerJoin(qConversationParticipant).on(qConversationParticipant.conversation.eq(qConversation))
+                .where(qConversation.id.eq(afterConversationId)
+                        .and(qConversationParticipant.user.id.eq(userId)))
+                .fetchFirst();
+
+        if (cursor == null) {
+            return null;
+        }
+
+        ZonedDateTime cursorPinnedAt = cursor.get(INBOX_PINNED_AT_KEY);
+        Date cursorLastMessageAt = cursor.get(INBOX_LAST_MESSAGE_AT_KEY);
+
+        BooleanExpression afterCursor = INBOX_PINNED_AT_KEY.lt(cursorPinnedAt)
+                .or(INBOX_PINNED_AT_KEY.eq(cursorPinnedAt).and(
+                        INBOX_LAST_MESSAGE_AT_KEY.lt(cursorLastMessageAt)
+                                .or(INBOX_LAST_MESSAGE_AT_KEY.eq(cursorLastMessageAt)
+                                        .and(qConversation.id.lt(afterConversationId)))));
+
+        if (Boolean.TRUE.equals(cursor.get(INBOX_PINNED_KEY))) {
+            return INBOX_PINNED_KEY.isFalse().or(INBOX_PINNED_KEY.isTrue().and(afterCursor));
+        }
+        return INBOX_PINNED_KEY.isFalse().and(afterCursor);
+    }
+
     @Override
     public ConversationParticipant getOtherParticipantInOneToOneConversationOrThrow(Long conversationId, Long userId) {
         ConversationParticipant otherParticipant = jpaQueryFactory
@@ -5,6 +5,7 @@ import com.platform.software.chat.conversation.entity.*;
 import com.platform.software.chat.conversation.readstatus.dto.ConversationReadInfo;
 import com.platform.software.chat.conversation.readstatus.repository.ConversationReadStatusRepository;
 import com.platform.software.chat.conversation.readstatus.service.ConversationReadStatusService;
+import com.platform.software.chat.conversation.readstatus.service.ReadWatermarkCache;
 import com.platform.software.chat.conversation.repository.ConversationEventRepository;
 import com.platform.software.chat.conversation.repository.ConversationInviteLinkRepository;
 import com.platform.software.chat.conversation.repository.ConversationReportRepository;
@@ -18,6 +19,7 @@ import com.platform.software.chat.conversationparticipant.repository.Conversatio
 import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
 import com.platform.software.chat.message.dto.*;
 import com.platform.software.chat.message.attachment.dto.MessageAttachmentDTO;
+import com.platform.software.chat.message.attachment.entity.AttachmentTypeEnum;
 import com.platform.software.chat.message.attachment.entity.MessageAttachment;
 import com.platform.software.chat.message.entity.Message;
 import com.platform.software.chat.message.service.ConversationEventService;
@@ -25,6 +27,8 @@ import com.platform.software.chat.message.service.MessageMentionService;
 import com.platform.software.chat.message.repository.MessageReactionRepository;
 import com.platform.software.chat.message.service.MessageService;
 import com.platform.software.chat.message.service.MessageUtilService;
+import com.platform.software.chat.message.tail.dto.ConversationMessageTail;
+import com.platform.software.chat.message.tail.service.MessageTailCache;
 import com.platform.software.chat.notification.entity.DeviceType;
 import com.platform.software.chat.user.activitystatus.service.UserActivityStatusService;
 import com.platform.software.chat.user.dto.UserBasicViewDTO;
@@ -90,6 +94,8 @@ public class ConversationService {
     private final MessageUtilService messageUtilService;
     private final ApplicationEventPublisher eventPublisher;
     private final ConversationInviteLinkRepository conversationInviteLinkRepository;
+    private final MessageTailCache messageTailCache;
+    private final ReadWatermarkCache readWatermarkCache;
 
     /**
      * Builds a ConversationDTO from a Conversation entity.
@@ -182,7 +188,10 @@ public class ConversationService {
 
         Conversation conversation = createConversation(loggedInUserId, List.of(conversationUpsertDTO.getTargetUserId(), loggedInUserId), false);
 
-        return saveConversationAndBuildDTO(conversation);
+        ConversationDTO conversationDTO = saveConversationAndBuildDTO(conversation);
+        conversationUtilService.evictOneToOneConversationIds(conversation);
+
+        return conversationDTO;
     }
 
     /**
@@ -296,7 +305,10 @@ public class ConversationService {
         Optional<Conversation> optionalConversation = conversationRepository
                 .findDirectConversationBetweenUsers(loggedInUserId, conversationUpsertDTO.getTargetUserId());
         if (optionalConversation.isPresent()) {
-            return conversationParticipantRepository.findConversationById(optionalConversation.get().getId());
+            // finding the conversation restores participants who deleted it
+            Optional<ConversationDTO> conversationDTO = conversationParticipantRepository.findConversationById(optionalConversation.get().getId());
+            conversationUtilService.evictOneToOneConversationIds(optionalConversation.get());
+            return conversationDTO;
         }
         return Optional.empty();
     }
@@ -343,8 +355,7 @@ public class ConversationService {
     private static List<MessageViewDTO> getMessageViewDTOS(
             Page<Message> messages,
             Message lastSeenMessage,
-            Map<Long, MessageReactionSummaryDTO> reactionSummaryMap,
-            CloudPhotoHandlingService cloudPhotoHandlingService
+            Map<Long, MessageReactionSummaryDTO> reactionSummaryMap
     ) {
         Long lastSeenMessageId = (lastSeenMessage != null) ? lastSeenMessage.getId() : null;
         boolean hasReactions = reactionSummaryMap != null;
@@ -353,24 +364,6 @@ public class ConversationService {
                 .map(message -> {
                     MessageViewDTO messageViewDTO = new MessageViewDTO(message, lastSeenMessageId);
 
-                    String imageIndexedName = messageViewDTO.getImageIndexedName();
-
-                    String signedUrl = cloudPhotoHandlingService.getPhotoViewSignedURL(
-                            MediaPathEnum.RESIZED_PROFILE_PICTURE,
-                            MediaSizeEnum.SMALL,
-                            imageIndexedName
-                    );
-                    messageViewDTO.setSenderSignedImageUrl(signedUrl);
-
-                    if (messageViewDTO.getOriginalForwardedMessage() != null) {
-                        String forwardedMessageSenderSignedUrl = cloudPhotoHandlingService.getPhotoViewSignedURL(
-                                MediaPathEnum.RESIZED_PROFILE_PICTURE,
-                                MediaSizeEnum.SMALL,
-                                messageViewDTO.getOriginalForwardedMessage().getImageIndexedName());
-
-                        messageViewDTO.getOriginalForwardedMessage().setSenderSignedImageUrl(forwardedMessageSenderSignedUrl);
-                    }
-
                     if (hasReactions && !messageViewDTO.getIsUnsend()) {
                         MessageReactionSummaryDTO summary = reactionSummaryMap.get(message.getId());
                         messageViewDTO.setReactionSummary(summary != null ? summary : new MessageReactionSummaryDTO());
@@ -411,9 +404,19 @@ public class ConversationService {
         List<MessageViewDTO> messages = getMessageViewDTOSList(conversations);
         Map<Long, ConversationEvent> conversationEventMap = getMessageConversationEventMap(messages);
 
+        Map<Boolean, List<String>> imageIndexedNamesByIsGroup = conversations.getContent().stream()
+                .filter(dto -> dto.getImageIndexedName() != null)
+                .collect(Collectors.partitioningBy(ConversationDTO::getIsGroup,
+                        Collectors.mapping(ConversationDTO::getImageIndexedName, Collectors.toList())));
+        Map<String, String> groupImageUrls = cloudPhotoHandlingService.getPhotoViewSignedURLs(
+                MediaPathEnum.RESIZED_GROUP_PICTURE, MediaSizeEnum.MEDIUM, imageIndexedNamesByIsGroup.get(true));
+        Map<String, String> profileImageUrls = cloudPhotoHandlingService.getPhotoViewSignedURLs(
+                MediaPathEnum.RESIZED_PROFILE_PICTURE, MediaSizeEnum.MEDIUM, imageIndexedNamesByIsGroup.get(false));
+
         List<ConversationDTO> updatedContent = conversations.getContent().stream()
                 .peek(dto -> {
-                    String imageViewSignedUrl = conversationUtilService.getImageViewSignedUrl(dto.getIsGroup() ? MediaPathEnum.RESIZED_GROUP_PICTURE : MediaPathEnum.RESIZED_PROFILE_PICTURE, MediaSizeEnum.MEDIUM ,dto.getImageIndexedName());
+                    String imageViewSignedUrl = dto.getImageIndexedName() == null ? null
+                            : (dto.getIsGroup() ? groupImageUrls : profileImageUrls).get(dto.getImageIndexedName());
                     dto.setSignedImageUrl(imageViewSignedUrl);
                     dto.setImageIndexedName(null);
 
@@ -582,12 +585,153 @@ public class ConversationService {
      * @return a Page of MessageViewDTOs containing message details
      */
     public Page<MessageViewDTO> getMessages(IdBasedPageRequest idBasedPageRequest, Long conversationId, Long loggedInUserId){
+        long startedAt = System.nanoTime();
         ConversationParticipant loggedInParticipant =
                 conversationUtilService.getConversationParticipantOrThrow(conversationId, loggedInUserId);
 
+        boolean isFirstPage = idBasedPageRequest.getAfterId() == null && idBasedPageRequest.getBeforeId() == null;
+        if (isFirstPage && messageTailCache.canServe(idBasedPageRequest.getSize())) {
+            Page<MessageViewDTO> tailPage = getMessagesFromTail(idBasedPageRequest, conversationId, loggedInParticipant, loggedInUserId);
+            if (tailPage != null) {
+                messageTailCache.recordFirstPage(true, System.nanoTime() - startedAt);
+                return tailPage;
+            }
+            messageTailCache.recordBypass();
+        }
+
         Page<Message> messages = messageService.getRecentVisibleMessages(idBasedPageRequest, conversationId, loggedInParticipant, loggedInUserId);
 
-        return getMessageViewDTOs(messages, conversationId, loggedInUserId);
+        Page<MessageViewDTO> messageViewPage = getMessageViewDTOs(messages, conversationId, loggedInUserId);
+
+        if (isFirstPage) {
+            messageTailCache.recordFirstPage(false, System.nanoTime() - startedAt);
+        }
+
+        // cursor-only pages carry hasMoreBefore and hasMoreAfter instead of a conversation total
+        if (messages instanceof MessageWindowPage<Message> messagesPage) {
+            return MessageWindowPage.from(messageViewPage, messagesPage.isHasMoreBefore(), messagesPage.isHasMoreAfter());
+        }
+        return messageViewPage;
+    }
+
+    /**
+     * Builds the first history page from the cached conversation tail, filtered by the participant's visibility
+     * and layered with the per-user fields and signed URLs.
+     *
+     * @return the page, or {@code null} when the tail is unavailable or holds too few visible messages
+     */
+    private MessageWindowPage<MessageViewDTO> getMessagesFromTail(
+            IdBasedPageRequest idBasedPageRequest,
+            Long conversationId,
+            ConversationParticipant participant,
+            Long loggedInUserId
+    ) {
+        ConversationMessageTail tail = messageTailCache.getTail(conversationId);
+        if (tail == null) {
+            return null;
+        }
+
+        int pageSize = idBasedPageRequest.getSize().intValue();
+        Date inactiveFrom = participant.getIsActive() ? null : Date.from(participant.getInactiveFrom().toInstant());
+        Date lastDeletedTime = participant.getLastDeletedTime() == null
+                ? null
+                : Date.from(participant.getLastDeletedTime().toInstant());
+
+        // Keep pageSize + 1 to detect if more exists, the same way the cursor pages probe
+        List<MessageViewDTO> visibleMessages = tail.messages().stream()
+                .filter(message -> message.getSenderId().equals(loggedInUserId) || Boolean.TRUE.equals(message.getIsStored()))
+                .filter(message -> inactiveFrom == null || message.getCreatedAt().before(inactiveFrom))
+                .filter(message -> lastDeletedTime == null || message.getCreatedAt().after(lastDeletedTime))
+                .limit(pageSize + 1)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        boolean hasMoreBefore = visibleMessages.size() > pageSize;
+        if (hasMoreBefore) {
+            visibleMessages.removeLast();
+        } else if (!tail.complete()) {
+            // older visible messages may exist beyond the cached tail
+            return null;
+        }
+
+        Message lastSeenMessage = conversationReadStatusService.getLastSeenMessageOrNull(conversationId, loggedInUserId);
+        Long lastSeenMessageId = lastSeenMessage != null ? lastSeenMessage.getId() : null;
+        Long lastReadMessageId = getLastReadMessageIdByParticipants(conversationId, loggedInUserId);
+
+        List<Long> messageIds = visibleMessages.stream().map(MessageViewDTO::getId).toList();
+        Map<Long, MessageReactionSummaryDTO> reactionSummaryMap =
+                messageReactionRepository.findReactionSummaryWithUserReactions(messageIds, loggedInUserId);
+        Map<Long, ConversationEvent> conversationEventMap = getMessageConversationEventMap(visibleMessages);
+
+        messageTailCache.resolveSenders(visibleMessages);
+        signSenderImages(visibleMessages);
+
+        List<MessageAttachmentDTO> pageAttachments = new ArrayList<>();
+        for (MessageViewDTO dto : visibleMessages) {
+            dto.setIsSeen(lastSeenMessageId != null && dto.getId() <= lastSeenMessageId);
+            dto.setIsReadByEveryone(lastReadMessageId != null && lastReadMessageId >= dto.getId());
+
+            if (reactionSummaryMap != null && !dto.getIsUnsend()) {
+                MessageReactionSummaryDTO summary = reactionSummaryMap.get(dto.getId());
+                dto.setReactionSummary(summary != null ? summary : new MessageReactionSummaryDTO());
+            }
+
+            if (conversationEventMap.containsKey(dto.getId())) {
+                conversationEventMessageService.setEventMessageText(conversationEventMap.get(dto.getId()), dto, loggedInUserId, false);
+            }
+
+            if (dto.getParentMessage() != null && dto.getParentMessage().getMessageAttachments() != null) {
+                pageAttachments.addAll(dto.getParentMessage().getMessageAttachments());
+            }
+            if (dto.getMessageAttachments() != null) {
+                pageAttachments.addAll(dto.getMessageAttachments());
+            }
+        }
+        signMessageAttachments(pageAttachments);
+
+        return new MessageWindowPage<>(
+                visibleMessages,
+                PageRequest.of(0, pageSize),
+                visibleMessages.size() + (hasMoreBefore ? 1 : 0),
+                hasMoreBefore,
+                false
+        );
+    }
+
+    private void signMessageAttachments(List<MessageAttachmentDTO> attachments) {
+        if (attachments.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> signedUrls = conversationUtilService.getAttachmentDTOSignedUrls(attachments);
+        for (MessageAttachmentDTO attachment : attachments) {
+            if (attachment.getType() != AttachmentTypeEnum.GIF) {
+                attachment.setFileUrl(signedUrls.get(attachment.getIndexedFileName()));
+            }
+        }
+    }
+
+    /**
+     * Signs the small profile pictures of the senders, and of the original senders of forwarded messages, in one batch.
+     */
+    private void signSenderImages(List<MessageViewDTO> messages) {
+        List<String> imageIndexedNames = new ArrayList<>();
+        for (MessageViewDTO message : messages) {
+            imageIndexedNames.add(message.getImageIndexedName());
+            if (message.getOriginalForwardedMessage() != null) {
+                imageIndexedNames.add(message.getOriginalForwardedMessage().getImageIndexedName());
+            }
+        }
+
+        Map<String, String> signedUrls = cloudPhotoHandlingService.getPhotoViewSignedURLs(
+                MediaPathEnum.RESIZED_PROFILE_PICTURE, MediaSizeEnum.SMALL, imageIndexedNames
+        );
+        for (MessageViewDTO message : messages) {
+            message.setSenderSignedImageUrl(signedUrls.get(message.getImageIndexedName()));
+            if (message.getOriginalForwardedMessage() != null) {
+                message.getOriginalForwardedMessage().setSenderSignedImageUrl(
+                        signedUrls.get(message.getOriginalForwardedMessage().getImageIndexedName()));
+            }
+        }
     }
 
     /**
@@ -629,7 +773,8 @@ public class ConversationService {
         Map<Long, MessageReactionSummaryDTO> reactionSummaryMap =
                 messageReactionRepository.findReactionSummaryWithUserReactions(messageIds, loggedInUserId);
 
-        List<MessageViewDTO> messageViewDTOS = getMessageViewDTOS(messages, lastSeenMessage, reactionSummaryMap, cloudPhotoHandlingService);
+        List<MessageViewDTO> messageViewDTOS = getMessageViewDTOS(messages, lastSeenMessage, reactionSummaryMap);
+        signSenderImages(messageViewDTOS);
         messageMentionService.appendMessageMentions(messageViewDTOS);
 
         Map<Long, ConversationEvent> conversationEventMap = getMessageConversationEventMap(messageViewDTOS);
@@ -637,6 +782,22 @@ public class ConversationService {
         Map<Long, Message> messageMap = messages.getContent().stream()
         .collect(Collectors.toMap(Message::getId, Function.identity()));
 
+        // sign the attachments and the first parent attachment of every message in one batch
+        List<MessageAttachment> pageAttachments = new ArrayList<>();
+        for (Message message : messages.getContent()) {
+            if (message.getIsUnsend()) {
+                continue;
+            }
+            if (message.getParentMessage() != null && message.getParentMessage().getAttachments() != null
+                    && !message.getParentMessage().getAttachments().isEmpty()) {
+                pageAttachments.add(message.getParentMessage().getAttachments().getFirst());
+            }
+            if (message.getAttachments() != null) {
+                pageAttachments.addAll(message.getAttachments());
+            }
+        }
+        Map<String, String> attachmentSignedUrls = conversationUtilService.getAttachmentSignedUrls(pageAttachments);
+
          List<MessageViewDTO> enrichedDTOs = messageViewDTOS.stream()
             .map(dto -> {
                 Message matchedMessage = messageMap.get(dto.getId());
@@ -665,13 +826,13 @@ public class ConversationService {
                     if (parentMessageAttachments != null && !parentMessageAttachments.isEmpty()) {
                         MessageAttachment parentMessageAttachment = parentMessageAttachments.getFirst();
 
-                        List<MessageAttachmentDTO> enrichedParentMessageAttachmentDTO = conversationUtilService.getEnrichedMessageAttachmentsDTO(List.of(parentMessageAttachment));
+                        List<MessageAttachmentDTO> enrichedParentMessageAttachmentDTO = conversationUtilService.getEnrichedMessageAttachmentsDTO(List.of(parentMessageAttachment), attachmentSignedUrls);
                         dto.getParentMessage().setMessageAttachments(enrichedParentMessageAttachmentDTO);
                     }
                 }
 
                 List<MessageAttachment> attachments = matchedMessage.getAttachments();
-                List<MessageAttachmentDTO> enrichedMessageAttachmentDTOs = conversationUtilService.getEnrichedMessageAttachmentsDTO(attachments);
+                List<MessageAttachmentDTO> enrichedMessageAttachmentDTOs = conversationUtilService.getEnrichedMessageAttachmentsDTO(attachments, attachmentSignedUrls);
                 dto.setMessageAttachments(enrichedMessageAttachmentDTOs);
 
                 return dto;
@@ -700,20 +861,16 @@ public class ConversationService {
      *         if no other participants have read statuses recorded or if any participant has null
      */
     public Long getLastReadMessageIdByParticipants(Long conversationId, Long loggedInUserId) {
-        // read statuses of every participant, with their user id and last read message id
-        Map<Long, Long> userReadStatuses =
-            new HashMap<>(conversationReadStatusRepository.findLastReadMessageIdsByConversationId(conversationId));
-        userReadStatuses.remove(loggedInUserId);
-
-        // If any participant has null last-read message ID, return null
-        if (userReadStatuses.containsValue(null)) {
-            return null;
-        }
+        return readWatermarkCache.getReadByEveryoneMessageId(conversationId, loggedInUserId);
+    }
 
-        return userReadStatuses.values()
-            .stream()
-            .min(Long::compare)
-            .orElse(null);
+    private void publishParticipantsChanged(Long conversationId, List<Long> joinedUserIds, List<Long> leftUserIds) {
+        eventPublisher.publishEvent(new ConversationParticipantsChangedEvent(
+                WorkspaceContext.getCurrentWorkspace(),
+                conversationId,
+                joinedUserIds,
+                leftUserIds
+        ));
     }
 
     /**
@@ -819,6 +976,7 @@ public class ConversationService {
             conversationEventService.createMessageWithConversationEvent(conversationId, userId, List.of(userId), ConversationEventType.USER_LEFT);
 
             conversationParticipantRepository.updateIsActiveById(leavingParticipant.getId(), false);
+            publishParticipantsChanged(conversationId, List.of(), List.of(userId));
         } catch (Exception e) {
             logger.error("user: %s cannot leave the conversation due to an error".formatted(userId), e);
             throw new CustomInternalServerErrorException("Failed to leave the conversation");
@@ -893,6 +1051,11 @@ public class ConversationService {
             conversationParticipantRepository.saveAll(participantsToSave);
 
             conversationEventService.createMessageWithConversationEvent(conversationId, initiatorUserId, joinRequest.getUserIds(), ConversationEventType.USER_ADDED);
+            publishParticipantsChanged(
+                    conversationId,
+                    participantsToSave.stream().map(participant -> participant.getUser().getId()).toList(),
+                    List.of()
+            );
         } catch (Exception e) {
             logger.error("Failed to add participants. conversationId={}, initiator={}", conversationId, initiatorUserId, e);
             throw new CustomBadRequestException("Some users are already participants.");
@@ -1377,6 +1540,9 @@ public class ConversationService {
             participant.setLastDeletedTime(ZonedDateTime.now());
             conversationParticipantRepository.save(participant);
             cacheService.evictByLastPartsForCurrentWorkspace(List.of(CacheNames.GET_CONVERSATION_META_DATA+":" + conversationId));
+            if (!Boolean.TRUE.equals(participant.getConversation().getIsGroup())) {
+                conversationUtilService.evictOneToOneConversationIds(List.of(participant.getUser().getEmail()));
+            }
         } catch (Exception e) {
             logger.error("Failed to delete conversation participant for userId: {} in conversationId: {}", userId, conversationId, e);
             throw new CustomBadRequestException("Failed to delete conversation participant");
@@ -1499,6 +1665,7 @@ public class ConversationService {
             conversationParticipantRepository.updateIsActiveById(participantIdToRemove, false);
 
             conversationEventService.createMessageWithConversationEvent(conversationId, requestingUserId, List.of(chatUserIdToRemove), ConversationEventType.USER_REMOVED);
+            publishParticipantsChanged(conversationId, List.of(), List.of(chatUserIdToRemove));
         } catch (Exception e) {
             logger.error("Cant remove user: %s due to an error".formatted(participantIdToRemove), e);
             throw new CustomInternalServerErrorException("Failed to remove user from conversation");
@@ -1700,6 +1867,7 @@ public class ConversationService {
             conversationInviteLinkRepository.save(conversationInviteLink);
 
             conversationEventService.createMessageWithConversationEvent(conversation.getId(), loggedInUserId, List.of(loggedInUserId), ConversationEventType.USER_JOINED);
+            publishParticipantsChanged(conversation.getId(), List.of(loggedInUserId), List.of());
 
         } catch (Exception e) {
             logger.error("Failed to add participant. conversationId={}, initiator={}", conversation.getId(), loggedInUserId, e);
@@ -224,6 +224,50 @@ public class ConversationUtilService {
         return participantUserMap;
     }
 
+    /**
+     * Retrieves the IDs of the active one-to-one conversations of a user, utilizing caching since presence
+     * updates look these up on every status change of the user.
+     *
+     * @param email the email of the user
+     * @return the IDs of the user's one-to-one conversations
+     */
+    @Cacheable(value = CacheNames.FIND_ONE_TO_ONE_CONVERSATION_IDS_BY_EMAIL, keyGenerator = CacheNames.WORKSPACE_AWARE_KEY_GENERATOR)
+    public List<Long> getOneToOneConversationIdsByUserEmail(String email) {
+        return conversationParticipantRepository.findOneToOneConversationIdsByUserEmail(email);
+    }
+
+    /**
+     * Evicts the cached one-to-one conversation IDs of the given users in the current workspace.
+     *
+     * @param emails the emails of the users whose one-to-one conversations changed
+     */
+    public void evictOneToOneConversationIds(Collection<String> emails) {
+        List<String> lastParts = emails.stream()
+            .filter(Objects::nonNull)
+            .map(email -> CacheNames.FIND_ONE_TO_ONE_CONVERSATION_IDS_BY_EMAIL + ":" + email)
+            .toList();
+
+        if (!lastParts.isEmpty()) {
+            cacheService.evictByLastPartsForCurrentWorkspace(lastParts);
+        }
+    }
+
+    /**
+     * Evicts the cached one-to-one conversation IDs of the participants of the given conversation.
+     * Group conversations are ignored since they are never part of the cached IDs.
+     *
+     * @param conversation the conversation whose participants changed
+     */
+    public void evictOneToOneConversationIds(Conversation conversation) {
+        if (Boolean.TRUE.equals(conversation.getIsGroup()) || conversation.getConversationParticipants() == null) {
+            return;
+        }
+
+        evictOneToOneConversationIds(conversation.getConversationParticipants().stream()
+            .map(participant -> participant.getUser().getEmail())
+            .toList());
+    }
+
     /**
      * Retrieves the metadata of a conversation for a given conversation ID and participant, utilizing caching for performance.
      *
@@ -375,12 +419,16 @@ public class ConversationUtilService {
      */
     public Conversation deleteConversation(Conversation conversation) {
         conversation.setDeleted(true);
+        Conversation deletedConversation;
         try {
-            return conversationRepository.save(conversation);
+            deletedConversation = conversationRepository.save(conversation);
         } catch (Exception exception) {
             logger.error("failed to delete conversation id: {}", conversation.getId(), exception);
             throw new CustomBadRequestException("Failed to delete conversation");
         }
+
+        evictOneToOneConversationIds(deletedConversation);
+        return deletedConversation;
     }
 
     /**
@@ -390,6 +438,20 @@ public class ConversationUtilService {
      * @return a list of enriched attachment DTOs with signed URLs, or an empty list if input is null/empty
      */
     public List<MessageAttachmentDTO> getEnrichedMessageAttachmentsDTO(List<MessageAttachment> attachments) {
+        if (attachments == null || attachments.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return getEnrichedMessageAttachmentsDTO(attachments, getAttachmentSignedUrls(attachments));
+    }
+
+    /**
+     * Enriches message attachments with signed URLs signed beforehand for a whole page.
+     *
+     * @param attachments the list of message attachments to process, may be null or empty
+     * @param signedUrls  the signed URL of each indexed file name, from {@link #getAttachmentSignedUrls(Collection)}
+     * @return a list of enriched attachment DTOs with signed URLs, or an empty list if input is null/empty
+     */
+    public List<MessageAttachmentDTO> getEnrichedMessageAttachmentsDTO(List<MessageAttachment> attachments, Map<String, String> signedUrls) {
         if (attachments == null || attachments.isEmpty()) {
             return Collections.emptyList();
         }
@@ -399,9 +461,7 @@ public class ConversationUtilService {
             MessageAttachmentDTO dto = new MessageAttachmentDTO();
             try {
                 if (!attachment.getType().equals(AttachmentTypeEnum.GIF)) {
-                    String fileViewSignedURL = cloudPhotoHandlingService
-                            .getPhotoViewSignedURL(attachment.getIndexedFileName());
-                    dto.setFileUrl(fileViewSignedURL);
+                    dto.setFileUrl(signedUrls.get(attachment.getIndexedFileName()));
                 }
 
                 dto.setId(attachment.getId());
@@ -419,6 +479,41 @@ public class ConversationUtilService {
         return attachmentDTOs;
     }
 
+    /**
+     * Signs the view URLs of several attachments in one batch, GIFs are served by their url and not signed.
+     *
+     * @param attachments the attachments to sign
+     * @return the signed URL of each indexed file name
+     */
+    public Map<String, String> getAttachmentSignedUrls(Collection<MessageAttachment> attachments) {
+        return getAttachmentSignedUrls(attachments.stream()
+                .filter(attachment -> attachment.getType() != AttachmentTypeEnum.GIF)
+                .map(MessageAttachment::getIndexedFileName)
+                .toList());
+    }
+
+    /**
+     * Signs the view URLs of several rendered attachments in one batch, such as the attachments of cached messages.
+     *
+     * @param attachments the attachments to sign
+     * @return the signed URL of each indexed file name
+     */
+    public Map<String, String> getAttachmentDTOSignedUrls(Collection<MessageAttachmentDTO> attachments) {
+        return getAttachmentSignedUrls(attachments.stream()
+                .filter(attachment -> attachment.getType() != AttachmentTypeEnum.GIF)
+                .map(MessageAttachmentDTO::getIndexedFileName)
+                .toList());
+    }
+
+    private Map<String, String> getAttachmentSignedUrls(List<String> indexedFileNames) {
+        try {
+            return cloudPhotoHandlingService.getPhotoViewSignedURLs(indexedFileNames);
+        } catch (Exception e) {
+            logger.error("Failed to sign {} attachments", indexedFileNames.size(), e);
+            return Map.of();
+        }
+    }
+
     /**
      * Generates a secure, URL-safe random token for invite links.
      *
@@ -6,7 +6,6 @@ import com.platform.software.chat.user.dto.UserViewDTO;
 import com.platform.software.chat.user.service.UserServiceImpl;
 import com.platform.software.common.constants.GeneralConstants;
 import com.platform.software.common.constants.WebSocketTopicConstants;
-import com.platform.software.config.interceptors.websocket.WebSocketSessionInfoDAO;
 import com.platform.software.config.interceptors.websocket.WebSocketSessionManager;
 import com.platform.software.config.workspace.WorkspaceContext;
 import org.slf4j.Logger;
@@ -16,6 +15,7 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
+import java.util.Set;
 
 
 @Service
@@ -52,29 +52,28 @@ public class TypingStatusWSService {
 
             UserViewDTO user = userService.findUserById(userTypingStatusUpsertDTO.getUserId(), workspaceId);
 
-            for (WebSocketSessionInfoDAO info : webSocketSessionManager.getWebSocketSessionInfos().values()) {
-                if(info.getWsSessionId().equals(wsSessionId) || info.getOpenedConversation() == null){
-                    continue;
-                }
-                if (!userTypingStatusUpsertDTO.getConversationId().equals(info.getOpenedConversation())) {
-                    continue;
-                }
-                if (!info.getWsSessionId()
-                        .startsWith(workspaceId + ":")) {
+            UserTypingStatusDTO typingStatus = new UserTypingStatusDTO(
+                    user.getFirstName(),
+                    userTypingStatusUpsertDTO.getConversationId(),
+                    userTypingStatusUpsertDTO.isTyping()
+            );
+
+            Set<String> sessionKeys = webSocketSessionManager.getSessionKeysWithOpenedConversation(
+                    workspaceId, userTypingStatusUpsertDTO.getConversationId()
+            );
+
+            for (String sessionKey : sessionKeys) {
+                if (sessionKey.equals(wsSessionId)) {
                     continue;
                 }
 
-                String[] parts = info.getWsSessionId().split(":");
+                String[] parts = sessionKey.split(":");
                 String userPrinciple = parts[0] + ":" + parts[1];
 
                 template.convertAndSendToUser(
                         userPrinciple,
                         WebSocketTopicConstants.TYPING_STATUS,
-                        new UserTypingStatusDTO(
-                                user.getFirstName(),
-                                userTypingStatusUpsertDTO.getConversationId(),
-                                userTypingStatusUpsertDTO.isTyping()
-                        )
+                        typingStatus
                 );
             }
         } catch (Exception e) {
@@ -0,0 +1,14 @@
+package com.platform.software.chat.conversationparticipant.dto;
+
+/**
+ * The other participant of a one-to-one conversation, projected for inbox rows.
+ */
+public record DirectParticipantDTO(
+        Long conversationId,
+        Long userId,
+        String firstName,
+        String lastName,
+        String email,
+        String imageIndexedName
+) {
+}
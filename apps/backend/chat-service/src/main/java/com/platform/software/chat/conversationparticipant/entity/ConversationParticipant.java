@@ -72,6 +72,14 @@ public class ConversationParticipant extends AuditModel {
 
     private ZonedDateTime lastDeletedTime = null;
 
+    // messages after the participant's last seen message, maintained by native updates alongside message and read status writes
+    @Column(name = "unread_count", insertable = false, updatable = false, columnDefinition = "bigint not null default 0")
+    private Long unreadCount = 0L;
+
+    // newest message reflected in unread_count, so increments applied after a send never count a message twice
+    @Column(name = "unread_counted_message_id", insertable = false, updatable = false)
+    private Long unreadCountedMessageId;
+
     @Column(name = "notify_on_mentions_only")
     private Boolean notifyOnMentionsOnly = false;
 }
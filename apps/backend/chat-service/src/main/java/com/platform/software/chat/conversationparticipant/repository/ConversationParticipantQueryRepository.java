@@ -36,7 +36,7 @@ public interface ConversationParticipantQueryRepository {
             ConversationParticipantFilterCriteriaDTO filterCriteria
     );
 
-    void restoreParticipantsByConversationId(Long conversationId);
+    long restoreParticipantsByConversationId(Long conversationId);
 
     long chatUserIdByConversationParticipantId(Long conversationParticipantId);
 
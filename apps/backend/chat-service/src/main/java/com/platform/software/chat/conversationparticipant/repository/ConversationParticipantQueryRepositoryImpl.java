@@ -402,8 +402,8 @@ public class ConversationParticipantQueryRepositoryImpl implements ConversationP
     }
 
     @Override
-    public void restoreParticipantsByConversationId(Long conversationId){
-        queryFactory.update(qConversationParticipant)
+    public long restoreParticipantsByConversationId(Long conversationId){
+        return queryFactory.update(qConversationParticipant)
                 .set(qConversationParticipant.isDeleted, false)
                 .where(qConversationParticipant.conversation.id.eq(conversationId)
                         .and(qConversationParticipant.isDeleted.eq(true)))
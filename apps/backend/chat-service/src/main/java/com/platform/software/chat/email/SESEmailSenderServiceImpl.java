@@ -5,6 +5,7 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailService;
 import com.amazonaws.services.simpleemail.AmazonSimpleEmailServiceClientBuilder;
 import com.amazonaws.services.simpleemail.model.*;
+import com.platform.software.config.async.AsyncExecutorNames;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -42,7 +43,7 @@ class SESEmailSenderServiceImpl implements EmailSenderService {
     }
 
     @Override
-    @Async
+    @Async(AsyncExecutorNames.EMAIL_EXECUTOR)
     public void sendEmail(String to, String subject, String content, String contentType) {
 
         Body body;
@@ -7,6 +7,7 @@ import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
+import com.platform.software.config.async.AsyncExecutorNames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -33,7 +34,7 @@ class SendGridEmailSenderServiceImpl implements EmailSenderService {
     }
 
     @Override
-    @Async
+    @Async(AsyncExecutorNames.EMAIL_EXECUTOR)
     public void sendEmail(String to, String subject, String content, String contentType) {
         Email fromEmail = new Email(this.fromEmail);
         Email toEmail = new Email(to);
@@ -19,6 +19,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -140,15 +141,19 @@ public class MessageAttachmentService {
     public Page<MessageAttachmentDTO> getAttachments(Long conversationId, AttachmentFilterCriteria attachmentFilterCriteria, Pageable pageable) {
         attachmentFilterCriteria.setConversationId(conversationId);
         Page<MessageAttachment> attachmentPage = messageAttachmentRepository.filterAttachments(attachmentFilterCriteria, pageable);
+
+        Map<String, String> signedURLs = cloudPhotoHandlingService.getPhotoViewSignedURLs(attachmentPage.getContent().stream()
+            .filter(attachment -> attachment.getType() != AttachmentTypeEnum.GIF)
+            .map(MessageAttachment::getIndexedFileName)
+            .toList());
+
         Page<MessageAttachmentDTO> attachmentDTOPage = attachmentPage.map(attachment -> {
             MessageAttachmentDTO attachmentDTO = new MessageAttachmentDTO(attachment);
 
             if (attachment.getType() == AttachmentTypeEnum.GIF) {
                 attachmentDTO.setFileUrl(attachment.getIndexedFileName());
             } else {
-                String fileViewSignedURL = cloudPhotoHandlingService
-                    .getPhotoViewSignedURL(attachment.getIndexedFileName());
-                attachmentDTO.setFileUrl(fileViewSignedURL);
+                attachmentDTO.setFileUrl(signedURLs.get(attachment.getIndexedFileName()));
             }
 
             return attachmentDTO;
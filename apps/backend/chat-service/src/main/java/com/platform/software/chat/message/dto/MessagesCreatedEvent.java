@@ -0,0 +1,22 @@
+package com.platform.software.chat.message.dto;
+
+import com.platform.software.chat.message.entity.Message;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Several messages created at once in one conversation, such as forwarded messages,
+ * published once for the conversation instead of once per message.
+ */
+@Getter
+@AllArgsConstructor
+public class MessagesCreatedEvent {
+    private final String workspaceId;
+    private final Long conversationId;
+    private final List<MessageViewDTO> messageViewDTOs;
+    private final Long userId;
+    private final List<Message> messages;
+    private final MessageTypeEnum messageType;
+}
@@ -0,0 +1,64 @@
+package com.platform.software.chat.message.outbox.entity;
+
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.common.model.AuditModel;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * A created message waiting to be delivered to the conversation participants, written in the same transaction
+ * as the message. The WebSocket fan-out and the push notifications are completed separately, and the row is removed
+ * once both are sent.
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "message_outbox",
+        indexes = {
+                @Index(name = "idx_message_outbox_next_attempt_at", columnList = "next_attempt_at"),
+                @Index(name = "idx_message_outbox_conversation_id_message_id", columnList = "conversation_id, message_id")
+        }
+)
+public class MessageOutbox extends AuditModel {
+
+    @Id
+    @GeneratedValue(generator = "message_outbox_generator")
+    private Long id;
+
+    @Column(name = "conversation_id", nullable = false)
+    private Long conversationId;
+
+    @Column(name = "message_id", nullable = false)
+    private Long messageId;
+
+    @Column(name = "sender_id", nullable = false)
+    private Long senderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "message_type", nullable = false)
+    private MessageTypeEnum messageType;
+
+    // serialized MessageViewDTO as it was built when the message was created
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String payload;
+
+    @Column(nullable = false)
+    private int attempts = 0;
+
+    // the row can be claimed from this time, claiming moves it forward by the lease so a crashed dispatcher's rows are retried
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "next_attempt_at", nullable = false)
+    private Date nextAttemptAt;
+
+    // set once the WebSocket frame is sent, so a retry after a failed notification only resends the notification
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "websocket_delivered_at")
+    private Date websocketDeliveredAt;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+}
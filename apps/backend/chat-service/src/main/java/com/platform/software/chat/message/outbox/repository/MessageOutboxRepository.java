@@ -0,0 +1,59 @@
+package com.platform.software.chat.message.outbox.repository;
+
+import com.platform.software.chat.message.outbox.entity.MessageOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+@Repository
+public interface MessageOutboxRepository extends JpaRepository<MessageOutbox, Long> {
+
+    /**
+     * Locks the oldest due rows, skipping rows locked by other dispatchers and rows queued behind an earlier message
+     * of their conversation that is waiting for a retry or leased by a dispatcher.
+     */
+    @Query(value = """
+            SELECT * FROM message_outbox o
+            WHERE o.next_attempt_at <= now()
+              AND NOT EXISTS (
+                  SELECT 1 FROM message_outbox earlier
+                  WHERE earlier.conversation_id = o.conversation_id
+                    AND earlier.message_id < o.message_id
+                    AND earlier.next_attempt_at > now()
+              )
+            ORDER BY o.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<MessageOutbox> findDueForUpdateSkipLocked(@Param("limit") int limit);
+
+    /**
+     * Finds, per conversation, the lowest message id among rows outside the given ones, whether they are
+     * not due yet, leased or locked by another dispatcher.
+     *
+     * @return rows of [conversation_id, min(message_id)]
+     */
+    @Query(value = """
+            SELECT conversation_id, MIN(message_id) FROM message_outbox
+            WHERE conversation_id IN (:conversationIds) AND id NOT IN (:excludedIds)
+            GROUP BY conversation_id
+            """, nativeQuery = true)
+    List<Object[]> findFirstMessageIdsExcluding(
+            @Param("conversationIds") Collection<Long> conversationIds,
+            @Param("excludedIds") Collection<Long> excludedIds
+    );
+
+    @Modifying
+    @Query("UPDATE MessageOutbox o SET o.websocketDeliveredAt = :deliveredAt WHERE o.id IN :ids")
+    int updateWebsocketDeliveredAt(@Param("ids") Collection<Long> ids, @Param("deliveredAt") Date deliveredAt);
+
+    @Modifying
+    @Query("UPDATE MessageOutbox o SET o.nextAttemptAt = :nextAttemptAt WHERE o.id IN :ids")
+    int updateNextAttemptAt(@Param("ids") Collection<Long> ids, @Param("nextAttemptAt") Date nextAttemptAt);
+}
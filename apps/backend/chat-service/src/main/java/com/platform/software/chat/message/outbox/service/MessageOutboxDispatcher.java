@@ -0,0 +1,285 @@
+package com.platform.software.chat.message.outbox.service;
+
+import com.platform.software.chat.message.dto.MessageViewDTO;
+import com.platform.software.chat.message.outbox.entity.MessageOutbox;
+import com.platform.software.chat.message.service.MessagePublisherService;
+import com.platform.software.config.workspace.WorkspaceContext;
+import com.platform.software.platform.workspace.service.WorkspaceService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the message outbox of every workspace and delivers the messages to the conversation participants.
+ * <p>
+ * A workspace is drained right after a message is committed on this instance, and every workspace is swept
+ * periodically to pick up rows left by restarts, failed attempts and other instances. Workspaces are drained
+ * by a fixed number of workers, and several instances can drain the same workspace since rows are claimed
+ * with {@code SKIP LOCKED}.
+ * </p>
+ */
+@Service
+public class MessageOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(MessageOutboxDispatcher.class);
+
+    private final MessageOutboxService messageOutboxService;
+    private final MessagePublisherService messagePublisherService;
+    private final WorkspaceService workspaceService;
+
+    // workspaces being drained on this instance, and workspaces woken up again while being drained
+    private final Set<String> drainingWorkspaces = ConcurrentHashMap.newKeySet();
+    private final Set<String> redrainWorkspaces = ConcurrentHashMap.newKeySet();
+
+    private final Counter deliveredCounter;
+    private final Counter failedCounter;
+    private final Counter droppedCounter;
+    private final Timer lagTimer;
+
+    @Value("${message.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${message.outbox.workers:2}")
+    private int workerCount;
+
+    @Value("${message.outbox.poll-interval-ms:5000}")
+    private long pollIntervalMs;
+
+    private ExecutorService workers;
+    private ScheduledExecutorService scheduler;
+
+    public MessageOutboxDispatcher(
+            MessageOutboxService messageOutboxService,
+            MessagePublisherService messagePublisherService,
+            WorkspaceService workspaceService,
+            MeterRegistry meterRegistry
+    ) {
+        this.messageOutboxService = messageOutboxService;
+        this.messagePublisherService = messagePublisherService;
+        this.workspaceService = workspaceService;
+
+        this.deliveredCounter = Counter.builder("message.outbox.delivered")
+                .description("Outbox messages delivered to participants")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("message.outbox.failed")
+                .description("Outbox delivery attempts that failed")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("message.outbox.dropped")
+                .description("Outbox messages dropped after running out of attempts")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("message.outbox.lag")
+                .description("Time from writing an outbox message to delivering it")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!messageOutboxService.isEnabled()) {
+            return;
+        }
+
+        AtomicInteger workerIndex = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "message-outbox-" + workerIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "message-outbox-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweep, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drains the outbox of the workspace without waiting for the next sweep.
+     *
+     * @param workspaceId the workspace a message was committed in
+     */
+    public void wakeUp(String workspaceId) {
+        if (workers != null && workspaceId != null) {
+            drain(workspaceId);
+        }
+    }
+
+    private void sweep() {
+        try {
+            workspaceService.getAllWorkspaces().forEach(this::drain);
+        } catch (Exception e) {
+            logger.warn("failed to sweep the message outbox", e);
+        }
+    }
+
+    private void drain(String workspaceId) {
+        if (!drainingWorkspaces.add(workspaceId)) {
+            redrainWorkspaces.add(workspaceId);
+            return;
+        }
+
+        try {
+            workers.execute(() -> drainWorkspace(workspaceId));
+        } catch (RejectedExecutionException e) {
+            drainingWorkspaces.remove(workspaceId);
+        }
+    }
+
+    private void drainWorkspace(String workspaceId) {
+        try {
+            WorkspaceContext.setCurrentWorkspace(workspaceId);
+            while (dispatchBatch(workspaceId) > 0) {
+                // keep draining while rows are claimed
+            }
+        } catch (Exception e) {
+            logger.warn("failed to drain the message outbox of workspace: {}", workspaceId, e);
+        } finally {
+            WorkspaceContext.clear();
+            drainingWorkspaces.remove(workspaceId);
+            if (redrainWorkspaces.remove(workspaceId)) {
+                drain(workspaceId);
+            }
+        }
+    }
+
+    /**
+     * Delivers one claimed batch conversation by conversation, loading the conversation once for each run of
+     * consecutive messages from the same sender. When a message of a run fails, it is retried later and the
+     * remaining messages of the conversation are released behind it, so they are redelivered in order.
+     *
+     * @return the number of claimed rows
+     */
+    private int dispatchBatch(String workspaceId) {
+        List<MessageOutbox> claimedRows = messageOutboxService.claimBatch(batchSize);
+
+        Map<Long, List<MessageOutbox>> rowsByConversation = new LinkedHashMap<>();
+        for (MessageOutbox row : claimedRows) {
+            rowsByConversation.computeIfAbsent(row.getConversationId(), k -> new ArrayList<>()).add(row);
+        }
+
+        for (List<MessageOutbox> conversationRows : rowsByConversation.values()) {
+            int runStart = 0;
+            while (runStart < conversationRows.size()) {
+                int runEnd = runStart + 1;
+                while (runEnd < conversationRows.size() && isSameRun(conversationRows.get(runStart), conversationRows.get(runEnd))) {
+                    runEnd++;
+                }
+
+                if (!deliverRun(workspaceId, conversationRows.subList(runStart, runEnd))) {
+                    messageOutboxService.release(conversationRows.subList(runEnd, conversationRows.size()).stream()
+                            .map(MessageOutbox::getId)
+                            .toList());
+                    break;
+                }
+                runStart = runEnd;
+            }
+        }
+        return claimedRows.size();
+    }
+
+    private boolean isSameRun(MessageOutbox first, MessageOutbox other) {
+        return first.getSenderId().equals(other.getSenderId()) && first.getMessageType() == other.getMessageType();
+    }
+
+    /**
+     * Delivers consecutive messages of one sender in a conversation in two steps, each completed per row: the
+     * WebSocket frames of the rows that have not been sent yet, then the push notifications row by row. A row is
+     * removed as soon as its notifications are sent, so a retry only repeats the step and the rows that failed.
+     *
+     * @return false if the delivery failed and the failed row was scheduled for a retry
+     */
+    private boolean deliverRun(String workspaceId, List<MessageOutbox> runRows) {
+        List<MessageOutbox> websocketPendingRows = runRows.stream()
+                .filter(row -> row.getWebsocketDeliveredAt() == null)
+                .toList();
+        if (!websocketPendingRows.isEmpty()) {
+            try {
+                sendWebsocketFrames(workspaceId, websocketPendingRows);
+                messageOutboxService.markWebsocketDelivered(websocketPendingRows);
+            } catch (Exception e) {
+                handleFailure(runRows, 0, "websocket frames", e);
+                return false;
+            }
+        }
+
+        for (int i = 0; i < runRows.size(); i++) {
+            MessageOutbox row = runRows.get(i);
+            try {
+                messageOutboxService.sendNotifications(row);
+                messageOutboxService.markDelivered(List.of(row));
+            } catch (Exception e) {
+                handleFailure(runRows, i, "notifications", e);
+                return false;
+            }
+
+            deliveredCounter.increment();
+            lagTimer.record(Duration.ofMillis(System.currentTimeMillis() - row.getCreatedAt().getTime()));
+        }
+        return true;
+    }
+
+    /**
+     * Schedules a retry of the failed row and releases the rows of the run behind it, which stay queued behind the
+     * failed row in conversation order.
+     */
+    private void handleFailure(List<MessageOutbox> runRows, int failedIndex, String step, Exception e) {
+        MessageOutbox failedRow = runRows.get(failedIndex);
+        failedCounter.increment();
+        logger.warn("failed to send {} of conversation {} from message {}, attempt {}",
+                step, failedRow.getConversationId(), failedRow.getMessageId(), failedRow.getAttempts() + 1, e);
+
+        if (!messageOutboxService.markFailed(failedRow, e)) {
+            droppedCounter.increment();
+        }
+        messageOutboxService.release(runRows.subList(failedIndex + 1, runRows.size()).stream()
+                .map(MessageOutbox::getId)
+                .toList());
+    }
+
+    /**
+     * Sends consecutive messages of one sender in a conversation over WebSocket.
+     */
+    private void sendWebsocketFrames(String workspaceId, List<MessageOutbox> runRows) throws Exception {
+        MessageOutbox firstRow = runRows.getFirst();
+
+        List<MessageViewDTO> messageViewDTOs = new ArrayList<>();
+        for (MessageOutbox row : runRows) {
+            messageViewDTOs.add(messageOutboxService.readPayload(row));
+        }
+
+        messagePublisherService.invokeNewMessagesToParticipants(
+                firstRow.getConversationId(),
+                messageViewDTOs,
+                firstRow.getSenderId(),
+                workspaceId,
+                firstRow.getMessageType()
+        );
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler == null) {
+            return;
+        }
+
+        scheduler.shutdown();
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.platform.software.chat.message.outbox.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.software.chat.message.dto.MessageCreatedEvent;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.dto.MessageViewDTO;
+import com.platform.software.chat.message.dto.MessagesCreatedEvent;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.outbox.entity.MessageOutbox;
+import com.platform.software.chat.message.outbox.repository.MessageOutboxRepository;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.chat.notification.service.ChatNotificationService;
+import lombok.Getter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Writes created messages to the outbox and claims them back for the {@link MessageOutboxDispatcher}.
+ */
+@Service
+public class MessageOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(MessageOutboxService.class);
+
+    private static final Duration MAX_RETRY_DELAY = Duration.ofMinutes(5);
+
+    private final MessageOutboxRepository messageOutboxRepository;
+    private final MessageRepository messageRepository;
+    private final ChatNotificationService chatNotificationService;
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    @Value("${message.outbox.enabled:false}")
+    private boolean enabled;
+
+    @Value("${message.outbox.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${message.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${message.outbox.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    public MessageOutboxService(
+            MessageOutboxRepository messageOutboxRepository,
+            MessageRepository messageRepository,
+            ChatNotificationService chatNotificationService,
+            ObjectMapper objectMapper
+    ) {
+        this.messageOutboxRepository = messageOutboxRepository;
+        this.messageRepository = messageRepository;
+        this.chatNotificationService = chatNotificationService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Adds the created message to the outbox, in the transaction that created the message.
+     *
+     * @param event the message created event
+     */
+    @Transactional
+    public void enqueue(MessageCreatedEvent event) {
+        messageOutboxRepository.save(buildOutbox(
+                event.getConversationId(), event.getUserId(), event.getMessageType(), event.getMessageViewDTO()
+        ));
+    }
+
+    /**
+     * Adds the messages created together in a conversation to the outbox, in the transaction that created them.
+     *
+     * @param event the messages created event
+     */
+    @Transactional
+    public void enqueue(MessagesCreatedEvent event) {
+        messageOutboxRepository.saveAll(event.getMessageViewDTOs().stream()
+                .map(messageViewDTO -> buildOutbox(
+                        event.getConversationId(), event.getUserId(), event.getMessageType(), messageViewDTO
+                ))
+                .toList());
+    }
+
+    private MessageOutbox buildOutbox(Long conversationId, Long senderId, MessageTypeEnum messageType, MessageViewDTO messageViewDTO) {
+        MessageOutbox outbox = new MessageOutbox();
+        outbox.setConversationId(conversationId);
+        outbox.setMessageId(messageViewDTO.getId());
+        outbox.setSenderId(senderId);
+        outbox.setMessageType(messageType);
+        outbox.setNextAttemptAt(new Date());
+
+        try {
+            outbox.setPayload(objectMapper.writeValueAsString(messageViewDTO));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("failed to serialize message %s for the outbox".formatted(outbox.getMessageId()), e);
+        }
+        return outbox;
+    }
+
+    /**
+     * Claims due rows of the current workspace for delivery, leasing them so other dispatchers skip them.
+     * <p>
+     * A row is only claimed when no earlier message of its conversation is pending outside the claimed rows,
+     * so messages of a conversation are delivered in order while different conversations are delivered independently.
+     * </p>
+     *
+     * @param batchSize the maximum number of rows to lock
+     * @return the claimed rows ordered by message id
+     */
+    @Transactional
+    public List<MessageOutbox> claimBatch(int batchSize) {
+        List<MessageOutbox> dueRows = messageOutboxRepository.findDueForUpdateSkipLocked(batchSize);
+        if (dueRows.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> conversationIds = dueRows.stream().map(MessageOutbox::getConversationId).collect(Collectors.toSet());
+        Set<Long> dueIds = dueRows.stream().map(MessageOutbox::getId).collect(Collectors.toSet());
+
+        Map<Long, Long> firstPendingMessageIds = new HashMap<>();
+        for (Object[] row : messageOutboxRepository.findFirstMessageIdsExcluding(conversationIds, dueIds)) {
+            firstPendingMessageIds.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+
+        Date leaseExpiry = Date.from(Instant.now().plusSeconds(leaseSeconds));
+        List<MessageOutbox> claimedRows = dueRows.stream()
+                .filter(row -> {
+                    Long firstPendingMessageId = firstPendingMessageIds.get(row.getConversationId());
+                    return firstPendingMessageId == null || row.getMessageId() < firstPendingMessageId;
+                })
+                .sorted(Comparator.comparing(MessageOutbox::getMessageId))
+                .toList();
+        claimedRows.forEach(row -> row.setNextAttemptAt(leaseExpiry));
+
+        return claimedRows;
+    }
+
+    @Transactional
+    public void markDelivered(Collection<MessageOutbox> outboxes) {
+        messageOutboxRepository.deleteAllByIdInBatch(outboxes.stream().map(MessageOutbox::getId).toList());
+    }
+
+    /**
+     * Records that the WebSocket frames of the rows were sent, so retries of the rows skip them.
+     */
+    @Transactional
+    public void markWebsocketDelivered(Collection<MessageOutbox> outboxes) {
+        if (outboxes.isEmpty()) {
+            return;
+        }
+
+        Date deliveredAt = new Date();
+        messageOutboxRepository.updateWebsocketDeliveredAt(outboxes.stream().map(MessageOutbox::getId).toList(), deliveredAt);
+        outboxes.forEach(outbox -> outbox.setWebsocketDeliveredAt(deliveredAt));
+    }
+
+    /**
+     * Schedules a retry of the row with an exponential delay, or drops it once it ran out of attempts.
+     *
+     * @return true if the row will be retried
+     */
+    @Transactional
+    public boolean markFailed(MessageOutbox outbox, Exception exception) {
+        int attempts = outbox.getAttempts() + 1;
+        if (attempts >= maxAttempts) {
+            logger.error("dropping message {} of conversation {} from the outbox after {} failed attempts",
+                    outbox.getMessageId(), outbox.getConversationId(), attempts, exception);
+            messageOutboxRepository.deleteById(outbox.getId());
+            return false;
+        }
+
+        long delayMs = Math.min(retryDelayMs << Math.min(attempts - 1, 20), MAX_RETRY_DELAY.toMillis());
+        outbox.setAttempts(attempts);
+        outbox.setNextAttemptAt(Date.from(Instant.now().plusMillis(delayMs)));
+        outbox.setLastError(exception.toString());
+        messageOutboxRepository.save(outbox);
+        return true;
+    }
+
+    /**
+     * Makes claimed rows that were not attempted due again.
+     */
+    @Transactional
+    public void release(Collection<Long> outboxIds) {
+        if (!outboxIds.isEmpty()) {
+            messageOutboxRepository.updateNextAttemptAt(outboxIds, new Date());
+        }
+    }
+
+    public MessageViewDTO readPayload(MessageOutbox outbox) throws JsonProcessingException {
+        return objectMapper.readValue(outbox.getPayload(), MessageViewDTO.class);
+    }
+
+    /**
+     * Sends the push notifications of the row and waits for the push providers, so a failed push is retried.
+     *
+     * @throws Exception if a push provider could not send the notifications
+     */
+    @Transactional(readOnly = true)
+    public void sendNotifications(MessageOutbox outbox) throws Exception {
+        Optional<Message> message = messageRepository.findById(outbox.getMessageId());
+        if (message.isEmpty()) {
+            logger.warn("message {} of the outbox no longer exists, skipping notifications", outbox.getMessageId());
+            return;
+        }
+
+        chatNotificationService.deliverMessageNotificationsToParticipants(
+                outbox.getConversationId(),
+                outbox.getSenderId(),
+                message.get()
+        );
+    }
+}
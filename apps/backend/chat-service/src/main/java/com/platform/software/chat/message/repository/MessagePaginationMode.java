@@ -0,0 +1,8 @@
+package com.platform.software.chat.message.repository;
+
+public enum MessagePaginationMode {
+    // counts every visible message of the conversation for the page total
+    COUNT,
+    // skips the count and probes one message past the page to tell whether more messages exist
+    CURSOR
+}
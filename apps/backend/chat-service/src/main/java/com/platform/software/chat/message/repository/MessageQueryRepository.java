@@ -6,11 +6,34 @@ import com.platform.software.controller.external.IdBasedPageRequest;
 import org.springframework.data.domain.Page;
 import com.platform.software.chat.message.entity.Message;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface MessageQueryRepository {
     Message saveMessageWthSearchVector(Message message);
 
+    /**
+     * Persists new messages with their attachments in JDBC batches, computing the search vectors of all
+     * distinct message texts in one statement unless the database computes them, and advances the last message
+     * of each of their conversations.
+     *
+     * @param messages the new messages
+     * @return the persisted messages
+     */
+    List<Message> saveMessagesWithSearchVector(List<Message> messages);
+
+    /**
+     * Points the conversation of flushed messages at the last of them, unless the conversation already points at a
+     * later message, and queues the messages for the unread counts of the participants, which are incremented once
+     * the transaction commits. The message saving methods do this themselves.
+     *
+     * @param lastMessage  the last of the flushed messages
+     * @param messageCount the number of flushed messages of the conversation
+     */
+    void recordNewMessages(Message lastMessage, int messageCount);
+
     Optional<Message> findDeletableMessage(Long messageId, Long loggedInUserId);
 
     Page<Message> findMessagesAndAttachments(Long conversationId, IdBasedPageRequest idBasedPageRequest, ConversationParticipant participant, Long requesterId);
@@ -20,4 +43,30 @@ public interface MessageQueryRepository {
     Optional<Message> findByIdWithSenderAndConversation(Long messageId);
 
     Optional<Message> findPreviousMessage(Long conversationId, Long messageId, ConversationParticipant participant);
+
+    /**
+     * Finds the ids of the latest messages of a conversation regardless of participant visibility, newest first.
+     *
+     * @param conversationId the conversation id
+     * @param limit          the maximum number of ids
+     * @return the message ids
+     */
+    List<Long> findLatestMessageIds(Long conversationId, int limit);
+
+    /**
+     * Finds messages of a conversation by id with their attachments, conversation and sender fetched.
+     *
+     * @param conversationId the conversation id
+     * @param messageIds     the message ids
+     * @return the messages of the conversation among the ids, newest first
+     */
+    List<Message> findMessagesAndAttachmentsByIds(Long conversationId, Collection<Long> messageIds);
+
+    /**
+     * Finds the messages forwarding any of the messages, for re-rendering their forward snippets.
+     *
+     * @param forwardedMessageIds the ids of the forwarded messages
+     * @return the ids of the forwarding messages grouped by their conversation id
+     */
+    Map<Long, List<Long>> findForwardingMessageIdsByConversation(Collection<Long> forwardedMessageIds);
 }
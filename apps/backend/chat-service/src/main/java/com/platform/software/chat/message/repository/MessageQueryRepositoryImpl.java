@@ -1,6 +1,7 @@
 package com.platform.software.chat.message.repository;
 
 import com.platform.software.chat.conversation.entity.QConversation;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
 import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
 import com.platform.software.chat.conversationparticipant.entity.QConversationParticipant;
 import com.platform.software.chat.message.attachment.entity.QMessageAttachment;
@@ -8,19 +9,24 @@ import com.platform.software.chat.message.dto.MessageWindowPage;
 import com.platform.software.chat.message.entity.Message;
 import com.platform.software.chat.message.entity.QMessage;
 import com.platform.software.chat.user.entity.QChatUser;
+import com.platform.software.config.workspace.WorkspaceContext;
 import com.platform.software.controller.external.IdBasedPageRequest;
 import com.querydsl.core.types.OrderSpecifier;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
 import org.postgresql.util.PGobject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -38,13 +44,32 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
     private static final QChatUser sender = QChatUser.chatUser;
 
     private final JPAQueryFactory queryFactory;
-
-    public MessageQueryRepositoryImpl(JPAQueryFactory jpaQueryFactory) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final SearchVectorMode searchVectorMode;
+    private final MessagePaginationMode paginationMode;
+    private final int jumpWindowSize;
+
+    public MessageQueryRepositoryImpl(
+            JPAQueryFactory jpaQueryFactory,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${message.search-vector.mode:QUERY}") SearchVectorMode searchVectorMode,
+            @Value("${message.history.pagination-mode:COUNT}") MessagePaginationMode paginationMode,
+            @Value("${message.history.jump-window-size:10}") int jumpWindowSize
+    ) {
         this.queryFactory = jpaQueryFactory;
+        this.eventPublisher = eventPublisher;
+        this.searchVectorMode = searchVectorMode;
+        this.paginationMode = paginationMode;
+        this.jumpWindowSize = jumpWindowSize;
     }
 
     public Message saveMessageWthSearchVector(Message message) {
-        if (message.getMessageText() != null && !message.getMessageText().isBlank()) {
+        if (searchVectorMode == SearchVectorMode.DATABASE) {
+            // computed by the message_search_vector_trigger when the row is written
+            if (message.getId() == null) {
+                message.setSearchVector(null);
+            }
+        } else if (message.getMessageText() != null && !message.getMessageText().isBlank()) {
             String tsvectorString = generateTSVector(message);
 
             message.setSearchVector(tsvectorString);
@@ -54,12 +79,96 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
 
         if (message.getId() == null) {
             entityManager.persist(message);
+            entityManager.flush();
+            recordNewMessages(message, 1);
             return message;
         } else {
             return entityManager.merge(message);
         }
     }
 
+    @Override
+    public List<Message> saveMessagesWithSearchVector(List<Message> messages) {
+        Map<String, String> searchVectors = searchVectorMode == SearchVectorMode.DATABASE
+                ? Map.of()
+                : generateTSVectors(messages.stream().map(Message::getMessageText).toList());
+
+        for (Message newMessage : messages) {
+            newMessage.setSearchVector(newMessage.getMessageText() == null ? null : searchVectors.get(newMessage.getMessageText()));
+            entityManager.persist(newMessage);
+        }
+        entityManager.flush();
+
+        Map<Long, Message> lastMessageByConversation = new HashMap<>();
+        Map<Long, Integer> messageCountByConversation = new HashMap<>();
+        for (Message newMessage : messages) {
+            lastMessageByConversation.merge(newMessage.getConversation().getId(), newMessage,
+                    (current, candidate) -> candidate.getId() > current.getId() ? candidate : current);
+            messageCountByConversation.merge(newMessage.getConversation().getId(), 1, Integer::sum);
+        }
+        lastMessageByConversation.forEach((conversationId, lastMessage) ->
+                recordNewMessages(lastMessage, messageCountByConversation.get(conversationId)));
+
+        return messages;
+    }
+
+    @Override
+    public void recordNewMessages(Message lastMessage, int messageCount) {
+        // only moves forward, so concurrent writers of the same conversation keep the highest message id
+        entityManager.createNativeQuery("""
+                        UPDATE conversation
+                        SET last_message_id = :messageId, last_message_at = :createdAt
+                        WHERE id = :conversationId AND (last_message_id IS NULL OR last_message_id < :messageId)
+                        """)
+                .setParameter("messageId", lastMessage.getId())
+                .setParameter("createdAt", lastMessage.getCreatedAt())
+                .setParameter("conversationId", lastMessage.getConversation().getId())
+                .executeUpdate();
+
+        // applied in batches after the commit, so the send transaction locks no participant row. The sender's count
+        // is recomputed when its last seen message is set to the new message, which the increment then skips
+        eventPublisher.publishEvent(new UnreadCountIncrement(
+                WorkspaceContext.getCurrentWorkspace(),
+                lastMessage.getConversation().getId(),
+                lastMessage.getId(),
+                messageCount
+        ));
+    }
+
+    /**
+     * Generates the tsvector strings of the non-blank texts in one query.
+     *
+     * @return tsvector string by text
+     */
+    private Map<String, String> generateTSVectors(Collection<String> messageTexts) {
+        List<String> texts = messageTexts.stream()
+                .filter(text -> text != null && !text.isBlank())
+                .distinct()
+                .toList();
+        if (texts.isEmpty()) {
+            return Map.of();
+        }
+
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < texts.size(); i++) {
+            values.add("(CAST(:text" + i + " AS text))");
+        }
+
+        Query query = entityManager.createNativeQuery(
+                "SELECT t.message_text, CAST(to_tsvector('english', t.message_text) AS text) FROM (VALUES " + values + ") AS t(message_text)"
+        );
+        for (int i = 0; i < texts.size(); i++) {
+            query.setParameter("text" + i, texts.get(i));
+        }
+
+        Map<String, String> searchVectors = new HashMap<>();
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            searchVectors.put((String) row[0], (String) row[1]);
+        }
+        return searchVectors;
+    }
+
     @Override
     public Optional<Message> findDeletableMessage(Long messageId, Long loggedInUserId) {
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
@@ -150,6 +259,10 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
             orderSpecifier = message.id.desc();
         }
 
+        if (paginationMode == MessagePaginationMode.CURSOR) {
+            return findMessagesAndAttachmentsByCursor(queryFactory, conditions, orderSpecifier, idBasedPageRequest);
+        }
+
         Long total = queryFactory
                 .select(message.id.count())
                 .from(message)
@@ -192,74 +305,137 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
     }
 
     /**
-     * Retrieves a window of messages around a given message ID within a specific conversation.
-     *
-     * @param conversationId the ID of the conversation
-     * @param messageId      the center message ID used to calculate the window
-     * @param participant    the participant requesting the message window, used for visibility filters
-     * @return a page containing the window of messages around the given message ID
+     * Fetches a history page without counting the conversation, probing one message past the page size
+     * to tell whether more messages exist in the paging direction.
+     * The side of the cursor always has more messages, and a page without a cursor is the newest page.
+     * The page total only covers the loaded messages plus the probed one, so it is not a conversation count.
      */
-    public MessageWindowPage<Message> findMessagesAndAttachmentsByMessageId(Long conversationId, Long messageId, ConversationParticipant participant) {
-        JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
-
-        int windowSize = 10;
+    private MessageWindowPage<Message> findMessagesAndAttachmentsByCursor(
+            JPAQueryFactory queryFactory,
+            BooleanExpression conditions,
+            OrderSpecifier<?> orderSpecifier,
+            IdBasedPageRequest idBasedPageRequest
+    ) {
+        int pageSize = idBasedPageRequest.getSize().intValue();
+        Pageable pageable = PageRequest.of(0, pageSize);
+        boolean isAfterCursor = idBasedPageRequest.getAfterId() != null;
 
-        BooleanExpression conditions = message.conversation.id.eq(conversationId)
-                .and(message.sender.isNotNull())
-                .and(message.conversation.deleted.eq(false));
+        // Fetch pageSize + 1 to detect if more exists without a separate query
+        List<Long> messageIds = queryFactory
+                .select(message.id)
+                .from(message)
+                .innerJoin(message.conversation, conversation)
+                .innerJoin(message.sender, sender)
+                .where(conditions)
+                .orderBy(orderSpecifier)
+                .limit(pageSize + 1)
+                .fetch();
 
-        if(!participant.getIsActive()) {
-            conditions = conditions.and(message.createdAt.before(Date.from(participant.getInactiveFrom().toInstant())));
+        boolean hasMore = messageIds.size() > pageSize;
+        if (hasMore) {
+            messageIds.remove(messageIds.size() - 1); // Remove the extra probe item
         }
 
-        if(participant.getLastDeletedTime() != null) {
-            conditions = conditions.and(message.createdAt.after(Date.from(participant.getLastDeletedTime().toInstant())));
+        boolean hasMoreBefore = isAfterCursor || hasMore;
+        boolean hasMoreAfter = isAfterCursor ? hasMore : idBasedPageRequest.getBeforeId() != null;
+
+        if (messageIds.isEmpty()) {
+            return new MessageWindowPage<>(List.of(), pageable, 0, hasMoreBefore, hasMoreAfter);
         }
 
-        Long validTargetId = queryFactory.select(message.id)
+        List<Message> messages = queryFactory
+                .selectDistinct(message)
                 .from(message)
-                .innerJoin(message.conversation, conversation)
-                .innerJoin(message.sender, sender)
-                .where(conditions.and(message.id.eq(messageId)))
-                .fetchOne();
+                .leftJoin(message.attachments, messageAttachment).fetchJoin()
+                .innerJoin(message.conversation, conversation).fetchJoin()
+                .innerJoin(message.sender, sender).fetchJoin()
+                .where(message.id.in(messageIds))
+                .orderBy(orderSpecifier)
+                .fetch();
 
-        if (validTargetId == null) {
-            return new MessageWindowPage<>(Collections.emptyList(), PageRequest.of(0, windowSize * 2 + 1), 0, false, false);
+        if (isAfterCursor) {
+            messages = messages.reversed();
         }
 
-        // Fetch windowSize + 1 to detect if more exists without a separate query
-        List<Long> beforeIds = queryFactory.select(message.id)
-                .from(message)
-                .innerJoin(message.conversation, conversation)
-                .innerJoin(message.sender, sender)
-                .where(conditions.and(message.id.lt(validTargetId)))
-                .orderBy(message.id.desc())
-                .limit(windowSize + 1)
-                .fetch();
+        return new MessageWindowPage<>(messages, pageable, messages.size() + (hasMore ? 1 : 0), hasMoreBefore, hasMoreAfter);
+    }
 
-        boolean hasMoreBefore = beforeIds.size() > windowSize;
-        if (hasMoreBefore) {
-            beforeIds.remove(beforeIds.size() - 1); // Remove the extra probe item
+    /**
+     * Retrieves a window of messages around a given message ID within a specific conversation.
+     *
+     * @param conversationId the ID of the conversation
+     * @param messageId      the center message ID used to calculate the window
+     * @param participant    the participant requesting the message window, used for visibility filters
+     * @return a page containing the window of messages around the given message ID
+     */
+    public MessageWindowPage<Message> findMessagesAndAttachmentsByMessageId(Long conversationId, Long messageId, ConversationParticipant participant) {
+        Pageable pageable = PageRequest.of(0, jumpWindowSize * 2 + 1);
+
+        // visibility of the participant, applied to the target and both scans
+        StringBuilder visibleMessage = new StringBuilder("m.conversation_id = :conversationId AND m.sender_id IS NOT NULL");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("conversationId", conversationId);
+
+        if (!participant.getIsActive()) {
+            visibleMessage.append(" AND m.created_at < :inactiveFrom");
+            parameters.put("inactiveFrom", Date.from(participant.getInactiveFrom().toInstant()));
         }
 
-        List<Long> afterIds = queryFactory.select(message.id)
-                .from(message)
-                .innerJoin(message.conversation, conversation)
-                .innerJoin(message.sender, sender)
-                .where(conditions.and(message.id.gt(validTargetId)))
-                .orderBy(message.id.asc())
-                .limit(windowSize + 1)
-                .fetch();
+        if (participant.getLastDeletedTime() != null) {
+            visibleMessage.append(" AND m.created_at > :deletedAt");
+            parameters.put("deletedAt", Date.from(participant.getLastDeletedTime().toInstant()));
+        }
 
-        boolean hasMoreAfter = afterIds.size() > windowSize;
-        if (hasMoreAfter) {
-            afterIds.remove(afterIds.size() - 1);
+        // the target and windowSize + 1 ids on each side of it, the extra ids detecting more messages without a count.
+        // Each side is numbered by its distance from the target, so the probe ids are dropped in SQL instead of
+        // relying on the order of the union arms
+        Query windowQuery = entityManager.createNativeQuery("""
+                WITH target AS (
+                    SELECT m.id FROM message m
+                    JOIN conversation c ON c.id = m.conversation_id
+                    WHERE m.id = :messageId AND c.deleted = false AND %1$s
+                ),
+                before_target AS (
+                    SELECT m.id FROM message m, target t
+                    WHERE m.id < t.id AND %1$s
+                    ORDER BY m.id DESC
+                    LIMIT :probeSize
+                ),
+                after_target AS (
+                    SELECT m.id FROM message m, target t
+                    WHERE m.id > t.id AND %1$s
+                    ORDER BY m.id ASC
+                    LIMIT :probeSize
+                ),
+                message_window AS (
+                    SELECT id, 0 AS distance FROM target
+                    UNION ALL SELECT id, row_number() OVER (ORDER BY id DESC) FROM before_target
+                    UNION ALL SELECT id, row_number() OVER (ORDER BY id ASC) FROM after_target
+                )
+                SELECT w.id,
+                       (SELECT count(*) FROM before_target) > :windowSize AS has_more_before,
+                       (SELECT count(*) FROM after_target) > :windowSize AS has_more_after
+                FROM message_window w
+                WHERE w.distance <= :windowSize
+                """.formatted(visibleMessage));
+        windowQuery.setParameter("messageId", messageId);
+        windowQuery.setParameter("probeSize", jumpWindowSize + 1);
+        windowQuery.setParameter("windowSize", jumpWindowSize);
+        parameters.forEach(windowQuery::setParameter);
+
+        List<Long> windowIds = new ArrayList<>();
+        boolean hasMoreBefore = false;
+        boolean hasMoreAfter = false;
+        for (Object row : windowQuery.getResultList()) {
+            Object[] columns = (Object[]) row;
+            windowIds.add(((Number) columns[0]).longValue());
+            hasMoreBefore = (Boolean) columns[1];
+            hasMoreAfter = (Boolean) columns[2];
         }
 
-        List<Long> allIdsToFetch = new ArrayList<>();
-        allIdsToFetch.add(validTargetId);
-        allIdsToFetch.addAll(beforeIds);
-        allIdsToFetch.addAll(afterIds);
+        if (windowIds.isEmpty()) {
+            return new MessageWindowPage<>(Collections.emptyList(), pageable, 0, false, false);
+        }
 
         List<Message> fetchedMessages = queryFactory
                 .selectDistinct(message)
@@ -267,13 +443,18 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
                 .leftJoin(message.attachments, messageAttachment).fetchJoin()
                 .innerJoin(message.conversation, conversation).fetchJoin()
                 .innerJoin(message.sender, sender).fetchJoin()
-                .where(message.id.in(allIdsToFetch))
+                .where(message.id.in(windowIds))
                 .fetch();
 
         fetchedMessages.sort(Comparator.comparing(Message::getId).reversed());
 
-        Pageable pageable = PageRequest.of(0, windowSize * 2 + 1);
-        return new MessageWindowPage<>(fetchedMessages, pageable, fetchedMessages.size(), hasMoreBefore, hasMoreAfter);
+        return new MessageWindowPage<>(
+                fetchedMessages,
+                pageable,
+                fetchedMessages.size(),
+                hasMoreBefore,
+                hasMoreAfter
+        );
     }
 
     @Override
@@ -312,4 +493,55 @@ public class MessageQueryRepositoryImpl implements MessageQueryRepository {
                 .fetchFirst()
         );
     }
-}
\ No newline at end of file
+
+    @Override
+    public List<Long> findLatestMessageIds(Long conversationId, int limit) {
+        return queryFactory
+                .select(message.id)
+                .from(message)
+                .innerJoin(message.conversation, conversation)
+                .innerJoin(message.sender, sender)
+                .where(message.conversation.id.eq(conversationId)
+                        .and(message.conversation.deleted.eq(false)))
+                .orderBy(message.id.desc())
+                .limit(limit)
+                .fetch();
+    }
+
+    @Override
+    public List<Message> findMessagesAndAttachmentsByIds(Long conversationId, Collection<Long> messageIds) {
+        if (messageIds.isEmpty()) {
+            return List.of();
+        }
+
+        return queryFactory
+                .selectDistinct(message)
+                .from(message)
+                .leftJoin(message.attachments, messageAttachment).fetchJoin()
+                .innerJoin(message.conversation, conversation).fetchJoin()
+                .innerJoin(message.sender, sender).fetchJoin()
+                .where(message.id.in(messageIds)
+                        .and(message.conversation.id.eq(conversationId))
+                        .and(message.conversation.deleted.eq(false)))
+                .orderBy(message.id.desc())
+                .fetch();
+    }
+
+    @Override
+    public Map<Long, List<Long>> findForwardingMessageIdsByConversation(Collection<Long> forwardedMessageIds) {
+        if (forwardedMessageIds.isEmpty()) {
+            return Map.of();
+        }
+
+        return queryFactory
+                .select(message.conversation.id, message.id)
+                .from(message)
+                .where(message.forwardedMessage.id.in(forwardedMessageIds))
+                .fetch()
+                .stream()
+                .collect(Collectors.groupingBy(
+                        row -> row.get(message.conversation.id),
+                        Collectors.mapping(row -> row.get(message.id), Collectors.toList())
+                ));
+    }
+}
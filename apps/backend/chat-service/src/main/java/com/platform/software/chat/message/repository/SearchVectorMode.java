@@ -0,0 +1,8 @@
+package com.platform.software.chat.message.repository;
+
+public enum SearchVectorMode {
+    // the application runs to_tsvector in a separate query before writing the message
+    QUERY,
+    // the message_search_vector_trigger of the workspace schema computes the search vector within the insert or update
+    DATABASE
+}
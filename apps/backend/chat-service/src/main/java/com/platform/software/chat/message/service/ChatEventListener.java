@@ -3,6 +3,8 @@ package com.platform.software.chat.message.service;
 import com.platform.software.chat.conversation.readstatus.dto.MessageSeenEvent;
 import com.platform.software.chat.conversation.dto.ConversationEventCreated;
 import com.platform.software.chat.message.dto.*;
+import com.platform.software.chat.message.outbox.service.MessageOutboxDispatcher;
+import com.platform.software.chat.message.outbox.service.MessageOutboxService;
 import com.platform.software.chat.notification.service.ChatNotificationService;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -13,15 +15,40 @@ import org.springframework.transaction.event.TransactionalEventListener;
 public class ChatEventListener {
     private final MessagePublisherService messagePublisherService;
     private final ChatNotificationService chatNotificationService;
+    private final MessageOutboxService messageOutboxService;
+    private final MessageOutboxDispatcher messageOutboxDispatcher;
 
-    public ChatEventListener(MessagePublisherService messagePublisherService, ChatNotificationService chatNotificationService) {
+    public ChatEventListener(
+            MessagePublisherService messagePublisherService,
+            ChatNotificationService chatNotificationService,
+            MessageOutboxService messageOutboxService,
+            MessageOutboxDispatcher messageOutboxDispatcher
+    ) {
         this.messagePublisherService = messagePublisherService;
         this.chatNotificationService = chatNotificationService;
+        this.messageOutboxService = messageOutboxService;
+        this.messageOutboxDispatcher = messageOutboxDispatcher;
+    }
+
+    /**
+     * Writes the created message to the outbox in the transaction that created it, so its delivery survives
+     * rejected tasks and restarts.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onMessageCreatedBeforeCommit(MessageCreatedEvent event) {
+        if (messageOutboxService.isEnabled()) {
+            messageOutboxService.enqueue(event);
+        }
     }
 
     @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void onMessageCreated(MessageCreatedEvent event) {
+        if (messageOutboxService.isEnabled()) {
+            messageOutboxDispatcher.wakeUp(event.getWorkspaceId());
+            return;
+        }
+
         messagePublisherService.invokeNewMessageToParticipants(
                 event.getConversationId(),
                 event.getMessageViewDTO(),
@@ -37,6 +64,36 @@ public class ChatEventListener {
         );
     }
 
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onMessagesCreatedBeforeCommit(MessagesCreatedEvent event) {
+        if (messageOutboxService.isEnabled()) {
+            messageOutboxService.enqueue(event);
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessagesCreated(MessagesCreatedEvent event) {
+        if (messageOutboxService.isEnabled()) {
+            messageOutboxDispatcher.wakeUp(event.getWorkspaceId());
+            return;
+        }
+
+        messagePublisherService.invokeNewMessagesToParticipants(
+                event.getConversationId(),
+                event.getMessageViewDTOs(),
+                event.getUserId(),
+                event.getWorkspaceId(),
+                event.getMessageType()
+        );
+
+        event.getMessages().forEach(message -> chatNotificationService.sendMessageNotificationsToParticipants(
+                event.getConversationId(),
+                event.getUserId(),
+                message
+        ));
+    }
+
     @Async
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void onConversationEvent(ConversationEventCreated event) {
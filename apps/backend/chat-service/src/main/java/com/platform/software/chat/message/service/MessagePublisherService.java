@@ -1,10 +1,15 @@
 package com.platform.software.chat.message.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.platform.software.chat.conversation.dto.ConversationDTO;
+import com.platform.software.chat.conversation.dto.ConversationParticipantFlagsDTO;
 import com.platform.software.chat.conversation.readstatus.dto.MessageReadStatusWSResponseDTO;
 import com.platform.software.chat.conversation.service.ConversationUtilService;
 import com.platform.software.chat.conversationparticipant.dto.ConversationParticipantViewDTO;
 import com.platform.software.chat.message.attachment.dto.MessageAttachmentDTO;
+import com.platform.software.chat.message.attachment.entity.MessageAttachment;
 import com.platform.software.chat.message.attachment.repository.MessageAttachmentRepository;
 import com.platform.software.chat.message.dto.*;
 import com.platform.software.chat.message.entity.ReactionTypeEnum;
@@ -19,29 +24,36 @@ import com.platform.software.common.model.MessageReactionActionEnum;
 import com.platform.software.config.aws.CloudPhotoHandlingService;
 import com.platform.software.config.interceptors.websocket.WebSocketSessionManager;
 import com.platform.software.config.workspace.WorkspaceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class MessagePublisherService {
+    private final Logger logger = LoggerFactory.getLogger(MessagePublisherService.class);
 
     private final ConversationUtilService conversationUtilService;
     private final WebSocketSessionManager webSocketSessionManager;
     private final MessageAttachmentRepository messageAttachmentRepository;
     private final CloudPhotoHandlingService cloudPhotoHandlingService;
     private final UserActivityStatusService userActivityStatusService;
+    private final ObjectMapper objectMapper;
 
     public MessagePublisherService(
             ConversationUtilService conversationUtilService, WebSocketSessionManager webSocketSessionManager,
             MessageAttachmentRepository messageAttachmentRepository,
-            CloudPhotoHandlingService cloudPhotoHandlingService, UserActivityStatusService userActivityStatusService) {
+            CloudPhotoHandlingService cloudPhotoHandlingService, UserActivityStatusService userActivityStatusService,
+            ObjectMapper objectMapper) {
         this.conversationUtilService = conversationUtilService;
         this.webSocketSessionManager = webSocketSessionManager;
         this.messageAttachmentRepository = messageAttachmentRepository;
         this.cloudPhotoHandlingService = cloudPhotoHandlingService;
         this.userActivityStatusService = userActivityStatusService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -55,6 +67,21 @@ public class MessagePublisherService {
     @Transactional(readOnly = true)
     public void invokeNewMessageToParticipants(Long conversationId, MessageViewDTO messageViewDTO, Long senderId,
             String workspaceId, MessageTypeEnum messageType) {
+        invokeNewMessagesToParticipants(conversationId, List.of(messageViewDTO), senderId, workspaceId, messageType);
+    }
+
+    /**
+     * Invoke new messages of a conversation to participants. The conversation is loaded once,
+     * and each message is sent in its own frame.
+     *
+     * @param conversationId  the conversation id
+     * @param messageViewDTOs the message view dtos, in sending order
+     * @param senderId        the sender id
+     * @param workspaceId     the tenant id
+     */
+    @Transactional(readOnly = true)
+    public void invokeNewMessagesToParticipants(Long conversationId, List<MessageViewDTO> messageViewDTOs, Long senderId,
+            String workspaceId, MessageTypeEnum messageType) {
 
         ConversationDTO conversationDTO = null;
         ConversationParticipantViewDTO senderParticipant = null;
@@ -73,17 +100,75 @@ public class MessagePublisherService {
         // sender for non group conversations
         UserUtilService.setConversationNameForNonGroup(senderId, conversationDTO, true);
 
-        // TODO: This is a quick fix, refactor this later
-        List<MessageAttachmentDTO> attachmentDTOs = messageAttachmentRepository.findByMessageId(messageViewDTO.getId())
-                .stream()
-                .map(attachment -> {
-                    MessageAttachmentDTO messageAttachmentDTO = new MessageAttachmentDTO(attachment);
+        if (senderParticipant != null) {
+            DeviceType deviceType = userActivityStatusService.getUserDeviceType(
+                    WorkspaceContext.getCurrentWorkspace(),
+                    senderParticipant.getUser().getEmail()
+            );
+            conversationDTO.setDeviceType(deviceType);
+        }
+
+        String conversationSignedImageUrl = cloudPhotoHandlingService.getPhotoViewSignedURL(
+                conversationDTO.getIsGroup() ? MediaPathEnum.RESIZED_GROUP_PICTURE : MediaPathEnum.RESIZED_PROFILE_PICTURE,
+                MediaSizeEnum.MEDIUM,
+                conversationDTO.getImageIndexedName()
+        );
+
+        List<ConversationParticipantViewDTO> recipients = conversationDTO.getParticipants().stream()
+                .filter(p -> p.getUser() != null && p.getUser().getId() != null)
+                .filter(p -> !p.getUser().getId().equals(senderId))
+                .filter(p -> p.getUser().getEmail() != null)
+                .toList();
 
-                    String fileViewSignedURL = cloudPhotoHandlingService
-                            .getPhotoViewSignedURL(attachment.getIndexedFileName());
+        for (MessageViewDTO messageViewDTO : messageViewDTOs) {
+            prepareNewMessage(conversationId, messageViewDTO);
+
+            // the conversation part of the payload is the same for every participant, so the image is signed
+            // and the payload is serialized once, and only the participant flags are serialized per participant
+            ConversationDTO sharedPayload = new ConversationDTO(conversationDTO);
+            sharedPayload.setParticipants(null);
+            sharedPayload.setSignedImageUrl(conversationSignedImageUrl);
+            sharedPayload.setMessages(List.of(messageViewDTO));
+
+            String sharedPayloadFields;
+            try {
+                sharedPayloadFields = serializeSharedPayloadFields(sharedPayload);
+            } catch (JsonProcessingException e) {
+                logger.error("failed to serialize new message payload for conversation: {}", conversationId, e);
+                continue;
+            }
+
+            recipients.forEach(participant -> {
+                String payload;
+                try {
+                    payload = mergeParticipantFlags(new ConversationParticipantFlagsDTO(participant), sharedPayloadFields);
+                } catch (JsonProcessingException e) {
+                    logger.error("failed to serialize new message payload for user: {}", participant.getUser().getId(), e);
+                    return;
+                }
+
+                webSocketSessionManager.sendMessageToUser(
+                        workspaceId,
+                        participant.getUser().getEmail(),
+                        WebSocketTopicConstants.MESSAGE_RECEIVED,
+                        payload);
+            });
+        }
+    }
 
-                    messageAttachmentDTO.setFileUrl(fileViewSignedURL);
+    /**
+     * Sets the conversation id, the signed attachment urls and the signed sender image url of a new message.
+     */
+    private void prepareNewMessage(Long conversationId, MessageViewDTO messageViewDTO) {
+        // TODO: This is a quick fix, refactor this later
+        List<MessageAttachment> attachments = messageAttachmentRepository.findByMessageId(messageViewDTO.getId());
+        Map<String, String> signedURLs = cloudPhotoHandlingService.getPhotoViewSignedURLs(
+                attachments.stream().map(MessageAttachment::getIndexedFileName).toList());
 
+        List<MessageAttachmentDTO> attachmentDTOs = attachments.stream()
+                .map(attachment -> {
+                    MessageAttachmentDTO messageAttachmentDTO = new MessageAttachmentDTO(attachment);
+                    messageAttachmentDTO.setFileUrl(signedURLs.get(attachment.getIndexedFileName()));
                     return messageAttachmentDTO;
                 })
                 .toList();
@@ -99,54 +184,28 @@ public class MessagePublisherService {
                     MediaSizeEnum.SMALL, messageViewDTO.getImageIndexedName());
             messageViewDTO.setSenderSignedImageUrl(signedUrl);
         }
-
-        conversationDTO.setMessages(List.of(messageViewDTO));
-
-        if (senderParticipant != null) {
-            DeviceType deviceType = userActivityStatusService.getUserDeviceType(
-                    WorkspaceContext.getCurrentWorkspace(),
-                    senderParticipant.getUser().getEmail()
-            );
-            conversationDTO.setDeviceType(deviceType);
-        }
-
-        ConversationDTO finalConversationDTO = conversationDTO;
-        conversationDTO.getParticipants().stream()
-                .filter(p -> p.getUser() != null && p.getUser().getId() != null)
-                .filter(p -> !p.getUser().getId().equals(senderId))
-                .forEach(participant -> {
-                    String email = participant.getUser().getEmail();
-                    if (email == null)
-                        return;
-
-                    ConversationDTO payload = getConversationDTO(participant, finalConversationDTO);
-
-                    payload.setSignedImageUrl(cloudPhotoHandlingService.getPhotoViewSignedURL(
-                            payload.getIsGroup() ? MediaPathEnum.RESIZED_GROUP_PICTURE : MediaPathEnum.RESIZED_PROFILE_PICTURE,
-                            MediaSizeEnum.MEDIUM,
-                            payload.getImageIndexedName())
-                    );
-
-                    webSocketSessionManager.sendMessageToUser(
-                            workspaceId,
-                            email,
-                            WebSocketTopicConstants.MESSAGE_RECEIVED,
-                            payload);
-                });
     }
 
-    private static ConversationDTO getConversationDTO(ConversationParticipantViewDTO participant,
-            ConversationDTO conversationDTO) {
-        ConversationDTO participantDTO = new ConversationDTO(conversationDTO);
+    /**
+     * Serializes the shared conversation payload without the per-participant flags.
+     *
+     * @return the payload fields as a JSON object without its opening brace
+     */
+    private String serializeSharedPayloadFields(ConversationDTO sharedPayload) throws JsonProcessingException {
+        ObjectNode sharedNode = objectMapper.valueToTree(sharedPayload);
+        objectMapper.valueToTree(new ConversationParticipantFlagsDTO()).fieldNames().forEachRemaining(sharedNode::remove);
 
-        participantDTO.setPinnedByLoggedInUser(participant.getIsPinnedByParticipant());
-        participantDTO.setArchivedByLoggedInUser(participant.getIsArchivedByParticipant());
-        participantDTO.setMutedByLoggedInUser(participant.getIsMutedByParticipant());
-        participantDTO.setFavoriteByLoggedInUser(participant.getIsFavoriteByParticipant());
+        String sharedJson = objectMapper.writeValueAsString(sharedNode);
+        return sharedJson.substring(1);
+    }
 
-        // Remove participant details to minimize WebSocket payload size
-        participantDTO.setParticipants(null);
-        return participantDTO;
+    /**
+     * Builds the payload of one participant by prepending its flags to the shared payload fields.
+     */
+    private String mergeParticipantFlags(ConversationParticipantFlagsDTO flags, String sharedPayloadFields) throws JsonProcessingException {
+        String flagsJson = objectMapper.writeValueAsString(flags);
+        String separator = sharedPayloadFields.equals("}") ? "" : ",";
+        return flagsJson.substring(0, flagsJson.length() - 1) + separator + sharedPayloadFields;
     }
 
     /**
@@ -3,6 +3,7 @@ package com.platform.software.chat.message.service;
 import com.platform.software.chat.conversation.dto.ConversationDTO;
 import com.platform.software.chat.conversation.entity.Conversation;
 import com.platform.software.chat.conversation.readstatus.dto.ConversationReadInfo;
+import com.platform.software.chat.conversation.readstatus.dto.ReadStatusUpdatedEvent;
 import com.platform.software.chat.conversation.readstatus.entity.ConversationReadStatus;
 import com.platform.software.chat.conversation.readstatus.repository.ConversationReadStatusRepository;
 import com.platform.software.chat.conversation.service.ConversationUtilService;
@@ -129,7 +130,7 @@ public class MessageService {
             messageViewDTO.getParentMessage().setMessageAttachments(enrichedMessageAttachmentDTOts);
         }
 
-        conversationParticipantRepository.restoreParticipantsByConversationId(conversationId);
+        restoreParticipants(savedMessage.getConversation());
 
         setLastSeenMessageForMessageSentUser(savedMessage.getConversation(), savedMessage, savedMessage.getSender());
 
@@ -145,6 +146,18 @@ public class MessageService {
         return messageViewDTO;
     }
 
+    /**
+     * Restores participants who deleted the conversation, so it reappears for them with the new message.
+     *
+     * @param conversation the conversation that received a new message
+     */
+    private void restoreParticipants(Conversation conversation) {
+        long restoredCount = conversationParticipantRepository.restoreParticipantsByConversationId(conversation.getId());
+        if (restoredCount > 0) {
+            conversationUtilService.evictOneToOneConversationIds(conversation);
+        }
+    }
+
     /**
      * Create bot message view dto.
      *
@@ -164,7 +177,7 @@ public class MessageService {
 
         messageMentionService.saveMessageMentions(savedMessage, messageViewDTO);
 
-        conversationParticipantRepository.restoreParticipantsByConversationId(conversationId);
+        restoreParticipants(savedMessage.getConversation());
 
         eventPublisher.publishEvent(new MessageCreatedEvent(
                 WorkspaceContext.getCurrentWorkspace(),
@@ -262,6 +275,14 @@ public class MessageService {
 
         try {
             conversationReadStatusRepository.save(updatingStatus);
+            conversationReadStatusRepository.refreshUnreadCounts(user.getId(), List.of(conversation.getId()));
+            eventPublisher.publishEvent(new ReadStatusUpdatedEvent(
+                    WorkspaceContext.getCurrentWorkspace(),
+                    conversation.getId(),
+                    user.getId(),
+                    savedMessage.getId(),
+                    false
+            ));
         } catch (Exception exception) {
             logger.error("failed set message as read for latest sent: {}", savedMessage, exception);
         }
@@ -434,17 +455,17 @@ public class MessageService {
                 .toList();
 
         ChatUser loggedInUser = userService.getUserOrThrow(loggedInUserId);
-        
-        List<Long> forwardedConversations = new ArrayList<>(List.of());
 
-        List<Message> forwardingMessages = new ArrayList<>();
+        // target conversation id -> new messages, in sending order
+        Map<Long, List<Message>> forwardingMessagesByConversation = new LinkedHashMap<>();
         for (ConversationDTO targetConversation : targetConversations) {
+            List<Message> conversationMessages = new ArrayList<>();
             messages.forEach(message -> {
                 Message newMessage = MessageService.buildMessage(message.getMessageText(), targetConversation.getModel(), loggedInUser, message.getMessageType(), message.getIsMarkdownEnabled());
                 newMessage.setForwardedMessage(message);
                 newMessage.setAttachments(mapToNewAttachments(message.getAttachments(), newMessage));
                 newMessage.setIsStored(true);
-                forwardingMessages.add(newMessage);
+                conversationMessages.add(newMessage);
             });
 
             // Send custom text once per conversation
@@ -457,33 +478,46 @@ public class MessageService {
                         messageForwardRequestDTO.getIsMarkdownEnabled()
                 );
                 customMessage.setIsStored(true);
-                forwardingMessages.add(customMessage);
+                conversationMessages.add(customMessage);
             }
 
-            try {
-                for(Message message: forwardingMessages){
-                    Message savedMessage = messageRepository.saveMessageWthSearchVector(message);
-
-                    setLastSeenMessageForMessageSentUser(targetConversation.getModel(), savedMessage, loggedInUser);
+            forwardingMessagesByConversation.put(targetConversation.getId(), conversationMessages);
+        }
 
-                    MessageViewDTO messageViewDTO = new MessageViewDTO(message);
+        try {
+            // messages and attachments of every target conversation are inserted in JDBC batches
+            messageRepository.saveMessagesWithSearchVector(forwardingMessagesByConversation.values().stream()
+                    .flatMap(List::stream)
+                    .toList());
+
+            Map<Long, Long> lastSeenMessageIds = new HashMap<>();
+            forwardingMessagesByConversation.forEach((conversationId, conversationMessages) ->
+                    lastSeenMessageIds.put(conversationId, conversationMessages.getLast().getId()));
+            conversationReadStatusRepository.upsertLastSeenMessageIds(loggedInUserId, lastSeenMessageIds);
+            lastSeenMessageIds.forEach((conversationId, messageId) -> eventPublisher.publishEvent(new ReadStatusUpdatedEvent(
+                    WorkspaceContext.getCurrentWorkspace(),
+                    conversationId,
+                    loggedInUserId,
+                    messageId,
+                    false
+            )));
+        } catch (Exception exception) {
+            logger.error("failed forward messages {}", messageForwardRequestDTO, exception);
+            throw new CustomBadRequestException("Failed to forward message");
+        }
 
-                    eventPublisher.publishEvent(new MessageCreatedEvent(
-                            WorkspaceContext.getCurrentWorkspace(),
-                            message.getConversation().getId(),
-                            messageViewDTO,
-                            loggedInUserId,
-                            message,
-                            MessageTypeEnum.TEXT
-                    ));
-                }
+        String workspaceId = WorkspaceContext.getCurrentWorkspace();
+        forwardingMessagesByConversation.forEach((conversationId, conversationMessages) ->
+                eventPublisher.publishEvent(new MessagesCreatedEvent(
+                        workspaceId,
+                        conversationId,
+                        conversationMessages.stream().map(MessageViewDTO::new).toList(),
+                        loggedInUserId,
+                        conversationMessages,
+                        MessageTypeEnum.TEXT
+                )));
 
-            } catch (Exception exception) {
-                logger.error("failed forward messages {}", messageForwardRequestDTO, exception);
-                throw new CustomBadRequestException("Failed to forward message");
-            }
-            forwardedConversations.add(targetConversation.getId());
-        }
+        List<Long> forwardedConversations = new ArrayList<>(forwardingMessagesByConversation.keySet());
 
         return new MessageForwardResponseDTO(forwardedConversations);
     }
@@ -663,6 +697,7 @@ public class MessageService {
 
         message.setIsUnsend(true);
         messageRepository.save(message);
+        conversationReadStatusRepository.decrementUnreadCounts(conversation.getId(), message.getId());
 
         eventPublisher.publishEvent(new MessageUnsentEvent(
                 WorkspaceContext.getCurrentWorkspace(),
@@ -709,6 +744,14 @@ public class MessageService {
         
         try {
             conversationReadStatusRepository.save(updatingStatus);
+            conversationReadStatusRepository.refreshUnreadCounts(loggedInUserId, List.of(conversationId));
+            eventPublisher.publishEvent(new ReadStatusUpdatedEvent(
+                    WorkspaceContext.getCurrentWorkspace(),
+                    conversationId,
+                    loggedInUserId,
+                    previousMessage.map(Message::getId).orElse(null),
+                    true
+            ));
         } catch (Exception exception) {
             logger.error("failed to mark message {} as unread for user {}", messageId, loggedInUserId, exception);
             throw new CustomBadRequestException("Failed to mark message as unread");
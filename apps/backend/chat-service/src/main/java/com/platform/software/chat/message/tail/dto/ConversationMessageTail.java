@@ -0,0 +1,71 @@
+package com.platform.software.chat.message.tail.dto;
+
+import com.platform.software.chat.message.dto.BasicMessageDTO;
+import com.platform.software.chat.message.dto.MessageViewDTO;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The latest messages of a conversation rendered without any per-user field or sender profile field, newest first.
+ *
+ * @param version  the conversation tail version the messages were rendered at
+ * @param complete whether the messages reach back to the first message of the conversation
+ * @param messages the rendered messages, newest first
+ */
+public record ConversationMessageTail(long version, boolean complete, List<MessageViewDTO> messages) {
+
+    /**
+     * Finds the messages whose reply or forward snippet renders one of the changed messages,
+     * since they have to be re-rendered along with them.
+     *
+     * @param changedIds the ids of the changed messages
+     * @return the ids of the dependent messages in the tail
+     */
+    public List<Long> dependentIds(Collection<Long> changedIds) {
+        return messages.stream()
+                .filter(message -> rendersAny(message.getParentMessage(), changedIds)
+                        || rendersAny(message.getOriginalForwardedMessage(), changedIds))
+                .map(MessageViewDTO::getId)
+                .toList();
+    }
+
+    private static boolean rendersAny(BasicMessageDTO snippet, Collection<Long> messageIds) {
+        return snippet != null && messageIds.contains(snippet.getId());
+    }
+
+    /**
+     * Replaces or adds the refreshed messages, keeping at most tailSize of the newest messages.
+     * Messages older than the tail are skipped when the tail does not reach the start of the conversation,
+     * since the messages between them are not cached.
+     *
+     * @param newVersion the version after the refresh
+     * @param refreshed  the re-rendered messages
+     * @param tailSize   the maximum number of messages
+     * @return the refreshed tail
+     */
+    public ConversationMessageTail merge(long newVersion, List<MessageViewDTO> refreshed, int tailSize) {
+        Long oldestId = messages.isEmpty() ? null : messages.getLast().getId();
+
+        Map<Long, MessageViewDTO> messagesById = new LinkedHashMap<>();
+        messages.forEach(message -> messagesById.put(message.getId(), message));
+        for (MessageViewDTO message : refreshed) {
+            if (!complete && oldestId != null && message.getId() < oldestId) {
+                continue;
+            }
+            messagesById.put(message.getId(), message);
+        }
+
+        List<MessageViewDTO> merged = new ArrayList<>(messagesById.values());
+        merged.sort(Comparator.comparing(MessageViewDTO::getId).reversed());
+
+        if (merged.size() > tailSize) {
+            return new ConversationMessageTail(newVersion, false, new ArrayList<>(merged.subList(0, tailSize)));
+        }
+        return new ConversationMessageTail(newVersion, complete, merged);
+    }
+}
@@ -0,0 +1,410 @@
+package com.platform.software.chat.message.tail.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.software.chat.conversation.dto.ConversationEventCreated;
+import com.platform.software.chat.message.dto.*;
+import com.platform.software.chat.message.repository.MessagePaginationMode;
+import com.platform.software.chat.message.tail.dto.ConversationMessageTail;
+import com.platform.software.config.cache.BoundedLocalCache;
+import com.platform.software.config.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caches the latest rendered messages of each conversation, so the first history page is served without
+ * the message, mention and attachment queries.
+ * <p>
+ * Tails are kept in a bounded on-heap cache and mirrored to a Redis hash holding the tail and a version counter.
+ * Every message change of a conversation increments the version and merges the re-rendered messages, along with
+ * the messages replying to or forwarding them, into the tail of the previous version, or drops the tail when that
+ * version is not cached. Readers only use a tail whose version matches the counter and rebuild it from the database
+ * otherwise, so instances never serve a tail missing a change they were told about.
+ * The hash expires a fixed time after it is created and changes do not extend it, so a change that cannot reach Redis
+ * leaves the tail stale for at most that long. Each new hash starts its counter from the current time, so tails of an
+ * expired hash never match the counter of the next one. Sender names and pictures are not cached but resolved for
+ * every page. Attachment messages join the tail once their upload is acknowledged, which is when other participants
+ * see them. Pages from the tail carry hasMoreBefore instead of a conversation total, so the tail only serves pages in
+ * the {@link MessagePaginationMode#CURSOR} pagination mode.
+ * </p>
+ */
+@Service
+public class MessageTailCache {
+    private static final Logger logger = LoggerFactory.getLogger(MessageTailCache.class);
+
+    private static final String KEY_PREFIX = "message-tail::";
+    private static final String TAIL_FIELD = "tail";
+
+    // returns the version, creating the hash with the seed version and its fixed expiry when it does not exist
+    private static final RedisScript<Long> CURRENT_VERSION_SCRIPT = new DefaultRedisScript<>("""
+            local version = redis.call('HGET', KEYS[1], 'version')
+            if version then
+                return tonumber(version)
+            end
+            redis.call('HSET', KEYS[1], 'version', ARGV[1])
+            redis.call('PEXPIRE', KEYS[1], ARGV[2])
+            return tonumber(ARGV[1])
+            """, Long.class);
+
+    // increments the version of an existing hash, returning 0 when no tail of the conversation was read since it expired
+    private static final RedisScript<Long> INCREMENT_VERSION_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('EXISTS', KEYS[1]) == 0 then
+                return 0
+            end
+            return redis.call('HINCRBY', KEYS[1], 'version', 1)
+            """, Long.class);
+
+    // stores the tail only if no change incremented the version since it was read, keeping the expiry of the hash
+    private static final RedisScript<Long> STORE_TAIL_SCRIPT = new DefaultRedisScript<>("""
+            local version = redis.call('HGET', KEYS[1], 'version')
+            if not version or version ~= ARGV[1] then
+                return 0
+            end
+            redis.call('HSET', KEYS[1], 'tail', ARGV[2])
+            return 1
+            """, Long.class);
+
+    private static final TypeReference<List<MessageViewDTO>> MESSAGE_LIST_TYPE = new TypeReference<>() {
+    };
+
+    private final MessageTailLoader messageTailLoader;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final BoundedLocalCache<String, ConversationMessageTail> localTails;
+
+    private final boolean enabled;
+    private final MessagePaginationMode paginationMode;
+    private final int tailSize;
+    private final Duration ttl;
+
+    private final Counter heapHits;
+    private final Counter redisHits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Timer loadTimer;
+    private final Timer cachedPageTimer;
+    private final Timer databasePageTimer;
+    private final DoubleAdder latencySavedSeconds = new DoubleAdder();
+
+    public MessageTailCache(
+            MessageTailLoader messageTailLoader,
+            RedisConnectionFactory redisConnectionFactory,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${message.tail-cache.enabled:false}") boolean enabled,
+            @Value("${message.tail-cache.size:50}") int tailSize,
+            @Value("${message.tail-cache.ttl-minutes:10}") long ttlMinutes,
+            @Value("${message.tail-cache.local-max-conversations:2000}") int localMaxConversations,
+            @Value("${message.history.pagination-mode:COUNT}") MessagePaginationMode paginationMode
+    ) {
+        this.messageTailLoader = messageTailLoader;
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.paginationMode = paginationMode;
+        this.tailSize = tailSize;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.localTails = new BoundedLocalCache<>("message-tail", localMaxConversations, ttl, meterRegistry);
+
+        this.heapHits = requestCounter(meterRegistry, "heap");
+        this.redisHits = requestCounter(meterRegistry, "redis");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.bypasses = requestCounter(meterRegistry, "bypass");
+        this.loadTimer = Timer.builder("message.tail.cache.load")
+                .description("Time to rebuild a conversation tail from the database")
+                .register(meterRegistry);
+        this.cachedPageTimer = pageTimer(meterRegistry, "tail");
+        this.databasePageTimer = pageTimer(meterRegistry, "database");
+
+        Gauge.builder("message.tail.cache.hit.ratio", this, MessageTailCache::hitRatio)
+                .description("Share of first history pages served from a cached conversation tail")
+                .register(meterRegistry);
+        FunctionCounter.builder("message.tail.cache.latency.saved", latencySavedSeconds, DoubleAdder::sum)
+                .description("Estimated first history page latency saved by the conversation tail, in seconds")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("message.tail.cache.requests")
+                .description("Conversation tail lookups of first history pages")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer pageTimer(MeterRegistry meterRegistry, String source) {
+        return Timer.builder("message.tail.cache.page")
+                .description("Time to build a first history page")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether a first history page of the size can be served from a conversation tail, which needs the
+     * cursor pagination mode since a tail cannot tell the conversation total
+     */
+    public boolean canServe(long pageSize) {
+        return enabled && paginationMode == MessagePaginationMode.CURSOR && pageSize > 0 && pageSize < tailSize;
+    }
+
+    /**
+     * Returns a copy of the conversation tail of the current workspace, rebuilding it when it is not cached.
+     *
+     * @param conversationId the conversation id
+     * @return the conversation tail, or {@code null} when it is unavailable
+     */
+    public ConversationMessageTail getTail(Long conversationId) {
+        String key = tailKey(WorkspaceContext.getCurrentWorkspace(), conversationId);
+        try {
+            long version = currentVersion(key);
+
+            ConversationMessageTail tail = localTails.get(key);
+            if (tail != null && tail.version() == version) {
+                heapHits.increment();
+                return copyOf(tail);
+            }
+
+            tail = readMirroredTail(key);
+            if (tail != null && tail.version() == version) {
+                localTails.put(key, tail);
+                redisHits.increment();
+                return copyOf(tail);
+            }
+
+            misses.increment();
+            ConversationMessageTail loadedTail = loadTimer.record(() -> messageTailLoader.loadTail(conversationId, tailSize, version));
+            store(key, loadedTail);
+            return copyOf(loadedTail);
+        } catch (Exception e) {
+            logger.warn("failed to read the message tail of conversation: {}", conversationId, e);
+            return null;
+        }
+    }
+
+    /**
+     * Records a first history page that the tail could not serve.
+     */
+    public void recordBypass() {
+        bypasses.increment();
+    }
+
+    /**
+     * Records the time taken to build a first history page, estimating the latency saved by cached pages
+     * against the mean time of database pages.
+     */
+    public void recordFirstPage(boolean fromTail, long elapsedNanos) {
+        if (!fromTail) {
+            databasePageTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        cachedPageTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (databasePageTimer.count() > 0) {
+            double savedSeconds = databasePageTimer.mean(TimeUnit.SECONDS) - elapsedNanos / 1_000_000_000d;
+            latencySavedSeconds.add(Math.max(savedSeconds, 0));
+        }
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageCreated(MessageCreatedEvent event) {
+        refresh(event.getWorkspaceId(), event.getConversationId(), List.of(event.getMessageViewDTO().getId()));
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessagesCreated(MessagesCreatedEvent event) {
+        refresh(
+                event.getWorkspaceId(),
+                event.getConversationId(),
+                event.getMessageViewDTOs().stream().map(MessageViewDTO::getId).toList()
+        );
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onConversationEvent(ConversationEventCreated event) {
+        refresh(event.workspaceId(), event.conversationId(), List.of(event.messageViewDTO().getId()));
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageUpdated(MessageUpdatedEvent event) {
+        List<Long> messageIds = List.of(event.getMessageViewDTO().getId());
+        refresh(event.getWorkspaceId(), event.getConversationId(), messageIds);
+        refreshForwards(event.getWorkspaceId(), event.getConversationId(), messageIds);
+    }
+
+    @Async
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageUnsent(MessageUnsentEvent event) {
+        List<Long> messageIds = List.of(event.getMessageId());
+        refresh(event.getWorkspaceId(), event.getConversationId(), messageIds);
+        refreshForwards(event.getWorkspaceId(), event.getConversationId(), messageIds);
+    }
+
+    /**
+     * Fills the sender fields that the cached tail leaves out into the messages of a page.
+     *
+     * @param messages the messages copied from a tail
+     */
+    public void resolveSenders(List<MessageViewDTO> messages) {
+        messageTailLoader.resolveSenders(messages);
+    }
+
+    /**
+     * Re-renders changed messages, and the messages replying to or forwarding them, into the conversation tail,
+     * dropping the tail when it missed an earlier change.
+     */
+    void refresh(String workspaceId, Long conversationId, Collection<Long> messageIds) {
+        if (!enabled) {
+            return;
+        }
+
+        String key = tailKey(workspaceId, conversationId);
+        try {
+            Long version = redisTemplate.execute(INCREMENT_VERSION_SCRIPT, List.of(key));
+            if (version == null || version == 0) {
+                // the next reader starts a new hash and rebuilds the tail
+                localTails.invalidate(key);
+                return;
+            }
+
+            ConversationMessageTail tail = localTails.get(key);
+            if (tail == null || tail.version() != version - 1) {
+                tail = readMirroredTail(key);
+            }
+
+            if (tail == null || tail.version() != version - 1) {
+                localTails.invalidate(key);
+                redisTemplate.opsForHash().delete(key, TAIL_FIELD);
+                return;
+            }
+
+            Set<Long> refreshedIds = new LinkedHashSet<>(messageIds);
+            refreshedIds.addAll(tail.dependentIds(messageIds));
+
+            List<MessageViewDTO> messages =
+                    inWorkspace(workspaceId, () -> messageTailLoader.loadMessages(conversationId, refreshedIds));
+            store(key, tail.merge(version, messages, tailSize));
+        } catch (Exception e) {
+            localTails.invalidate(key);
+            logger.warn("failed to refresh the message tail of conversation: {}", conversationId, e);
+        }
+    }
+
+    /**
+     * Re-renders the forward snippets of changed messages in the tails of the other conversations they were
+     * forwarded to.
+     */
+    void refreshForwards(String workspaceId, Long conversationId, Collection<Long> messageIds) {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            Map<Long, List<Long>> forwardingMessageIds =
+                    inWorkspace(workspaceId, () -> messageTailLoader.findForwardingMessageIds(messageIds));
+            forwardingMessageIds.forEach((forwardingConversationId, forwardingIds) -> {
+                if (!forwardingConversationId.equals(conversationId)) {
+                    refresh(workspaceId, forwardingConversationId, forwardingIds);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("failed to refresh the message tails forwarding messages of conversation: {}", conversationId, e);
+        }
+    }
+
+    // refreshes run on the async executor, or on the caller's thread when it has no transaction, so the workspace of
+    // the thread is put back rather than left behind
+    private static <T> T inWorkspace(String workspaceId, Supplier<T> query) {
+        String previousWorkspace = WorkspaceContext.getCurrentWorkspace();
+        WorkspaceContext.setCurrentWorkspace(workspaceId);
+        try {
+            return query.get();
+        } finally {
+            if (previousWorkspace == null) {
+                WorkspaceContext.clear();
+            } else {
+                WorkspaceContext.setCurrentWorkspace(previousWorkspace);
+            }
+        }
+    }
+
+    private long currentVersion(String key) {
+        // microseconds of the current time, above any version reached by an earlier hash of the key
+        long seedVersion = System.currentTimeMillis() * 1000;
+        Long version = redisTemplate.execute(
+                CURRENT_VERSION_SCRIPT,
+                List.of(key),
+                String.valueOf(seedVersion),
+                String.valueOf(ttl.toMillis())
+        );
+        if (version == null) {
+            throw new IllegalStateException("no message tail version returned for key: " + key);
+        }
+        return version;
+    }
+
+    private ConversationMessageTail readMirroredTail(String key) throws JsonProcessingException {
+        Object json = redisTemplate.opsForHash().get(key, TAIL_FIELD);
+        return json == null ? null : objectMapper.readValue(json.toString(), ConversationMessageTail.class);
+    }
+
+    private void store(String key, ConversationMessageTail tail) throws JsonProcessingException {
+        Long stored = redisTemplate.execute(
+                STORE_TAIL_SCRIPT,
+                List.of(key),
+                String.valueOf(tail.version()),
+                objectMapper.writeValueAsString(tail)
+        );
+
+        if (stored != null && stored == 1) {
+            localTails.put(key, tail);
+        }
+    }
+
+    // the cached messages are shared, so every reader layers its per-user fields on its own copy
+    private ConversationMessageTail copyOf(ConversationMessageTail tail) {
+        return new ConversationMessageTail(
+                tail.version(),
+                tail.complete(),
+                objectMapper.convertValue(tail.messages(), MESSAGE_LIST_TYPE)
+        );
+    }
+
+    private double hitRatio() {
+        double hits = heapHits.count() + redisHits.count();
+        double total = hits + misses.count() + bypasses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private String tailKey(String workspaceId, Long conversationId) {
+        return KEY_PREFIX + workspaceId + "::" + conversationId;
+    }
+}
@@ -0,0 +1,192 @@
+package com.platform.software.chat.message.tail.service;
+
+import com.platform.software.chat.message.attachment.dto.MessageAttachmentDTO;
+import com.platform.software.chat.message.attachment.entity.MessageAttachment;
+import com.platform.software.chat.message.dto.BasicMessageDTO;
+import com.platform.software.chat.message.dto.MessageViewDTO;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.chat.message.service.MessageMentionService;
+import com.platform.software.chat.message.tail.dto.ConversationMessageTail;
+import com.platform.software.chat.user.entity.ChatUser;
+import com.platform.software.chat.user.repository.UserRepository;
+import com.platform.software.utils.CommonUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Renders conversation tail messages from the database, leaving out every per-user field
+ * (seen and read status, reactions, system event texts), every signed URL and the sender profile fields,
+ * which are resolved when a page is read so that profile changes show without a tail rebuild.
+ */
+@Service
+@RequiredArgsConstructor
+public class MessageTailLoader {
+    private final MessageRepository messageRepository;
+    private final MessageMentionService messageMentionService;
+    private final UserRepository userRepository;
+
+    /**
+     * Loads the latest messages of a conversation.
+     *
+     * @param conversationId the conversation id
+     * @param tailSize       the maximum number of messages
+     * @param version        the conversation tail version read before loading
+     * @return the conversation tail
+     */
+    @Transactional(readOnly = true)
+    public ConversationMessageTail loadTail(Long conversationId, int tailSize, long version) {
+        // Fetch tailSize + 1 to detect if the tail reaches the first message without a separate query
+        List<Long> messageIds = messageRepository.findLatestMessageIds(conversationId, tailSize + 1);
+
+        boolean complete = messageIds.size() <= tailSize;
+        if (!complete) {
+            messageIds = messageIds.subList(0, tailSize);
+        }
+
+        return new ConversationMessageTail(version, complete, loadMessages(conversationId, messageIds));
+    }
+
+    /**
+     * Loads messages of a conversation by id.
+     *
+     * @param conversationId the conversation id
+     * @param messageIds     the message ids
+     * @return the rendered messages, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<MessageViewDTO> loadMessages(Long conversationId, Collection<Long> messageIds) {
+        List<MessageViewDTO> messageViewDTOs = new ArrayList<>(messageRepository
+                .findMessagesAndAttachmentsByIds(conversationId, messageIds)
+                .stream()
+                .map(MessageTailLoader::toTailMessage)
+                .toList());
+
+        if (!messageViewDTOs.isEmpty()) {
+            messageMentionService.appendMessageMentions(messageViewDTOs);
+        }
+        return messageViewDTOs;
+    }
+
+    /**
+     * Finds the messages forwarding any of the messages.
+     *
+     * @param messageIds the message ids
+     * @return the ids of the forwarding messages grouped by their conversation id
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<Long>> findForwardingMessageIds(Collection<Long> messageIds) {
+        return messageRepository.findForwardingMessageIdsByConversation(messageIds);
+    }
+
+    /**
+     * Fills the sender names and profile picture names of tail messages and of their reply and forward snippets.
+     *
+     * @param messages the tail messages of a page
+     */
+    @Transactional(readOnly = true)
+    public void resolveSenders(List<MessageViewDTO> messages) {
+        Set<Long> senderIds = new HashSet<>();
+        for (MessageViewDTO message : messages) {
+            senderIds.add(message.getSenderId());
+            if (message.getParentMessage() != null) {
+                senderIds.add(message.getParentMessage().getSenderId());
+            }
+            if (message.getOriginalForwardedMessage() != null) {
+                senderIds.add(message.getOriginalForwardedMessage().getSenderId());
+            }
+        }
+        if (senderIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, ChatUser> sendersById = userRepository.findAllById(senderIds).stream()
+                .collect(Collectors.toMap(ChatUser::getId, Function.identity()));
+        for (MessageViewDTO message : messages) {
+            ChatUser sender = sendersById.get(message.getSenderId());
+            if (sender != null) {
+                message.setSenderFirstName(sender.getFirstName());
+                message.setSenderLastName(sender.getLastName());
+                message.setImageIndexedName(sender.getImageIndexedName());
+            }
+            resolveSender(message.getParentMessage(), sendersById);
+            resolveSender(message.getOriginalForwardedMessage(), sendersById);
+        }
+    }
+
+    private static void resolveSender(BasicMessageDTO snippet, Map<Long, ChatUser> sendersById) {
+        if (snippet == null || !sendersById.containsKey(snippet.getSenderId())) {
+            return;
+        }
+
+        ChatUser sender = sendersById.get(snippet.getSenderId());
+        snippet.setSenderFirstName(sender.getFirstName());
+        snippet.setSenderLastName(sender.getLastName());
+        snippet.setImageIndexedName(sender.getImageIndexedName());
+    }
+
+    private static MessageViewDTO toTailMessage(Message message) {
+        MessageViewDTO messageViewDTO = new MessageViewDTO(message);
+        messageViewDTO.setIsIncludeUrlMetadata(CommonUtils.extractUrl(messageViewDTO.getMessageText()) != null);
+        clearSender(messageViewDTO);
+
+        if (message.getIsUnsend()) {
+            return messageViewDTO;
+        }
+
+        if (message.getParentMessage() != null) {
+            List<MessageAttachment> parentMessageAttachments = message.getParentMessage().getAttachments();
+            if (parentMessageAttachments != null && !parentMessageAttachments.isEmpty()) {
+                messageViewDTO.getParentMessage().setMessageAttachments(
+                        toAttachmentDTOs(List.of(parentMessageAttachments.getFirst()))
+                );
+            }
+        }
+
+        messageViewDTO.setMessageAttachments(toAttachmentDTOs(message.getAttachments()));
+        return messageViewDTO;
+    }
+
+    private static void clearSender(MessageViewDTO messageViewDTO) {
+        messageViewDTO.setSenderFirstName(null);
+        messageViewDTO.setSenderLastName(null);
+        messageViewDTO.setImageIndexedName(null);
+        clearSender(messageViewDTO.getParentMessage());
+        clearSender(messageViewDTO.getOriginalForwardedMessage());
+    }
+
+    private static void clearSender(BasicMessageDTO snippet) {
+        if (snippet != null) {
+            snippet.setSenderFirstName(null);
+            snippet.setSenderLastName(null);
+            snippet.setImageIndexedName(null);
+        }
+    }
+
+    private static List<MessageAttachmentDTO> toAttachmentDTOs(List<MessageAttachment> attachments) {
+        if (attachments == null) {
+            return new ArrayList<>();
+        }
+
+        return attachments.stream()
+                .map(attachment -> {
+                    MessageAttachmentDTO dto = new MessageAttachmentDTO();
+                    dto.setId(attachment.getId());
+                    dto.setIndexedFileName(attachment.getIndexedFileName());
+                    dto.setOriginalFileName(attachment.getOriginalFileName());
+                    dto.setType(attachment.getType());
+                    return dto;
+                })
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
@@ -47,6 +47,10 @@ public class ChatNotificationService {
      * @param body   notification body
      */
     private void buildAndDispatchNotification(List<String> tokens, Message message, String body) {
+        notificationServiceFactory.sendNotification(buildNotificationRequest(tokens, message, body));
+    }
+
+    private NotificationRequestDTO buildNotificationRequest(List<String> tokens, Message message, String body) {
         String title = chatNotificationUtilService.getNotificationTitle(message);
 
         Map<String, String> data = buildNotificationData(
@@ -54,8 +58,7 @@ public class ChatNotificationService {
             message.getId()
         );
 
-        NotificationRequestDTO notificationsRequest = new NotificationRequestDTO(tokens, title, body, data);
-        notificationServiceFactory.sendNotification(notificationsRequest);
+        return new NotificationRequestDTO(tokens, title, body, data);
     }
 
     private Map<String, String> buildNotificationData(Long conversationId, Long messageId) {
@@ -106,6 +109,31 @@ public class ChatNotificationService {
      * @param message message
      */
     public void sendMessageNotificationsToParticipants(Long conversationId, Long loggedInUserId, Message message) {
+        NotificationRequestDTO notificationsRequest = buildMessageNotificationRequest(conversationId, loggedInUserId, message);
+        if (notificationsRequest != null) {
+            notificationServiceFactory.sendNotification(notificationsRequest);
+        }
+    }
+
+    /**
+     * Send message notifications and wait until the push providers accepted them
+     *
+     * @param conversationId conversation id
+     * @param loggedInUserId logged in user id
+     * @param message message
+     * @throws Exception if a push provider could not send the notifications
+     */
+    public void deliverMessageNotificationsToParticipants(Long conversationId, Long loggedInUserId, Message message) throws Exception {
+        NotificationRequestDTO notificationsRequest = buildMessageNotificationRequest(conversationId, loggedInUserId, message);
+        if (notificationsRequest != null) {
+            notificationServiceFactory.deliverNotification(notificationsRequest);
+        }
+    }
+
+    /**
+     * @return the notification request of the message, or null when no participant has to be notified
+     */
+    private NotificationRequestDTO buildMessageNotificationRequest(Long conversationId, Long loggedInUserId, Message message) {
 
         boolean mentionsAll = message.getMessageText().toLowerCase().contains(Constants.MENTION_ALL);
 
@@ -119,14 +147,14 @@ public class ChatNotificationService {
         List<String> tokens = chatNotificationRepository.findTokensByConversationId(conversationId, loggedInUserId, false, mentionsAll, mentionedUsers);
 
         if (tokens.isEmpty()) {
-            return;
+            return null;
         }
 
         String body = message.getConversation().getIsGroup()
             ? message.getSender().getFirstName() + ": " + message.getMessageText() 
             : message.getMessageText();
 
-        buildAndDispatchNotification(tokens, message, body);
+        return buildNotificationRequest(tokens, message, body);
     }
 
     /**
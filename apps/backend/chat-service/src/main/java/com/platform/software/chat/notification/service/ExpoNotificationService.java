@@ -1,6 +1,7 @@
 package com.platform.software.chat.notification.service;
 
 import com.platform.software.chat.notification.dto.NotificationRequestDTO;
+import com.platform.software.config.async.AsyncExecutorNames;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Async;
@@ -26,8 +27,17 @@ public class ExpoNotificationService implements NotificationService{
     }
 
     @Override
-    @Async
+    @Async(AsyncExecutorNames.PUSH_NOTIFICATION_EXECUTOR)
     public void sendNotification(NotificationRequestDTO request) {
+        try {
+            deliverNotification(request);
+        } catch (Exception e) {
+            logger.error("Expo notification sending failed!", e);
+        }
+    }
+
+    @Override
+    public void deliverNotification(NotificationRequestDTO request) {
         List<Map<String, Object>> messages = new ArrayList<>();
 
         for (String token : request.tokens()) {
@@ -50,12 +60,8 @@ public class ExpoNotificationService implements NotificationService{
 
         HttpEntity<List<Map<String, Object>>> requests = new HttpEntity<>(messages, headers);
 
-        try {
-            ResponseEntity<String> response = restTemplate.postForEntity(EXPO_PUSH_URL, requests, String.class);
-            logger.info("Expo response: {}", response.getBody());
-        } catch (Exception e) {
-            logger.error("Expo notification sending failed!", e);
-        }
+        ResponseEntity<String> response = restTemplate.postForEntity(EXPO_PUSH_URL, requests, String.class);
+        logger.info("Expo response: {}", response.getBody());
     }
 
     @Override
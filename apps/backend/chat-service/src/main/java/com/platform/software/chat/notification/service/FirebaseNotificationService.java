@@ -2,8 +2,10 @@ package com.platform.software.chat.notification.service;
 
 import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.MulticastMessage;
 import com.platform.software.chat.notification.dto.NotificationRequestDTO;
+import com.platform.software.config.async.AsyncExecutorNames;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -19,32 +21,40 @@ public class FirebaseNotificationService implements NotificationService{
     private static final Logger logger = LoggerFactory.getLogger(FirebaseNotificationService.class);
 
     @Override
-    @Async
+    @Async(AsyncExecutorNames.PUSH_NOTIFICATION_EXECUTOR)
     public void sendNotification(NotificationRequestDTO request) {
         try {
-            MulticastMessage.Builder messageBuilder = MulticastMessage.builder()
-                    .addAllTokens(request.tokens());                
-
-            Map<String, String> dataMap = new HashMap<>();
-            if (request.data() != null) {
-                dataMap.putAll(request.data());
-            }
-
-            dataMap.put("title", request.title());
-            dataMap.put("body", request.body());
-            messageBuilder.putAllData(dataMap);
-
-            MulticastMessage message = messageBuilder.build();
-            BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
-            
-            if(response != null){
-                logger.info("notification sent: {} succeeded, {} failed", response.getSuccessCount(), response.getFailureCount());
-            }
+            deliverNotification(request);
         } catch (Exception e) {
             logger.error("firebase notification sending failed!", e);
         }
     }
 
+    /**
+     * Tokens refused one by one, such as unregistered devices, are only logged, since sending them again fails again.
+     */
+    @Override
+    public void deliverNotification(NotificationRequestDTO request) throws FirebaseMessagingException {
+        MulticastMessage.Builder messageBuilder = MulticastMessage.builder()
+                .addAllTokens(request.tokens());                
+
+        Map<String, String> dataMap = new HashMap<>();
+        if (request.data() != null) {
+            dataMap.putAll(request.data());
+        }
+
+        dataMap.put("title", request.title());
+        dataMap.put("body", request.body());
+        messageBuilder.putAllData(dataMap);
+
+        MulticastMessage message = messageBuilder.build();
+        BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message);
+        
+        if(response != null){
+            logger.info("notification sent: {} succeeded, {} failed", response.getSuccessCount(), response.getFailureCount());
+        }
+    }
+
     @Override
     public boolean supports(String token) {
         return token != null && !token.startsWith("ExponentPushToken[");
@@ -7,5 +7,13 @@ import org.springframework.stereotype.Service;
 
 public interface NotificationService {
     void sendNotification(NotificationRequestDTO request);
+
+    /**
+     * Sends the notifications on the calling thread, unlike {@link #sendNotification} which only hands them over.
+     *
+     * @throws Exception if the provider could not be reached or refused the request
+     */
+    void deliverNotification(NotificationRequestDTO request) throws Exception;
+
     boolean supports(String token);
 }
@@ -50,6 +50,37 @@ public class NotificationServiceFactory {
         }
     }
 
+    /**
+     * Sends notifications by grouping tokens by their supported service, on the calling thread. Every service is tried
+     * even when one fails, so a retry of the request may repeat the notifications of the services that succeeded.
+     * @param request The notification request containing tokens, title, and body
+     * @throws Exception the failure of the first service that could not send its notifications
+     */
+    public void deliverNotification(NotificationRequestDTO request) throws Exception {
+        Map<NotificationService, List<String>> serviceTokenMap = groupTokensByService(request.tokens());
+        Exception failure = null;
+
+        for (Map.Entry<NotificationService, List<String>> entry : serviceTokenMap.entrySet()) {
+            NotificationService service = entry.getKey();
+            List<String> tokens = entry.getValue();
+
+            try {
+                service.deliverNotification(new NotificationRequestDTO(tokens, request.title(), request.body(), request.data()));
+                logger.info("Sent {} notifications via {}", tokens.size(), service.getClass().getSimpleName());
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     /**
      * Gets the appropriate notification service for a single token
      * @param token The push notification token
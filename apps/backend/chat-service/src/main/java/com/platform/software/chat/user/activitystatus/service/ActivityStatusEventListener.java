@@ -1,6 +1,7 @@
 package com.platform.software.chat.user.activitystatus.service;
 
 import com.platform.software.chat.user.activitystatus.dto.ActivityStatusEvent;
+import com.platform.software.config.async.AsyncExecutorNames;
 import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
@@ -10,20 +11,15 @@ import org.springframework.transaction.event.TransactionalEventListener;
 
 @Component
 public class ActivityStatusEventListener {
-    private final UserActivityStatusWSService userActivityStatusWSService;
+    private final PresenceBroadcaster presenceBroadcaster;
 
-    public ActivityStatusEventListener(UserActivityStatusWSService userActivityStatusWSService) {
-        this.userActivityStatusWSService = userActivityStatusWSService;
+    public ActivityStatusEventListener(PresenceBroadcaster presenceBroadcaster) {
+        this.presenceBroadcaster = presenceBroadcaster;
     }
 
-    @Async
+    @Async(AsyncExecutorNames.PRESENCE_EXECUTOR)
     @EventListener
     public void onActivityStatusChange(ActivityStatusEvent event) {
-        userActivityStatusWSService.invokeUserActivityStatus(
-                event.workspaceId(),
-                event.email(),
-                event.status(),
-                event.deviceType()
-        );
+        presenceBroadcaster.publish(event);
     }
 }
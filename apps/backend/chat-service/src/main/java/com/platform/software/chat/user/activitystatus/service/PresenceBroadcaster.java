@@ -0,0 +1,166 @@
+package com.platform.software.chat.user.activitystatus.service;
+
+import com.platform.software.chat.user.activitystatus.dto.ActivityStatusEvent;
+import com.platform.software.chat.user.activitystatus.dto.UserStatusEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces presence changes per user over a short window before they are broadcast.
+ * <p>
+ * Only the latest status of a user within the window is kept, statuses equal to the last broadcast one are dropped,
+ * and each recipient receives one batched frame listing all of its changed peers.
+ * A window of 0 disables coalescing and broadcasts every change immediately on the per-user online status topic.
+ * Batched frames are sent to the online status batch topic instead, which clients have to subscribe to before a
+ * window is configured.
+ * </p>
+ */
+@Service
+public class PresenceBroadcaster {
+    private static final Logger logger = LoggerFactory.getLogger(PresenceBroadcaster.class);
+
+    private final UserActivityStatusWSService userActivityStatusWSService;
+
+    // workspace:email -> latest status change waiting for the next flush
+    private final ConcurrentHashMap<String, ActivityStatusEvent> pendingEvents = new ConcurrentHashMap<>();
+    // workspace:email -> last broadcast status change
+    private final ConcurrentHashMap<String, ActivityStatusEvent> lastBroadcastEvents = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "presence-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter eventsIn;
+    private final Counter eventsSuperseded;
+    private final Counter framesOut;
+
+    private final long coalescingWindowMs;
+
+    public PresenceBroadcaster(
+            UserActivityStatusWSService userActivityStatusWSService,
+            MeterRegistry meterRegistry,
+            @Value("${presence.broadcast.coalescing-window-ms:0}") long coalescingWindowMs
+    ) {
+        this.userActivityStatusWSService = userActivityStatusWSService;
+        this.coalescingWindowMs = coalescingWindowMs;
+
+        this.eventsIn = Counter.builder("presence.events.in")
+                .description("Presence status changes received")
+                .register(meterRegistry);
+        this.eventsSuperseded = Counter.builder("presence.events.superseded")
+                .description("Presence status changes dropped because a newer or identical status replaced them")
+                .register(meterRegistry);
+        this.framesOut = Counter.builder("presence.frames.out")
+                .description("Presence frames sent to recipients")
+                .register(meterRegistry);
+        Gauge.builder("presence.coalescing.ratio", this, broadcaster -> broadcaster.framesOut.count() == 0
+                        ? 0
+                        : broadcaster.eventsIn.count() / broadcaster.framesOut.count())
+                .description("Presence status changes received per frame sent")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (coalescingWindowMs > 0) {
+            scheduler.scheduleWithFixedDelay(this::flush, coalescingWindowMs, coalescingWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Queues a presence change for the next flush, or broadcasts it immediately when coalescing is disabled.
+     *
+     * @param event the presence change of a user
+     */
+    public void publish(ActivityStatusEvent event) {
+        eventsIn.increment();
+
+        if (coalescingWindowMs <= 0) {
+            framesOut.increment(userActivityStatusWSService.invokeUserActivityStatus(
+                    event.workspaceId(), event.email(), event.status(), event.deviceType()
+            ));
+            return;
+        }
+
+        ActivityStatusEvent superseded = pendingEvents.put(presenceKey(event.workspaceId(), event.email()), event);
+        if (superseded != null) {
+            eventsSuperseded.increment();
+        }
+    }
+
+    /**
+     * Drains the pending presence changes and broadcasts them grouped by workspace. A change only counts as broadcast
+     * once its workspace's frames are sent, so a change lost to a failed send is not suppressed when it comes again.
+     */
+    public void flush() {
+        Map<String, List<ActivityStatusEvent>> eventsByWorkspace = new HashMap<>();
+
+        for (String key : pendingEvents.keySet()) {
+            ActivityStatusEvent event = pendingEvents.remove(key);
+            if (event == null) {
+                continue;
+            }
+
+            ActivityStatusEvent lastBroadcast = lastBroadcastEvents.get(key);
+            if (lastBroadcast != null && lastBroadcast.status() == event.status()
+                    && Objects.equals(lastBroadcast.deviceType(), event.deviceType())) {
+                eventsSuperseded.increment();
+                continue;
+            }
+
+            eventsByWorkspace.computeIfAbsent(event.workspaceId(), k -> new ArrayList<>()).add(event);
+        }
+
+        eventsByWorkspace.forEach((workspaceId, events) -> {
+            try {
+                framesOut.increment(userActivityStatusWSService.invokeUserActivityStatuses(workspaceId, events));
+            } catch (Exception e) {
+                logger.warn("failed to broadcast {} presence changes for workspace: {}", events.size(), workspaceId, e);
+                return;
+            }
+
+            for (ActivityStatusEvent event : events) {
+                String key = presenceKey(event.workspaceId(), event.email());
+                if (event.status() == UserStatusEnum.OFFLINE) {
+                    lastBroadcastEvents.remove(key);
+                } else {
+                    lastBroadcastEvents.put(key, event);
+                }
+            }
+        });
+    }
+
+    private String presenceKey(String workspace, String email) {
+        return String.format("%s:%s", workspace, URLEncoder.encode(email, StandardCharsets.UTF_8));
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(5, TimeUnit.SECONDS)) {
+                scheduler.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.platform.software.chat.user.activitystatus.service;
 
-import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.conversation.service.ConversationUtilService;
 import com.platform.software.chat.notification.entity.DeviceType;
+import com.platform.software.chat.user.activitystatus.dto.ActivityStatusEvent;
 import com.platform.software.chat.user.activitystatus.dto.UserStatusDTO;
 import com.platform.software.chat.user.activitystatus.dto.UserStatusEnum;
 import com.platform.software.common.constants.WebSocketTopicConstants;
@@ -12,57 +13,86 @@ import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserActivityStatusWSService {
 
-    private final ConversationParticipantRepository conversationParticipantRepository;
+    private final ConversationUtilService conversationUtilService;
     private final SimpMessagingTemplate template;
     private final WebSocketSessionManager webSocketSessionManager;
 
-    public void invokeUserActivityStatus(String workspaceId, String email, UserStatusEnum status, String deviceType) {
+    /**
+     * Sends the status of a single user to every session showing one of the user's 1-to-1 conversations.
+     *
+     * @return the number of frames sent
+     */
+    public int invokeUserActivityStatus(String workspaceId, String email, UserStatusEnum status, String deviceType) {
         WorkspaceContext.setCurrentWorkspace(workspaceId);
 
-        // TODO: cache, must be sure about the cache evict
-        // 1-to-1 conversation ids of the user with the email
-        List<Long> conversationIds = conversationParticipantRepository.findOneToOneConversationIdsByUserEmail(email);
+        Map<String, Long> matchingSessionKeysWithConversation = getSessionKeysShowingUser(workspaceId, email);
 
-        // Find all WebSocket sessions that have any of the given conversation IDs in their visible conversations,
-        // and return a map of session keys to the specific conversation IDs that matched
-        Set<Long> conversationIdSet = new HashSet<>(conversationIds);
+        DeviceType device = DeviceType.valueOf(deviceType);
 
-        Map<String, Set<Long>> matchingSessionKeysWithConversations = webSocketSessionManager.getWebSocketSessionInfos().entrySet().stream()
-            .map(entry -> {
-                Set<Long> visibleConversations = entry.getValue().getVisibleConversations();
-                if (visibleConversations == null || visibleConversations.isEmpty()) {
-                    return null;
-                }
+        for (Map.Entry<String, Long> entry : matchingSessionKeysWithConversation.entrySet()) {
+            template.convertAndSendToUser(
+                getUserPrinciple(entry.getKey()),
+                WebSocketTopicConstants.ONLINE_STATUS,
+                new UserStatusDTO(entry.getValue(), email, status, device)
+            );
+        }
+        return matchingSessionKeysWithConversation.size();
+    }
 
-                Set<Long> matchingConversationIds = visibleConversations.stream()
-                    .filter(conversationIdSet::contains)
-                    .collect(Collectors.toSet());
+    /**
+     * Sends the statuses of several users of a workspace, with one frame per recipient listing every changed peer
+     * the recipient is showing.
+     *
+     * @return the number of frames sent
+     */
+    public int invokeUserActivityStatuses(String workspaceId, Collection<ActivityStatusEvent> events) {
+        WorkspaceContext.setCurrentWorkspace(workspaceId);
 
-                return matchingConversationIds.isEmpty() ? null : Map.entry(entry.getKey(), matchingConversationIds);
-            })
-            .filter(Objects::nonNull)
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<String, Map<String, UserStatusDTO>> statusesByRecipient = new HashMap<>();
+        for (ActivityStatusEvent event : events) {
+            DeviceType device = DeviceType.valueOf(event.deviceType());
 
-        DeviceType device = DeviceType.valueOf(deviceType);
+            getSessionKeysShowingUser(workspaceId, event.email()).forEach((sessionKey, conversationId) ->
+                statusesByRecipient
+                    .computeIfAbsent(getUserPrinciple(sessionKey), k -> new LinkedHashMap<>())
+                    .putIfAbsent(event.email(), new UserStatusDTO(conversationId, event.email(), event.status(), device))
+            );
+        }
 
-        for (Map.Entry<String, Set<Long>> entry : matchingSessionKeysWithConversations.entrySet()) {
-            String key = entry.getKey();
-            String[] parts = key.split(":");
-            String userPrinciple = parts[0] + ":" + parts[1];
+        for (Map.Entry<String, Map<String, UserStatusDTO>> entry : statusesByRecipient.entrySet()) {
+            template.convertAndSendToUser(
+                entry.getKey(),
+                WebSocketTopicConstants.ONLINE_STATUS_BATCH,
+                new ArrayList<>(entry.getValue().values())
+            );
+        }
+        return statusesByRecipient.size();
+    }
+
+    /**
+     * Finds the WebSocket sessions showing any 1-to-1 conversation of the user through the visible conversation index,
+     * keeping the first matched conversation id for each session key.
+     */
+    private Map<String, Long> getSessionKeysShowingUser(String workspaceId, String email) {
+        // 1-to-1 conversation ids of the user with the email, cached and evicted when the user's 1-to-1 conversations change
+        List<Long> conversationIds = conversationUtilService.getOneToOneConversationIdsByUserEmail(email);
 
-            if (!entry.getValue().isEmpty()) {
-                template.convertAndSendToUser(
-                    userPrinciple,
-                    WebSocketTopicConstants.ONLINE_STATUS,
-                    new UserStatusDTO(entry.getValue().stream().findFirst().get(), email, status, device)
-                );
+        Map<String, Long> matchingSessionKeysWithConversation = new HashMap<>();
+        for (Long conversationId : conversationIds) {
+            for (String sessionKey : webSocketSessionManager.getSessionKeysWithVisibleConversation(workspaceId, conversationId)) {
+                matchingSessionKeysWithConversation.putIfAbsent(sessionKey, conversationId);
             }
         }
+        return matchingSessionKeysWithConversation;
+    }
+
+    private String getUserPrinciple(String sessionKey) {
+        String[] parts = sessionKey.split(":");
+        return parts[0] + ":" + parts[1];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,4 @@
+package com.platform.software.chat.user.dto;
+
+public record UserBlockPairDTO(Long blockerId, Long blockedId) {
+}
@@ -1,13 +1,32 @@
 package com.platform.software.chat.user.repository;
 
+import com.platform.software.chat.user.dto.UserBlockPairDTO;
 import com.platform.software.chat.user.dto.UserViewDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.List;
+import java.util.Set;
+
 public interface UserBlockQueryRepository {
     Page<UserViewDTO> getBlockedUsersById (Pageable pageable, Long blockerId);
 
     boolean isUserBlocked(Long blockerId, Long blockedId);
 
      Boolean existsBlockBetweenUsers(Long conversationId);
+
+    /**
+     * Finds the users the user blocked or was blocked by.
+     *
+     * @param userId the user id
+     * @return the user ids
+     */
+    Set<Long> findRestrictedUserIds(Long userId);
+
+    /**
+     * Finds every block of the workspace.
+     *
+     * @return the blocker and blocked user ids of the blocks
+     */
+    List<UserBlockPairDTO> findAllBlockPairs();
 }
@@ -1,6 +1,7 @@
 package com.platform.software.chat.user.repository;
 
 import com.platform.software.chat.conversationparticipant.entity.QConversationParticipant;
+import com.platform.software.chat.user.dto.UserBlockPairDTO;
 import com.platform.software.chat.user.dto.UserViewDTO;
 import com.platform.software.chat.user.entity.QChatUser;
 import com.platform.software.chat.user.entity.QUserBlock;
@@ -14,8 +15,10 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 @Repository
 public class UserBlockQueryRepositoryImpl implements UserBlockQueryRepository {
@@ -85,4 +88,27 @@ public class UserBlockQueryRepositoryImpl implements UserBlockQueryRepository {
 
         return result != null;
     }
-}
\ No newline at end of file
+
+    @Override
+    public Set<Long> findRestrictedUserIds(Long userId) {
+        List<UserBlockPairDTO> blockPairs = new JPAQuery<>(entityManager)
+                .select(Projections.constructor(UserBlockPairDTO.class, userBlock.blocker.id, userBlock.blocked.id))
+                .from(userBlock)
+                .where(userBlock.blocker.id.eq(userId).or(userBlock.blocked.id.eq(userId)))
+                .fetch();
+
+        Set<Long> restrictedUserIds = new HashSet<>();
+        for (UserBlockPairDTO blockPair : blockPairs) {
+            restrictedUserIds.add(userId.equals(blockPair.blockerId()) ? blockPair.blockedId() : blockPair.blockerId());
+        }
+        return restrictedUserIds;
+    }
+
+    @Override
+    public List<UserBlockPairDTO> findAllBlockPairs() {
+        return new JPAQuery<>(entityManager)
+                .select(Projections.constructor(UserBlockPairDTO.class, userBlock.blocker.id, userBlock.blocked.id))
+                .from(userBlock)
+                .fetch();
+    }
+}
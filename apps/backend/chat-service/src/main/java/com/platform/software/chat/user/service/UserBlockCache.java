@@ -0,0 +1,177 @@
+package com.platform.software.chat.user.service;
+
+import com.platform.software.chat.user.dto.UserBlockPairDTO;
+import com.platform.software.chat.user.repository.UserBlockRepository;
+import com.platform.software.config.cache.BoundedLocalCache;
+import com.platform.software.config.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Caches the block graph of each workspace on-heap, so block checks of sends, reactions and inbox loads do not
+ * query user_block.
+ * <p>
+ * The graph maps every user involved in a block to the sorted ids of the users it blocked or was blocked by.
+ * Blocking and unblocking increment a Redis version counter of the workspace, and a graph is only used while it
+ * was loaded at the current version, so every instance reloads it after a change. Checks fall back to the database
+ * when the version cannot be read.
+ * </p>
+ */
+@Service
+public class UserBlockCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserBlockCache.class);
+
+    private static final String VERSION_KEY_PREFIX = "user-block-version::";
+
+    private final UserBlockRepository userBlockRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final BoundedLocalCache<String, BlockGraph> graphs;
+    private final boolean enabled;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    public UserBlockCache(
+            UserBlockRepository userBlockRepository,
+            RedisConnectionFactory redisConnectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${user.block-cache.enabled:false}") boolean enabled,
+            @Value("${user.block-cache.max-workspaces:1000}") int maxWorkspaces,
+            @Value("${user.block-cache.ttl-minutes:60}") long ttlMinutes
+    ) {
+        this.userBlockRepository = userBlockRepository;
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.graphs = new BoundedLocalCache<>("user-block-graph", maxWorkspaces, Duration.ofMinutes(ttlMinutes), meterRegistry);
+        this.enabled = enabled;
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.bypasses = requestCounter(meterRegistry, "bypass");
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("user.block.cache.requests")
+                .description("Block checks of the current workspace served by the block graph cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether either user blocked the other in the current workspace
+     */
+    public boolean isBlockedBetween(Long userId1, Long userId2) {
+        BlockGraph graph = currentGraph();
+        if (graph == null) {
+            return userBlockRepository.existsByBlockerIdAndBlockedId(userId1, userId2)
+                    || userBlockRepository.existsByBlockerIdAndBlockedId(userId2, userId1);
+        }
+        return graph.isRestricted(userId1, userId2);
+    }
+
+    /**
+     * @return the ids of the users the user blocked or was blocked by in the current workspace
+     */
+    public Set<Long> getRestrictedUserIds(Long userId) {
+        BlockGraph graph = currentGraph();
+        if (graph == null) {
+            return userBlockRepository.findRestrictedUserIds(userId);
+        }
+        return graph.restrictedUserIds(userId);
+    }
+
+    /**
+     * Makes every instance reload the block graph of the current workspace, after a block was added or removed.
+     */
+    public void invalidate() {
+        String workspaceId = WorkspaceContext.getCurrentWorkspace();
+        graphs.invalidate(workspaceId);
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + workspaceId);
+        } catch (Exception e) {
+            logger.warn("failed to invalidate the block graph of workspace: {}", workspaceId, e);
+        }
+    }
+
+    // the graph of the current workspace at the current version, or null when checks should query the database
+    private BlockGraph currentGraph() {
+        if (!enabled) {
+            bypasses.increment();
+            return null;
+        }
+
+        String workspaceId = WorkspaceContext.getCurrentWorkspace();
+        long version;
+        try {
+            version = Long.parseLong(Objects.requireNonNullElse(
+                    redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + workspaceId), "0"));
+        } catch (Exception e) {
+            logger.warn("failed to read the block graph version of workspace: {}", workspaceId, e);
+            bypasses.increment();
+            return null;
+        }
+
+        BlockGraph graph = graphs.get(workspaceId);
+        if (graph != null && graph.version() == version) {
+            hits.increment();
+            return graph;
+        }
+
+        misses.increment();
+        graph = BlockGraph.of(version, userBlockRepository.findAllBlockPairs());
+        graphs.put(workspaceId, graph);
+        return graph;
+    }
+
+    /**
+     * Users involved in a block, with the sorted ids of the users they blocked or were blocked by.
+     */
+    record BlockGraph(long version, Map<Long, long[]> restrictedUserIdsByUserId) {
+
+        static BlockGraph of(long version, List<UserBlockPairDTO> blockPairs) {
+            Map<Long, Set<Long>> adjacency = new HashMap<>();
+            for (UserBlockPairDTO blockPair : blockPairs) {
+                adjacency.computeIfAbsent(blockPair.blockerId(), k -> new HashSet<>()).add(blockPair.blockedId());
+                adjacency.computeIfAbsent(blockPair.blockedId(), k -> new HashSet<>()).add(blockPair.blockerId());
+            }
+
+            Map<Long, long[]> restrictedUserIdsByUserId = new HashMap<>(adjacency.size());
+            adjacency.forEach((userId, restrictedUserIds) -> restrictedUserIdsByUserId.put(
+                    userId,
+                    restrictedUserIds.stream().mapToLong(Long::longValue).sorted().toArray()
+            ));
+            return new BlockGraph(version, restrictedUserIdsByUserId);
+        }
+
+        boolean isRestricted(Long userId, Long otherUserId) {
+            long[] restrictedUserIds = restrictedUserIdsByUserId.get(userId);
+            return restrictedUserIds != null && Arrays.binarySearch(restrictedUserIds, otherUserId) >= 0;
+        }
+
+        Set<Long> restrictedUserIds(Long userId) {
+            long[] restrictedUserIds = restrictedUserIdsByUserId.get(userId);
+            if (restrictedUserIds == null) {
+                return Set.of();
+            }
+
+            Set<Long> userIds = new HashSet<>(restrictedUserIds.length);
+            for (long restrictedUserId : restrictedUserIds) {
+                userIds.add(restrictedUserId);
+            }
+            return userIds;
+        }
+    }
+}
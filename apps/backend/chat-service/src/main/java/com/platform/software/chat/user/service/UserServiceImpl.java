@@ -26,6 +26,7 @@ import com.platform.software.config.workspace.WorkspaceContext;
 import com.platform.software.exception.CustomBadRequestException;
 import com.platform.software.exception.CustomCognitoServerErrorException;
 import com.platform.software.exception.CustomInternalServerErrorException;
+import com.platform.software.platform.workspace.dto.WorkspaceMembershipDTO;
 import com.platform.software.platform.workspace.dto.WorkspaceUserViewDTO;
 import com.platform.software.platform.workspace.entity.Workspace;
 import com.platform.software.platform.workspaceuser.entity.WorkspaceUser;
@@ -86,6 +87,7 @@ public class UserServiceImpl implements UserService {
     private final WorkspaceUserRepository workspaceUserRepository;
     private final UserInfoRepository userInfoRepository;
     private final WebSocketSessionManager webSocketSessionManager;
+    private final UserBlockCache userBlockCache;
 
     public UserServiceImpl(
             UserRepository userRepository,
@@ -102,7 +104,8 @@ public class UserServiceImpl implements UserService {
             WorkspaceUserRepository workspaceUserRepository,
             WorkspaceRepository workspaceRepository,
             UserInfoRepository userInfoRepository,
-            @Lazy WebSocketSessionManager webSocketSessionManager
+            @Lazy WebSocketSessionManager webSocketSessionManager,
+            UserBlockCache userBlockCache
     ) {
         this.userRepository = userRepository;
         this.cognitoService = cognitoService;
@@ -119,6 +122,7 @@ public class UserServiceImpl implements UserService {
         this.workspaceUserRepository = workspaceUserRepository;
         this.userInfoRepository = userInfoRepository;
         this.webSocketSessionManager = webSocketSessionManager;
+        this.userBlockCache = userBlockCache;
     }
 
     @Override
@@ -226,9 +230,9 @@ public class UserServiceImpl implements UserService {
                     userViewDTO.setWorkspaceName(workspace.getName());
                 });
         }
-        WorkspaceUser workspaceUser = workspaceUserService.getWorkspaceUserByEmailAndWorkspaceIdentifier(userViewDTO.getEmail(), workspaceIdentifier);
-        userViewDTO.setWorkspaceRole(workspaceUser.getRole());
-        userViewDTO.setWorkspaceUserStatus(workspaceUser.getStatus());
+        WorkspaceMembershipDTO membership = workspaceUserService.getWorkspaceMembership(userViewDTO.getEmail(), workspaceIdentifier);
+        userViewDTO.setWorkspaceRole(membership.role());
+        userViewDTO.setWorkspaceUserStatus(membership.status());
         return userViewDTO;
     }
 
@@ -359,6 +363,7 @@ public class UserServiceImpl implements UserService {
         userBlock.setBlocked(blocked);
         try {
             userBlockRepository.save(userBlock);
+            userBlockCache.invalidate();
         } catch (Exception e) {
             logger.error("failed to block user {} by user {}", blockId, userId, e);
             throw new CustomInternalServerErrorException("Failed to block user!");
@@ -372,9 +377,7 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public boolean isInteractionBlockedBetween(Long userId1, Long userId2) {
-        boolean isBlocked = userBlockRepository.existsByBlockerIdAndBlockedId(userId1, userId2) ||
-                userBlockRepository.existsByBlockerIdAndBlockedId(userId2, userId1);
-        return isBlocked;
+        return userBlockCache.isBlockedBetween(userId1, userId2);
     }
 
     @Override
@@ -391,6 +394,7 @@ public class UserServiceImpl implements UserService {
 
         try {
             userBlockRepository.delete(userBlock);
+            userBlockCache.invalidate();
             logger.info("user {} unblocked user {}", userId, blockId);
         } catch (Exception e) {
             logger.error("failed to unblock user {} by user {}", blockId, userId, e);
@@ -24,6 +24,9 @@ public final class WebSocketTopicConstants {
     /** Online status event */
     public static final String ONLINE_STATUS = "/topic/online-status/";
 
+    /** Batched online status event, lists every peer whose status changed within the coalescing window */
+    public static final String ONLINE_STATUS_BATCH = "/topic/online-status-batch/";
+
     /** Conversation Metadata Update **/
     public static final String CONVERSATION_UPDATED = "/topic/conversation-updated/";
   
@@ -0,0 +1,124 @@
+package com.platform.software.config.async;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Executors of the @Async listeners and publishers, one per category so blocking work of one category
+ * (push and email HTTP calls, database reads of the WebSocket fan-out) cannot starve the others.
+ * <p>
+ * Every executor reports {@code async.executor.queued}, {@code async.executor.active} and
+ * {@code async.executor.rejected} tagged with its name.
+ * </p>
+ */
+@Configuration
+public class AsyncExecutorConfig {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncExecutorConfig.class);
+
+    @Value("${async.executor.mode:PLATFORM}")
+    private AsyncExecutorMode mode;
+
+    private final MeterRegistry meterRegistry;
+
+    public AsyncExecutorConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean(name = AsyncExecutorNames.WS_FAN_OUT_EXECUTOR)
+    public TaskExecutor taskExecutor(
+            @Value("${async.executor.ws-fan-out.max-concurrency:10}") int maxConcurrency,
+            @Value("${async.executor.ws-fan-out.queue-capacity:1000}") int queueCapacity
+    ) {
+        return createExecutor("ws-fan-out", maxConcurrency, queueCapacity);
+    }
+
+    @Bean(name = AsyncExecutorNames.PUSH_NOTIFICATION_EXECUTOR)
+    public TaskExecutor pushNotificationExecutor(
+            @Value("${async.executor.push.max-concurrency:5}") int maxConcurrency,
+            @Value("${async.executor.push.queue-capacity:1000}") int queueCapacity
+    ) {
+        return createExecutor("push", maxConcurrency, queueCapacity);
+    }
+
+    @Bean(name = AsyncExecutorNames.EMAIL_EXECUTOR)
+    public TaskExecutor emailExecutor(
+            @Value("${async.executor.email.max-concurrency:5}") int maxConcurrency,
+            @Value("${async.executor.email.queue-capacity:500}") int queueCapacity
+    ) {
+        return createExecutor("email", maxConcurrency, queueCapacity);
+    }
+
+    @Bean(name = AsyncExecutorNames.PRESENCE_EXECUTOR)
+    public TaskExecutor presenceExecutor(
+            @Value("${async.executor.presence.max-concurrency:5}") int maxConcurrency,
+            @Value("${async.executor.presence.queue-capacity:1000}") int queueCapacity
+    ) {
+        return createExecutor("presence", maxConcurrency, queueCapacity);
+    }
+
+    private TaskExecutor createExecutor(String name, int maxConcurrency, int queueCapacity) {
+        Counter rejected = Counter.builder("async.executor.rejected")
+                .tag("executor", name)
+                .description("Tasks rejected because the executor queue was full")
+                .register(meterRegistry);
+
+        logger.info("creating {} executor {} with max concurrency {} and queue capacity {}", mode, name, maxConcurrency, queueCapacity);
+
+        return switch (mode) {
+            case VIRTUAL -> {
+                BoundedVirtualThreadTaskExecutor executor = new BoundedVirtualThreadTaskExecutor(
+                        name, maxConcurrency, queueCapacity, rejected::increment
+                );
+                registerGauges(name, executor, BoundedVirtualThreadTaskExecutor::getWaitingTaskCount,
+                        BoundedVirtualThreadTaskExecutor::getActiveTaskCount);
+                yield executor;
+            }
+            case PLATFORM -> {
+                ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+                executor.setCorePoolSize(maxConcurrency);
+                executor.setMaxPoolSize(maxConcurrency);
+                executor.setQueueCapacity(queueCapacity);
+                executor.setThreadNamePrefix(name + "-");
+                executor.setRejectedExecutionHandler((task, pool) -> {
+                    rejected.increment();
+                    new ThreadPoolExecutor.AbortPolicy().rejectedExecution(task, pool);
+                });
+                // initialized by the container through afterPropertiesSet, as the executor is returned as a bean
+                registerGauges(name, executor, AsyncExecutorConfig::getQueuedTaskCount, ThreadPoolTaskExecutor::getActiveCount);
+                yield executor;
+            }
+        };
+    }
+
+    private static int getQueuedTaskCount(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor().getQueue().size();
+        } catch (IllegalStateException e) {
+            // not initialized yet
+            return 0;
+        }
+    }
+
+    private <T> void registerGauges(String name, T executor, ToDoubleFunction<T> queued,
+                                    ToDoubleFunction<T> active) {
+        Gauge.builder("async.executor.queued", executor, queued)
+                .tag("executor", name)
+                .description("Tasks waiting for the executor")
+                .register(meterRegistry);
+        Gauge.builder("async.executor.active", executor, active)
+                .tag("executor", name)
+                .description("Tasks running on the executor")
+                .register(meterRegistry);
+    }
+}
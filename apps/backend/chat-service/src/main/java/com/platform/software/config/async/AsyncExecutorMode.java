@@ -0,0 +1,8 @@
+package com.platform.software.config.async;
+
+public enum AsyncExecutorMode {
+    // fixed pools of platform threads with a bounded queue
+    PLATFORM,
+    // a virtual thread per task, with a concurrency limit and a bounded number of waiting tasks
+    VIRTUAL
+}
@@ -0,0 +1,9 @@
+package com.platform.software.config.async;
+
+public class AsyncExecutorNames {
+    // default executor of @Async, used for WebSocket fan-out and event listeners
+    public static final String WS_FAN_OUT_EXECUTOR = "taskExecutor";
+    public static final String PUSH_NOTIFICATION_EXECUTOR = "pushNotificationExecutor";
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String PRESENCE_EXECUTOR = "presenceExecutor";
+}
@@ -0,0 +1,88 @@
+package com.platform.software.config.async;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every task on its own virtual thread, with at most {@code maxConcurrency} tasks running at once.
+ * Tasks over the limit wait for a permit on their virtual thread, and tasks are rejected once
+ * {@code queueCapacity} tasks are already waiting.
+ */
+public class BoundedVirtualThreadTaskExecutor implements TaskExecutor {
+
+    private final String name;
+    private final int queueCapacity;
+    private final Semaphore permits;
+    private final ExecutorService executor;
+    private final Runnable onRejected;
+
+    private final AtomicInteger waitingTasks = new AtomicInteger();
+    private final AtomicInteger activeTasks = new AtomicInteger();
+
+    public BoundedVirtualThreadTaskExecutor(String name, int maxConcurrency, int queueCapacity, Runnable onRejected) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+        this.onRejected = onRejected;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (waitingTasks.incrementAndGet() > queueCapacity) {
+            waitingTasks.decrementAndGet();
+            onRejected.run();
+            throw new TaskRejectedException("executor " + name + " did not accept task, " + queueCapacity + " tasks already waiting");
+        }
+
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                waitingTasks.decrementAndGet();
+                Thread.currentThread().interrupt();
+                return;
+            }
+            run(task);
+        });
+    }
+
+    private void run(Runnable task) {
+        waitingTasks.decrementAndGet();
+        activeTasks.incrementAndGet();
+        try {
+            task.run();
+        } finally {
+            activeTasks.decrementAndGet();
+            permits.release();
+        }
+    }
+
+    public int getWaitingTaskCount() {
+        return waitingTasks.get();
+    }
+
+    public int getActiveTaskCount() {
+        return activeTasks.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
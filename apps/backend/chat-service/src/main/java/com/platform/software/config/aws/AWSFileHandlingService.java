@@ -4,7 +4,10 @@ import com.amazonaws.HttpMethod;
 import com.platform.software.common.model.MediaPathEnum;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.platform.software.common.model.MediaSizeEnum;
 import com.platform.software.exception.CustomInternalServerErrorException;
@@ -20,6 +23,10 @@ public class AWSFileHandlingService implements CloudPhotoHandlingService {
     @Value("${cloud.front.url}")
     private String cloudFrontUrl;
 
+    // serves resized profile pictures by long-lived CloudFront urls instead of short-lived signed S3 urls
+    @Value("${cloud.front.profile-pictures.enabled:false}")
+    private boolean cloudFrontProfilePictures;
+
     private final S3Service s3Service;
 
     public AWSFileHandlingService(S3Service s3Service) {
@@ -63,10 +70,69 @@ public class AWSFileHandlingService implements CloudPhotoHandlingService {
         }
 
         String imageIndexedName = String.format(mediaPathEnum.getName(), size.getName(), fileName);
+        if (isServedByCloudFront(mediaPathEnum)) {
+            return getCloudFrontURL(imageIndexedName);
+        }
 
         return s3Service.getPrivateBucketViewSignedURL(imageIndexedName);
     }
 
+    /**
+     * Signs view urls of several images in one pass, instead of a separate signing request per image.
+     *
+     * @param imageIndexedNames the indexed names of the images, blank names are skipped
+     * @return the signed url of each indexed name
+     */
+    @Override
+    public Map<String, String> getPhotoViewSignedURLs(Collection<String> imageIndexedNames) {
+        List<String> objectKeys = imageIndexedNames.stream()
+            .filter(imageIndexedName -> imageIndexedName != null && !imageIndexedName.trim().isEmpty())
+            .toList();
+        if (objectKeys.isEmpty()) {
+            return Map.of();
+        }
+
+        return s3Service.getPrivateBucketViewSignedURLs(objectKeys);
+    }
+
+    /**
+     * Signs view urls of several images of a media path in one pass.
+     *
+     * @return the signed url of each file name, blank names are skipped
+     */
+    @Override
+    public Map<String, String> getPhotoViewSignedURLs(MediaPathEnum mediaPathEnum, MediaSizeEnum size, Collection<String> fileNames) {
+        Map<String, String> objectKeysByFileName = new HashMap<>();
+        for (String fileName : fileNames) {
+            if (fileName != null && !fileName.trim().isEmpty()) {
+                objectKeysByFileName.put(fileName, String.format(mediaPathEnum.getName(), size.getName(), fileName));
+            }
+        }
+        if (objectKeysByFileName.isEmpty()) {
+            return Map.of();
+        }
+
+        if (isServedByCloudFront(mediaPathEnum)) {
+            Map<String, String> cloudFrontURLs = new HashMap<>(objectKeysByFileName.size());
+            objectKeysByFileName.forEach((fileName, objectKey) -> cloudFrontURLs.put(fileName, getCloudFrontURL(objectKey)));
+            return cloudFrontURLs;
+        }
+
+        Map<String, String> signedURLsByObjectKey = s3Service.getPrivateBucketViewSignedURLs(objectKeysByFileName.values());
+
+        Map<String, String> signedURLs = new HashMap<>(objectKeysByFileName.size());
+        objectKeysByFileName.forEach((fileName, objectKey) -> signedURLs.put(fileName, signedURLsByObjectKey.get(objectKey)));
+        return signedURLs;
+    }
+
+    private boolean isServedByCloudFront(MediaPathEnum mediaPathEnum) {
+        return cloudFrontProfilePictures && mediaPathEnum == MediaPathEnum.RESIZED_PROFILE_PICTURE;
+    }
+
+    private String getCloudFrontURL(String objectKey) {
+        return cloudFrontUrl.endsWith("/") ? cloudFrontUrl + objectKey : cloudFrontUrl + "/" + objectKey;
+    }
+
     @Override
     public String getDownloadSignedURL(String imageIndexedName, String originalFileName) {
         if (imageIndexedName == null || imageIndexedName.trim().isEmpty()) {
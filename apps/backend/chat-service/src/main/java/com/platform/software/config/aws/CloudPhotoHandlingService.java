@@ -3,11 +3,17 @@ package com.platform.software.config.aws;
 import com.platform.software.common.model.MediaPathEnum;
 import com.platform.software.common.model.MediaSizeEnum;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface CloudPhotoHandlingService {
     SignedURLDTO getPhotoUploadSignedURL(MediaPathEnum mediaPathEnum, String fileName);
     String getPhotoViewSignedURL(String imageIndexedName);
     String getPhotoViewSignedURL(MediaPathEnum mediaPathEnum, MediaSizeEnum size, String fileName);
 
+    Map<String, String> getPhotoViewSignedURLs(Collection<String> imageIndexedNames);
+    Map<String, String> getPhotoViewSignedURLs(MediaPathEnum mediaPathEnum, MediaSizeEnum size, Collection<String> fileNames);
+
     String getDownloadSignedURL(String imageIndexedName, String originalFileName);
 
     SignedURLResponseDTO generateSignedURLForMessageAttachmentsUpload(DocUploadRequestDTO attachmentsUploadRequestDTO, Long requestId);
@@ -9,14 +9,21 @@ import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.platform.software.config.cache.BoundedLocalCache;
 import com.platform.software.exception.CustomInternalServerErrorException;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.net.URL;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
 public class S3Service {
@@ -33,8 +40,21 @@ public class S3Service {
 
     private AmazonS3 s3Client;
 
-
-    public S3Service() {}
+    // view urls by object key, kept until less than the expiry margin of their lifetime remains
+    private final BoundedLocalCache<String, String> viewSignedURLs;
+    private final Duration viewURLExpiry;
+    private final Duration viewURLCacheTtl;
+
+    public S3Service(
+        MeterRegistry meterRegistry,
+        @Value("${cloud.aws.signed-url.view-expiry-seconds:180}") long viewURLExpirySeconds,
+        @Value("${cloud.aws.signed-url.expiry-margin-seconds:60}") long expiryMarginSeconds,
+        @Value("${cloud.aws.signed-url.cache-size:20000}") int cacheSize
+    ) {
+        this.viewSignedURLs = new BoundedLocalCache<>("signed-view-url", cacheSize, Duration.ZERO, meterRegistry);
+        this.viewURLExpiry = Duration.ofSeconds(viewURLExpirySeconds);
+        this.viewURLCacheTtl = Duration.ofSeconds(viewURLExpirySeconds - expiryMarginSeconds);
+    }
 
     public String getPrivateBucketSignedURL(String objectKey, HttpMethod httpMethod) {
         return getSignedURL(objectKey, httpMethod);
@@ -75,8 +95,70 @@ public class S3Service {
             .build();
     }
 
+    /**
+     * Returns a view url of the object, reusing a previously signed url while at least the expiry margin of its
+     * lifetime remains, so clients get stable urls their HTTP caches can reuse.
+     */
     public String getPrivateBucketViewSignedURL(String objectKey) {
-        return getPrivateBucketSignedURL(objectKey, HttpMethod.GET);
+        String cachedURL = viewSignedURLs.get(objectKey);
+        if (cachedURL != null) {
+            return cachedURL;
+        }
+
+        try {
+            String signedURL = signViewURL(objectKey, new Date(Instant.now().toEpochMilli() + viewURLExpiry.toMillis()));
+            cacheViewSignedURL(objectKey, signedURL);
+            return signedURL;
+        } catch (AmazonServiceException e) {
+            logger.error(e.getErrorMessage());
+            throw new CustomInternalServerErrorException("failed to get image!");
+        }
+    }
+
+    /**
+     * Signs view urls of several objects in one pass, sharing the expiry and the signing key of the day between them.
+     *
+     * @param objectKeys the keys of the objects, duplicates are signed once
+     * @return the signed url of each object key
+     */
+    public Map<String, String> getPrivateBucketViewSignedURLs(Collection<String> objectKeys) {
+        Map<String, String> signedURLs = new HashMap<>(objectKeys.size());
+        // one expiry for the batch, the signer derives its key once per day, region and service and reuses it
+        Date expiration = new Date(Instant.now().toEpochMilli() + viewURLExpiry.toMillis());
+
+        try {
+            for (String objectKey : objectKeys) {
+                if (signedURLs.containsKey(objectKey)) {
+                    continue;
+                }
+
+                String signedURL = viewSignedURLs.get(objectKey);
+                if (signedURL == null) {
+                    signedURL = signViewURL(objectKey, expiration);
+                    cacheViewSignedURL(objectKey, signedURL);
+                }
+                signedURLs.put(objectKey, signedURL);
+            }
+        } catch (AmazonServiceException e) {
+            logger.error(e.getErrorMessage());
+            throw new CustomInternalServerErrorException("failed to get image!");
+        }
+        return signedURLs;
+    }
+
+    private String signViewURL(String objectKey, Date expiration) {
+        GeneratePresignedUrlRequest generatePresignedUrlRequest =
+            new GeneratePresignedUrlRequest(privateBucketName, objectKey)
+                .withMethod(HttpMethod.GET)
+                .withExpiration(expiration);
+        return s3Client.generatePresignedUrl(generatePresignedUrlRequest).toString();
+    }
+
+    private void cacheViewSignedURL(String objectKey, String signedURL) {
+        // a margin covering the whole lifetime disables the reuse
+        if (!viewURLCacheTtl.isNegative() && !viewURLCacheTtl.isZero()) {
+            viewSignedURLs.put(objectKey, signedURL, viewURLCacheTtl);
+        }
     }
 
     public String getPrivateBucketDownloadSignedURL(String objectKey, String originalFileName) {
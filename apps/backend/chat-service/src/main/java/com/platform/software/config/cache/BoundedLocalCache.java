@@ -0,0 +1,197 @@
+package com.platform.software.config.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An on-heap cache bounded by entry count, evicting the least recently read entries when full.
+ * <p>
+ * Entries are held in a {@link ConcurrentHashMap}, so reads and writes take no cache wide lock. A put that finds the
+ * cache over its maximum size runs an eviction pass, unless another thread is already running one. The pass removes
+ * the expired entries and then the least recently read ones, down to a tenth below the maximum size so that passes
+ * stay rare. The cache may exceed its maximum size while a pass runs.
+ * Entries expire after the time to live given at construction, or after the one given when they are put.
+ * Concurrent misses of the same key may load it more than once.
+ * Hits, misses, evictions and the size are exported as cache.local.* meters tagged with the cache name.
+ * </p>
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class BoundedLocalCache<K, V> {
+    private final int maximumSize;
+    private final int evictionTargetSize;
+    private final Duration ttl;
+    private final ConcurrentHashMap<K, CacheEntry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * @param name          the cache name used as the meter tag
+     * @param maximumSize   the maximum number of entries
+     * @param ttl           the time to live of an entry, or {@link Duration#ZERO} for entries that only get evicted
+     * @param meterRegistry the registry of the cache meters
+     */
+    public BoundedLocalCache(String name, int maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        this.maximumSize = maximumSize;
+        this.evictionTargetSize = maximumSize - maximumSize / 10;
+        this.ttl = ttl;
+
+        this.hits = Counter.builder("cache.local.gets")
+                .description("Local cache lookups")
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.local.gets")
+                .description("Local cache lookups")
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.local.evictions")
+                .description("Local cache entries evicted because the cache was full")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.local.size", this, BoundedLocalCache::size)
+                .description("Local cache entries")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the cached value, or {@code null} when the key is absent or its entry has expired
+     */
+    public V get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (entry.isExpired(now)) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        entry.accessedAt = now;
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. A {@code null} loaded value is not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, ttl);
+    }
+
+    /**
+     * Caches a value with its own time to live, for values that carry their own expiry.
+     * A time to live of {@link Duration#ZERO} keeps the entry until it is evicted.
+     */
+    public void put(K key, V value, Duration entryTtl) {
+        long now = System.nanoTime();
+        long expiresAt = entryTtl.isZero() ? Long.MAX_VALUE : now + entryTtl.toNanos();
+
+        entries.put(key, new CacheEntry<>(value, expiresAt, now));
+        if (entries.size() > maximumSize) {
+            evict();
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public void invalidateIf(Predicate<? super K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public void invalidateValuesIf(Predicate<? super V> predicate) {
+        entries.values().removeIf(entry -> predicate.test(entry.value));
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> entry.isExpired(now));
+
+            int excess = entries.size() - evictionTargetSize;
+            if (excess <= 0) {
+                return;
+            }
+
+            // reads keep updating the entries, so sort on a snapshot of their access times
+            List<EvictionCandidate<K, V>> candidates = new ArrayList<>(entries.size());
+            entries.forEach((key, entry) -> candidates.add(new EvictionCandidate<>(key, entry, entry.accessedAt)));
+            candidates.sort(Comparator.comparingLong(EvictionCandidate::accessedAt));
+
+            for (EvictionCandidate<K, V> candidate : candidates.subList(0, Math.min(excess, candidates.size()))) {
+                // an entry read or replaced since the snapshot stays
+                if (candidate.entry().accessedAt == candidate.accessedAt()
+                        && entries.remove(candidate.key(), candidate.entry())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private record EvictionCandidate<K, V>(K key, CacheEntry<V> entry, long accessedAt) {
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+        private volatile long accessedAt;
+
+        private CacheEntry(V value, long expiresAt, long accessedAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.accessedAt = accessedAt;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAt != Long.MAX_VALUE && now - expiresAt >= 0;
+        }
+    }
+}
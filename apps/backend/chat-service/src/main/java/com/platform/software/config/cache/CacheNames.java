@@ -5,4 +5,5 @@ public class CacheNames {
     public static final String FIND_USER_BY_ID = "findUserById";
     public static final String FIND_USER_AVAILABILITY_STATUS_BY_EMAIL = "findUserAvailabilityStatusByEmail";
     public static final String GET_CONVERSATION_META_DATA = "getConversationMetaData";
+    public static final String FIND_ONE_TO_ONE_CONVERSATION_IDS_BY_EMAIL = "findOneToOneConversationIdsByEmail";
 }
@@ -0,0 +1,241 @@
+package com.platform.software.config.interceptors;
+
+import com.platform.software.common.model.UserTypeEnum;
+import com.platform.software.config.cache.BoundedLocalCache;
+import com.platform.software.config.security.JwksKeyStore;
+import com.platform.software.config.security.model.UserDetails;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the principal of verified tokens on-heap, so requests repeating a token skip the signature verification,
+ * the workspace access query and the user query of {@link JwtAuthorizationFilter}.
+ * <p>
+ * Principals are keyed by the SHA-256 hash of the token and the workspace, and kept until the token expires or the
+ * maximum time to live passes. Suspending a workspace user or changing their role invalidates their principals on
+ * every instance through a redis channel.
+ * </p>
+ * <p>
+ * Each principal keeps the signing key its token was verified with, and a hit is only served while that key is still
+ * in the key set of {@link JwksKeyStore}, so tokens of a rotated key stop working once the key set is refreshed.
+ * Principals loaded before an invalidation are not cached, since their queries may have read the access that was
+ * just revoked.
+ * </p>
+ */
+@Component
+public class AuthenticatedPrincipalCache {
+    private static final Logger logger = LoggerFactory.getLogger(AuthenticatedPrincipalCache.class);
+
+    private static final String INVALIDATION_CHANNEL = "auth:principal:invalidate";
+    private static final String INVALIDATION_SEPARATOR = "\n";
+
+    private final BoundedLocalCache<String, AuthenticatedPrincipal> principals;
+    private final JwksKeyStore jwksKeyStore;
+    private final AtomicLong invalidationVersion = new AtomicLong();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+    private final Duration maxTtl;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+    private final Timer loadTimer;
+    private final Counter savedTime;
+
+    public AuthenticatedPrincipalCache(
+            RedisConnectionFactory redisConnectionFactory,
+            JwksKeyStore jwksKeyStore,
+            MeterRegistry meterRegistry,
+            @Value("${auth.principal-cache.enabled:false}") boolean enabled,
+            @Value("${auth.principal-cache.max-size:10000}") int maxSize,
+            @Value("${auth.principal-cache.max-ttl-seconds:300}") long maxTtlSeconds
+    ) {
+        this.principals = new BoundedLocalCache<>("authenticated-principal", maxSize, Duration.ZERO, meterRegistry);
+        this.jwksKeyStore = jwksKeyStore;
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisConnectionFactory);
+        this.enabled = enabled;
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.bypasses = requestCounter(meterRegistry, "bypass");
+        this.loadTimer = Timer.builder("auth.principal.cache.load")
+                .description("Workspace access and user queries of principals missing from the cache")
+                .register(meterRegistry);
+        this.savedTime = Counter.builder("auth.principal.cache.saved")
+                .description("Estimated query time saved by principals served from the cache")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.principal.cache.requests")
+                .description("Authenticated requests served by the principal cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        listenerContainer.addMessageListener(this::onInvalidation, ChannelTopic.of(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void cleanup() throws Exception {
+        if (enabled) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * @return the cached principal of the token in the workspace, or {@code null} when the token has to be verified
+     */
+    public AuthenticatedPrincipal get(String token, String workspaceId) {
+        if (!enabled) {
+            bypasses.increment();
+            return null;
+        }
+
+        String cacheKey = cacheKey(token, workspaceId);
+        AuthenticatedPrincipal principal = principals.get(cacheKey);
+        if (principal == null) {
+            misses.increment();
+            return null;
+        }
+        if (!jwksKeyStore.isCurrentKey(principal.keyId(), principal.signingKey())) {
+            // the token was signed with a key rotated out since, verifying it again rejects it
+            principals.invalidate(cacheKey);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        savedTime.increment(loadTimer.mean(TimeUnit.SECONDS));
+        return principal;
+    }
+
+    /**
+     * @return the version to pass to {@link #put} for a principal about to be loaded
+     */
+    public long invalidationVersion() {
+        return invalidationVersion.get();
+    }
+
+    /**
+     * Caches the principal of a verified token until the token expires, capped by the maximum time to live. The
+     * principal is dropped when an invalidation ran since its load started.
+     *
+     * @param loadNanos the time taken by the queries the cached principal saves
+     * @param loadedAtVersion the {@link #invalidationVersion()} read before the principal was loaded
+     */
+    public void put(String token, String workspaceId, AuthenticatedPrincipal principal, Date expiresAt, long loadNanos,
+                    long loadedAtVersion) {
+        if (!enabled) {
+            return;
+        }
+        loadTimer.record(loadNanos, TimeUnit.NANOSECONDS);
+
+        if (expiresAt == null || invalidationVersion.get() != loadedAtVersion) {
+            return;
+        }
+        Duration ttl = Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis());
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+
+        String cacheKey = cacheKey(token, workspaceId);
+        principals.put(cacheKey, principal, ttl.compareTo(maxTtl) < 0 ? ttl : maxTtl);
+        if (invalidationVersion.get() != loadedAtVersion) {
+            // an invalidation ran between the check above and the put, and may have swept before the put
+            principals.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * Drops the cached principals of a user in a workspace on every instance, after their access or role changed.
+     */
+    public void invalidate(String workspaceId, String email) {
+        evict(workspaceId, email);
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, workspaceId + INVALIDATION_SEPARATOR + email);
+        } catch (Exception e) {
+            logger.warn("failed to publish principal invalidation of {} in workspace: {}", email, workspaceId, e);
+        }
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(INVALIDATION_SEPARATOR, 2);
+        if (parts.length == 2) {
+            evict(parts[0], parts[1]);
+        }
+    }
+
+    private void evict(String workspaceId, String email) {
+        // bumped before the sweep, so a put racing with it either sees the new version or is swept
+        invalidationVersion.incrementAndGet();
+        principals.invalidateValuesIf(principal ->
+                principal.workspaceId().equals(workspaceId) && principal.email().equalsIgnoreCase(email));
+    }
+
+    private static String cacheKey(String token, String workspaceId) {
+        try {
+            byte[] tokenHash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(tokenHash) + "::" + workspaceId;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * The verified claims, workspace role and user id of a token in a workspace, and the key the token was verified with.
+     */
+    public record AuthenticatedPrincipal(
+            Long userId,
+            String email,
+            String userType,
+            String workspaceId,
+            WorkspaceUserRole workspaceUserRole,
+            String keyId,
+            RSAPublicKey signingKey
+    ) {
+        public UserDetails toUserDetails() {
+            return new UserDetails(userId, email, UserTypeEnum.valueOf(userType), workspaceId, workspaceUserRole);
+        }
+    }
+}
@@ -4,10 +4,11 @@ import com.platform.software.common.constants.Constants;
 import com.platform.software.common.service.ErrorResponseHandler;
 import com.platform.software.common.service.security.CustomHttpStatus;
 import com.platform.software.common.utils.AuthUtils;
-import com.platform.software.config.aws.AWSCognitoConfig;
+import com.platform.software.config.security.JwksKeyStore;
+import com.platform.software.config.security.JwtTokenVerifier;
 import com.platform.software.exception.CustomWorkspaceMissingException;
 import com.platform.software.exception.ErrorResponses;
-import com.platform.software.platform.workspaceuser.entity.WorkspaceUser;
+import com.platform.software.platform.workspace.dto.WorkspaceMembershipDTO;
 import com.platform.software.platform.workspaceuser.service.WorkspaceUserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -35,13 +36,11 @@ import com.platform.software.config.security.model.UserDetails;
 import com.platform.software.config.workspace.WorkspaceContext;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
 import java.security.interfaces.RSAPublicKey;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
@@ -58,19 +57,23 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     );
 
     private final UserService userService;
-    private final AWSCognitoConfig awsCognitoConfig;
+    private final JwksKeyStore jwksKeyStore;
     private final WorkspaceUserService workspaceUserService;
-
-    private final Map<String, RSAPublicKey> cachedPublicKeys = new ConcurrentHashMap<>();
+    private final AuthenticatedPrincipalCache principalCache;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     public JwtAuthorizationFilter(
         UserService userService,
-        AWSCognitoConfig awsCognitoConfig,
-        WorkspaceUserService workspaceUserService
+        JwksKeyStore jwksKeyStore,
+        WorkspaceUserService workspaceUserService,
+        AuthenticatedPrincipalCache principalCache,
+        JwtTokenVerifier jwtTokenVerifier
     ) {
         this.userService = userService;
-        this.awsCognitoConfig = awsCognitoConfig;
+        this.jwksKeyStore = jwksKeyStore;
         this.workspaceUserService = workspaceUserService;
+        this.principalCache = principalCache;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     private boolean isPublicEndpoint(HttpServletRequest request) {
@@ -83,7 +86,7 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         return PLATFORM_PATTERNS.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
     }
 
-    private WorkspaceUser setCurrentWorkspace(HttpServletRequest request, String email) {
+    private WorkspaceMembershipDTO setCurrentWorkspace(HttpServletRequest request, String email) {
         String tenantId = request.getHeader(Constants.X_TENANT_HEADER);
 
         // Validate header
@@ -92,7 +95,7 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
             throw new CustomWorkspaceMissingException("Workspace header is missing or invalid.");
         }
 
-        WorkspaceUser workspaceUser = workspaceUserService.validateWorkspaceAccess(tenantId, email);
+        WorkspaceMembershipDTO workspaceUser = workspaceUserService.validateWorkspaceAccess(tenantId, email);
 
         if (workspaceUser == null) {
             log.warn("Unauthorized workspace access. tenantId={}, email={}", tenantId, email);
@@ -104,18 +107,19 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
     }
 
 
-    private void handleTokenVerificationForUsers(
+    private RSAPublicKey handleTokenVerificationForUsers(
         DecodedJWT decodedJwt,
         String token
-    ) throws JwkException, MalformedURLException {
-        RSAPublicKey publicKey = AuthUtils.getPublicKey(decodedJwt.getKeyId(), awsCognitoConfig.getJwks(), cachedPublicKeys);
-        AuthUtils.verifyToken(publicKey, token);
+    ) throws JwkException {
+        RSAPublicKey publicKey = jwksKeyStore.getPublicKey(decodedJwt.getKeyId());
+        jwtTokenVerifier.verify(token, publicKey);
+        return publicKey;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        WorkspaceUser workspaceUser = null;
+        WorkspaceMembershipDTO workspaceUser = null;
 
         // Allow through for public routes
         if (isPublicEndpoint(request)) {
@@ -130,14 +134,30 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
             return;
         }
 
+        // a token already verified for this workspace skips the verification and the queries below while its key is current
+        String tenantId = request.getHeader(Constants.X_TENANT_HEADER);
+        boolean isPlatformOnlyEndpoint = isPlatformOnlyEndpoint(request);
+        if (!isPlatformOnlyEndpoint && tenantId != null) {
+            AuthenticatedPrincipalCache.AuthenticatedPrincipal principal = principalCache.get(token, tenantId);
+            if (principal != null) {
+                WorkspaceContext.setCurrentWorkspace(tenantId);
+                setAuthentication(principal.toUserDetails(), principal.userType());
+                filterChain.doFilter(request, response);
+                return;
+            }
+        }
+
         try {
             DecodedJWT decodedJwt = JWT.decode(token);
             Map<String, Claim> claims = decodedJwt.getClaims();
             String email = claims.get(Constants.EMAIL_ATTR).asString().replace("\"", "");
             String userType = claims.get(Constants.COGNITO_CUSTOM_USER_TYPE_KEY).asString();
 
+            long loadStartedAt = System.nanoTime();
+            long invalidationVersion = principalCache.invalidationVersion();
+
             //skip setting workspace for platform only endpoints
-            if(!isPlatformOnlyEndpoint(request)){
+            if(!isPlatformOnlyEndpoint){
                 try {
                     workspaceUser = setCurrentWorkspace(request, email);
                 } catch (CustomWorkspaceMissingException e){
@@ -151,29 +171,40 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            handleTokenVerificationForUsers(
+            long workspaceLoadNanos = System.nanoTime() - loadStartedAt;
+
+            RSAPublicKey signingKey = handleTokenVerificationForUsers(
                 decodedJwt,
                 token
             );
 
             UserDetails userDetails;
             try {
+                long userLoadStartedAt = System.nanoTime();
                 ChatUser user = userService.getUserByEmail(email);
                 userDetails = new UserDetails(
                     user.getId(), email, UserTypeEnum.valueOf(userType), WorkspaceContext.getCurrentWorkspace(),
-                    workspaceUser != null ? workspaceUser.getRole() : null
+                    workspaceUser != null ? workspaceUser.role() : null
                 );
+
+                if (workspaceUser != null) {
+                    principalCache.put(
+                        token,
+                        tenantId,
+                        new AuthenticatedPrincipalCache.AuthenticatedPrincipal(
+                            user.getId(), email, userType, tenantId, workspaceUser.role(), decodedJwt.getKeyId(), signingKey
+                        ),
+                        decodedJwt.getExpiresAt(),
+                        workspaceLoadNanos + System.nanoTime() - userLoadStartedAt,
+                        invalidationVersion
+                    );
+                }
             } catch (Exception e) {
                 userDetails = new UserDetails();
                 userDetails.setEmail(email);
             }
 
-            //handle permissions later
-            Set<GrantedAuthority> authorities = new HashSet<>();
-
-            UsernamePasswordAuthenticationToken authentication =
-                    new UsernamePasswordAuthenticationToken(userDetails, userType, authorities);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            setAuthentication(userDetails, userType);
 
             filterChain.doFilter(request, response);
         } catch (JWTVerificationException | JwkException e) {
@@ -181,4 +212,13 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
         }
     }
 
+    private void setAuthentication(UserDetails userDetails, String userType) {
+        //handle permissions later
+        Set<GrantedAuthority> authorities = new HashSet<>();
+
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(userDetails, userType, authorities);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
 }
@@ -8,8 +8,8 @@ import com.platform.software.chat.user.entity.ChatUser;
 import com.platform.software.chat.user.service.UserService;
 import com.platform.software.common.constants.Constants;
 import com.platform.software.common.constants.GeneralConstants;
-import com.platform.software.common.utils.AuthUtils;
-import com.platform.software.config.aws.AWSCognitoConfig;
+import com.platform.software.config.security.JwksKeyStore;
+import com.platform.software.config.security.JwtTokenVerifier;
 
 import com.platform.software.config.workspace.WorkspaceContext;
 import com.platform.software.exception.CustomForbiddenException;
@@ -27,7 +27,6 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.security.interfaces.RSAPublicKey;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -35,23 +34,24 @@ import java.util.UUID;
 public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
     Logger logger = LoggerFactory.getLogger(WebSocketAuthorizationInterceptor.class);
 
-    private final AWSCognitoConfig awsCognitoConfig;
+    private final JwksKeyStore jwksKeyStore;
     private final WebSocketSessionManager sessionManager;
     private final UserService userService;
     private final WorkspaceUserService workspaceUserService;
-
-    private final HashMap<String, RSAPublicKey> cachedSignedPublicKeyMapFromCognito = new HashMap<>();
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     public WebSocketAuthorizationInterceptor(
         WebSocketSessionManager sessionManager,
-        AWSCognitoConfig awsCognitoConfig,
+        JwksKeyStore jwksKeyStore,
         UserService userService,
-        WorkspaceUserService workspaceUserService
+        WorkspaceUserService workspaceUserService,
+        JwtTokenVerifier jwtTokenVerifier
     ) {
         this.sessionManager = sessionManager;
-        this.awsCognitoConfig = awsCognitoConfig;
+        this.jwksKeyStore = jwksKeyStore;
         this.userService = userService;
         this.workspaceUserService = workspaceUserService;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     @Override
@@ -108,8 +108,8 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
             String email = claims.get(Constants.JWT_CLAIM_EMAIL).asString().replace("\"", "");
 
             // Validate token
-            RSAPublicKey publicKey = AuthUtils.getPublicKey(decodedJWT.getKeyId(), awsCognitoConfig.getJwks(), cachedSignedPublicKeyMapFromCognito);
-            AuthUtils.verifyToken(publicKey, token);
+            RSAPublicKey publicKey = jwksKeyStore.getPublicKey(decodedJWT.getKeyId());
+            jwtTokenVerifier.verify(token, publicKey);
 
             workspaceUserService.verifyUserAccessToWorkspace(email, workspaceId);
             WorkspaceContext.setCurrentWorkspace(workspaceId);
@@ -155,7 +155,7 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
         String deviceType = (String) accessor.getSessionAttributes().get(GeneralConstants.DEVICE_TYPE);
 
         if (sessionKey != null) {
-            sessionManager.removeWebSocketSessionInfo(sessionKey, email, deviceType);
+            sessionManager.removeWebSocketSessionInfo(sessionKey, accessor.getSessionId(), email, deviceType);
             logger.info("removed websocket session for user: {}", email);
         }
     }
@@ -176,7 +176,7 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
         if (existingSession == null) {
             sessionManager.registerSessionFromStomp(sessionKey, accessor, workspaceId, email, deviceType, user.getAvailabilityStatus());
         } else {
-            sessionManager.reconnectingSessionFromStomp(sessionKey, workspaceId, email, deviceType, user.getAvailabilityStatus());
+            sessionManager.reconnectingSessionFromStomp(sessionKey, accessor.getSessionId(), workspaceId, email, deviceType, user.getAvailabilityStatus());
         }
     }
 
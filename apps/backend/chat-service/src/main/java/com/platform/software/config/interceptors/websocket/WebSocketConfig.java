@@ -1,7 +1,8 @@
 package com.platform.software.config.interceptors.websocket;
 
 import com.platform.software.chat.user.service.UserService;
-import com.platform.software.config.aws.AWSCognitoConfig;
+import com.platform.software.config.security.JwksKeyStore;
+import com.platform.software.config.security.JwtTokenVerifier;
 import com.platform.software.platform.workspaceuser.service.WorkspaceUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,21 +23,24 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     @Value("${ws.allowed-origins}")
     private String wsAllowedOrigins;
 
-    private final AWSCognitoConfig awsCognitoConfig;
+    private final JwksKeyStore jwksKeyStore;
     private final WebSocketSessionManager sessionManager;
     private final UserService userService;
     private final WorkspaceUserService workspaceUserService;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
     public WebSocketConfig(
-        AWSCognitoConfig awsCognitoConfig,
+        JwksKeyStore jwksKeyStore,
         @Lazy WebSocketSessionManager sessionManager,
         UserService userService,
-        WorkspaceUserService workspaceUserService
+        WorkspaceUserService workspaceUserService,
+        JwtTokenVerifier jwtTokenVerifier
     ) {
-        this.awsCognitoConfig = awsCognitoConfig;
+        this.jwksKeyStore = jwksKeyStore;
         this.sessionManager = sessionManager;
         this.userService = userService;
         this.workspaceUserService = workspaceUserService;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     @Bean
@@ -68,6 +72,6 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureClientInboundChannel(ChannelRegistration registration) {
-        registration.interceptors(new WebSocketAuthorizationInterceptor(sessionManager, awsCognitoConfig, userService, workspaceUserService));
+        registration.interceptors(new WebSocketAuthorizationInterceptor(sessionManager, jwksKeyStore, userService, workspaceUserService, jwtTokenVerifier));
     }
 }
\ No newline at end of file
@@ -6,7 +6,10 @@ import com.platform.software.chat.user.activitystatus.dto.UserStatusEnum;
 import com.platform.software.chat.user.activitystatus.service.UserActivityStatusService;
 import com.platform.software.chat.user.service.UserService;
 import com.platform.software.common.constants.GeneralConstants;
+import com.platform.software.config.interceptors.websocket.relay.WebSocketMessageRelay;
+import com.platform.software.config.interceptors.websocket.relay.WebSocketRelayMessage;
 import com.platform.software.config.workspace.WorkspaceContext;
+import jakarta.annotation.PostConstruct;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +22,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,17 +34,37 @@ public class WebSocketSessionManager {
     @Getter
     private final Map<String, WebSocketSessionInfoDAO> webSocketSessionInfos = new ConcurrentHashMap<>();
 
+    // Secondary indexes, kept in sync with webSocketSessionInfos on register, reconnect and remove
+    // workspaceId -> encoded email -> session keys (one per device). The workspace maps are kept once created and the
+    // session keys of a user only change within a compute of the user's entry, so no key lands in a dropped set
+    private final Map<String, Map<String, Set<String>>> workspaceUserSessionKeys = new ConcurrentHashMap<>();
+    // stompSessionId -> session key
+    private final Map<String, String> stompSessionKeys = new ConcurrentHashMap<>();
+    // workspaceId -> opened conversation id -> session keys that have the conversation open
+    private final Map<String, Map<Long, Set<String>>> openedConversationSessionKeys = new ConcurrentHashMap<>();
+    // workspaceId -> visible conversation id -> session keys that are showing the conversation
+    private final Map<String, Map<Long, Set<String>>> visibleConversationSessionKeys = new ConcurrentHashMap<>();
+
     private final SimpMessagingTemplate template;
     private final UserActivityStatusService userActivityStatusService;
+    private final WebSocketMessageRelay messageRelay;
 
     public WebSocketSessionManager(
             SimpMessagingTemplate template,
             UserService userService,
-            UserActivityStatusService userActivityStatusService
+            UserActivityStatusService userActivityStatusService,
+            WebSocketMessageRelay messageRelay
     ) {
         this.template = template;
         this.userService = userService;
         this.userActivityStatusService = userActivityStatusService;
+        this.messageRelay = messageRelay;
+    }
+
+    @PostConstruct
+    public void init() {
+        messageRelay.setLocalDeliveryHandler(this::deliverRelayedMessage);
+        messageRelay.setLocalUserPrinciplesSource(this::getConnectedUserPrinciples);
     }
 
     /**
@@ -60,7 +84,7 @@ public class WebSocketSessionManager {
                 .disconnectedTime(null)
                 .build();
 
-        webSocketSessionInfos.put(sessionKey, webSocketSessionInfoDAO);
+        putSession(sessionKey, webSocketSessionInfoDAO);
 
         UserStatusEnum normalizedStatus = normalizeStatus(userStatus);
         userActivityStatusService.invokeUserOnline(email, workspaceId, deviceType, normalizedStatus);
@@ -70,7 +94,7 @@ public class WebSocketSessionManager {
     /**
      * re connecting session using STOMP header accessor (new method for ChannelInterceptor)
      */
-    public void reconnectingSessionFromStomp(String sessionKey, String workspaceId, String email, String deviceType, UserStatusEnum userStatus) {
+    public void reconnectingSessionFromStomp(String sessionKey, String stompSessionId, String workspaceId, String email, String deviceType, UserStatusEnum userStatus) {
         Optional<WebSocketSessionInfoDAO> session = getValidSession(sessionKey);
         if (session.isPresent()) {
             WebSocketSessionInfoDAO existingSession = session.get();
@@ -80,11 +104,29 @@ public class WebSocketSessionManager {
                 device = deviceType;
             }
 
-            existingSession.setDeviceType(DeviceType.fromString(device));
-            existingSession.setDisconnectedTime(null);
-            
-            existingSession.setChatUserStatus(userStatus);
-            webSocketSessionInfos.put(sessionKey, existingSession);
+            DeviceType reconnectedDevice = DeviceType.fromString(device);
+            boolean reconnected = updateSession(sessionKey, existingSession, current -> {
+                // the session now belongs to the new connection, so only its disconnect removes the session
+                if (current.getStompSessionId() != null && !current.getStompSessionId().equals(stompSessionId)) {
+                    stompSessionKeys.remove(current.getStompSessionId(), sessionKey);
+                }
+                if (stompSessionId != null) {
+                    current.setStompSessionId(stompSessionId);
+                    stompSessionKeys.put(stompSessionId, sessionKey);
+                }
+                current.setDeviceType(reconnectedDevice);
+                current.setDisconnectedTime(null);
+                current.setChatUserStatus(userStatus);
+            });
+            if (!reconnected) {
+                logger.debug("session removed while re connecting for user: {}", sessionKey);
+                return;
+            }
+
+            String[] parts = sessionKey.split(":", 3);
+            if (parts.length == 3) {
+                messageRelay.userConnected(parts[0] + ":" + parts[1]);
+            }
 
             UserStatusEnum normalizedStatus = normalizeStatus(userStatus);
             userActivityStatusService.invokeUserOnline(email, workspaceId, deviceType, normalizedStatus);
@@ -103,28 +145,56 @@ public class WebSocketSessionManager {
             String userStatusString = userService.getUserAvailabilityStatus(subscriptionData.getEmail());
             UserStatusEnum userStatusEnum = UserStatusEnum.fromString(userStatusString);
 
-            if (subscriptionData.getVisibleConversations() != null) {
-                existingSession.setVisibleConversations(subscriptionData.getVisibleConversations());
-            }
-
             DeviceType device = existingSession.getDeviceType();
             if (subscriptionData.getDeviceType() != null) {
                 device = DeviceType.fromString(subscriptionData.getDeviceType());
             }
+            DeviceType subscribedDevice = device;
 
-            existingSession.setOpenedConversation(subscriptionData.getOpenedConversation());
-            existingSession.setDisconnectedTime(null);
-            existingSession.setDeviceType(device);
+            // the indexes are only updated while the session is still registered, so a session removed meanwhile
+            // is neither brought back nor left in the conversation indexes
+            updateSession(sessionKey, existingSession, current -> {
+                if (subscriptionData.getVisibleConversations() != null) {
+                    updateVisibleConversations(sessionKey, subscriptionData.getWorkspaceId(), current, subscriptionData.getVisibleConversations());
+                }
 
-            if (userStatusEnum.equals(UserStatusEnum.BUSY)) {
-                existingSession.setChatUserStatus(userStatusEnum);
-            } else {
-                existingSession.setChatUserStatus(UserStatusEnum.ONLINE);
-            }
+                updateOpenedConversation(sessionKey, subscriptionData.getWorkspaceId(), current, subscriptionData.getOpenedConversation());
+                current.setDisconnectedTime(null);
+                current.setDeviceType(subscribedDevice);
 
+                if (userStatusEnum.equals(UserStatusEnum.BUSY)) {
+                    current.setChatUserStatus(userStatusEnum);
+                } else {
+                    current.setChatUserStatus(UserStatusEnum.ONLINE);
+                }
+            });
+        }
+    }
 
-            webSocketSessionInfos.put(sessionKey, existingSession);
+    /**
+     * Get the keys of every session in the workspace that currently has the given conversation open
+     */
+    public Set<String> getSessionKeysWithOpenedConversation(String workspaceId, Long conversationId) {
+        Map<Long, Set<String>> conversationSessionKeys = openedConversationSessionKeys.get(workspaceId);
+        if (conversationSessionKeys == null || conversationId == null) {
+            return Collections.emptySet();
         }
+
+        Set<String> sessionKeys = conversationSessionKeys.get(conversationId);
+        return sessionKeys == null ? Collections.emptySet() : sessionKeys;
+    }
+
+    /**
+     * Get the keys of every session in the workspace that is currently showing the given conversation
+     */
+    public Set<String> getSessionKeysWithVisibleConversation(String workspaceId, Long conversationId) {
+        Map<Long, Set<String>> conversationSessionKeys = visibleConversationSessionKeys.get(workspaceId);
+        if (conversationSessionKeys == null || conversationId == null) {
+            return Collections.emptySet();
+        }
+
+        Set<String> sessionKeys = conversationSessionKeys.get(conversationId);
+        return sessionKeys == null ? Collections.emptySet() : sessionKeys;
     }
 
     /**
@@ -166,9 +236,17 @@ public class WebSocketSessionManager {
         return Optional.empty();
     }
 
-    public void removeWebSocketSessionInfo(String sessionKey, String email, String deviceType) {
-        WebSocketSessionInfoDAO removed = webSocketSessionInfos.remove(sessionKey);
-        if (removed != null) {
+    /**
+     * Removes the session of a disconnecting connection, unless the key has been taken over by a newer connection
+     */
+    public void removeWebSocketSessionInfo(String sessionKey, String stompSessionId, String email, String deviceType) {
+        WebSocketSessionInfoDAO session = webSocketSessionInfos.get(sessionKey);
+        if (session == null || !Objects.equals(session.getStompSessionId(), stompSessionId)) {
+            logger.debug("ignored disconnect of a replaced session for user: {}", sessionKey);
+            return;
+        }
+
+        if (removeSession(sessionKey, session)) {
             String workspaceId = sessionKey.split(":", 2)[0];
 
             List<WebSocketSessionInfoDAO> sessions = getSessionsForUser(workspaceId, email);
@@ -192,6 +270,11 @@ public class WebSocketSessionManager {
      * Send a broadcasting message to every logged-in user
      */
     public void sendMessageToEveryConnectedUser(String path, Object payload) {
+        sendMessageToEveryLocalSession(path, payload);
+        messageRelay.relayToEveryInstance(path, payload);
+    }
+
+    private void sendMessageToEveryLocalSession(String path, Object payload) {
         for (Map.Entry<String, WebSocketSessionInfoDAO> entry : webSocketSessionInfos.entrySet()) {
             try {
                 String sessionKey = entry.getKey();
@@ -214,6 +297,7 @@ public class WebSocketSessionManager {
             String userPrinciple = createUserPrinciple(workspaceId, email);
 
             template.convertAndSendToUser(userPrinciple, path, payload);
+            messageRelay.relayToUser(userPrinciple, path, payload);
             logger.debug("message sent to user: {} at path: {}", email, path + encodedEmail);
 
         } catch (Exception e) {
@@ -221,6 +305,17 @@ public class WebSocketSessionManager {
         }
     }
 
+    /**
+     * Sends a message relayed from another instance to the sessions on this instance
+     */
+    private void deliverRelayedMessage(WebSocketRelayMessage message) {
+        if (message.userPrinciple() == null) {
+            sendMessageToEveryLocalSession(message.path(), message.payload());
+        } else {
+            template.convertAndSendToUser(message.userPrinciple(), message.path(), message.payload());
+        }
+    }
+
     /**
      * Create user principle string
      */
@@ -235,31 +330,59 @@ public class WebSocketSessionManager {
             String workspaceId,
             String email
     ) {
-        String keyPrefix = String.format("%s:%s:", workspaceId, URLEncoder.encode(email, StandardCharsets.UTF_8));
+        Map<String, Set<String>> userSessionKeys = workspaceUserSessionKeys.get(workspaceId);
+        if (userSessionKeys == null) {
+            return new ArrayList<>();
+        }
+
+        Set<String> sessionKeys = userSessionKeys.get(URLEncoder.encode(email, StandardCharsets.UTF_8));
+        if (sessionKeys == null) {
+            return new ArrayList<>();
+        }
 
-        return webSocketSessionInfos.entrySet()
-                .stream()
-                .filter(entry -> entry.getKey().startsWith(keyPrefix))
-                .map(Map.Entry::getValue)
+        return sessionKeys.stream()
+                .map(webSocketSessionInfos::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
 
+    /**
+     * Get the principals of the users with at least one session on this instance
+     */
+    public Set<String> getConnectedUserPrinciples() {
+        Set<String> userPrinciples = new HashSet<>();
+        workspaceUserSessionKeys.forEach((workspaceId, userSessionKeys) -> userSessionKeys.keySet()
+                .forEach(encodedEmail -> userPrinciples.add(workspaceId + ":" + encodedEmail)));
+        return userPrinciples;
+    }
+
     /**
      * Get session information by STOMP session ID
      */
     public Optional<WebSocketSessionInfoDAO> getSessionByStompId(String stompSessionId) {
-        return webSocketSessionInfos.values().stream()
-            .filter(session -> stompSessionId.equals(session.getStompSessionId()))
-            .findFirst();
+        String sessionKey = stompSessionKeys.get(stompSessionId);
+        if (sessionKey == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(webSocketSessionInfos.get(sessionKey));
     }
 
     /**
-     * Remove session by STOMP session ID
+     * Remove session by STOMP session ID, unless the session key has been taken over by a newer connection
      */
     public void removeSessionByStompId(String stompSessionId) {
-        webSocketSessionInfos.entrySet().removeIf(entry ->
-            stompSessionId.equals(entry.getValue().getStompSessionId()));
+        String sessionKey = stompSessionKeys.get(stompSessionId);
+        if (sessionKey == null) {
+            return;
+        }
+
+        WebSocketSessionInfoDAO session = webSocketSessionInfos.get(sessionKey);
+        if (session != null && stompSessionId.equals(session.getStompSessionId())) {
+            removeSession(sessionKey, session);
+        } else {
+            stompSessionKeys.remove(stompSessionId, sessionKey);
+        }
         logger.debug("removed session with stomp id: {}", stompSessionId);
     }
 
@@ -276,13 +399,186 @@ public class WebSocketSessionManager {
     public Map<String, WebSocketSessionInfoDAO> getSessionsByTenant(String workspaceId) {
         Map<String, WebSocketSessionInfoDAO> tenantSessions = new HashMap<>();
 
-        webSocketSessionInfos.entrySet().stream()
-            .filter(entry -> entry.getKey().startsWith(workspaceId + ":"))
-            .forEach(entry -> tenantSessions.put(entry.getKey(), entry.getValue()));
+        Map<String, Set<String>> userSessionKeys = workspaceUserSessionKeys.get(workspaceId);
+        if (userSessionKeys == null) {
+            return tenantSessions;
+        }
+
+        userSessionKeys.values().forEach(sessionKeys -> sessionKeys.forEach(sessionKey -> {
+            WebSocketSessionInfoDAO session = webSocketSessionInfos.get(sessionKey);
+            if (session != null) {
+                tenantSessions.put(sessionKey, session);
+            }
+        }));
 
         return tenantSessions;
     }
 
+    /**
+     * Stores the session, adds it to the workspace/user and stomp session indexes and registers the user with the relay.
+     * A session replaced under the same key is dropped from the stomp and conversation indexes, since the new session
+     * starts without opened or visible conversations.
+     */
+    private void putSession(String sessionKey, WebSocketSessionInfoDAO session) {
+        WebSocketSessionInfoDAO previous = webSocketSessionInfos.put(sessionKey, session);
+        if (previous != null && previous.getStompSessionId() != null
+                && !previous.getStompSessionId().equals(session.getStompSessionId())) {
+            stompSessionKeys.remove(previous.getStompSessionId(), sessionKey);
+        }
+
+        String[] parts = sessionKey.split(":", 3);
+        if (previous != null && previous != session && parts.length == 3) {
+            unindexConversations(parts[0], previous, sessionKey);
+        }
+
+        if (parts.length == 3) {
+            workspaceUserSessionKeys
+                    .computeIfAbsent(parts[0], k -> new ConcurrentHashMap<>())
+                    .compute(parts[1], (encodedEmail, sessionKeys) -> {
+                        Set<String> userSessionKeys = sessionKeys == null ? ConcurrentHashMap.newKeySet() : sessionKeys;
+                        userSessionKeys.add(sessionKey);
+                        return userSessionKeys;
+                    });
+            messageRelay.userConnected(parts[0] + ":" + parts[1]);
+        }
+
+        if (session.getStompSessionId() != null) {
+            stompSessionKeys.put(session.getStompSessionId(), sessionKey);
+        }
+    }
+
+    /**
+     * Applies the update to the session while it is still the one registered under the key. The update holds the lock
+     * of the key's entry, so it runs either before or after the session is replaced or removed, but the index updates
+     * of putSession and removeSession that follow may still run concurrently with it.
+     *
+     * @return false if the session was removed or replaced, in which case the update is not applied
+     */
+    private boolean updateSession(String sessionKey, WebSocketSessionInfoDAO session, Consumer<WebSocketSessionInfoDAO> update) {
+        boolean[] updated = {false};
+        webSocketSessionInfos.computeIfPresent(sessionKey, (key, current) -> {
+            if (current == session) {
+                update.accept(current);
+                updated[0] = true;
+            }
+            return current;
+        });
+        return updated[0];
+    }
+
+    /**
+     * Removes the session while it is still the one registered under the key, drops it from the workspace/user and
+     * stomp session indexes and unregisters the user from the relay once no session of the user remains. The last
+     * session is decided within the update of the user's index entry, a connect of the same user racing with the
+     * unregistering is registered again by the relay heartbeat.
+     *
+     * @return false if the session was already removed or replaced
+     */
+    private boolean removeSession(String sessionKey, WebSocketSessionInfoDAO session) {
+        if (!webSocketSessionInfos.remove(sessionKey, session)) {
+            return false;
+        }
+
+        String[] parts = sessionKey.split(":", 3);
+        Map<String, Set<String>> userSessionKeys = parts.length == 3 ? workspaceUserSessionKeys.get(parts[0]) : null;
+        if (userSessionKeys != null) {
+            // a session registered again under the key meanwhile keeps its index entry
+            boolean[] lastSessionRemoved = {false};
+            userSessionKeys.computeIfPresent(parts[1], (encodedEmail, sessionKeys) -> {
+                if (!webSocketSessionInfos.containsKey(sessionKey)) {
+                    sessionKeys.remove(sessionKey);
+                }
+                lastSessionRemoved[0] = sessionKeys.isEmpty();
+                return sessionKeys.isEmpty() ? null : sessionKeys;
+            });
+
+            if (lastSessionRemoved[0]) {
+                messageRelay.userDisconnected(parts[0] + ":" + parts[1]);
+            }
+        }
+
+        if (session.getStompSessionId() != null) {
+            stompSessionKeys.remove(session.getStompSessionId(), sessionKey);
+        }
+
+        if (parts.length == 3) {
+            unindexConversations(parts[0], session, sessionKey);
+        }
+        return true;
+    }
+
+    /**
+     * Drops the opened and visible conversations of the session from the conversation indexes.
+     */
+    private void unindexConversations(String workspaceId, WebSocketSessionInfoDAO session, String sessionKey) {
+        unindexConversation(openedConversationSessionKeys, workspaceId, session.getOpenedConversation(), sessionKey);
+        if (session.getVisibleConversations() != null) {
+            session.getVisibleConversations().forEach(conversationId ->
+                    unindexConversation(visibleConversationSessionKeys, workspaceId, conversationId, sessionKey));
+        }
+    }
+
+    /**
+     * Sets the opened conversation of the session and moves it between entries of the opened conversation index.
+     */
+    private void updateOpenedConversation(String sessionKey, String workspaceId, WebSocketSessionInfoDAO session, Long openedConversation) {
+        Long previousConversation = session.getOpenedConversation();
+        session.setOpenedConversation(openedConversation);
+
+        if (Objects.equals(previousConversation, openedConversation)) {
+            return;
+        }
+
+        unindexConversation(openedConversationSessionKeys, workspaceId, previousConversation, sessionKey);
+        indexConversation(openedConversationSessionKeys, workspaceId, openedConversation, sessionKey);
+    }
+
+    /**
+     * Sets the visible conversations of the session and updates the visible conversation index with the difference.
+     */
+    private void updateVisibleConversations(String sessionKey, String workspaceId, WebSocketSessionInfoDAO session, Set<Long> visibleConversations) {
+        Set<Long> previousConversations = session.getVisibleConversations() == null
+                ? Collections.emptySet()
+                : session.getVisibleConversations();
+        Set<Long> currentConversations = new HashSet<>(visibleConversations);
+        session.setVisibleConversations(currentConversations);
+
+        for (Long conversationId : previousConversations) {
+            if (!currentConversations.contains(conversationId)) {
+                unindexConversation(visibleConversationSessionKeys, workspaceId, conversationId, sessionKey);
+            }
+        }
+        for (Long conversationId : currentConversations) {
+            if (!previousConversations.contains(conversationId)) {
+                indexConversation(visibleConversationSessionKeys, workspaceId, conversationId, sessionKey);
+            }
+        }
+    }
+
+    private void indexConversation(Map<String, Map<Long, Set<String>>> index, String workspaceId, Long conversationId, String sessionKey) {
+        if (conversationId == null) {
+            return;
+        }
+
+        index.computeIfAbsent(workspaceId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(conversationId, k -> ConcurrentHashMap.newKeySet())
+                .add(sessionKey);
+    }
+
+    private void unindexConversation(Map<String, Map<Long, Set<String>>> index, String workspaceId, Long conversationId, String sessionKey) {
+        if (conversationId == null) {
+            return;
+        }
+
+        index.computeIfPresent(workspaceId, (workspace, conversationSessionKeys) -> {
+            conversationSessionKeys.computeIfPresent(conversationId, (id, sessionKeys) -> {
+                sessionKeys.remove(sessionKey);
+                return sessionKeys.isEmpty() ? null : sessionKeys;
+            });
+            return conversationSessionKeys.isEmpty() ? null : conversationSessionKeys;
+        });
+    }
+
     private String getSessionKey(String tenantId, String email, String deviceId) {
         return String.format("%s:%s:%s", tenantId, URLEncoder.encode(email, StandardCharsets.UTF_8), deviceId);
     }
@@ -0,0 +1,35 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Single instance delivery, there is no other instance to relay messages to.
+ */
+public class LocalWebSocketMessageRelay implements WebSocketMessageRelay {
+
+    @Override
+    public void userConnected(String userPrinciple) {
+    }
+
+    @Override
+    public void userDisconnected(String userPrinciple) {
+    }
+
+    @Override
+    public void relayToUser(String userPrinciple, String path, Object payload) {
+    }
+
+    @Override
+    public void relayToEveryInstance(String path, Object payload) {
+    }
+
+    @Override
+    public void setLocalDeliveryHandler(Consumer<WebSocketRelayMessage> handler) {
+    }
+
+    @Override
+    public void setLocalUserPrinciplesSource(Supplier<Collection<String>> source) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Relays WebSocket messages between instances over redis pub/sub.
+ * <p>
+ * Every instance subscribes to its own channel and to a broadcast channel. A session directory in redis maps each
+ * user principal to the instances holding sessions of the user, so a message is only published to those instances.
+ * Directory entries of instances that stopped without cleaning up are dropped when nobody receives their channel.
+ * Entries expire after the directory ttl, so every instance refreshes the entries of its connected users on a heartbeat
+ * of a third of the ttl; entries of an instance that died expire once its heartbeat stops. The heartbeat takes the
+ * connected users from the sessions of the instance, so a user unregistered by a disconnect racing with a connect of
+ * the same user is registered again.
+ * </p>
+ */
+public class RedisWebSocketMessageRelay implements WebSocketMessageRelay {
+    private static final Logger logger = LoggerFactory.getLogger(RedisWebSocketMessageRelay.class);
+
+    private static final String DIRECTORY_KEY_PREFIX = "ws:directory:";
+    private static final String NODE_CHANNEL_PREFIX = "ws:relay:node:";
+    private static final String BROADCAST_CHANNEL = "ws:relay:broadcast";
+
+    private final String nodeId;
+    private final Duration directoryTtl;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+
+    // user principals with at least one session on this instance, removed from the directory on shutdown
+    private final Set<String> localUserPrinciples = ConcurrentHashMap.newKeySet();
+
+    private final Counter messagesPublished;
+    private final Counter messagesReceived;
+    private final Counter publishFailures;
+
+    private volatile Consumer<WebSocketRelayMessage> localDeliveryHandler = message -> {
+    };
+    private volatile Supplier<Collection<String>> localUserPrinciplesSource = () -> localUserPrinciples;
+
+    private ScheduledExecutorService heartbeatScheduler;
+
+    public RedisWebSocketMessageRelay(
+            String nodeId,
+            RedisConnectionFactory redisConnectionFactory,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            Duration directoryTtl
+    ) {
+        this.nodeId = nodeId;
+        this.directoryTtl = directoryTtl;
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisConnectionFactory);
+        this.objectMapper = objectMapper;
+
+        this.messagesPublished = Counter.builder("ws.relay.messages.published")
+                .description("WebSocket messages published to other instances")
+                .register(meterRegistry);
+        this.messagesReceived = Counter.builder("ws.relay.messages.received")
+                .description("WebSocket messages received from other instances")
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("ws.relay.publish.failures")
+                .description("WebSocket messages that could not be published to other instances")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this::onMessage, ChannelTopic.of(nodeChannel(nodeId)));
+        listenerContainer.addMessageListener(this::onMessage, ChannelTopic.of(BROADCAST_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+
+        long heartbeatMillis = Math.max(1, directoryTtl.toMillis() / 3);
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-relay-directory-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::refreshDirectory, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        logger.info("websocket redis relay started for node: {}", nodeId);
+    }
+
+    @Override
+    public void userConnected(String userPrinciple) {
+        localUserPrinciples.add(userPrinciple);
+        try {
+            String directoryKey = DIRECTORY_KEY_PREFIX + userPrinciple;
+            redisTemplate.opsForSet().add(directoryKey, nodeId);
+            redisTemplate.expire(directoryKey, directoryTtl);
+        } catch (Exception e) {
+            logger.warn("failed to add node {} to the session directory of {}", nodeId, userPrinciple, e);
+        }
+    }
+
+    /**
+     * Adds this instance again to the directory entries of every user connected to it and renews their ttl, so
+     * long-lived connections stay in the directory and entries removed as stale by another instance come back.
+     */
+    public void refreshDirectory() {
+        List<String> connectedUserPrinciples = List.copyOf(localUserPrinciplesSource.get());
+        if (connectedUserPrinciples.isEmpty()) {
+            return;
+        }
+        localUserPrinciples.addAll(connectedUserPrinciples);
+
+        byte[] member = nodeId.getBytes(StandardCharsets.UTF_8);
+        long ttlSeconds = Math.max(1, directoryTtl.toSeconds());
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userPrinciple : connectedUserPrinciples) {
+                    byte[] directoryKey = (DIRECTORY_KEY_PREFIX + userPrinciple).getBytes(StandardCharsets.UTF_8);
+                    connection.setCommands().sAdd(directoryKey, member);
+                    connection.keyCommands().expire(directoryKey, ttlSeconds);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("failed to refresh the session directory of node: {}", nodeId, e);
+        }
+    }
+
+    @Override
+    public void userDisconnected(String userPrinciple) {
+        localUserPrinciples.remove(userPrinciple);
+        try {
+            redisTemplate.opsForSet().remove(DIRECTORY_KEY_PREFIX + userPrinciple, nodeId);
+        } catch (Exception e) {
+            logger.warn("failed to remove node {} from the session directory of {}", nodeId, userPrinciple, e);
+        }
+    }
+
+    @Override
+    public void relayToUser(String userPrinciple, String path, Object payload) {
+        Set<String> nodeIds;
+        try {
+            nodeIds = redisTemplate.opsForSet().members(DIRECTORY_KEY_PREFIX + userPrinciple);
+        } catch (Exception e) {
+            publishFailures.increment();
+            logger.warn("failed to read the session directory of {}", userPrinciple, e);
+            return;
+        }
+        if (nodeIds == null || nodeIds.isEmpty() || (nodeIds.size() == 1 && nodeIds.contains(nodeId))) {
+            return;
+        }
+
+        String message = serialize(new WebSocketRelayMessage(nodeId, userPrinciple, path, serializePayload(payload)));
+        if (message == null) {
+            return;
+        }
+
+        for (String remoteNodeId : nodeIds) {
+            if (remoteNodeId.equals(nodeId)) {
+                continue;
+            }
+
+            Long receivers = publish(nodeChannel(remoteNodeId), message);
+            if (receivers != null && receivers == 0) {
+                // the instance is gone without removing itself from the directory
+                redisTemplate.opsForSet().remove(DIRECTORY_KEY_PREFIX + userPrinciple, remoteNodeId);
+            }
+        }
+    }
+
+    @Override
+    public void relayToEveryInstance(String path, Object payload) {
+        String message = serialize(new WebSocketRelayMessage(nodeId, null, path, serializePayload(payload)));
+        if (message != null) {
+            publish(BROADCAST_CHANNEL, message);
+        }
+    }
+
+    @Override
+    public void setLocalDeliveryHandler(Consumer<WebSocketRelayMessage> handler) {
+        this.localDeliveryHandler = handler;
+    }
+
+    @Override
+    public void setLocalUserPrinciplesSource(Supplier<Collection<String>> source) {
+        this.localUserPrinciplesSource = source;
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        try {
+            WebSocketRelayMessage relayMessage = objectMapper.readValue(
+                    new String(message.getBody(), StandardCharsets.UTF_8), WebSocketRelayMessage.class
+            );
+            if (nodeId.equals(relayMessage.nodeId())) {
+                return;
+            }
+
+            messagesReceived.increment();
+            localDeliveryHandler.accept(relayMessage);
+        } catch (Exception e) {
+            logger.warn("failed to deliver relayed websocket message on node: {}", nodeId, e);
+        }
+    }
+
+    private Long publish(String channel, String message) {
+        try {
+            Long receivers = redisTemplate.convertAndSend(channel, message);
+            messagesPublished.increment();
+            return receivers;
+        } catch (Exception e) {
+            publishFailures.increment();
+            logger.warn("failed to publish websocket message to channel: {}", channel, e);
+            return null;
+        }
+    }
+
+    /**
+     * Payloads already serialized by the sender, such as the shared new message payload, are relayed as they are.
+     */
+    private String serializePayload(Object payload) {
+        if (payload instanceof String stringPayload) {
+            return stringPayload;
+        }
+        return serialize(payload);
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            publishFailures.increment();
+            logger.warn("failed to serialize websocket message for relay", e);
+            return null;
+        }
+    }
+
+    private String nodeChannel(String nodeId) {
+        return NODE_CHANNEL_PREFIX + nodeId;
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdownNow();
+        }
+        for (String userPrinciple : localUserPrinciples) {
+            userDisconnected(userPrinciple);
+        }
+        try {
+            listenerContainer.stop();
+            listenerContainer.destroy();
+        } catch (Exception e) {
+            logger.warn("failed to stop websocket redis relay for node: {}", nodeId, e);
+        }
+    }
+}
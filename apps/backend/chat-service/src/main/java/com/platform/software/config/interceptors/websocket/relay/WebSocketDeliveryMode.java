@@ -0,0 +1,8 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+public enum WebSocketDeliveryMode {
+    // every user is expected to be connected to this instance
+    LOCAL,
+    // users may be connected to other instances, messages for them are relayed over redis pub/sub
+    REDIS
+}
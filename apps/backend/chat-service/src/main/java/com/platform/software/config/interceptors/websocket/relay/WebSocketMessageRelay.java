@@ -0,0 +1,44 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Delivers WebSocket messages to users connected to other instances of the service.
+ * Messages for users connected to this instance are always sent by the local broker, the relay only forwards
+ * them to the other instances holding sessions of the user.
+ */
+public interface WebSocketMessageRelay {
+
+    /**
+     * Records that the user has at least one session on this instance.
+     */
+    void userConnected(String userPrinciple);
+
+    /**
+     * Records that the user no longer has any session on this instance.
+     */
+    void userDisconnected(String userPrinciple);
+
+    /**
+     * Forwards the message to the other instances holding sessions of the user.
+     */
+    void relayToUser(String userPrinciple, String path, Object payload);
+
+    /**
+     * Forwards the message to every other instance, to be sent to all of their connected users.
+     */
+    void relayToEveryInstance(String path, Object payload);
+
+    /**
+     * Sets the handler that sends messages relayed from other instances to the local sessions.
+     */
+    void setLocalDeliveryHandler(Consumer<WebSocketRelayMessage> handler);
+
+    /**
+     * Sets the source of the user principals holding sessions on this instance, which the relay registers again
+     * in case a disconnect racing with a connect of the same user unregistered a connected user.
+     */
+    void setLocalUserPrinciplesSource(Supplier<Collection<String>> source);
+}
@@ -0,0 +1,47 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Configuration
+public class WebSocketRelayConfig {
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketRelayConfig.class);
+
+    @Value("${ws.delivery.mode:LOCAL}")
+    private WebSocketDeliveryMode deliveryMode;
+
+    @Value("${ws.delivery.node-id:}")
+    private String nodeId;
+
+    @Value("${ws.delivery.directory-ttl-seconds:600}")
+    private long directoryTtlSeconds;
+
+    @Bean
+    public WebSocketMessageRelay webSocketMessageRelay(
+            RedisConnectionFactory redisConnectionFactory,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry
+    ) {
+        logger.info("websocket delivery mode: {}", deliveryMode);
+        return switch (deliveryMode) {
+            case LOCAL -> new LocalWebSocketMessageRelay();
+            case REDIS -> new RedisWebSocketMessageRelay(
+                    StringUtils.hasText(nodeId) ? nodeId : UUID.randomUUID().toString(),
+                    redisConnectionFactory,
+                    objectMapper,
+                    meterRegistry,
+                    Duration.ofSeconds(directoryTtlSeconds)
+            );
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.platform.software.config.interceptors.websocket.relay;
+
+/**
+ * A message relayed to the instance holding the recipient's WebSocket sessions.
+ *
+ * @param nodeId        the instance that published the message
+ * @param userPrinciple the recipient principal (workspaceId:encodedEmail), null for a message to every connected user
+ * @param path          the user destination the message is sent to
+ * @param payload       the serialized payload
+ */
+public record WebSocketRelayMessage(String nodeId, String userPrinciple, String path, String payload) {
+}
@@ -0,0 +1,127 @@
+package com.platform.software.config.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits requests with an in-process token bucket per key and route class.
+ * <p>
+ * A bucket holds up to the limit of its route class and refills at that limit per minute. Buckets are updated with
+ * compare-and-set instead of locks. Buckets idle for longer than the eviction timeout are full again and are dropped
+ * by a sweep that runs at most once per timeout, so the map only holds recently active keys. The sweep retires a bucket
+ * with the same compare-and-set before removing it, so a request racing with the sweep either keeps the bucket or
+ * moves to the bucket replacing it.
+ * </p>
+ */
+public class LocalTokenBucketRateLimiter implements RateLimiter {
+    private static final long REFILL_PERIOD_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final Map<RateLimitRouteClass, Integer> limits;
+    private final long idleEvictionNanos;
+    private final LongSupplier nanoTime;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweepAt;
+
+    /**
+     * @param limits              the requests per minute of each route class
+     * @param idleEvictionMinutes the idle minutes after which a bucket is dropped, at least one so dropped buckets are full
+     */
+    public LocalTokenBucketRateLimiter(Map<RateLimitRouteClass, Integer> limits, long idleEvictionMinutes) {
+        this(limits, idleEvictionMinutes, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime the clock of the buckets, {@link System#nanoTime()} outside of tests
+     */
+    public LocalTokenBucketRateLimiter(Map<RateLimitRouteClass, Integer> limits, long idleEvictionMinutes, LongSupplier nanoTime) {
+        this.limits = limits;
+        this.idleEvictionNanos = TimeUnit.MINUTES.toNanos(Math.max(1, idleEvictionMinutes));
+        this.nanoTime = nanoTime;
+        this.lastSweepAt = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitRouteClass routeClass) {
+        long now = nanoTime.getAsLong();
+        evictIdleBuckets(now);
+
+        int limit = limits.get(routeClass);
+        String bucketKey = routeClass.name() + ":" + key;
+        while (true) {
+            TokenBucket bucket = buckets.computeIfAbsent(bucketKey, k -> new TokenBucket(limit, now));
+            if (bucket.tryAcquire(limit, now)) {
+                return true;
+            }
+            if (!bucket.isRetired()) {
+                return false;
+            }
+            // swept since the lookup, the bucket was idle and so was full, continue with the one replacing it
+            buckets.remove(bucketKey, bucket);
+        }
+    }
+
+    /**
+     * @return the number of buckets held
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    private void evictIdleBuckets(long now) {
+        long lastSweep = lastSweepAt.get();
+        if (now - lastSweep < idleEvictionNanos || !lastSweepAt.compareAndSet(lastSweep, now)) {
+            return;
+        }
+        buckets.forEach((bucketKey, bucket) -> {
+            if (bucket.retireIfIdle(now, idleEvictionNanos)) {
+                buckets.remove(bucketKey, bucket);
+            }
+        });
+    }
+
+    private static final class TokenBucket {
+        private final AtomicReference<BucketState> state;
+
+        private TokenBucket(int limit, long now) {
+            this.state = new AtomicReference<>(new BucketState(limit, now, false));
+        }
+
+        boolean tryAcquire(int limit, long now) {
+            while (true) {
+                BucketState current = state.get();
+                if (current.retired()) {
+                    return false;
+                }
+                double refilled = Math.min(limit, current.tokens() + (double) Math.max(0, now - current.refilledAt()) * limit / REFILL_PERIOD_NANOS);
+                if (refilled < 1) {
+                    return false;
+                }
+                if (state.compareAndSet(current, new BucketState(refilled - 1, Math.max(now, current.refilledAt()), false))) {
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Retires the bucket if it was not used within the idle time, after which it refuses every request.
+         *
+         * @return true if the bucket was retired by this call
+         */
+        boolean retireIfIdle(long now, long idleNanos) {
+            BucketState current = state.get();
+            return !current.retired() && now - current.refilledAt() >= idleNanos
+                    && state.compareAndSet(current, new BucketState(current.tokens(), current.refilledAt(), true));
+        }
+
+        boolean isRetired() {
+            return state.get().retired();
+        }
+    }
+
+    private record BucketState(double tokens, long refilledAt, boolean retired) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.platform.software.config.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Classes of routes that can be limited separately. Write and search routes share the allowance of reads unless they
+ * are given requests per minute of their own.
+ */
+public enum RateLimitRouteClass {
+    READ,
+    WRITE,
+    SEARCH;
+
+    public static RateLimitRouteClass of(HttpServletRequest request) {
+        String requestURI = request.getRequestURI();
+        if (requestURI.endsWith("/search") || requestURI.contains("/search/")) {
+            return SEARCH;
+        }
+        if (HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())) {
+            return READ;
+        }
+        return WRITE;
+    }
+}
@@ -0,0 +1,13 @@
+package com.platform.software.config.ratelimit;
+
+public interface RateLimiter {
+
+    /**
+     * Takes a request from the allowance of the key on a class of routes.
+     *
+     * @param key        the user the allowance belongs to
+     * @param routeClass the class of the requested route
+     * @return false if the key exceeded the limit of the route class
+     */
+    boolean tryAcquire(String key, RateLimitRouteClass routeClass);
+}
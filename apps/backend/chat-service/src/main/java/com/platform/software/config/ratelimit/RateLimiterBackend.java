@@ -0,0 +1,9 @@
+package com.platform.software.config.ratelimit;
+
+/**
+ * LOCAL limits each instance with in-process token buckets, REDIS shares sliding windows between all instances.
+ */
+public enum RateLimiterBackend {
+    LOCAL,
+    REDIS
+}
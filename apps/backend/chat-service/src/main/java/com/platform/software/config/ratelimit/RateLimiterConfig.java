@@ -2,6 +2,10 @@ package com.platform.software.config.ratelimit;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.platform.software.common.constants.Constants;
+import com.platform.software.config.cache.BoundedLocalCache;
+import com.platform.software.config.security.model.UserDetails;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.jetbrains.annotations.NotNull;
@@ -10,6 +14,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
@@ -17,26 +22,56 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import java.time.Instant;
+
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Configuration
 @Profile({Constants.MAIN_SERVICE_PRODUCTION_PROFILE_NAME, Constants.MAIN_SERVICE_STAGING_PROFILE_NAME, Constants.MAIN_SERVICE_PENTEST_PROFILE_NAME})
 public class RateLimiterConfig implements WebMvcConfigurer {
     private final ObjectMapper objectMapper;
-    private final int maxRequests;
+    private final MeterRegistry meterRegistry;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final RateLimiterBackend backend;
+    private final Map<RateLimitRouteClass, Integer> limits = new EnumMap<>(RateLimitRouteClass.class);
+    // the route class whose allowance each route class takes from, READ for classes without a limit of their own
+    private final Map<RateLimitRouteClass, RateLimitRouteClass> budgetClasses = new EnumMap<>(RateLimitRouteClass.class);
+    private final long idleEvictionMinutes;
 
     @Value("${ratelimiting.enabled}")
     private boolean rateLimitingEnabled;
 
     public RateLimiterConfig(
             ObjectMapper objectMapper,
-            @Value("${ratelimiting.requests-per-minute}") int maxRequests
-
+            MeterRegistry meterRegistry,
+            RedisConnectionFactory redisConnectionFactory,
+            @Value("${ratelimiting.backend:LOCAL}") RateLimiterBackend backend,
+            @Value("${ratelimiting.requests-per-minute}") int maxRequests,
+            @Value("${ratelimiting.write-requests-per-minute:}") Integer maxWriteRequests,
+            @Value("${ratelimiting.search-requests-per-minute:}") Integer maxSearchRequests,
+            @Value("${ratelimiting.idle-eviction-minutes:10}") long idleEvictionMinutes
     ) {
         this.objectMapper = objectMapper;
-        this.maxRequests = maxRequests;
+        this.meterRegistry = meterRegistry;
+        this.redisConnectionFactory = redisConnectionFactory;
+        this.backend = backend;
+        this.limits.put(RateLimitRouteClass.READ, maxRequests);
+        putLimit(RateLimitRouteClass.WRITE, maxWriteRequests);
+        putLimit(RateLimitRouteClass.SEARCH, maxSearchRequests);
+        for (RateLimitRouteClass routeClass : RateLimitRouteClass.values()) {
+            budgetClasses.put(routeClass, limits.containsKey(routeClass) ? routeClass : RateLimitRouteClass.READ);
+        }
+        this.idleEvictionMinutes = idleEvictionMinutes;
+    }
+
+    /**
+     * Gives the route class an allowance of its own when its limit is set, otherwise it shares the allowance of reads.
+     */
+    private void putLimit(RateLimitRouteClass routeClass, Integer maxRequests) {
+        if (maxRequests != null) {
+            limits.put(routeClass, maxRequests);
+        }
     }
 
     @Override
@@ -44,18 +79,48 @@ public class RateLimiterConfig implements WebMvcConfigurer {
         if (!rateLimitingEnabled) {
             return;
         }
-        registry.addInterceptor(new RateLimiterInterceptor(objectMapper, maxRequests));
+        registry.addInterceptor(new RateLimiterInterceptor(objectMapper, createRateLimiter(), budgetClasses, backend, meterRegistry));
+    }
+
+    private RateLimiter createRateLimiter() {
+        LocalTokenBucketRateLimiter localRateLimiter = new LocalTokenBucketRateLimiter(limits, idleEvictionMinutes);
+        return switch (backend) {
+            case LOCAL -> localRateLimiter;
+            case REDIS -> new RedisSlidingWindowRateLimiter(redisConnectionFactory, limits, localRateLimiter);
+        };
     }
 
     private static class RateLimiterInterceptor implements HandlerInterceptor {
         private static final Logger logger = LoggerFactory.getLogger(RateLimiterInterceptor.class);
-        private final Map<String, UserRateLimit> rateLimitMap = new ConcurrentHashMap<>();
         private final ObjectMapper objectMapper;
-        private final int maxRequests;
+        private final RateLimiter rateLimiter;
+        private final Map<RateLimitRouteClass, RateLimitRouteClass> budgetClasses;
+        private final Map<RateLimitRouteClass, Counter> allowedCounters = new EnumMap<>(RateLimitRouteClass.class);
+        private final Map<RateLimitRouteClass, Counter> throttledCounters = new EnumMap<>(RateLimitRouteClass.class);
+
+        // keys whose violation was logged within the last minute
+        private final BoundedLocalCache<String, Boolean> loggedViolations;
 
-        public RateLimiterInterceptor(ObjectMapper objectMapper, int maxRequests) {
+        public RateLimiterInterceptor(ObjectMapper objectMapper, RateLimiter rateLimiter, Map<RateLimitRouteClass, RateLimitRouteClass> budgetClasses,
+                                      RateLimiterBackend backend, MeterRegistry meterRegistry) {
             this.objectMapper = objectMapper;
-            this.maxRequests = maxRequests;
+            this.rateLimiter = rateLimiter;
+            this.budgetClasses = budgetClasses;
+            this.loggedViolations = new BoundedLocalCache<>("rate-limit-violation", 10_000, Duration.ofMinutes(1), meterRegistry);
+
+            for (RateLimitRouteClass routeClass : RateLimitRouteClass.values()) {
+                allowedCounters.put(routeClass, requestCounter(meterRegistry, "allowed", routeClass, backend));
+                throttledCounters.put(routeClass, requestCounter(meterRegistry, "throttled", routeClass, backend));
+            }
+        }
+
+        private static Counter requestCounter(MeterRegistry meterRegistry, String result, RateLimitRouteClass routeClass, RateLimiterBackend backend) {
+            return Counter.builder("ratelimit.requests")
+                    .description("Requests checked against the rate limit")
+                    .tag("result", result)
+                    .tag("route_class", routeClass.name().toLowerCase())
+                    .tag("backend", backend.name().toLowerCase())
+                    .register(meterRegistry);
         }
 
         @Override
@@ -66,32 +131,35 @@ public class RateLimiterConfig implements WebMvcConfigurer {
                 return true;
             }
 
-            String username = "anonymous";
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.getName() != null) {
-                username = auth.getName();
-            }
-
-            UserRateLimit rateLimit = rateLimitMap.computeIfAbsent(username, k -> new UserRateLimit(maxRequests));
+            String key = getRateLimitKey();
+            RateLimitRouteClass routeClass = RateLimitRouteClass.of(request);
 
-            if (!rateLimit.tryAcquire()) {
-                handleRateLimitExceeded(response, username, rateLimit);
+            if (!rateLimiter.tryAcquire(key, budgetClasses.get(routeClass))) {
+                throttledCounters.get(routeClass).increment();
+                handleRateLimitExceeded(response, key, routeClass);
                 return false;
             }
 
+            allowedCounters.get(routeClass).increment();
             return true;
         }
 
-        private void handleRateLimitExceeded(HttpServletResponse response, String username, UserRateLimit rateLimit) throws Exception {
-            if (rateLimit.shouldLogViolation()) {
-                RateLimitStats stats = rateLimit.getStats();
-                logger.warn("Rate limit exceeded for user: {}. Stats: requests={}, timeFrame={}s, requestRate={}/s, firstViolationAt={}", 
-                    username,
-                    stats.getTotalRequests(),
-                    stats.getTimeFrameSeconds(),
-                    stats.getRequestsPerSecond(),
-                    stats.getFirstViolationTime()
-                );
+        private static String getRateLimitKey() {
+            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+            if (auth == null) {
+                return "anonymous";
+            }
+            if (auth.getPrincipal() instanceof UserDetails userDetails && userDetails.getEmail() != null) {
+                return userDetails.getWorkspaceId() + ":" + userDetails.getEmail();
+            }
+            return auth.getName() != null ? auth.getName() : "anonymous";
+        }
+
+        private void handleRateLimitExceeded(HttpServletResponse response, String key, RateLimitRouteClass routeClass) throws Exception {
+            String violation = routeClass.name() + ":" + key;
+            if (loggedViolations.get(violation) == null) {
+                loggedViolations.put(violation, Boolean.TRUE);
+                logger.warn("Rate limit exceeded for user: {} on {} routes", key, routeClass);
             }
 
             sendRateLimitExceededResponse(response);
@@ -109,93 +177,4 @@ public class RateLimiterConfig implements WebMvcConfigurer {
             response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
         }
     }
-
-    private static class UserRateLimit {
-        private final int maxRequests;
-        private final long timeFrameMillis = 60000; // 1 minute
-        private long lastResetTime = System.currentTimeMillis();
-        private int requestCount = 0;
-        private Long firstViolationInWindow = null;
-        private boolean violationLogged = false;
-
-        public UserRateLimit(int maxRequests) {
-            this.maxRequests = maxRequests;
-        }
-
-        public synchronized boolean tryAcquire() {
-            long currentTime = System.currentTimeMillis();
-            if (currentTime - lastResetTime > timeFrameMillis) {
-                reset(currentTime);
-            }
-
-            if (requestCount < maxRequests) {
-                requestCount++;
-                return true;
-            }
-
-            if (firstViolationInWindow == null) {
-                firstViolationInWindow = currentTime;
-            }
-
-            return false;
-        }
-
-        private void reset(long currentTime) {
-            lastResetTime = currentTime;
-            requestCount = 0;
-            firstViolationInWindow = null;
-            violationLogged = false;
-        }
-
-        public synchronized boolean shouldLogViolation() {
-            if (!violationLogged) {
-                violationLogged = true;
-                return true;
-            }
-            return false;
-        }
-
-        public RateLimitStats getStats() {
-            long currentTime = System.currentTimeMillis();
-            double timeFrameSeconds = (currentTime - lastResetTime) / 1000.0;
-            double requestsPerSecond = requestCount / timeFrameSeconds;
-
-            return new RateLimitStats(
-                requestCount,
-                timeFrameSeconds,
-                requestsPerSecond,
-                firstViolationInWindow != null ? Instant.ofEpochMilli(firstViolationInWindow) : null
-            );
-        }
-    }
-
-    private static class RateLimitStats {
-        private final int totalRequests;
-        private final double timeFrameSeconds;
-        private final double requestsPerSecond;
-        private final Instant firstViolationTime;
-
-        public RateLimitStats(int totalRequests, double timeFrameSeconds, double requestsPerSecond, Instant firstViolationTime) {
-            this.totalRequests = totalRequests;
-            this.timeFrameSeconds = timeFrameSeconds;
-            this.requestsPerSecond = requestsPerSecond;
-            this.firstViolationTime = firstViolationTime;
-        }
-
-        public int getTotalRequests() {
-            return totalRequests;
-        }
-
-        public double getTimeFrameSeconds() {
-            return timeFrameSeconds;
-        }
-
-        public double getRequestsPerSecond() {
-            return requestsPerSecond;
-        }
-
-        public Instant getFirstViolationTime() {
-            return firstViolationTime;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package com.platform.software.config.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits requests with a sliding window of one minute per key and route class, shared by every instance.
+ * <p>
+ * Each window is a redis sorted set of the accepted requests scored by the redis server time, trimmed and counted
+ * by a script in one round trip. While redis cannot be reached, requests are limited by the in-process fallback,
+ * logging once when switching to it and once when redis is back.
+ * </p>
+ */
+public class RedisSlidingWindowRateLimiter implements RateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(RedisSlidingWindowRateLimiter.class);
+
+    private static final String KEY_PREFIX = "ratelimit::";
+    private static final long WINDOW_MILLIS = 60_000;
+
+    // drops requests older than the window and accepts the request if the window is below the limit
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local window = tonumber(ARGV[1])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window)
+            if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[2]) then
+                return 0
+            end
+            redis.call('ZADD', KEYS[1], now, ARGV[3])
+            redis.call('PEXPIRE', KEYS[1], window)
+            return 1
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Map<RateLimitRouteClass, Integer> limits;
+    private final RateLimiter fallback;
+
+    // request ids unique within the window of a key, shared by the instances through the node id
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong requestSequence = new AtomicLong();
+    private final AtomicBoolean limitingLocally = new AtomicBoolean();
+
+    public RedisSlidingWindowRateLimiter(
+            RedisConnectionFactory redisConnectionFactory,
+            Map<RateLimitRouteClass, Integer> limits,
+            RateLimiter fallback
+    ) {
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.limits = limits;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, RateLimitRouteClass routeClass) {
+        try {
+            Long acquired = redisTemplate.execute(
+                    ACQUIRE_SCRIPT,
+                    List.of(KEY_PREFIX + routeClass.name() + "::" + key),
+                    String.valueOf(WINDOW_MILLIS),
+                    String.valueOf(limits.get(routeClass)),
+                    nodeId + ":" + requestSequence.incrementAndGet()
+            );
+            if (limitingLocally.compareAndSet(true, false)) {
+                logger.info("redis is reachable again, limiting requests through redis");
+            }
+            return acquired == null || acquired == 1;
+        } catch (Exception e) {
+            if (limitingLocally.compareAndSet(false, true)) {
+                logger.warn("failed to acquire the rate limit of {} from redis, limiting locally until redis is reachable", key, e);
+            }
+            return fallback.tryAcquire(key, routeClass);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.platform.software.config.security;
+
+import com.auth0.jwk.Jwk;
+import com.auth0.jwk.JwkException;
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.auth0.jwk.UrlJwkProvider;
+import com.platform.software.config.aws.AWSCognitoConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URL;
+import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The Cognito signing keys shared by REST and WebSocket authentication.
+ * <p>
+ * Keys are prefetched at startup and refreshed in the background on a schedule, replacing the whole key set so
+ * rotated keys are dropped. Lookups read an immutable snapshot without locking. An unknown key id triggers a refresh,
+ * unless one ran within the minimum refresh interval, and concurrent misses wait for the same single fetch.
+ * A failed fetch keeps the previous keys.
+ * </p>
+ */
+@Component
+public class JwksKeyStore {
+    private static final Logger logger = LoggerFactory.getLogger(JwksKeyStore.class);
+
+    private final AWSCognitoConfig awsCognitoConfig;
+    private final long refreshIntervalMinutes;
+    private final long minRefreshIntervalNanos;
+    private final int fetchTimeoutMs;
+
+    private volatile Map<String, RSAPublicKey> keys = Map.of();
+    private volatile long lastRefreshedAt = System.nanoTime() - TimeUnit.DAYS.toNanos(1);
+    private final AtomicReference<CompletableFuture<Map<String, RSAPublicKey>>> inFlightRefresh = new AtomicReference<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private final Counter refreshes;
+    private final Counter refreshFailures;
+
+    public JwksKeyStore(
+            AWSCognitoConfig awsCognitoConfig,
+            MeterRegistry meterRegistry,
+            @Value("${auth.jwks.refresh-interval-minutes:60}") long refreshIntervalMinutes,
+            @Value("${auth.jwks.min-refresh-interval-seconds:10}") long minRefreshIntervalSeconds,
+            @Value("${auth.jwks.fetch-timeout-ms:5000}") int fetchTimeoutMs
+    ) {
+        this.awsCognitoConfig = awsCognitoConfig;
+        this.refreshIntervalMinutes = refreshIntervalMinutes;
+        this.minRefreshIntervalNanos = TimeUnit.SECONDS.toNanos(minRefreshIntervalSeconds);
+        this.fetchTimeoutMs = fetchTimeoutMs;
+
+        this.refreshes = Counter.builder("auth.jwks.refreshes")
+                .description("Fetches of the signing key set")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("auth.jwks.refresh.failures")
+                .description("Fetches of the signing key set that failed and kept the previous keys")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-key-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the signing key of the key id, waiting for a refresh of the key set when the key id is unknown
+     * @throws SigningKeyNotFoundException if the key set has no key of the key id
+     */
+    public RSAPublicKey getPublicKey(String keyId) throws JwkException {
+        if (keyId == null) {
+            throw new SigningKeyNotFoundException("Token has no key id", null);
+        }
+
+        RSAPublicKey publicKey = keys.get(keyId);
+        if (publicKey != null) {
+            return publicKey;
+        }
+
+        Map<String, RSAPublicKey> refreshedKeys;
+        CompletableFuture<Map<String, RSAPublicKey>> runningRefresh = inFlightRefresh.get();
+        if (runningRefresh == null && System.nanoTime() - lastRefreshedAt < minRefreshIntervalNanos) {
+            // refreshed moments ago, possibly after the lookup above
+            refreshedKeys = keys;
+        } else {
+            try {
+                refreshedKeys = (runningRefresh != null ? runningRefresh : refresh()).get(fetchTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SigningKeyNotFoundException("Interrupted while refreshing signing keys", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new SigningKeyNotFoundException("Failed to refresh signing keys", e);
+            }
+        }
+
+        publicKey = refreshedKeys.get(keyId);
+        if (publicKey == null) {
+            throw new SigningKeyNotFoundException("No signing key found for key id: " + keyId, null);
+        }
+        return publicKey;
+    }
+
+    /**
+     * Checks a key verified earlier against the current key set, without refreshing it.
+     *
+     * @return whether the key is still the signing key of the key id
+     */
+    public boolean isCurrentKey(String keyId, RSAPublicKey publicKey) {
+        return keyId != null && publicKey != null && publicKey.equals(keys.get(keyId));
+    }
+
+    /**
+     * Refreshes the key set in the background, joining the refresh already running if there is one.
+     *
+     * @return the refreshed key set
+     */
+    public CompletableFuture<Map<String, RSAPublicKey>> refresh() {
+        CompletableFuture<Map<String, RSAPublicKey>> refresh = new CompletableFuture<>();
+        while (!inFlightRefresh.compareAndSet(null, refresh)) {
+            CompletableFuture<Map<String, RSAPublicKey>> running = inFlightRefresh.get();
+            if (running != null) {
+                return running;
+            }
+        }
+
+        try {
+            scheduler.execute(() -> fetch(refresh));
+        } catch (Exception e) {
+            inFlightRefresh.set(null);
+            refresh.completeExceptionally(e);
+        }
+        return refresh;
+    }
+
+    private void fetch(CompletableFuture<Map<String, RSAPublicKey>> refresh) {
+        refreshes.increment();
+        try {
+            UrlJwkProvider provider = new UrlJwkProvider(new URL(awsCognitoConfig.getJwks()), fetchTimeoutMs, fetchTimeoutMs);
+
+            Map<String, RSAPublicKey> fetchedKeys = new HashMap<>();
+            for (Jwk jwk : provider.getAll()) {
+                if ("RSA".equals(jwk.getType()) && jwk.getId() != null) {
+                    fetchedKeys.put(jwk.getId(), (RSAPublicKey) jwk.getPublicKey());
+                }
+            }
+
+            lastRefreshedAt = System.nanoTime();
+            keys = Map.copyOf(fetchedKeys);
+            inFlightRefresh.set(null);
+            refresh.complete(keys);
+        } catch (Exception e) {
+            refreshFailures.increment();
+            logger.warn("failed to refresh signing keys from: {}", awsCognitoConfig.getJwks(), e);
+
+            lastRefreshedAt = System.nanoTime();
+            inFlightRefresh.set(null);
+            refresh.completeExceptionally(e);
+        }
+    }
+}
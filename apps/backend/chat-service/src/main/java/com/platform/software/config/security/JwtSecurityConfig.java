@@ -1,31 +1,35 @@
 package com.platform.software.config.security;
 
 
-import com.platform.software.config.aws.AWSCognitoConfig;
 import com.platform.software.platform.workspaceuser.service.WorkspaceUserService;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import com.platform.software.chat.user.service.UserService;
+import com.platform.software.config.interceptors.AuthenticatedPrincipalCache;
 import com.platform.software.config.interceptors.JwtAuthorizationFilter;
 
 @Configuration
 public class JwtSecurityConfig {
 
     private final UserService userService;
-    private final AWSCognitoConfig awsCognitoConfig;
+    private final JwksKeyStore jwksKeyStore;
     private final WorkspaceUserService workspaceUserService;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final JwtTokenVerifier jwtTokenVerifier;
 
-    public JwtSecurityConfig (UserService userService, AWSCognitoConfig awsCognitoConfig, WorkspaceUserService workspaceUserService) {
+    public JwtSecurityConfig (UserService userService, JwksKeyStore jwksKeyStore, WorkspaceUserService workspaceUserService, AuthenticatedPrincipalCache principalCache, JwtTokenVerifier jwtTokenVerifier) {
         this.userService = userService;
-        this.awsCognitoConfig = awsCognitoConfig;
+        this.jwksKeyStore = jwksKeyStore;
         this.workspaceUserService = workspaceUserService;
+        this.principalCache = principalCache;
+        this.jwtTokenVerifier = jwtTokenVerifier;
     }
 
     public void configure(HttpSecurity http) throws Exception {
         http.addFilterBefore(
-            new JwtAuthorizationFilter(userService, awsCognitoConfig, workspaceUserService),
+            new JwtAuthorizationFilter(userService, jwksKeyStore, workspaceUserService, principalCache, jwtTokenVerifier),
             UsernamePasswordAuthenticationFilter.class);
     }
 }
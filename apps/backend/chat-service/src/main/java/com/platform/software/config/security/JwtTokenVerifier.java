@@ -0,0 +1,119 @@
+package com.platform.software.config.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.platform.software.config.cache.BoundedLocalCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies RS256 signed tokens of REST requests and STOMP connections, remembering the tokens already verified.
+ * <p>
+ * A verified token is remembered by its SHA-256 digest, with the key it was verified with, until it expires. It is
+ * only verified again after it expired or when the key of its key id changed, so a rotated key is never trusted for
+ * a remembered token. Verifiers are built once per key id and rebuilt when the key of the key id changes.
+ * </p>
+ */
+@Component
+public class JwtTokenVerifier {
+    private static final long LEEWAY_SECONDS = 30;
+
+    private final BoundedLocalCache<String, RSAPublicKey> verifiedTokens;
+    private final Map<String, KeyVerifier> verifiersByKeyId = new ConcurrentHashMap<>();
+    private final boolean enabled;
+
+    private final Counter memoized;
+    private final Counter verified;
+
+    public JwtTokenVerifier(
+            MeterRegistry meterRegistry,
+            @Value("${auth.verified-token-cache.enabled:false}") boolean enabled,
+            @Value("${auth.verified-token-cache.max-size:20000}") int maxSize
+    ) {
+        this.verifiedTokens = new BoundedLocalCache<>("verified-token", maxSize, Duration.ZERO, meterRegistry);
+        this.enabled = enabled;
+
+        this.memoized = verificationCounter(meterRegistry, "memoized");
+        this.verified = verificationCounter(meterRegistry, "verified");
+    }
+
+    private static Counter verificationCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("auth.token.verifications")
+                .description("Token verifications, memoized ones skipping the signature check")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verifies the signature and the time claims of a token, unless it was verified with the same key before.
+     *
+     * @param token     the raw token
+     * @param publicKey the current key of the key id of the token
+     * @throws com.auth0.jwt.exceptions.JWTVerificationException if the token is not valid
+     */
+    public void verify(String token, RSAPublicKey publicKey) {
+        DecodedJWT decodedJwt = JWT.decode(token);
+        String digest = enabled ? digest(token) : null;
+
+        if (digest != null) {
+            RSAPublicKey verifiedWith = verifiedTokens.get(digest);
+            if (verifiedWith != null && verifiedWith.equals(publicKey)) {
+                memoized.increment();
+                return;
+            }
+        }
+
+        getVerifier(decodedJwt.getKeyId(), publicKey).verify(decodedJwt);
+        verified.increment();
+
+        Date expiresAt = decodedJwt.getExpiresAt();
+        if (digest != null && expiresAt != null) {
+            Duration ttl = Duration.ofMillis(expiresAt.getTime() - System.currentTimeMillis());
+            if (!ttl.isNegative() && !ttl.isZero()) {
+                verifiedTokens.put(digest, publicKey, ttl);
+            }
+        }
+    }
+
+    private JWTVerifier getVerifier(String keyId, RSAPublicKey publicKey) {
+        if (keyId == null) {
+            return buildVerifier(publicKey);
+        }
+
+        KeyVerifier keyVerifier = verifiersByKeyId.get(keyId);
+        if (keyVerifier == null || !keyVerifier.publicKey().equals(publicKey)) {
+            keyVerifier = new KeyVerifier(publicKey, buildVerifier(publicKey));
+            verifiersByKeyId.put(keyId, keyVerifier);
+        }
+        return keyVerifier.verifier();
+    }
+
+    private static JWTVerifier buildVerifier(RSAPublicKey publicKey) {
+        return JWT.require(Algorithm.RSA256(publicKey, null)).acceptLeeway(LEEWAY_SECONDS).build();
+    }
+
+    private static String digest(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record KeyVerifier(RSAPublicKey publicKey, JWTVerifier verifier) {
+    }
+}
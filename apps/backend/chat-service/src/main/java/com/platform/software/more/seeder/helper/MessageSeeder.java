@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -72,7 +73,10 @@ public class MessageSeeder {
             if (conversation.getId() <= 5) {
                 messagesToSave.forEach(messageRepository::saveMessageWthSearchVector); // 1. seed messages with search vector
             } else {
-                messageRepository.saveAll(conversationMessages); // 2. seed messages WITHOUT search vector (faster)
+                messageRepository.saveAllAndFlush(conversationMessages); // 2. seed messages WITHOUT search vector (faster)
+                conversationMessages.stream()
+                    .max(Comparator.comparing(Message::getId))
+                    .ifPresent(lastMessage -> messageRepository.recordNewMessages(lastMessage, conversationMessages.size()));
             }
         }
         logger.info("Finished seeding {} messages across {} conversations",
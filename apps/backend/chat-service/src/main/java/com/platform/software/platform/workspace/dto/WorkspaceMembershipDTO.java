@@ -0,0 +1,30 @@
+package com.platform.software.platform.workspace.dto;
+
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUser;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserRole;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserStatus;
+
+/**
+ * The membership of a user in a workspace, as cached by the workspace membership cache.
+ */
+public record WorkspaceMembershipDTO(
+        Long workspaceUserId,
+        String email,
+        String workspaceIdentifier,
+        WorkspaceUserStatus status,
+        WorkspaceUserRole role
+) {
+    public WorkspaceMembershipDTO(WorkspaceUser workspaceUser) {
+        this(
+                workspaceUser.getId(),
+                workspaceUser.getEmail(),
+                workspaceUser.getWorkspace().getWorkspaceIdentifier(),
+                workspaceUser.getStatus(),
+                workspaceUser.getRole()
+        );
+    }
+
+    public boolean isSuspended() {
+        return status == WorkspaceUserStatus.SUSPENDED;
+    }
+}
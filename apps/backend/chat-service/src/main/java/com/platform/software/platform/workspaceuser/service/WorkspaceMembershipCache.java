@@ -0,0 +1,119 @@
+package com.platform.software.platform.workspaceuser.service;
+
+import com.platform.software.config.cache.BoundedLocalCache;
+import com.platform.software.platform.workspace.dto.WorkspaceMembershipDTO;
+import com.platform.software.platform.workspaceuser.repository.WorkspaceUserRepository;
+import com.platform.software.utils.WorkspaceUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * Caches workspace memberships on-heap by email and workspace identifier, so the membership checks of REST requests,
+ * STOMP connections and profile loads do not query workspace_user in the global schema.
+ * <p>
+ * Only existing memberships are cached, so invites need no invalidation. Suspending a user, changing their role and
+ * accepting an invitation drop the membership on every instance through a redis channel.
+ * </p>
+ */
+@Component
+public class WorkspaceMembershipCache {
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceMembershipCache.class);
+
+    private static final String INVALIDATION_CHANNEL = "workspace:membership:invalidate";
+    private static final String KEY_SEPARATOR = "\n";
+
+    private final WorkspaceUserRepository workspaceUserRepository;
+    private final BoundedLocalCache<String, WorkspaceMembershipDTO> memberships;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final boolean enabled;
+
+    public WorkspaceMembershipCache(
+            WorkspaceUserRepository workspaceUserRepository,
+            RedisConnectionFactory redisConnectionFactory,
+            MeterRegistry meterRegistry,
+            @Value("${workspace.membership-cache.enabled:false}") boolean enabled,
+            @Value("${workspace.membership-cache.max-size:10000}") int maxSize,
+            @Value("${workspace.membership-cache.ttl-minutes:10}") long ttlMinutes
+    ) {
+        this.workspaceUserRepository = workspaceUserRepository;
+        this.memberships = new BoundedLocalCache<>("workspace-membership", maxSize, Duration.ofMinutes(ttlMinutes), meterRegistry);
+        this.redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        this.listenerContainer = new RedisMessageListenerContainer();
+        this.listenerContainer.setConnectionFactory(redisConnectionFactory);
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+
+        listenerContainer.addMessageListener(this::onInvalidation, ChannelTopic.of(INVALIDATION_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void cleanup() throws Exception {
+        if (enabled) {
+            listenerContainer.destroy();
+        }
+    }
+
+    /**
+     * @return the membership of the user in the workspace whatever its status, or {@code null} if there is none
+     */
+    public WorkspaceMembershipDTO get(String email, String workspaceIdentifier) {
+        if (!enabled) {
+            return load(email, workspaceIdentifier);
+        }
+        return memberships.get(cacheKey(email, workspaceIdentifier), key -> load(email, workspaceIdentifier));
+    }
+
+    /**
+     * Drops the membership of the user in the workspace on every instance, after its status or role changed.
+     */
+    public void invalidate(String email, String workspaceIdentifier) {
+        String key = cacheKey(email, workspaceIdentifier);
+        memberships.invalidate(key);
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, key);
+        } catch (Exception e) {
+            logger.warn("failed to publish membership invalidation of {} in workspace: {}", email, workspaceIdentifier, e);
+        }
+    }
+
+    private void onInvalidation(Message message, byte[] pattern) {
+        memberships.invalidate(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private WorkspaceMembershipDTO load(String email, String workspaceIdentifier) {
+        return WorkspaceUtils.runInGlobalSchema(() -> workspaceUserRepository
+                .findByEmailAndWorkspace_WorkspaceIdentifier(email, workspaceIdentifier)
+                .map(WorkspaceMembershipDTO::new)
+                .orElse(null));
+    }
+
+    private static String cacheKey(String email, String workspaceIdentifier) {
+        return workspaceIdentifier + KEY_SEPARATOR + email;
+    }
+}
@@ -1,5 +1,6 @@
 package com.platform.software.platform.workspaceuser.service;
 
+import com.platform.software.config.interceptors.AuthenticatedPrincipalCache;
 import com.platform.software.config.security.model.UserDetails;
 import com.platform.software.exception.CustomAccessDeniedException;
 import com.platform.software.exception.CustomBadRequestException;
@@ -28,20 +29,26 @@ public class WorkspaceUserService {
     private final WorkspaceUserRepository workspaceUserRepository;
     private final TransactionTemplate transactionTemplate;
     private final WorkspaceUserUtilService workspaceUserUtilService;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final WorkspaceMembershipCache membershipCache;
     Logger logger = LoggerFactory.getLogger(WorkspaceUserService.class);
 
 
-    public WorkspaceUserService(WorkspaceUserRepository workspaceUserRepository, TransactionTemplate transactionTemplate, WorkspaceUserUtilService workspaceUserUtilService) {
+    public WorkspaceUserService(WorkspaceUserRepository workspaceUserRepository, TransactionTemplate transactionTemplate, WorkspaceUserUtilService workspaceUserUtilService, AuthenticatedPrincipalCache principalCache, WorkspaceMembershipCache membershipCache) {
         this.workspaceUserRepository = workspaceUserRepository;
         this.transactionTemplate = transactionTemplate;
         this.workspaceUserUtilService = workspaceUserUtilService;
+        this.principalCache = principalCache;
+        this.membershipCache = membershipCache;
     }
 
-    public WorkspaceUser verifyUserAccessToWorkspace(String email, String workspaceName) {
-        WorkspaceUser user = workspaceUserRepository.findByEmailAndWorkspace_WorkspaceIdentifier(email, workspaceName)
-            .orElseThrow(() -> new CustomAccessDeniedException("You dont have permission to access this workspace or invalid name"));
+    public WorkspaceMembershipDTO verifyUserAccessToWorkspace(String email, String workspaceName) {
+        WorkspaceMembershipDTO membership = membershipCache.get(email, workspaceName);
+        if (membership == null) {
+            throw new CustomAccessDeniedException("You dont have permission to access this workspace or invalid name");
+        }
 
-        return user;
+        return membership;
     }
 
     public List<Workspace> getAllWorkspaces(String email) {
@@ -56,13 +63,16 @@ public class WorkspaceUserService {
     }
 
     public void markInvitationAsAccepted(String email, Long workspaceId) {
-        WorkspaceUtils.runInGlobalSchema(() -> {
+        String workspaceIdentifier = WorkspaceUtils.runInGlobalSchema(() -> transactionTemplate.execute(status -> {
             WorkspaceUser workspaceUser = workspaceUserRepository.findByEmailAndWorkspace_Id(email, workspaceId)
                     .orElseThrow(() -> new CustomAccessDeniedException("No invitation found for the given email and workspace"));
 
             workspaceUser.setStatus(WorkspaceUserStatus.ACTIVE);
             workspaceUserRepository.save(workspaceUser);
-        });
+            return workspaceUser.getWorkspace().getWorkspaceIdentifier();
+        }));
+        // after the commit, so no instance reloads the pending membership once it was dropped
+        membershipCache.invalidate(email, workspaceIdentifier);
     }
 
     public void inviteUserToWorkspace(String inviterEmail, String workspaceIdentifier, List<WorkspaceUserInviteDTO> workspaceUserInviteDTOs) {
@@ -138,12 +148,8 @@ public class WorkspaceUserService {
         }
     }
 
-    public WorkspaceUser getWorkspaceUserByEmailAndWorkspaceIdentifier(String email, String workspaceIdentifier) {
-        return WorkspaceUtils.runInGlobalSchema(() -> {
-            WorkspaceUser existingUser = workspaceUserRepository.findByEmailAndWorkspace_WorkspaceIdentifier(
-                    email, workspaceIdentifier).orElse(null);
-            return existingUser;
-        });
+    public WorkspaceMembershipDTO getWorkspaceMembership(String email, String workspaceIdentifier) {
+        return membershipCache.get(email, workspaceIdentifier);
     }
 
     /**
@@ -183,6 +189,8 @@ public class WorkspaceUserService {
                         workspaceIdentifier);
             });
         });
+        membershipCache.invalidate(workspaceUserSuspendDTO.getEmail(), workspaceIdentifier);
+        principalCache.invalidate(workspaceIdentifier, workspaceUserSuspendDTO.getEmail());
     }
 
     /**
@@ -190,21 +198,20 @@ public class WorkspaceUserService {
      *
      * @param workspaceIdentifier The identifier of the workspace.
      * @param email               The email of the user.
-     * @return workspaceUser if the user has access to the workspace, null otherwise.
+     * @return the membership if the user has access to the workspace, null otherwise.
      */
-    public WorkspaceUser validateWorkspaceAccess(String workspaceIdentifier, String email) {
-        WorkspaceUser workspaceUser = WorkspaceUtils.runInGlobalSchema(
-                () -> workspaceUserRepository.validateWorkspaceAccess(workspaceIdentifier, email)
-        );
+    public WorkspaceMembershipDTO validateWorkspaceAccess(String workspaceIdentifier, String email) {
+        WorkspaceMembershipDTO membership = membershipCache.get(email, workspaceIdentifier);
 
-        if (workspaceUser == null) {
+        if (membership == null || membership.isSuspended()) {
             logger.info(
                     "Workspace access denied for user: {} on workspace: {}",
                     email,
                     workspaceIdentifier
             );
+            return null;
         }
-        return workspaceUser;
+        return membership;
     }
 
     /**
@@ -260,5 +267,7 @@ public class WorkspaceUserService {
                 }
             });
         });
+        membershipCache.invalidate(targetUserEmail, workspaceIdentifier);
+        principalCache.invalidate(workspaceIdentifier, targetUserEmail);
     }
 }
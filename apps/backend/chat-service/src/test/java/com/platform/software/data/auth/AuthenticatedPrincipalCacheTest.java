@@ -0,0 +1,105 @@
+package com.platform.software.data.auth;
+
+import com.platform.software.config.aws.AWSCognitoConfig;
+import com.platform.software.config.interceptors.AuthenticatedPrincipalCache;
+import com.platform.software.config.security.JwksKeyStore;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the principal cache against a stand-in key set, with a redis connection that is never started so invalidations
+ * stay on this instance.
+ */
+public class AuthenticatedPrincipalCacheTest {
+
+    private static final String TOKEN = "token";
+    private static final String WORKSPACE_ID = "localhost";
+    private static final String EMAIL = "user@example.com";
+
+    private final Map<String, RSAPublicKey> currentKeys = new HashMap<>();
+    private RSAPublicKey signingKey;
+
+    private AuthenticatedPrincipalCache principalCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        signingKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        currentKeys.put("current", signingKey);
+
+        JwksKeyStore jwksKeyStore = new JwksKeyStore(new AWSCognitoConfig(), new SimpleMeterRegistry(), 60, 10, 5_000) {
+            @Override
+            public boolean isCurrentKey(String keyId, RSAPublicKey publicKey) {
+                return publicKey.equals(currentKeys.get(keyId));
+            }
+        };
+        principalCache = new AuthenticatedPrincipalCache(
+                new LettuceConnectionFactory(), jwksKeyStore, new SimpleMeterRegistry(), true, 100, 300
+        );
+    }
+
+    @Test
+    void test_hit_isServedWhileSigningKeyIsCurrent() {
+        AuthenticatedPrincipalCache.AuthenticatedPrincipal principal = principal();
+        principalCache.put(TOKEN, WORKSPACE_ID, principal, expiresInAnHour(), 0, principalCache.invalidationVersion());
+
+        assertEquals(principal, principalCache.get(TOKEN, WORKSPACE_ID));
+    }
+
+    @Test
+    void test_hit_ofRotatedOutKey_isDropped() {
+        principalCache.put(TOKEN, WORKSPACE_ID, principal(), expiresInAnHour(), 0, principalCache.invalidationVersion());
+
+        currentKeys.remove("current");
+        assertNull(principalCache.get(TOKEN, WORKSPACE_ID), "the token should be verified again and rejected");
+
+        // the entry is gone, not only hidden while the key is missing
+        currentKeys.put("current", signingKey);
+        assertNull(principalCache.get(TOKEN, WORKSPACE_ID));
+    }
+
+    @Test
+    void test_put_loadedBeforeInvalidation_isNotCached() {
+        long loadedAtVersion = principalCache.invalidationVersion();
+        // the user is suspended while the request queries their access
+        principalCache.invalidate(WORKSPACE_ID, EMAIL);
+
+        principalCache.put(TOKEN, WORKSPACE_ID, principal(), expiresInAnHour(), 0, loadedAtVersion);
+
+        assertNull(principalCache.get(TOKEN, WORKSPACE_ID));
+    }
+
+    @Test
+    void test_invalidate_dropsCachedPrincipalsOfUser() {
+        principalCache.put(TOKEN, WORKSPACE_ID, principal(), expiresInAnHour(), 0, principalCache.invalidationVersion());
+
+        principalCache.invalidate(WORKSPACE_ID, EMAIL.toUpperCase());
+
+        assertNull(principalCache.get(TOKEN, WORKSPACE_ID));
+        principalCache.put(TOKEN, WORKSPACE_ID, principal(), expiresInAnHour(), 0, principalCache.invalidationVersion());
+        assertEquals(principal(), principalCache.get(TOKEN, WORKSPACE_ID), "a load after the invalidation is cached");
+    }
+
+    private AuthenticatedPrincipalCache.AuthenticatedPrincipal principal() {
+        return new AuthenticatedPrincipalCache.AuthenticatedPrincipal(
+                1L, EMAIL, "CHAT_USER", WORKSPACE_ID, WorkspaceUserRole.MEMBER, "current", signingKey
+        );
+    }
+
+    private static Date expiresInAnHour() {
+        return new Date(System.currentTimeMillis() + 3_600_000);
+    }
+}
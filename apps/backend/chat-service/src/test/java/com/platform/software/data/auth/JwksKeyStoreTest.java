@@ -0,0 +1,175 @@
+package com.platform.software.data.auth;
+
+import com.auth0.jwk.SigningKeyNotFoundException;
+import com.platform.software.config.aws.AWSCognitoConfig;
+import com.platform.software.config.security.JwksKeyStore;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the key store against a local stub JWKS endpoint serving generated keys.
+ */
+public class JwksKeyStoreTest {
+
+    private HttpServer jwksServer;
+    private final AtomicInteger fetchCount = new AtomicInteger();
+    private volatile Map<String, RSAPublicKey> servedKeys;
+
+    private RSAPublicKey currentKey;
+    private RSAPublicKey rotatedKey;
+
+    private JwksKeyStore jwksKeyStore;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        currentKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        rotatedKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+        servedKeys = Map.of("current", currentKey);
+
+        jwksServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jwksServer.createContext("/.well-known/jwks.json", exchange -> {
+            fetchCount.incrementAndGet();
+            try {
+                // slow enough for concurrent lookups to overlap with the fetch
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            byte[] body = jwksJson(servedKeys).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        jwksServer.setExecutor(Executors.newCachedThreadPool());
+        jwksServer.start();
+
+        AWSCognitoConfig awsCognitoConfig = new AWSCognitoConfig();
+        awsCognitoConfig.setJwks("http://localhost:" + jwksServer.getAddress().getPort() + "/.well-known/jwks.json");
+
+        jwksKeyStore = new JwksKeyStore(awsCognitoConfig, new SimpleMeterRegistry(), 60, 1, 5_000);
+        jwksKeyStore.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jwksKeyStore.cleanup();
+        jwksServer.stop(0);
+    }
+
+    @Test
+    void test_keysArePrefetchedAtStartup() throws Exception {
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+
+        assertEquals(currentKey, jwksKeyStore.getPublicKey("current"));
+        assertEquals(1, fetchCount.get(), "the lookup should be served by the prefetched keys");
+    }
+
+    @Test
+    void test_concurrentUnknownKeyIdLookups_shareOneFetch() throws Exception {
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+        Thread.sleep(1_100); // past the minimum refresh interval
+        servedKeys = Map.of("current", currentKey, "rotated", rotatedKey);
+
+        int lookups = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(lookups);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RSAPublicKey>> results = new ArrayList<>();
+        for (int i = 0; i < lookups; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return jwksKeyStore.getPublicKey("rotated");
+            }));
+        }
+        start.countDown();
+
+        for (Future<RSAPublicKey> result : results) {
+            assertEquals(rotatedKey, result.get(5, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+
+        assertEquals(2, fetchCount.get(), "the startup prefetch and a single refresh for the unknown key id");
+    }
+
+    @Test
+    void test_unknownKeyId_withinMinimumInterval_isNotFetchedAgain() throws Exception {
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+
+        assertThrows(SigningKeyNotFoundException.class, () -> jwksKeyStore.getPublicKey("unknown"));
+        assertThrows(SigningKeyNotFoundException.class, () -> jwksKeyStore.getPublicKey("unknown"));
+        assertEquals(1, fetchCount.get());
+
+        Thread.sleep(1_100);
+        assertThrows(SigningKeyNotFoundException.class, () -> jwksKeyStore.getPublicKey("unknown"));
+        assertEquals(2, fetchCount.get());
+    }
+
+    @Test
+    void test_refresh_dropsRotatedKeys() throws Exception {
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+        servedKeys = Map.of("rotated", rotatedKey);
+
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+
+        assertEquals(rotatedKey, jwksKeyStore.getPublicKey("rotated"));
+        assertThrows(SigningKeyNotFoundException.class, () -> jwksKeyStore.getPublicKey("current"));
+    }
+
+    @Test
+    void test_failedRefresh_keepsPreviousKeys() throws Exception {
+        jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+        jwksServer.stop(0);
+
+        try {
+            jwksKeyStore.refresh().get(5, TimeUnit.SECONDS);
+        } catch (Exception ignored) {
+            // the endpoint is gone
+        }
+
+        assertEquals(currentKey, jwksKeyStore.getPublicKey("current"));
+    }
+
+    private static String jwksJson(Map<String, RSAPublicKey> keys) {
+        return keys.entrySet().stream()
+                .map(key -> String.format(
+                        "{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"%s\",\"n\":\"%s\",\"e\":\"%s\"}",
+                        key.getKey(), base64Url(key.getValue().getModulus()), base64Url(key.getValue().getPublicExponent())
+                ))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        if (bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,109 @@
+package com.platform.software.data.auth;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.platform.software.BaseAccessTest;
+import com.platform.software.config.security.JwtTokenVerifier;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtTokenVerifierTest extends BaseAccessTest {
+
+    private static final String KEY_ID = "test-key";
+
+    @Autowired
+    private JwtTokenVerifier jwtTokenVerifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private KeyPair keyPair;
+    private KeyPair rotatedKeyPair;
+
+    @BeforeAll
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        keyPair = generator.generateKeyPair();
+        rotatedKeyPair = generator.generateKeyPair();
+    }
+
+    @Test
+    void test_verifiedToken_isMemoized() {
+        String token = sign(keyPair, Instant.now().plusSeconds(300));
+        double verified = count("verified");
+        double memoized = count("memoized");
+
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+
+        assertEquals(verified + 1, count("verified"));
+        assertEquals(memoized + 2, count("memoized"));
+    }
+
+    @Test
+    void test_expiredToken_isVerifiedAgain() throws InterruptedException {
+        String token = sign(keyPair, Instant.now().plusSeconds(1));
+        double verified = count("verified");
+
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+        Thread.sleep(1_500);
+        // still within the leeway of the verifier, so the signature check passes again
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+
+        assertEquals(verified + 2, count("verified"), "an expired token should not be served from the memo");
+    }
+
+    @Test
+    void test_tokenExpiredBeyondLeeway_isRejected() {
+        String token = sign(keyPair, Instant.now().minusSeconds(120));
+
+        assertThrows(TokenExpiredException.class, () -> jwtTokenVerifier.verify(token, publicKey(keyPair)));
+    }
+
+    @Test
+    void test_rotatedKey_verifiesTokenAgain() {
+        String token = sign(keyPair, Instant.now().plusSeconds(300));
+        jwtTokenVerifier.verify(token, publicKey(keyPair));
+
+        assertThrows(SignatureVerificationException.class, () -> jwtTokenVerifier.verify(token, publicKey(rotatedKeyPair)),
+                "a token memoized with the previous key should be checked against the rotated key");
+
+        String rotatedToken = sign(rotatedKeyPair, Instant.now().plusSeconds(300));
+        double verified = count("verified");
+        jwtTokenVerifier.verify(rotatedToken, publicKey(rotatedKeyPair));
+        assertEquals(verified + 1, count("verified"));
+    }
+
+    private String sign(KeyPair signingKeyPair, Instant expiresAt) {
+        return JWT.create()
+                .withKeyId(KEY_ID)
+                .withSubject("test-user")
+                .withIssuedAt(Date.from(Instant.now().minusSeconds(600)))
+                .withExpiresAt(Date.from(expiresAt))
+                .sign(Algorithm.RSA256(publicKey(signingKeyPair), (RSAPrivateKey) signingKeyPair.getPrivate()));
+    }
+
+    private static RSAPublicKey publicKey(KeyPair keyPair) {
+        return (RSAPublicKey) keyPair.getPublic();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("auth.token.verifications", "result", result).count();
+    }
+}
@@ -0,0 +1,156 @@
+package com.platform.software.data.auth;
+
+import com.platform.software.platform.workspace.dto.WorkspaceMembershipDTO;
+import com.platform.software.platform.workspace.entity.Workspace;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUser;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserRole;
+import com.platform.software.platform.workspaceuser.entity.WorkspaceUserStatus;
+import com.platform.software.platform.workspaceuser.repository.WorkspaceUserRepository;
+import com.platform.software.platform.workspaceuser.service.WorkspaceMembershipCache;
+import com.platform.software.platform.workspaceuser.service.WorkspaceUserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Runs the membership cache against a stand-in repository that counts loads, with a redis connection that is never
+ * started so invalidations stay on this instance.
+ */
+public class WorkspaceMembershipCacheTest {
+
+    private static final String WORKSPACE_ID = "localhost";
+    private static final String EMAIL = "user@example.com";
+
+    private final List<String> events = new ArrayList<>();
+    private WorkspaceUser workspaceUser;
+    private int loads;
+
+    private WorkspaceUserRepository workspaceUserRepository;
+
+    @BeforeEach
+    void setUp() {
+        Workspace workspace = new Workspace();
+        workspace.setId(1L);
+        workspace.setWorkspaceIdentifier(WORKSPACE_ID);
+
+        workspaceUser = new WorkspaceUser();
+        workspaceUser.setId(1L);
+        workspaceUser.setEmail(EMAIL);
+        workspaceUser.setWorkspace(workspace);
+
+        workspaceUserRepository = (WorkspaceUserRepository) Proxy.newProxyInstance(
+                WorkspaceUserRepository.class.getClassLoader(),
+                new Class<?>[]{WorkspaceUserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByEmailAndWorkspace_WorkspaceIdentifier" -> {
+                        loads++;
+                        yield Optional.ofNullable(EMAIL.equals(args[0]) && WORKSPACE_ID.equals(args[1]) ? workspaceUser : null);
+                    }
+                    case "findByEmailAndWorkspace_Id" -> Optional.of(workspaceUser);
+                    case "save" -> {
+                        events.add("save");
+                        yield args[0];
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+    }
+
+    @Test
+    void test_get_loadsMembershipOnce() {
+        WorkspaceMembershipCache membershipCache = newMembershipCache();
+
+        assertEquals(WorkspaceUserStatus.PENDING, membershipCache.get(EMAIL, WORKSPACE_ID).status());
+        assertEquals(WorkspaceUserStatus.PENDING, membershipCache.get(EMAIL, WORKSPACE_ID).status());
+
+        assertEquals(1, loads);
+    }
+
+    @Test
+    void test_invalidate_reloadsChangedMembership() {
+        WorkspaceMembershipCache membershipCache = newMembershipCache();
+        membershipCache.get(EMAIL, WORKSPACE_ID);
+
+        workspaceUser.setStatus(WorkspaceUserStatus.SUSPENDED);
+        workspaceUser.setRole(WorkspaceUserRole.ADMIN);
+        assertEquals(WorkspaceUserStatus.PENDING, membershipCache.get(EMAIL, WORKSPACE_ID).status(), "served until invalidated");
+
+        membershipCache.invalidate(EMAIL, WORKSPACE_ID);
+
+        WorkspaceMembershipDTO membership = membershipCache.get(EMAIL, WORKSPACE_ID);
+        assertEquals(WorkspaceUserStatus.SUSPENDED, membership.status());
+        assertEquals(WorkspaceUserRole.ADMIN, membership.role());
+        assertEquals(2, loads);
+    }
+
+    @Test
+    void test_invalidate_ofOtherWorkspace_keepsMembership() {
+        WorkspaceMembershipCache membershipCache = newMembershipCache();
+        membershipCache.get(EMAIL, WORKSPACE_ID);
+        assertNull(membershipCache.get(EMAIL, "other-workspace"));
+
+        membershipCache.invalidate(EMAIL, "other-workspace");
+        membershipCache.get(EMAIL, WORKSPACE_ID);
+
+        assertEquals(2, loads, "only the missing membership of the other workspace was loaded");
+    }
+
+    @Test
+    void test_acceptInvitation_invalidatesAfterCommit() {
+        WorkspaceMembershipCache membershipCache = new WorkspaceMembershipCache(
+                workspaceUserRepository, new LettuceConnectionFactory(), new SimpleMeterRegistry(), true, 100, 10
+        ) {
+            @Override
+            public void invalidate(String email, String workspaceIdentifier) {
+                events.add("invalidate");
+                super.invalidate(email, workspaceIdentifier);
+            }
+        };
+        WorkspaceUserService workspaceUserService = new WorkspaceUserService(
+                workspaceUserRepository, new TransactionTemplate(new RecordingTransactionManager()), null, null, membershipCache
+        );
+        membershipCache.get(EMAIL, WORKSPACE_ID);
+
+        workspaceUserService.markInvitationAsAccepted(EMAIL, 1L);
+
+        assertEquals(List.of("save", "commit", "invalidate"), events);
+        assertEquals(WorkspaceUserStatus.ACTIVE, membershipCache.get(EMAIL, WORKSPACE_ID).status());
+    }
+
+    private WorkspaceMembershipCache newMembershipCache() {
+        return new WorkspaceMembershipCache(
+                workspaceUserRepository, new LettuceConnectionFactory(), new SimpleMeterRegistry(), true, 100, 10
+        );
+    }
+
+    private class RecordingTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            events.add("commit");
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            events.add("rollback");
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.platform.software.data.conversation;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.dto.ConversationDTO;
+import com.platform.software.chat.conversation.dto.ConversationFilterCriteriaDTO;
+import com.platform.software.chat.conversation.repository.ConversationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ConversationInboxQueryCountTest extends BaseAccessTest {
+
+    // the seeded user with the most conversations
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void test_inboxPage_queryCount_doesNotGrowWithPageSize() {
+        long singleRowQueries = countInboxPageQueries(1);
+        long threeRowQueries = countInboxPageQueries(3);
+        long fullPageQueries = countInboxPageQueries(20);
+
+        assertEquals(singleRowQueries, threeRowQueries, "an inbox page of 3 rows should run as many queries as a page of 1");
+        assertEquals(singleRowQueries, fullPageQueries, "an inbox page of 20 rows should run as many queries as a page of 1");
+    }
+
+    private long countInboxPageQueries(int pageSize) {
+        return transactionTemplate.execute(status -> {
+            statistics.clear();
+
+            Page<ConversationDTO> page = conversationRepository.findAllConversationsByUserIdWithLatestMessages(
+                    USER_ID, new ConversationFilterCriteriaDTO(), PageRequest.of(0, pageSize));
+            assertFalse(page.getContent().isEmpty(), "the seeded user should have inbox conversations");
+
+            return statistics.getPrepareStatementCount();
+        });
+    }
+}
@@ -0,0 +1,142 @@
+package com.platform.software.data.conversation;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.dto.ConversationDTO;
+import com.platform.software.chat.conversation.dto.ConversationFilterCriteriaDTO;
+import com.platform.software.chat.conversation.repository.ConversationRepository;
+import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
+import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the last message pointer maintained by the message writes and the inbox keyset pagination built on it.
+ */
+public class ConversationLastMessagePointerTest extends BaseAccessTest {
+
+    // the seeded user with the most conversations
+    private static final long USER_ID = 1L;
+
+    @Autowired
+    private ConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationParticipantRepository conversationParticipantRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void test_newMessage_advancesPointerAndMovesConversationUp() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationDTO> inbox = findInbox();
+            ConversationDTO oldestConversation = inbox.getLast();
+
+            Message message = saveMessage(oldestConversation.getId());
+
+            assertEquals(message.getId(), findLastMessageId(oldestConversation.getId()));
+
+            long pinnedCount = inbox.stream().filter(ConversationDTO::isPinnedByLoggedInUser).count();
+            List<Long> inboxIds = findInbox().stream().map(ConversationDTO::getId).toList();
+            if (!oldestConversation.isPinnedByLoggedInUser()) {
+                assertEquals(pinnedCount, inboxIds.indexOf(oldestConversation.getId()),
+                        "the conversation with the newest message should lead the unpinned conversations");
+            }
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_olderMessage_doesNotMovePointerBack() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long conversationId = findInbox().getFirst().getId();
+            Message olderMessage = saveMessage(conversationId);
+            Message newerMessage = saveMessage(conversationId);
+
+            // a concurrent writer recording its older message after the newer one
+            messageRepository.recordNewMessages(olderMessage, 1);
+
+            assertEquals(newerMessage.getId(), findLastMessageId(conversationId));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_keysetPages_matchSinglePageOrder() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Long> expectedIds = findInbox().stream().map(ConversationDTO::getId).toList();
+            assertTrue(expectedIds.size() > 3, "the seeded user should have more than one page of conversations");
+
+            List<Long> pagedIds = new ArrayList<>();
+            ConversationFilterCriteriaDTO criteria = new ConversationFilterCriteriaDTO();
+            while (true) {
+                Page<ConversationDTO> page = conversationRepository.findAllConversationsByUserIdWithLatestMessages(
+                        USER_ID, criteria, PageRequest.of(0, 3));
+                page.getContent().forEach(conversation -> pagedIds.add(conversation.getId()));
+                if (page.isLast()) {
+                    break;
+                }
+                criteria.setAfterConversationId(page.getContent().getLast().getId());
+            }
+
+            assertEquals(expectedIds, pagedIds, "continuing after the last conversation should neither skip nor repeat any");
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<ConversationDTO> findInbox() {
+        return conversationRepository.findAllConversationsByUserIdWithLatestMessages(
+                USER_ID, new ConversationFilterCriteriaDTO(), PageRequest.of(0, 500)).getContent();
+    }
+
+    private Message saveMessage(Long conversationId) {
+        ConversationParticipant participant = conversationParticipantRepository
+                .findByConversationIdAndUser_IdAndConversationDeletedFalse(conversationId, USER_ID)
+                .orElseThrow();
+
+        Message message = new Message();
+        message.setConversation(participant.getConversation());
+        message.setSender(participant.getUser());
+        message.setMessageText("pointer message");
+        message.setMessageType(MessageTypeEnum.TEXT);
+        return messageRepository.saveMessageWthSearchVector(message);
+    }
+
+    private Long findLastMessageId(Long conversationId) {
+        Number lastMessageId = (Number) entityManager
+                .createNativeQuery("SELECT last_message_id FROM conversation WHERE id = :id")
+                .setParameter("id", conversationId)
+                .getSingleResult();
+        return lastMessageId.longValue();
+    }
+}
@@ -0,0 +1,113 @@
+package com.platform.software.data.conversation;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.readstatus.dto.ReadStatusUpdatedEvent;
+import com.platform.software.chat.conversation.readstatus.service.ReadWatermarkCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ReadWatermarkCacheTest extends BaseAccessTest {
+
+    private static final String WORKSPACE = "localhost";
+
+    // a conversation without database rows, so the cached set only holds the participants recorded by the tests
+    private static final long CONVERSATION_ID = 900_001L;
+
+    @Autowired
+    private ReadWatermarkCache readWatermarkCache;
+
+    @BeforeEach
+    void setUp() {
+        readWatermarkCache.invalidate(WORKSPACE, CONVERSATION_ID);
+        assertNull(readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+
+        readWatermarkCache.recordParticipantsJoined(WORKSPACE, CONVERSATION_ID, Map.of(1L, 10L, 2L, 20L, 3L, 30L));
+    }
+
+    @Test
+    void test_participantJoin_lowersWatermark() {
+        assertEquals(20L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+
+        readWatermarkCache.recordParticipantsJoined(WORKSPACE, CONVERSATION_ID, Map.of(4L, 15L));
+        assertEquals(15L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+
+        Map<Long, Long> withoutReadStatus = new HashMap<>();
+        withoutReadStatus.put(5L, null);
+        readWatermarkCache.recordParticipantsJoined(WORKSPACE, CONVERSATION_ID, withoutReadStatus);
+        assertNull(readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L),
+                "a participant without a read status should leave no message read by everyone");
+    }
+
+    @Test
+    void test_participantLeave_raisesWatermark() {
+        readWatermarkCache.recordParticipantsLeft(WORKSPACE, CONVERSATION_ID, List.of(2L));
+        assertEquals(30L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+
+        readWatermarkCache.recordParticipantsLeft(WORKSPACE, CONVERSATION_ID, List.of(3L));
+        assertNull(readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L),
+                "the requester alone should have no message read by everyone");
+    }
+
+    @Test
+    void test_readStatusUpdate_raisesWatermark() {
+        readWatermarkCache.recordLastSeen(WORKSPACE, CONVERSATION_ID, 2L, 40L);
+        assertEquals(30L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+
+        readWatermarkCache.recordLastSeen(WORKSPACE, CONVERSATION_ID, 3L, 50L);
+        assertEquals(40L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+    }
+
+    @Test
+    void test_lateReadStatusUpdate_doesNotLowerWatermark() {
+        readWatermarkCache.recordLastSeen(WORKSPACE, CONVERSATION_ID, 2L, 40L);
+        // an update of an earlier read, applied after the newer one
+        readWatermarkCache.recordLastSeen(WORKSPACE, CONVERSATION_ID, 2L, 25L);
+
+        assertEquals(30L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+    }
+
+    @Test
+    void test_markedUnread_dropsCachedSet() throws InterruptedException {
+        readWatermarkCache.onReadStatusUpdated(new ReadStatusUpdatedEvent(WORKSPACE, CONVERSATION_ID, 3L, 5L, true));
+
+        // the listener runs asynchronously, and the conversation rebuilt from the database has no participants
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L) != null
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertNull(readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L),
+                "a message marked as unread should rebuild the set instead of keeping the higher score");
+    }
+
+    @Test
+    void test_readStatusUpdate_ofLeftParticipant_isIgnored() {
+        readWatermarkCache.recordParticipantsLeft(WORKSPACE, CONVERSATION_ID, List.of(2L));
+        readWatermarkCache.recordLastSeen(WORKSPACE, CONVERSATION_ID, 2L, 25L);
+
+        assertEquals(30L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+    }
+
+    @Test
+    void test_requesterReadStatus_isExcluded() {
+        assertEquals(20L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L));
+        assertEquals(10L, readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 2L));
+    }
+
+    @Test
+    void test_invalidatedConversation_isRebuiltFromDatabase() {
+        readWatermarkCache.invalidate(WORKSPACE, CONVERSATION_ID);
+        readWatermarkCache.recordParticipantsJoined(WORKSPACE, CONVERSATION_ID, Map.of(4L, 15L));
+
+        assertNull(readWatermarkCache.getReadByEveryoneMessageId(CONVERSATION_ID, 1L),
+                "changes to an uncached conversation should not be stored");
+    }
+}
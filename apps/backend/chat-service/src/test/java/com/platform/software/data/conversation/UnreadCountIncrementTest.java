@@ -0,0 +1,210 @@
+package com.platform.software.data.conversation;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.conversation.readstatus.entity.ConversationReadStatus;
+import com.platform.software.chat.conversation.readstatus.repository.ConversationReadStatusRepository;
+import com.platform.software.chat.conversation.readstatus.service.ConversationReadStatusService;
+import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
+import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.config.workspace.WorkspaceContext;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the batched unread count increments applied after the send transaction of a message, against read status
+ * recomputes and unsends between the commit and the flush.
+ */
+public class UnreadCountIncrementTest extends BaseAccessTest {
+
+    private static final long CONVERSATION_ID = 3L;
+
+    @Autowired
+    private ConversationReadStatusService conversationReadStatusService;
+
+    @Autowired
+    private ConversationReadStatusRepository conversationReadStatusRepository;
+
+    @Autowired
+    private ConversationParticipantRepository conversationParticipantRepository;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void test_increment_countsMessagesAfterLastSeen() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant sender = participants.get(0);
+            ConversationParticipant reader = participants.get(1);
+            int readerCount = recomputeUnreadCount(reader);
+
+            saveMessage(sender);
+            Message lastMessage = saveMessage(sender);
+            markSeen(sender, lastMessage);
+
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(lastMessage, 2)));
+
+            assertEquals(readerCount + 2, findUnreadCount(reader));
+            assertEquals(0, findUnreadCount(sender), "the sender has read its own messages");
+
+            // applying the same increment again, as a retried batch would, adds nothing
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(lastMessage, 2)));
+            assertEquals(readerCount + 2, findUnreadCount(reader));
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_recomputeBeforeFlush_isNotCountedAgain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant reader = participants.get(1);
+            int readerCount = recomputeUnreadCount(reader);
+
+            Message message = saveMessage(participants.get(0));
+            // a read status write of the reader between the commit of the message and the flush
+            recomputeUnreadCount(reader);
+
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(message, 1)));
+
+            assertEquals(readerCount + 1, findUnreadCount(reader), "the recompute already counted the message");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_partialReadBeforeFlush_countsOnlyUnseenMessages() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant sender = participants.get(0);
+            ConversationParticipant reader = participants.get(1);
+
+            Message firstMessage = saveMessage(sender);
+            saveMessage(sender);
+            Message lastMessage = saveMessage(sender);
+            // the reader reads the first of the messages before the flush
+            markSeen(reader, firstMessage);
+
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(lastMessage, 3)));
+
+            assertEquals(2, findUnreadCount(reader));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_unsendBeforeFlush_isNotCounted() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant reader = participants.get(1);
+            int readerCount = recomputeUnreadCount(reader);
+
+            Message message = saveMessage(participants.get(0));
+            unsend(message);
+
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(message, 1)));
+
+            assertEquals(readerCount, findUnreadCount(reader));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_unsendAfterFlush_removesCountedMessage() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant reader = participants.get(1);
+            int readerCount = recomputeUnreadCount(reader);
+
+            Message message = saveMessage(participants.get(0));
+            conversationReadStatusService.incrementUnreadCounts(List.of(increment(message, 1)));
+            assertEquals(readerCount + 1, findUnreadCount(reader));
+
+            unsend(message);
+
+            assertEquals(readerCount, findUnreadCount(reader));
+            status.setRollbackOnly();
+        });
+    }
+
+    private List<ConversationParticipant> activeParticipants() {
+        List<ConversationParticipant> participants = conversationParticipantRepository
+                .findByConversationIdAndConversationDeletedFalseAndIsActiveTrue(CONVERSATION_ID);
+        assertTrue(participants.size() >= 2, "the seeded conversation should have two active participants");
+        return participants;
+    }
+
+    private Message saveMessage(ConversationParticipant sender) {
+        Message message = new Message();
+        message.setConversation(sender.getConversation());
+        message.setSender(sender.getUser());
+        message.setMessageText("unread count message");
+        message.setMessageType(MessageTypeEnum.TEXT);
+        return messageRepository.saveMessageWthSearchVector(message);
+    }
+
+    private void markSeen(ConversationParticipant participant, Message message) {
+        ConversationReadStatus readStatus = conversationReadStatusRepository
+                .findByConversationIdAndUserId(CONVERSATION_ID, participant.getUser().getId())
+                .orElseGet(ConversationReadStatus::new);
+        readStatus.setConversation(participant.getConversation());
+        readStatus.setUser(participant.getUser());
+        readStatus.setMessage(message);
+        conversationReadStatusRepository.save(readStatus);
+        conversationReadStatusRepository.refreshUnreadCounts(participant.getUser().getId(), List.of(CONVERSATION_ID));
+    }
+
+    /**
+     * Recomputes the count of the participant as a read status write does, which also sets the newest counted message.
+     */
+    private int recomputeUnreadCount(ConversationParticipant participant) {
+        conversationReadStatusRepository.refreshUnreadCounts(participant.getUser().getId(), List.of(CONVERSATION_ID));
+        return findUnreadCount(participant);
+    }
+
+    private void unsend(Message message) {
+        message.setIsUnsend(true);
+        messageRepository.save(message);
+        conversationReadStatusRepository.decrementUnreadCounts(CONVERSATION_ID, message.getId());
+    }
+
+    private UnreadCountIncrement increment(Message lastMessage, int messageCount) {
+        return new UnreadCountIncrement(WorkspaceContext.getCurrentWorkspace(), CONVERSATION_ID, lastMessage.getId(), messageCount);
+    }
+
+    private int findUnreadCount(ConversationParticipant participant) {
+        Number unreadCount = (Number) entityManager
+                .createNativeQuery("SELECT unread_count FROM conversation_participant WHERE id = :id")
+                .setParameter("id", participant.getId())
+                .getSingleResult();
+        return unreadCount.intValue();
+    }
+}
@@ -0,0 +1,73 @@
+package com.platform.software.data.conversation;
+
+import com.platform.software.chat.conversation.readstatus.dto.UnreadCountIncrement;
+import com.platform.software.chat.conversation.readstatus.service.ConversationReadStatusService;
+import com.platform.software.chat.conversation.readstatus.service.UnreadCountIncrementer;
+import com.platform.software.chat.message.dto.MessageUnsentEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the increment queue against a recording stand-in for the unread count writes, flushing by hand.
+ */
+public class UnreadCountIncrementerTest {
+
+    private static final String WORKSPACE_ID = "localhost";
+
+    private final List<UnreadCountIncrement> appliedIncrements = new ArrayList<>();
+
+    private UnreadCountIncrementer unreadCountIncrementer;
+
+    @BeforeEach
+    void setUp() {
+        ConversationReadStatusService recordingService = new ConversationReadStatusService(null, null, null, null) {
+            @Override
+            public void incrementUnreadCounts(List<UnreadCountIncrement> increments) {
+                appliedIncrements.addAll(increments);
+            }
+        };
+        unreadCountIncrementer = new UnreadCountIncrementer(recordingService, new SimpleMeterRegistry(), 60_000, 500);
+    }
+
+    @Test
+    void test_unsendBeforeFlush_dropsIncrementOfTheMessage() {
+        UnreadCountIncrement unsent = new UnreadCountIncrement(WORKSPACE_ID, 3L, 100L, 1);
+        UnreadCountIncrement kept = new UnreadCountIncrement(WORKSPACE_ID, 3L, 101L, 1);
+        unreadCountIncrementer.onUnreadCountIncrement(unsent);
+        unreadCountIncrementer.onUnreadCountIncrement(kept);
+
+        unreadCountIncrementer.onMessageUnsent(new MessageUnsentEvent(WORKSPACE_ID, 3L, 100L, 1L));
+        unreadCountIncrementer.flush();
+
+        assertEquals(List.of(kept), appliedIncrements);
+    }
+
+    @Test
+    void test_unsendOfOneForwardedMessage_keepsIncrementOfTheBatch() {
+        // the flush skips the unsent message when it counts the batch
+        UnreadCountIncrement batch = new UnreadCountIncrement(WORKSPACE_ID, 3L, 100L, 3);
+        unreadCountIncrementer.onUnreadCountIncrement(batch);
+
+        unreadCountIncrementer.onMessageUnsent(new MessageUnsentEvent(WORKSPACE_ID, 3L, 100L, 1L));
+        unreadCountIncrementer.flush();
+
+        assertEquals(List.of(batch), appliedIncrements);
+    }
+
+    @Test
+    void test_unsendOfSameMessageIdInOtherWorkspace_keepsIncrement() {
+        UnreadCountIncrement increment = new UnreadCountIncrement(WORKSPACE_ID, 3L, 100L, 1);
+        unreadCountIncrementer.onUnreadCountIncrement(increment);
+
+        unreadCountIncrementer.onMessageUnsent(new MessageUnsentEvent("other-workspace", 3L, 100L, 1L));
+        unreadCountIncrementer.flush();
+
+        assertEquals(List.of(increment), appliedIncrements);
+    }
+}
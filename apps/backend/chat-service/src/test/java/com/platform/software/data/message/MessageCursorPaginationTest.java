@@ -0,0 +1,182 @@
+package com.platform.software.data.message;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
+import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.dto.MessageWindowPage;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.controller.external.IdBasedPageRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks the history of a conversation page by page in the CURSOR pagination mode of the test configuration,
+ * and checks the window loaded when jumping to a message.
+ */
+public class MessageCursorPaginationTest extends BaseAccessTest {
+
+    private static final long CONVERSATION_ID = 3L;
+    private static final int PAGE_SIZE = 10;
+    private static final int NEW_MESSAGES = 25;
+    // message.history.jump-window-size of the test configuration
+    private static final int JUMP_WINDOW_SIZE = 10;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationParticipantRepository conversationParticipantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void test_pagingBackwards_returnsEveryVisibleMessageOnce() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ConversationParticipant participant = activeParticipant();
+            addMessages(participant);
+            List<Long> visibleIds = findVisibleIdsNewestFirst(participant);
+
+            List<Long> pagedIds = new ArrayList<>();
+            IdBasedPageRequest pageRequest = pageRequest(null, null);
+            while (true) {
+                MessageWindowPage<Message> page = findPage(participant, pageRequest);
+                page.getContent().forEach(message -> pagedIds.add(message.getId()));
+
+                if (!page.isHasMoreBefore()) {
+                    assertTrue(page.getContent().size() <= PAGE_SIZE);
+                    break;
+                }
+                assertEquals(PAGE_SIZE, page.getContent().size(), "only the oldest page may be short");
+                pageRequest = pageRequest(null, page.getContent().getLast().getId());
+            }
+
+            assertEquals(visibleIds, pagedIds, "the pages should return the visible messages newest first, each once");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_pagingForwards_fromCursor_reportsMoreAfterUntilNewest() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ConversationParticipant participant = activeParticipant();
+            addMessages(participant);
+            List<Long> visibleIds = findVisibleIdsNewestFirst(participant);
+            Long cursor = visibleIds.get(NEW_MESSAGES - 1);
+
+            MessageWindowPage<Message> page = findPage(participant, pageRequest(cursor, null));
+            assertTrue(page.isHasMoreBefore(), "the cursor message itself is before the page");
+            assertTrue(page.isHasMoreAfter());
+            assertEquals(visibleIds.subList(NEW_MESSAGES - 1 - PAGE_SIZE, NEW_MESSAGES - 1),
+                    page.getContent().stream().map(Message::getId).toList(), "an after page is returned newest first");
+
+            MessageWindowPage<Message> newestPage = findPage(participant, pageRequest(visibleIds.get(PAGE_SIZE), null));
+            assertFalse(newestPage.isHasMoreAfter(), "no message is newer than the newest page");
+            assertEquals(visibleIds.subList(0, PAGE_SIZE), newestPage.getContent().stream().map(Message::getId).toList());
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_windowAroundMessage_holdsJumpWindowOnEachSide() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ConversationParticipant participant = activeParticipant();
+            addMessages(participant);
+            List<Long> visibleIds = findVisibleIdsNewestFirst(participant);
+
+            int targetIndex = NEW_MESSAGES / 2;
+            MessageWindowPage<Message> window = messageRepository.findMessagesAndAttachmentsByMessageId(
+                    CONVERSATION_ID, visibleIds.get(targetIndex), participant);
+            assertEquals(visibleIds.subList(targetIndex - JUMP_WINDOW_SIZE, targetIndex + JUMP_WINDOW_SIZE + 1),
+                    window.getContent().stream().map(Message::getId).toList(),
+                    "the window should hold the target and the nearest messages on each side, newest first");
+            assertTrue(window.isHasMoreBefore());
+            assertTrue(window.isHasMoreAfter());
+
+            MessageWindowPage<Message> newestWindow = messageRepository.findMessagesAndAttachmentsByMessageId(
+                    CONVERSATION_ID, visibleIds.get(JUMP_WINDOW_SIZE), participant);
+            assertEquals(visibleIds.subList(0, JUMP_WINDOW_SIZE * 2 + 1),
+                    newestWindow.getContent().stream().map(Message::getId).toList());
+            assertFalse(newestWindow.isHasMoreAfter(), "exactly a window of newer messages leaves none after it");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private ConversationParticipant activeParticipant() {
+        return conversationParticipantRepository.findByConversationIdAndConversationDeletedFalseAndIsActiveTrue(CONVERSATION_ID)
+                .stream()
+                .filter(participant -> participant.getLastDeletedTime() == null)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("the seeded conversation should have an active participant"));
+    }
+
+    private void addMessages(ConversationParticipant participant) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < NEW_MESSAGES; i++) {
+            Message message = new Message();
+            message.setConversation(participant.getConversation());
+            message.setSender(participant.getUser());
+            message.setMessageText("cursor page message " + i);
+            message.setMessageType(MessageTypeEnum.TEXT);
+            messages.add(message);
+        }
+        messageRepository.saveMessagesWithSearchVector(messages);
+    }
+
+    private MessageWindowPage<Message> findPage(ConversationParticipant participant, IdBasedPageRequest pageRequest) {
+        Page<Message> page = messageRepository.findMessagesAndAttachments(
+                CONVERSATION_ID, pageRequest, participant, participant.getUser().getId()
+        );
+        return assertInstanceOf(MessageWindowPage.class, page, "the CURSOR mode returns pages with cursor flags");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> findVisibleIdsNewestFirst(ConversationParticipant participant) {
+        List<Number> ids = entityManager.createNativeQuery("""
+                        SELECT m.id FROM message m
+                        WHERE m.conversation_id = :conversationId AND m.sender_id IS NOT NULL
+                          AND (m.sender_id = :requesterId OR m.is_stored = true)
+                        ORDER BY m.id DESC
+                        """)
+                .setParameter("conversationId", CONVERSATION_ID)
+                .setParameter("requesterId", participant.getUser().getId())
+                .getResultList();
+        return ids.stream().map(Number::longValue).toList();
+    }
+
+    private static IdBasedPageRequest pageRequest(Long afterId, Long beforeId) {
+        IdBasedPageRequest pageRequest = new IdBasedPageRequest();
+        pageRequest.setAfterId(afterId);
+        pageRequest.setBeforeId(beforeId);
+        pageRequest.setSize((long) PAGE_SIZE);
+        return pageRequest;
+    }
+}
@@ -0,0 +1,225 @@
+package com.platform.software.data.message;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.entity.QConversation;
+import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
+import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.message.attachment.entity.QMessageAttachment;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.dto.MessageWindowPage;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.entity.QMessage;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.chat.user.entity.QChatUser;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the jump-to-message window against the four round trips it replaced: a target check, a before probe,
+ * an after probe and the fetch join. Both return the same window, and the median latency of each is logged.
+ */
+public class MessageJumpWindowBenchmarkTest extends BaseAccessTest {
+    private static final Logger logger = LoggerFactory.getLogger(MessageJumpWindowBenchmarkTest.class);
+
+    private static final long CONVERSATION_ID = 3L;
+    private static final int NEW_MESSAGES = 200;
+    // message.history.jump-window-size of the test configuration
+    private static final int JUMP_WINDOW_SIZE = 10;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 100;
+
+    private static final QMessage message = QMessage.message;
+    private static final QMessageAttachment messageAttachment = QMessageAttachment.messageAttachment;
+    private static final QConversation conversation = QConversation.conversation;
+    private static final QChatUser sender = QChatUser.chatUser;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationParticipantRepository conversationParticipantRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void test_jumpWindow_matchesFourQueryWindow_andReportsLatency() {
+        transactionTemplate.executeWithoutResult(status -> {
+            ConversationParticipant participant = activeParticipant();
+            List<Message> messages = addMessages(participant);
+            Long targetId = messages.get(NEW_MESSAGES / 2).getId();
+
+            Supplier<MessageWindowPage<Message>> singleQuery =
+                    () -> messageRepository.findMessagesAndAttachmentsByMessageId(CONVERSATION_ID, targetId, participant);
+            Supplier<MessageWindowPage<Message>> fourQueries =
+                    () -> findWindowWithFourQueries(CONVERSATION_ID, targetId, participant);
+
+            MessageWindowPage<Message> window = singleQuery.get();
+            MessageWindowPage<Message> baselineWindow = fourQueries.get();
+            assertEquals(ids(baselineWindow), ids(window));
+            assertEquals(baselineWindow.isHasMoreBefore(), window.isHasMoreBefore());
+            assertEquals(baselineWindow.isHasMoreAfter(), window.isHasMoreAfter());
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                time(singleQuery);
+                time(fourQueries);
+            }
+            // interleaved so both see the same cache and connection state
+            long[] singleQueryNanos = new long[MEASURED_ROUNDS];
+            long[] fourQueryNanos = new long[MEASURED_ROUNDS];
+            for (int i = 0; i < MEASURED_ROUNDS; i++) {
+                singleQueryNanos[i] = time(singleQuery);
+                fourQueryNanos[i] = time(fourQueries);
+            }
+
+            logger.info("jump window of {} messages, median over {} rounds: single query {} us, four queries {} us",
+                    JUMP_WINDOW_SIZE * 2 + 1, MEASURED_ROUNDS, median(singleQueryNanos) / 1_000, median(fourQueryNanos) / 1_000);
+            status.setRollbackOnly();
+        });
+    }
+
+    private long time(Supplier<MessageWindowPage<Message>> windowQuery) {
+        // loaded entities would otherwise be served from the persistence context
+        entityManager.clear();
+        long startedAt = System.nanoTime();
+        windowQuery.get();
+        return System.nanoTime() - startedAt;
+    }
+
+    /**
+     * The window query this benchmark compares against, as it was before the single keyset statement.
+     */
+    private MessageWindowPage<Message> findWindowWithFourQueries(Long conversationId, Long messageId, ConversationParticipant participant) {
+        JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
+
+        BooleanExpression conditions = message.conversation.id.eq(conversationId)
+                .and(message.sender.isNotNull())
+                .and(message.conversation.deleted.eq(false));
+
+        if (!participant.getIsActive()) {
+            conditions = conditions.and(message.createdAt.before(Date.from(participant.getInactiveFrom().toInstant())));
+        }
+
+        if (participant.getLastDeletedTime() != null) {
+            conditions = conditions.and(message.createdAt.after(Date.from(participant.getLastDeletedTime().toInstant())));
+        }
+
+        Long validTargetId = queryFactory.select(message.id)
+                .from(message)
+                .innerJoin(message.conversation, conversation)
+                .innerJoin(message.sender, sender)
+                .where(conditions.and(message.id.eq(messageId)))
+                .fetchOne();
+
+        if (validTargetId == null) {
+            return new MessageWindowPage<>(Collections.emptyList(), PageRequest.of(0, JUMP_WINDOW_SIZE * 2 + 1), 0, false, false);
+        }
+
+        List<Long> beforeIds = queryFactory.select(message.id)
+                .from(message)
+                .innerJoin(message.conversation, conversation)
+                .innerJoin(message.sender, sender)
+                .where(conditions.and(message.id.lt(validTargetId)))
+                .orderBy(message.id.desc())
+                .limit(JUMP_WINDOW_SIZE + 1)
+                .fetch();
+
+        boolean hasMoreBefore = beforeIds.size() > JUMP_WINDOW_SIZE;
+        if (hasMoreBefore) {
+            beforeIds.removeLast();
+        }
+
+        List<Long> afterIds = queryFactory.select(message.id)
+                .from(message)
+                .innerJoin(message.conversation, conversation)
+                .innerJoin(message.sender, sender)
+                .where(conditions.and(message.id.gt(validTargetId)))
+                .orderBy(message.id.asc())
+                .limit(JUMP_WINDOW_SIZE + 1)
+                .fetch();
+
+        boolean hasMoreAfter = afterIds.size() > JUMP_WINDOW_SIZE;
+        if (hasMoreAfter) {
+            afterIds.removeLast();
+        }
+
+        List<Long> allIdsToFetch = new ArrayList<>();
+        allIdsToFetch.add(validTargetId);
+        allIdsToFetch.addAll(beforeIds);
+        allIdsToFetch.addAll(afterIds);
+
+        List<Message> fetchedMessages = queryFactory
+                .selectDistinct(message)
+                .from(message)
+                .leftJoin(message.attachments, messageAttachment).fetchJoin()
+                .innerJoin(message.conversation, conversation).fetchJoin()
+                .innerJoin(message.sender, sender).fetchJoin()
+                .where(message.id.in(allIdsToFetch))
+                .fetch();
+
+        fetchedMessages.sort(Comparator.comparing(Message::getId).reversed());
+        return new MessageWindowPage<>(
+                fetchedMessages, PageRequest.of(0, JUMP_WINDOW_SIZE * 2 + 1), fetchedMessages.size(), hasMoreBefore, hasMoreAfter);
+    }
+
+    private ConversationParticipant activeParticipant() {
+        return conversationParticipantRepository.findByConversationIdAndConversationDeletedFalseAndIsActiveTrue(CONVERSATION_ID)
+                .stream()
+                .filter(participant -> participant.getLastDeletedTime() == null)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("the seeded conversation should have an active participant"));
+    }
+
+    private List<Message> addMessages(ConversationParticipant participant) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < NEW_MESSAGES; i++) {
+            Message message = new Message();
+            message.setConversation(participant.getConversation());
+            message.setSender(participant.getUser());
+            message.setMessageText("jump window message " + i);
+            message.setMessageType(MessageTypeEnum.TEXT);
+            messages.add(message);
+        }
+        return messageRepository.saveMessagesWithSearchVector(messages);
+    }
+
+    private static List<Long> ids(MessageWindowPage<Message> window) {
+        return window.getContent().stream().map(Message::getId).toList();
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
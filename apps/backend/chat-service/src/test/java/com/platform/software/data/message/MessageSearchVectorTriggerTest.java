@@ -0,0 +1,169 @@
+package com.platform.software.data.message;
+
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.yaml.snakeyaml.Yaml;
+
+import javax.sql.DataSource;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the DATABASE search vector mode against the trigger of the workspace changelog, applied to the hibernate
+ * created test schema.
+ */
+@TestPropertySource(properties = "message.search-vector.mode=DATABASE")
+public class MessageSearchVectorTriggerTest extends BaseAccessTest {
+
+    private static final Path SEARCH_VECTOR_CHANGELOG =
+            Path.of("../../../infra/db-migrations/workspaces/changeLogs/db.changelog-001.9.yaml");
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.datasource.default.schema}")
+    private String workspaceSchema;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    public void setUp() throws Exception {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setSchema(workspaceSchema);
+            statement.execute("DROP TRIGGER IF EXISTS message_search_vector_trigger ON message");
+            for (String sql : readChangelogSql()) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    @Test
+    void test_singleInsert_populatesSearchVector() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Message message = messageRepository.saveMessageWthSearchVector(newMessage("the trigger indexes this text"));
+
+            String searchVector = readSearchVector(message.getId());
+            assertNotNull(searchVector, "the trigger should compute the search vector within the insert");
+            assertTrue(searchVector.contains("'trigger'"), "unexpected search vector: " + searchVector);
+            assertTrue(matches(message.getId(), "indexes"), "the message should be found by full text search");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_batchInsert_populatesSearchVectors() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Message> messages = messageRepository.saveMessagesWithSearchVector(List.of(
+                    newMessage("forwarded batch message"),
+                    newMessage("another forwarded copy"),
+                    newMessage("   ")
+            ));
+
+            assertTrue(readSearchVector(messages.get(0).getId()).contains("'batch'"));
+            assertTrue(readSearchVector(messages.get(1).getId()).contains("'copi'"));
+            assertNull(readSearchVector(messages.get(2).getId()), "blank text should have no search vector");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_editedText_recomputesSearchVector() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Message message = messageRepository.saveMessageWthSearchVector(newMessage("original wording"));
+            entityManager.clear();
+
+            Message editedMessage = messageRepository.findById(message.getId()).orElseThrow();
+            editedMessage.setMessageText("replacement phrasing");
+            messageRepository.saveMessageWthSearchVector(editedMessage);
+            entityManager.flush();
+
+            String searchVector = readSearchVector(message.getId());
+            assertTrue(searchVector.contains("'replac'"), "unexpected search vector: " + searchVector);
+            assertFalse(searchVector.contains("'origin'"), "the previous text should no longer be indexed");
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private Message newMessage(String text) {
+        Message seededMessage = messageRepository.findAll(PageRequest.of(0, 1)).getContent().getFirst();
+
+        Message message = new Message();
+        message.setConversation(seededMessage.getConversation());
+        message.setSender(seededMessage.getSender());
+        message.setMessageText(text);
+        message.setMessageType(MessageTypeEnum.TEXT);
+        return message;
+    }
+
+    private String readSearchVector(Long messageId) {
+        Object searchVector = entityManager
+                .createNativeQuery("SELECT CAST(search_vector AS text) FROM message WHERE id = :id")
+                .setParameter("id", messageId)
+                .getSingleResult();
+        return (String) searchVector;
+    }
+
+    private boolean matches(Long messageId, String searchTerm) {
+        Number count = (Number) entityManager
+                .createNativeQuery("SELECT count(*) FROM message WHERE id = :id AND search_vector @@ plainto_tsquery('english', :term)")
+                .setParameter("id", messageId)
+                .setParameter("term", searchTerm)
+                .getSingleResult();
+        return count.longValue() == 1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> readChangelogSql() throws Exception {
+        List<String> statements = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(SEARCH_VECTOR_CHANGELOG)) {
+            Map<String, Object> changelog = new Yaml().load(reader);
+            for (Map<String, Object> entry : (List<Map<String, Object>>) changelog.get("databaseChangeLog")) {
+                Map<String, Object> changeSet = (Map<String, Object>) entry.get("changeSet");
+                for (Map<String, Object> change : (List<Map<String, Object>>) changeSet.get("changes")) {
+                    Map<String, Object> sql = (Map<String, Object>) change.get("sql");
+                    if (sql != null) {
+                        statements.add((String) sql.get("sql"));
+                    }
+                }
+            }
+        }
+        return statements;
+    }
+}
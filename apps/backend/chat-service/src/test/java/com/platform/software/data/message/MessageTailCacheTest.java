@@ -0,0 +1,445 @@
+package com.platform.software.data.message;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.software.BaseAccessTest;
+import com.platform.software.chat.conversation.entity.Conversation;
+import com.platform.software.chat.conversation.service.ConversationService;
+import com.platform.software.chat.conversationparticipant.entity.ConversationParticipant;
+import com.platform.software.chat.conversationparticipant.repository.ConversationParticipantRepository;
+import com.platform.software.chat.message.dto.BasicMessageDTO;
+import com.platform.software.chat.message.dto.MessageTypeEnum;
+import com.platform.software.chat.message.dto.MessageUnsentEvent;
+import com.platform.software.chat.message.dto.MessageUpdatedEvent;
+import com.platform.software.chat.message.dto.MessageViewDTO;
+import com.platform.software.chat.message.dto.MessageWindowPage;
+import com.platform.software.chat.message.entity.Message;
+import com.platform.software.chat.message.repository.MessagePaginationMode;
+import com.platform.software.chat.message.repository.MessageRepository;
+import com.platform.software.chat.message.tail.dto.ConversationMessageTail;
+import com.platform.software.chat.message.tail.service.MessageTailCache;
+import com.platform.software.chat.message.tail.service.MessageTailLoader;
+import com.platform.software.chat.user.entity.ChatUser;
+import com.platform.software.config.workspace.WorkspaceContext;
+import com.platform.software.controller.external.IdBasedPageRequest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares first history pages served from the conversation tail with the pages of the database, and follows
+ * message changes into cached tails.
+ */
+public class MessageTailCacheTest extends BaseAccessTest {
+
+    private static final long CONVERSATION_ID = 3L;
+    private static final String WORKSPACE_ID = "localhost";
+    private static final int PAGE_SIZE = 10;
+    private static final int NEW_MESSAGES = 60;
+    private static final int TAIL_SIZE = 20;
+
+    @Autowired
+    private ConversationService conversationService;
+
+    @Autowired
+    private MessageTailLoader messageTailLoader;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private ConversationParticipantRepository conversationParticipantRepository;
+
+    @Autowired
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private TransactionTemplate transactionTemplate;
+    private StringRedisTemplate redisTemplate;
+    private Long otherConversationId;
+
+    @BeforeAll
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        redisTemplate = new StringRedisTemplate(redisConnectionFactory);
+        otherConversationId = transactionTemplate.execute(status -> ((Number) entityManager
+                .createNativeQuery("SELECT min(id) FROM conversation WHERE id <> :id AND deleted = false")
+                .setParameter("id", CONVERSATION_ID)
+                .getSingleResult()).longValue());
+    }
+
+    @BeforeEach
+    void setUpTails() {
+        dropTails();
+    }
+
+    // tails built inside the rolled back test transactions must not outlive them
+    @AfterEach
+    void tearDownTails() {
+        dropTails();
+    }
+
+    @Test
+    void test_firstPageFromTail_equalsDatabasePage() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant viewer = participants.get(0);
+            List<Message> messages = addMessages(participants.get(1));
+            addReplyAndForwards(participants.get(1), messages.getFirst());
+
+            assertSameFirstPage(viewer.getUser().getId());
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_deletedConversationHistory_isHiddenFromTailPage() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant viewer = participants.get(0);
+            List<Message> messages = addMessages(participants.get(1));
+
+            // only the 14 messages after the 15th newest remain visible
+            viewer.setLastDeletedTime(zonedCreatedAt(messages.get(NEW_MESSAGES - 15)));
+            conversationParticipantRepository.saveAndFlush(viewer);
+
+            Page<MessageViewDTO> page = assertSameFirstPage(viewer.getUser().getId());
+            assertTrue(page.getContent().stream().allMatch(message -> message.getId() > messages.get(NEW_MESSAGES - 15).getId()));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_inactiveParticipant_seesMessagesBeforeLeaving() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant viewer = participants.get(0);
+            List<Message> messages = addMessages(participants.get(1));
+
+            viewer.setIsActive(false);
+            viewer.setInactiveFrom(zonedCreatedAt(messages.get(NEW_MESSAGES - 3)));
+            conversationParticipantRepository.saveAndFlush(viewer);
+
+            Page<MessageViewDTO> page = assertSameFirstPage(viewer.getUser().getId());
+            assertTrue(page.getContent().stream().allMatch(message -> message.getId() < messages.get(NEW_MESSAGES - 3).getId()));
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_senderProfileChange_showsWithoutRebuild() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            Long viewerId = participants.get(0).getUser().getId();
+            addMessages(participants.get(1));
+            conversationService.getMessages(pageRequest(null), CONVERSATION_ID, viewerId);
+
+            ChatUser sender = participants.get(1).getUser();
+            sender.setFirstName("Renamed");
+            entityManager.flush();
+
+            Page<MessageViewDTO> page = conversationService.getMessages(pageRequest(null), CONVERSATION_ID, viewerId);
+            assertEquals("Renamed", page.getContent().getFirst().getSenderFirstName());
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_editAndUnsend_reRenderReplyAndForwardSnippets() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ConversationParticipant> participants = activeParticipants();
+            ConversationParticipant sender = participants.get(1);
+            Message original = addMessages(sender).getFirst();
+            List<Message> dependents = addReplyAndForwards(sender, original);
+            Message reply = dependents.get(0);
+            Message forward = dependents.get(1);
+            Message otherConversationForward = dependents.get(2);
+
+            SimpleMeterRegistry tailMeters = new SimpleMeterRegistry();
+            MessageTailCache tailCache = newTailCache(tailMeters);
+            tailCache.getTail(CONVERSATION_ID);
+            tailCache.getTail(otherConversationId);
+
+            original.setMessageText("edited original");
+            original.setIsEdited(true);
+            entityManager.flush();
+            tailCache.onMessageUpdated(new MessageUpdatedEvent(
+                    WORKSPACE_ID, CONVERSATION_ID, new MessageViewDTO(original), sender.getUser().getId()));
+
+            ConversationMessageTail tail = tailCache.getTail(CONVERSATION_ID);
+            assertEquals("edited original", find(tail, reply.getId()).getParentMessage().getMessageText());
+            assertEquals("edited original", find(tail, forward.getId()).getOriginalForwardedMessage().getMessageText());
+            assertEquals("edited original", find(tailCache.getTail(otherConversationId), otherConversationForward.getId())
+                    .getOriginalForwardedMessage().getMessageText());
+
+            original.setIsUnsend(true);
+            entityManager.flush();
+            tailCache.onMessageUnsent(new MessageUnsentEvent(
+                    WORKSPACE_ID, CONVERSATION_ID, original.getId(), sender.getUser().getId()));
+
+            tail = tailCache.getTail(CONVERSATION_ID);
+            assertTrue(find(tail, original.getId()).getIsUnsend());
+            assertEquals("", find(tail, original.getId()).getMessageText());
+            assertTrue(find(tail, reply.getId()).getParentMessage().getIsUnsend());
+            assertTrue(find(tail, forward.getId()).getOriginalForwardedMessage().getIsUnsend());
+
+            assertEquals(2, requests(tailMeters, "miss"), "the changes should be merged into the cached tails");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_versionMismatch_rebuildsTail() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Message message = addMessages(activeParticipants().get(1)).getLast();
+
+            SimpleMeterRegistry tailMeters = new SimpleMeterRegistry();
+            MessageTailCache tailCache = newTailCache(tailMeters);
+            tailCache.getTail(CONVERSATION_ID);
+            tailCache.getTail(CONVERSATION_ID);
+            assertEquals(1, requests(tailMeters, "heap"));
+
+            // a change seen by another instance, whose refresh did not reach this one
+            entityManager.createNativeQuery("UPDATE message SET message_text = 'changed elsewhere' WHERE id = :id")
+                    .setParameter("id", message.getId())
+                    .executeUpdate();
+            entityManager.clear();
+            redisTemplate.opsForHash().increment(tailKey(CONVERSATION_ID), "version", 1);
+
+            ConversationMessageTail tail = tailCache.getTail(CONVERSATION_ID);
+            assertEquals(2, requests(tailMeters, "miss"));
+            assertEquals("changed elsewhere", find(tail, message.getId()).getMessageText());
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_refresh_doesNotExtendExpiry() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Message message = addMessages(activeParticipants().get(1)).getLast();
+            MessageTailCache tailCache = newTailCache(new SimpleMeterRegistry());
+            tailCache.getTail(CONVERSATION_ID);
+            Long expiryBefore = redisTemplate.getExpire(tailKey(CONVERSATION_ID), TimeUnit.MILLISECONDS);
+
+            sleep(50);
+            tailCache.onMessageUpdated(new MessageUpdatedEvent(
+                    WORKSPACE_ID, CONVERSATION_ID, new MessageViewDTO(message), message.getSender().getId()));
+
+            Long expiryAfter = redisTemplate.getExpire(tailKey(CONVERSATION_ID), TimeUnit.MILLISECONDS);
+            assertNotNull(expiryBefore);
+            assertNotNull(expiryAfter);
+            assertTrue(expiryAfter > 0 && expiryAfter < expiryBefore, "a change should not renew the tail expiry");
+            status.setRollbackOnly();
+        });
+    }
+
+    @Test
+    void test_countPaginationMode_isNotServedFromTail() {
+        // tail pages carry no conversation total
+        assertFalse(newTailCache(new SimpleMeterRegistry(), MessagePaginationMode.COUNT).canServe(10));
+        assertTrue(newTailCache(new SimpleMeterRegistry()).canServe(10));
+    }
+
+    @Test
+    void test_refresh_keepsWorkspaceOfCallingThread() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Message message = addMessages(activeParticipants().get(1)).getLast();
+            MessageTailCache tailCache = newTailCache(new SimpleMeterRegistry());
+            tailCache.getTail(CONVERSATION_ID);
+
+            WorkspaceContext.setCurrentWorkspace("other-workspace");
+            try {
+                tailCache.onMessageUpdated(new MessageUpdatedEvent(
+                        WORKSPACE_ID, CONVERSATION_ID, new MessageViewDTO(message), message.getSender().getId()));
+                assertEquals("other-workspace", WorkspaceContext.getCurrentWorkspace());
+            } finally {
+                WorkspaceContext.setCurrentWorkspace(WORKSPACE_ID);
+            }
+            status.setRollbackOnly();
+        });
+    }
+
+    private Page<MessageViewDTO> assertSameFirstPage(Long viewerId) {
+        double tailPagesBefore = tailPageCount();
+        Page<MessageViewDTO> tailPage = conversationService.getMessages(pageRequest(null), CONVERSATION_ID, viewerId);
+        assertEquals(tailPagesBefore + 1, tailPageCount(), "the first page should be served from the tail");
+
+        // a before cursor above every id skips the tail and reads the same page from the database
+        Page<MessageViewDTO> databasePage = conversationService.getMessages(pageRequest(Long.MAX_VALUE), CONVERSATION_ID, viewerId);
+
+        assertEquals(render(databasePage.getContent()), render(tailPage.getContent()));
+        assertEquals(
+                assertInstanceOf(MessageWindowPage.class, databasePage).isHasMoreBefore(),
+                assertInstanceOf(MessageWindowPage.class, tailPage).isHasMoreBefore()
+        );
+        assertFalse(tailPage.getContent().isEmpty());
+        return tailPage;
+    }
+
+    private List<ConversationParticipant> activeParticipants() {
+        List<ConversationParticipant> participants = conversationParticipantRepository
+                .findByConversationIdAndConversationDeletedFalseAndIsActiveTrue(CONVERSATION_ID)
+                .stream()
+                .filter(participant -> participant.getLastDeletedTime() == null)
+                .toList();
+        assertTrue(participants.size() >= 2, "the seeded conversation should have two active participants");
+        return participants;
+    }
+
+    /**
+     * Adds messages a minute apart, oldest first, leaving every seventh one unstored.
+     */
+    private List<Message> addMessages(ConversationParticipant sender) {
+        List<Message> messages = new ArrayList<>();
+        for (int i = 0; i < NEW_MESSAGES; i++) {
+            Message message = newMessage(sender, "tail message " + i);
+            message.setIsStored(i % 7 != 0);
+            messages.add(message);
+        }
+        messageRepository.saveMessagesWithSearchVector(messages);
+
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < NEW_MESSAGES; i++) {
+            Date createdAt = new Date(now - (NEW_MESSAGES - i) * 60_000L);
+            entityManager.createNativeQuery("UPDATE message SET created_at = :createdAt WHERE id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", messages.get(i).getId())
+                    .executeUpdate();
+            messages.get(i).setCreatedAt(createdAt);
+        }
+        return messages;
+    }
+
+    /**
+     * Adds a reply to the message and forwards of it to its own and to another conversation.
+     */
+    private List<Message> addReplyAndForwards(ConversationParticipant sender, Message original) {
+        Message reply = newMessage(sender, "reply");
+        reply.setParentMessage(original);
+
+        Message forward = newMessage(sender, original.getMessageText());
+        forward.setForwardedMessage(original);
+
+        Message otherConversationForward = newMessage(sender, original.getMessageText());
+        otherConversationForward.setConversation(entityManager.find(Conversation.class, otherConversationId));
+        otherConversationForward.setForwardedMessage(original);
+
+        return messageRepository.saveMessagesWithSearchVector(List.of(reply, forward, otherConversationForward));
+    }
+
+    private Message newMessage(ConversationParticipant sender, String text) {
+        Message message = new Message();
+        message.setConversation(sender.getConversation());
+        message.setSender(sender.getUser());
+        message.setMessageText(text);
+        message.setMessageType(MessageTypeEnum.TEXT);
+        message.setIsStored(true);
+        return message;
+    }
+
+    // constructed outside the container, so the change listeners run in the test transaction instead of asynchronously
+    private MessageTailCache newTailCache(MeterRegistry tailMeters) {
+        return newTailCache(tailMeters, MessagePaginationMode.CURSOR);
+    }
+
+    private MessageTailCache newTailCache(MeterRegistry tailMeters, MessagePaginationMode paginationMode) {
+        return new MessageTailCache(
+                messageTailLoader, redisConnectionFactory, objectMapper, tailMeters, true, TAIL_SIZE, 10, 100, paginationMode);
+    }
+
+    private double tailPageCount() {
+        return meterRegistry.get("message.tail.cache.page").tag("source", "tail").timer().count();
+    }
+
+    private static double requests(MeterRegistry tailMeters, String result) {
+        return tailMeters.get("message.tail.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static MessageViewDTO find(ConversationMessageTail tail, Long messageId) {
+        return tail.messages().stream()
+                .filter(message -> message.getId().equals(messageId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("message " + messageId + " is not in the tail"));
+    }
+
+    private static List<List<Object>> render(List<MessageViewDTO> messages) {
+        return messages.stream()
+                .map(message -> Arrays.<Object>asList(
+                        message.getId(), message.getSenderId(), message.getSenderFirstName(), message.getSenderLastName(),
+                        message.getImageIndexedName(), message.getMessageText(), message.getIsUnsend(),
+                        message.getIsEdited(), message.getIsForwarded(), message.getIsStored(), message.getIsSeen(),
+                        message.getIsReadByEveryone(), message.getMentions().size(),
+                        render(message.getParentMessage()), render(message.getOriginalForwardedMessage())
+                ))
+                .toList();
+    }
+
+    private static List<Object> render(BasicMessageDTO snippet) {
+        return snippet == null ? null : Arrays.asList(
+                snippet.getId(), snippet.getSenderId(), snippet.getSenderFirstName(), snippet.getSenderLastName(),
+                snippet.getImageIndexedName(), snippet.getMessageText(), snippet.getIsUnsend()
+        );
+    }
+
+    private static ZonedDateTime zonedCreatedAt(Message message) {
+        return message.getCreatedAt().toInstant().atZone(ZoneId.systemDefault());
+    }
+
+    private static IdBasedPageRequest pageRequest(Long beforeId) {
+        IdBasedPageRequest pageRequest = new IdBasedPageRequest();
+        pageRequest.setBeforeId(beforeId);
+        pageRequest.setSize((long) PAGE_SIZE);
+        return pageRequest;
+    }
+
+    private void dropTails() {
+        redisTemplate.delete(List.of(tailKey(CONVERSATION_ID), tailKey(otherConversationId)));
+    }
+
+    private static String tailKey(Long conversationId) {
+        return "message-tail::" + WORKSPACE_ID + "::" + conversationId;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
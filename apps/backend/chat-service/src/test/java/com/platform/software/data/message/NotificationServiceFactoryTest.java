@@ -0,0 +1,81 @@
+package com.platform.software.data.message;
+
+import com.platform.software.chat.notification.dto.NotificationRequestDTO;
+import com.platform.software.chat.notification.service.NotificationService;
+import com.platform.software.chat.notification.service.NotificationServiceFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the synchronous push delivery used by the message outbox against recording stand-in providers.
+ */
+public class NotificationServiceFactoryTest {
+
+    private static final String EXPO_TOKEN = "ExponentPushToken[device]";
+    private static final String FIREBASE_TOKEN = "firebase-device";
+
+    @Test
+    void test_deliver_sendsEveryTokenToItsProvider() throws Exception {
+        RecordingNotificationService expo = new RecordingNotificationService(true, null);
+        RecordingNotificationService firebase = new RecordingNotificationService(false, null);
+        NotificationServiceFactory factory = new NotificationServiceFactory(List.of(expo, firebase));
+
+        factory.deliverNotification(request(EXPO_TOKEN, FIREBASE_TOKEN));
+
+        assertEquals(List.of(EXPO_TOKEN), expo.deliveredTokens);
+        assertEquals(List.of(FIREBASE_TOKEN), firebase.deliveredTokens);
+    }
+
+    @Test
+    void test_deliver_failureOfProvider_isThrownAfterTryingTheOthers() {
+        IllegalStateException outage = new IllegalStateException("push provider unavailable");
+        RecordingNotificationService expo = new RecordingNotificationService(true, outage);
+        RecordingNotificationService firebase = new RecordingNotificationService(false, null);
+        NotificationServiceFactory factory = new NotificationServiceFactory(List.of(expo, firebase));
+
+        Exception thrown = assertThrows(Exception.class, () -> factory.deliverNotification(request(EXPO_TOKEN, FIREBASE_TOKEN)));
+
+        assertSame(outage, thrown, "the outbox should see the failure to retry the row");
+        assertEquals(List.of(FIREBASE_TOKEN), firebase.deliveredTokens);
+    }
+
+    private static NotificationRequestDTO request(String... tokens) {
+        return new NotificationRequestDTO(List.of(tokens), "title", "body", Map.of());
+    }
+
+    private static class RecordingNotificationService implements NotificationService {
+        private final boolean expoTokens;
+        private final RuntimeException failure;
+        private final List<String> deliveredTokens = new ArrayList<>();
+
+        RecordingNotificationService(boolean expoTokens, RuntimeException failure) {
+            this.expoTokens = expoTokens;
+            this.failure = failure;
+        }
+
+        @Override
+        public void sendNotification(NotificationRequestDTO request) {
+            throw new UnsupportedOperationException("the outbox delivers notifications synchronously");
+        }
+
+        @Override
+        public void deliverNotification(NotificationRequestDTO request) {
+            if (failure != null) {
+                throw failure;
+            }
+            deliveredTokens.addAll(request.tokens());
+        }
+
+        @Override
+        public boolean supports(String token) {
+            return token.startsWith("ExponentPushToken[") == expoTokens;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.platform.software.data.ratelimit;
+
+import com.platform.software.config.ratelimit.LocalTokenBucketRateLimiter;
+import com.platform.software.config.ratelimit.RateLimitRouteClass;
+import com.platform.software.config.ratelimit.RedisSlidingWindowRateLimiter;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the in-process limiter on a hand-moved clock, and the redis limiter against a redis connection that is never
+ * started.
+ */
+public class RateLimiterTest {
+
+    private static final Map<RateLimitRouteClass, Integer> LIMITS = Map.of(
+            RateLimitRouteClass.READ, 2,
+            RateLimitRouteClass.WRITE, 1,
+            RateLimitRouteClass.SEARCH, 1
+    );
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void test_local_limitsEachKeyAndRouteClassSeparately() {
+        LocalTokenBucketRateLimiter rateLimiter = new LocalTokenBucketRateLimiter(LIMITS, 10, clock::get);
+
+        assertTrue(rateLimiter.tryAcquire("first", RateLimitRouteClass.READ));
+        assertTrue(rateLimiter.tryAcquire("first", RateLimitRouteClass.READ));
+        assertFalse(rateLimiter.tryAcquire("first", RateLimitRouteClass.READ));
+
+        assertTrue(rateLimiter.tryAcquire("first", RateLimitRouteClass.WRITE));
+        assertTrue(rateLimiter.tryAcquire("second", RateLimitRouteClass.READ));
+    }
+
+    @Test
+    void test_local_refillsAtTheLimitPerMinute() {
+        LocalTokenBucketRateLimiter rateLimiter = new LocalTokenBucketRateLimiter(LIMITS, 10, clock::get);
+        rateLimiter.tryAcquire("first", RateLimitRouteClass.READ);
+        rateLimiter.tryAcquire("first", RateLimitRouteClass.READ);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        assertTrue(rateLimiter.tryAcquire("first", RateLimitRouteClass.READ), "half a minute refills one of two requests");
+        assertFalse(rateLimiter.tryAcquire("first", RateLimitRouteClass.READ));
+    }
+
+    @Test
+    void test_local_sweep_dropsOnlyIdleBuckets() {
+        LocalTokenBucketRateLimiter rateLimiter = new LocalTokenBucketRateLimiter(LIMITS, 1, clock::get);
+        rateLimiter.tryAcquire("idle", RateLimitRouteClass.READ);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(50));
+        assertTrue(rateLimiter.tryAcquire("active", RateLimitRouteClass.READ));
+        assertTrue(rateLimiter.tryAcquire("active", RateLimitRouteClass.READ));
+
+        // past the idle timeout of the first bucket only, which runs the sweep
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        assertFalse(rateLimiter.tryAcquire("active", RateLimitRouteClass.READ), "the active bucket keeps its requests");
+        assertEquals(1, rateLimiter.size());
+
+        assertTrue(rateLimiter.tryAcquire("idle", RateLimitRouteClass.READ), "a dropped bucket starts full");
+        assertTrue(rateLimiter.tryAcquire("idle", RateLimitRouteClass.READ));
+    }
+
+    @Test
+    void test_redis_unreachable_limitsLocally() {
+        LocalTokenBucketRateLimiter fallback = new LocalTokenBucketRateLimiter(LIMITS, 10, clock::get);
+        RedisSlidingWindowRateLimiter rateLimiter = new RedisSlidingWindowRateLimiter(new LettuceConnectionFactory(), LIMITS, fallback);
+
+        assertTrue(rateLimiter.tryAcquire("first", RateLimitRouteClass.WRITE));
+        assertFalse(rateLimiter.tryAcquire("first", RateLimitRouteClass.WRITE));
+        assertEquals(1, fallback.size());
+    }
+}
@@ -0,0 +1,179 @@
+package com.platform.software.data.user;
+
+import com.platform.software.SharedRedisContainer;
+import com.platform.software.chat.user.dto.UserBlockPairDTO;
+import com.platform.software.chat.user.repository.UserBlockRepository;
+import com.platform.software.chat.user.service.UserBlockCache;
+import com.platform.software.config.workspace.WorkspaceContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.testcontainers.containers.GenericContainer;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two block caches, as two nodes of the service would, against the shared redis container and a stand-in
+ * repository holding the blocks of the workspace.
+ */
+public class UserBlockCacheTest {
+
+    private static final Long ALICE = 1L;
+    private static final Long BOB = 2L;
+    private static final Long CAROL = 3L;
+
+    // a workspace of its own, so versions left in the shared container by other runs do not matter
+    private final String workspaceId = "block-cache-" + UUID.randomUUID();
+
+    private final List<UserBlockPairDTO> blockPairs = new CopyOnWriteArrayList<>();
+    private final AtomicInteger graphLoads = new AtomicInteger();
+    private final AtomicInteger databaseChecks = new AtomicInteger();
+
+    private LettuceConnectionFactory connectionFactory;
+    private UserBlockRepository userBlockRepository;
+
+    private UserBlockCache nodeA;
+    private UserBlockCache nodeB;
+
+    @BeforeEach
+    void setUp() {
+        userBlockRepository = (UserBlockRepository) Proxy.newProxyInstance(
+                UserBlockRepository.class.getClassLoader(),
+                new Class<?>[]{UserBlockRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAllBlockPairs" -> {
+                        graphLoads.incrementAndGet();
+                        yield List.copyOf(blockPairs);
+                    }
+                    case "existsByBlockerIdAndBlockedId" -> {
+                        databaseChecks.incrementAndGet();
+                        yield blockPairs.contains(new UserBlockPairDTO((Long) args[0], (Long) args[1]));
+                    }
+                    case "findRestrictedUserIds" -> {
+                        databaseChecks.incrementAndGet();
+                        yield restrictedUserIds((Long) args[0]);
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                }
+        );
+
+        GenericContainer<?> redisContainer = SharedRedisContainer.getInstance();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisContainer.getHost(), redisContainer.getMappedPort(6379))
+        );
+        connectionFactory.afterPropertiesSet();
+
+        nodeA = newBlockCache(connectionFactory);
+        nodeB = newBlockCache(connectionFactory);
+        WorkspaceContext.setCurrentWorkspace(workspaceId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        WorkspaceContext.clear();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void test_block_isSeenInBothDirectionsOnEveryNode() {
+        assertFalse(nodeA.isBlockedBetween(ALICE, BOB));
+        assertFalse(nodeB.isBlockedBetween(ALICE, BOB));
+
+        block(nodeA, ALICE, BOB);
+
+        assertTrue(nodeA.isBlockedBetween(ALICE, BOB));
+        assertTrue(nodeA.isBlockedBetween(BOB, ALICE));
+        assertTrue(nodeB.isBlockedBetween(BOB, ALICE), "the other node reloads once the version moved");
+        assertFalse(nodeB.isBlockedBetween(ALICE, CAROL));
+        assertEquals(Set.of(BOB), nodeB.getRestrictedUserIds(ALICE));
+        assertEquals(0, databaseChecks.get());
+    }
+
+    @Test
+    void test_unblock_isSeenOnEveryNode() {
+        block(nodeA, ALICE, BOB);
+        block(nodeA, CAROL, ALICE);
+        assertEquals(Set.of(BOB, CAROL), nodeB.getRestrictedUserIds(ALICE));
+
+        blockPairs.remove(new UserBlockPairDTO(ALICE, BOB));
+        nodeA.invalidate();
+
+        assertFalse(nodeB.isBlockedBetween(ALICE, BOB));
+        assertEquals(Set.of(CAROL), nodeB.getRestrictedUserIds(ALICE));
+        assertEquals(Set.of(), nodeA.getRestrictedUserIds(BOB));
+    }
+
+    @Test
+    void test_graph_isReloadedOnlyWhenVersionMoved() {
+        nodeA.isBlockedBetween(ALICE, BOB);
+        nodeA.getRestrictedUserIds(ALICE);
+        assertEquals(1, graphLoads.get(), "checks at the same version share one graph");
+
+        // a block written without going through the cache is not seen until the version moves
+        blockPairs.add(new UserBlockPairDTO(ALICE, BOB));
+        assertFalse(nodeA.isBlockedBetween(ALICE, BOB));
+
+        nodeB.invalidate();
+
+        assertTrue(nodeA.isBlockedBetween(ALICE, BOB));
+        assertEquals(2, graphLoads.get());
+    }
+
+    @Test
+    void test_versionOfOtherWorkspace_keepsGraph() {
+        nodeA.isBlockedBetween(ALICE, BOB);
+
+        WorkspaceContext.setCurrentWorkspace(workspaceId + "-other");
+        nodeB.invalidate();
+        WorkspaceContext.setCurrentWorkspace(workspaceId);
+
+        nodeA.isBlockedBetween(ALICE, BOB);
+        assertEquals(1, graphLoads.get());
+    }
+
+    @Test
+    void test_redisUnreachable_checksDatabase() {
+        UserBlockCache blockCache = newBlockCache(new LettuceConnectionFactory());
+        blockPairs.add(new UserBlockPairDTO(ALICE, BOB));
+
+        assertTrue(blockCache.isBlockedBetween(BOB, ALICE));
+        assertEquals(Set.of(BOB), blockCache.getRestrictedUserIds(ALICE));
+        assertEquals(0, graphLoads.get(), "no graph is trusted without its version");
+    }
+
+    private UserBlockCache newBlockCache(RedisConnectionFactory redisConnectionFactory) {
+        return new UserBlockCache(userBlockRepository, redisConnectionFactory, new SimpleMeterRegistry(), true, 10, 60);
+    }
+
+    // what blocking through the user service does: write the block, then move the version
+    private void block(UserBlockCache blockCache, Long blockerId, Long blockedId) {
+        blockPairs.add(new UserBlockPairDTO(blockerId, blockedId));
+        blockCache.invalidate();
+    }
+
+    private Set<Long> restrictedUserIds(Long userId) {
+        Set<Long> userIds = new HashSet<>();
+        for (UserBlockPairDTO blockPair : blockPairs) {
+            if (blockPair.blockerId().equals(userId)) {
+                userIds.add(blockPair.blockedId());
+            } else if (blockPair.blockedId().equals(userId)) {
+                userIds.add(blockPair.blockerId());
+            }
+        }
+        return userIds;
+    }
+}
@@ -0,0 +1,99 @@
+package com.platform.software.data.websocket;
+
+import com.platform.software.chat.user.activitystatus.dto.ActivityStatusEvent;
+import com.platform.software.chat.user.activitystatus.dto.UserStatusEnum;
+import com.platform.software.chat.user.activitystatus.service.PresenceBroadcaster;
+import com.platform.software.chat.user.activitystatus.service.UserActivityStatusWSService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the coalescing broadcaster against a recording stand-in for the WebSocket sends, flushing by hand.
+ */
+public class PresenceBroadcasterTest {
+
+    private static final String WORKSPACE_ID = "localhost";
+
+    private final List<List<ActivityStatusEvent>> sentBatches = new ArrayList<>();
+    private volatile boolean failSends;
+
+    private PresenceBroadcaster presenceBroadcaster;
+
+    @BeforeEach
+    void setUp() {
+        UserActivityStatusWSService recordingWSService = new UserActivityStatusWSService(null, null, null) {
+            @Override
+            public int invokeUserActivityStatuses(String workspaceId, Collection<ActivityStatusEvent> events) {
+                if (failSends) {
+                    throw new IllegalStateException("broker unavailable");
+                }
+                sentBatches.add(List.copyOf(events));
+                return events.size();
+            }
+        };
+        // a window long enough that only the test flushes
+        presenceBroadcaster = new PresenceBroadcaster(recordingWSService, new SimpleMeterRegistry(), 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        presenceBroadcaster.cleanup();
+    }
+
+    @Test
+    void test_changesWithinWindow_areCoalescedToLatestPerUser() {
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.ONLINE));
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.BUSY));
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.AWAY));
+        presenceBroadcaster.publish(event("second@example.com", UserStatusEnum.ONLINE));
+
+        presenceBroadcaster.flush();
+
+        assertEquals(1, sentBatches.size(), "the changes of a workspace should go out in one batch");
+        List<ActivityStatusEvent> batch = sentBatches.getFirst();
+        assertEquals(2, batch.size());
+        assertTrue(batch.contains(event("first@example.com", UserStatusEnum.AWAY)), "only the latest status is kept");
+        assertTrue(batch.contains(event("second@example.com", UserStatusEnum.ONLINE)));
+    }
+
+    @Test
+    void test_statusEqualToLastBroadcast_isNotSentAgain() {
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.ONLINE));
+        presenceBroadcaster.flush();
+
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.ONLINE));
+        presenceBroadcaster.flush();
+        assertEquals(1, sentBatches.size(), "an unchanged status should be dropped");
+
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.BUSY));
+        presenceBroadcaster.flush();
+        assertEquals(List.of(event("first@example.com", UserStatusEnum.BUSY)), sentBatches.getLast());
+    }
+
+    @Test
+    void test_failedBroadcast_isNotRecordedAsSent() {
+        failSends = true;
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.ONLINE));
+        presenceBroadcaster.flush();
+
+        failSends = false;
+        presenceBroadcaster.publish(event("first@example.com", UserStatusEnum.ONLINE));
+        presenceBroadcaster.flush();
+
+        assertEquals(List.of(List.of(event("first@example.com", UserStatusEnum.ONLINE))), sentBatches,
+                "a status that failed to go out should be sent when it comes again");
+    }
+
+    private static ActivityStatusEvent event(String email, UserStatusEnum status) {
+        return new ActivityStatusEvent(WORKSPACE_ID, email, status, "WEB");
+    }
+}
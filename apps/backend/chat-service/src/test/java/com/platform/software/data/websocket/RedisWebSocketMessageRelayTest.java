@@ -0,0 +1,175 @@
+package com.platform.software.data.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.platform.software.SharedRedisContainer;
+import com.platform.software.config.interceptors.websocket.relay.RedisWebSocketMessageRelay;
+import com.platform.software.config.interceptors.websocket.relay.WebSocketRelayMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs two relay instances, as two nodes of the service would, against the shared redis container.
+ */
+public class RedisWebSocketMessageRelayTest {
+
+    private static final Duration DIRECTORY_TTL = Duration.ofSeconds(2);
+
+    private final String userPrinciple = "localhost:" + UUID.randomUUID() + "%40example.com";
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    private RedisWebSocketMessageRelay nodeA;
+    private RedisWebSocketMessageRelay nodeB;
+    private final BlockingQueue<WebSocketRelayMessage> deliveredOnA = new LinkedBlockingQueue<>();
+    private final BlockingQueue<WebSocketRelayMessage> deliveredOnB = new LinkedBlockingQueue<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        GenericContainer<?> redisContainer = SharedRedisContainer.getInstance();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisContainer.getHost(), redisContainer.getMappedPort(6379))
+        );
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+
+        nodeA = startNode("node-a-" + UUID.randomUUID(), deliveredOnA);
+        nodeB = startNode("node-b-" + UUID.randomUUID(), deliveredOnB);
+        awaitSubscribed();
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.cleanup();
+        nodeB.cleanup();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void test_messageToUserOnOtherNode_isRelayedToThatNodeOnly() throws Exception {
+        nodeB.userConnected(userPrinciple);
+
+        nodeA.relayToUser(userPrinciple, "/topic/message-received", Map.of("messageText", "hello"));
+
+        WebSocketRelayMessage relayed = deliveredOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(relayed, "the node holding the user's session should receive the message");
+        assertEquals(userPrinciple, relayed.userPrinciple());
+        assertEquals("/topic/message-received", relayed.path());
+        assertEquals("{\"messageText\":\"hello\"}", relayed.payload());
+        assertNull(deliveredOnA.poll(300, TimeUnit.MILLISECONDS), "the publishing node delivers through its local broker");
+    }
+
+    @Test
+    void test_messageToUserOnSameNode_isNotPublished() throws Exception {
+        nodeA.userConnected(userPrinciple);
+
+        nodeA.relayToUser(userPrinciple, "/topic/message-received", "{}");
+
+        assertNull(deliveredOnB.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void test_broadcast_reachesOtherNode() throws Exception {
+        nodeA.relayToEveryInstance("/topic/announcement", "{}");
+
+        WebSocketRelayMessage relayed = deliveredOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(relayed);
+        assertNull(relayed.userPrinciple());
+    }
+
+    @Test
+    void test_disconnectedUser_isNoLongerRelayed() throws Exception {
+        nodeB.userConnected(userPrinciple);
+        nodeB.userDisconnected(userPrinciple);
+
+        nodeA.relayToUser(userPrinciple, "/topic/message-received", "{}");
+
+        assertNull(deliveredOnB.poll(300, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void test_heartbeat_keepsLongLivedConnectionInDirectory() throws Exception {
+        nodeB.userConnected(userPrinciple);
+
+        Thread.sleep(DIRECTORY_TTL.toMillis() * 2);
+
+        assertTrue(Boolean.TRUE.equals(redisTemplate.hasKey("ws:directory:" + userPrinciple)),
+                "the directory entry should outlive its ttl while the user stays connected");
+        nodeA.relayToUser(userPrinciple, "/topic/message-received", "{}");
+        assertNotNull(deliveredOnB.poll(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void test_heartbeat_registersUserDroppedByRacingDisconnect() throws Exception {
+        nodeB.setLocalUserPrinciplesSource(() -> Set.of(userPrinciple));
+        nodeB.userConnected(userPrinciple);
+        // the disconnect of another device, deciding the user had no session left before this connect was indexed
+        nodeB.userDisconnected(userPrinciple);
+
+        nodeB.refreshDirectory();
+
+        nodeA.relayToUser(userPrinciple, "/topic/message-received", "{}");
+        assertNotNull(deliveredOnB.poll(5, TimeUnit.SECONDS),
+                "the heartbeat should register the user again while the user still has sessions");
+    }
+
+    @Test
+    void test_entryOfDeadNode_expiresWithoutHeartbeat() throws Exception {
+        nodeB.userConnected(userPrinciple);
+        String directoryKey = "ws:directory:" + userPrinciple;
+        // a node that died without cleaning up leaves its id in the entry
+        redisTemplate.opsForSet().add(directoryKey, "node-gone");
+
+        nodeB.userDisconnected(userPrinciple);
+        Thread.sleep(DIRECTORY_TTL.toMillis() + 500);
+
+        assertEquals(Boolean.FALSE, redisTemplate.hasKey(directoryKey));
+    }
+
+    private RedisWebSocketMessageRelay startNode(String nodeId, BlockingQueue<WebSocketRelayMessage> delivered) {
+        RedisWebSocketMessageRelay relay = new RedisWebSocketMessageRelay(
+                nodeId, connectionFactory, new ObjectMapper(), new SimpleMeterRegistry(), DIRECTORY_TTL
+        );
+        relay.setLocalDeliveryHandler(delivered::add);
+        relay.init();
+        return relay;
+    }
+
+    /**
+     * Subscriptions complete asynchronously, so broadcast until both nodes receive before running the test.
+     */
+    private void awaitSubscribed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        boolean aSubscribed = false;
+        boolean bSubscribed = false;
+        while (!(aSubscribed && bSubscribed) && System.currentTimeMillis() < deadline) {
+            nodeA.relayToEveryInstance("/topic/ready", "{}");
+            nodeB.relayToEveryInstance("/topic/ready", "{}");
+            aSubscribed |= deliveredOnA.poll(100, TimeUnit.MILLISECONDS) != null;
+            bSubscribed |= deliveredOnB.poll(100, TimeUnit.MILLISECONDS) != null;
+        }
+        assertTrue(aSubscribed && bSubscribed, "both relay nodes should subscribe within 5 seconds");
+        Thread.sleep(200);
+        deliveredOnA.clear();
+        deliveredOnB.clear();
+    }
+}
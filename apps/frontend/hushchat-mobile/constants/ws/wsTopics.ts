@@ -15,6 +15,7 @@ export const WS_TOPICS = {
   },
   user: {
     onlineStatus: "/topic/online-status/",
+    onlineStatusBatch: "/topic/online-status-batch/",
   },
 } as const;
 
@@ -27,6 +28,7 @@ export type WSTopic = {
 export const TOPICS = [
   { destination: WS_TOPICS.message.received, id: "sub-message-received" },
   { destination: WS_TOPICS.user.onlineStatus, id: "sub-online-status" },
+  { destination: WS_TOPICS.user.onlineStatusBatch, id: "sub-online-status-batch" },
   { destination: WS_TOPICS.conversation.created, id: "sub-conversation-created" },
   { destination: WS_TOPICS.message.unsent, id: "sub-message-unsent" },
   { destination: WS_TOPICS.message.react, id: "sub-message-reaction" },
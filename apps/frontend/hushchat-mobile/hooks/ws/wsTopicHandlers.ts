@@ -43,6 +43,11 @@ export const WS_TOPIC_HANDLERS: Record<WSTopic, TopicHandler> = {
     emitUserStatus(status);
   },
 
+  [WS_TOPICS.user.onlineStatusBatch]: (body) => {
+    const statuses = JSON.parse(body) as IUserStatus[];
+    statuses.forEach((status) => emitUserStatus(status));
+  },
+
   [WS_TOPICS.conversation.created]: (body) => {
     const conversation = JSON.parse(body) as IConversation;
     emitConversationCreated(conversation);